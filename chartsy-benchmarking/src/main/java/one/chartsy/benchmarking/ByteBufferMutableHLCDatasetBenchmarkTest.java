@@ -4,6 +4,7 @@ package one.chartsy.benchmarking;
 
 import one.chartsy.data.Dataset;
 import one.chartsy.data.packed.ByteBufferMutableHLCDataset;
+import one.chartsy.data.packed.SegmentedHLCDataset;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -25,6 +26,7 @@ public class ByteBufferMutableHLCDatasetBenchmarkTest {
     FileChannel fileChannel;
     ThreadLocalRandom rnd = ThreadLocalRandom.current();
     ByteBufferMutableHLCDataset dataset;
+    SegmentedHLCDataset segmentedDataset;
     List<Object> list = new ArrayList<>();
     long time;
 
@@ -40,6 +42,16 @@ public class ByteBufferMutableHLCDatasetBenchmarkTest {
         return dataset;
     }
 
+    @Benchmark
+    @Warmup(iterations = 10, batchSize = 10_000)
+    @Measurement(iterations = 10, batchSize = 10_000)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Dataset<?> segmentedDatasetAppend() {
+        segmentedDataset.add(time++, rnd.nextDouble());
+        return segmentedDataset;
+    }
+
 //    @Benchmark
 //    @Warmup(iterations = 10, batchSize = 10_000_000)
 //    @Measurement(iterations = 10, batchSize = 10_000_000)
@@ -65,6 +77,7 @@ public class ByteBufferMutableHLCDatasetBenchmarkTest {
 //        this.dataset = new ByteBufferMutableHLCDataset(mappedByteBuffer);
         //this.dataset = new ByteBufferMutableHLCDataset(ByteBuffer.allocateDirect(320_000));
         this.dataset = new ByteBufferMutableHLCDataset(ByteBuffer.allocate(256), 1L);
+        this.segmentedDataset = new SegmentedHLCDataset();
         this.list.clear();
         this.time = 0;
     }
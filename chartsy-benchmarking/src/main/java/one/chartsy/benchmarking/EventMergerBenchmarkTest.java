@@ -0,0 +1,109 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.benchmarking;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.data.ChronologicalIterator;
+import one.chartsy.data.Series;
+import one.chartsy.data.structures.IntMap;
+import one.chartsy.data.structures.PriorityMap;
+import one.chartsy.simulation.data.EventMerger;
+import one.chartsy.simulation.data.SimulationData;
+import one.chartsy.time.Chronological;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the event throughput of the {@link PriorityMap}-based merge loop with the primitive
+ * {@link EventMerger} for a varying number of simulated series.
+ */
+@State(Scope.Thread)
+public class EventMergerBenchmarkTest {
+
+    static final int EVENT_COUNT = 1_000_000;
+
+    @Param({"1", "10", "1000"})
+    int seriesCount;
+
+    @Param({"false", "true"})
+    boolean aligned;
+
+    IntMap<Series<?>> seriesMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int length = EVENT_COUNT / seriesCount;
+        List<Series<?>> seriesList = new ArrayList<>(seriesCount);
+        for (int k = 0; k < seriesCount; k++) {
+            long time = aligned? 0L : rnd.nextInt(60_000_000);
+            List<Candle> candles = new ArrayList<>(length);
+            for (int i = 0; i < length; i++)
+                candles.add(Candle.of(time += 60_000_000L, 100.0 + i));
+            seriesList.add(CandleSeries.of(SymbolResource.of("S" + k, TimeFrame.Period.M1), candles));
+        }
+        seriesMap = SimulationData.seriesMap(seriesList);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @OperationsPerInvocation(EVENT_COUNT)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @BenchmarkMode(Mode.Throughput)
+    public long priorityMap() {
+        PriorityMap<Chronological, ChronologicalIterator<?>> map = SimulationData.priorityMap(seriesMap);
+        long checksum = 0;
+        while (!map.isEmpty()) {
+            Chronological event = map.peekKey();
+            ChronologicalIterator<?> when = map.remove();
+            when.next();
+            checksum += event.getTime();
+            if (when.hasNext())
+                map.put(when.peek(), when);
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @OperationsPerInvocation(EVENT_COUNT)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @BenchmarkMode(Mode.Throughput)
+    public long eventMerger() {
+        EventMerger events = EventMerger.of(seriesMap);
+        long checksum = 0;
+        while (!events.isEmpty()) {
+            ChronologicalIterator<?> when = events.peek();
+            Chronological event = when.peek();
+            when.next();
+            checksum += event.getTime();
+            events.update();
+        }
+        return checksum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(EventMergerBenchmarkTest.class.getName() + ".*")
+                .threads(1)
+                .forks(1)
+                .shouldFailOnError(true)
+                .shouldDoGC(true)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,129 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.benchmarking;
+
+import one.chartsy.TimeFrame;
+import one.chartsy.data.SimpleCandle;
+import one.chartsy.data.packed.PackedCandleDataset;
+import one.chartsy.data.provider.file.ExecutionContext;
+import one.chartsy.data.provider.file.FlatFileFormat;
+import one.chartsy.data.provider.file.FlatFileItemReader;
+import one.chartsy.data.provider.file.SimpleCandleLineMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code String}-based {@link SimpleCandleLineMapper} with the byte-level parser on
+ * the synthetic Stooq and HistData flat files.
+ */
+@State(Scope.Thread)
+public class FlatFileParserBenchmarkTest {
+
+    @Param({"STOOQ", "HISTDATA_ASCII"})
+    String format;
+
+    static final int LINE_COUNT = 1_000_000;
+
+    FlatFileFormat fileFormat;
+    SimpleCandleLineMapper.Type lineMapperType;
+    ExecutionContext context;
+    byte[] content;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fileFormat = format.equals("STOOQ")? FlatFileFormat.STOOQ : FlatFileFormat.HISTDATA_ASCII;
+        lineMapperType = (SimpleCandleLineMapper.Type) fileFormat.getLineMapper();
+        context = new ExecutionContext();
+        context.put("TimeFrame", TimeFrame.Period.M1);
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        StringBuilder buf = new StringBuilder(LINE_COUNT * 64);
+        if (fileFormat.getSkipFirstLines() > 0)
+            buf.append("<TICKER>,<PER>,<DATE>,<TIME>,<OPEN>,<HIGH>,<LOW>,<CLOSE>,<VOL>,<OPENINT>\n");
+
+        DateTimeFormatter date = DateTimeFormatter.ofPattern("yyyyMMdd"), time = DateTimeFormatter.ofPattern("HHmmss");
+        LocalDateTime dateTime = LocalDateTime.of(2000, 1, 1, 0, 0);
+        double price = 100.0;
+        for (int i = 0; i < LINE_COUNT; i++) {
+            double open = price, close = price + rnd.nextGaussian() * 0.1;
+            double high = Math.max(open, close) + rnd.nextDouble() * 0.05, low = Math.min(open, close) - rnd.nextDouble() * 0.05;
+            if (format.equals("STOOQ"))
+                buf.append("EURUSD,1,").append(date.format(dateTime)).append(',').append(time.format(dateTime))
+                        .append(String.format(Locale.ROOT, ",%.5f,%.5f,%.5f,%.5f,%d,0%n", open, high, low, close, rnd.nextInt(1000)));
+            else
+                buf.append(date.format(dateTime)).append(' ').append(time.format(dateTime))
+                        .append(String.format(Locale.ROOT, ";%.6f;%.6f;%.6f;%.6f;0%n", open, high, low, close));
+            dateTime = dateTime.plusMinutes(1);
+            price = close;
+        }
+        content = buf.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public List<SimpleCandle> lineMapper() throws IOException {
+        FlatFileItemReader<SimpleCandle> itemReader = new FlatFileItemReader<>();
+        itemReader.setLineMapper(lineMapperType.createLineMapper(context));
+        itemReader.setLinesToSkip(fileFormat.getSkipFirstLines());
+        itemReader.setInputStreamSource(() -> new ByteArrayInputStream(content));
+        try {
+            itemReader.open();
+            return itemReader.readAll();
+        } finally {
+            itemReader.close();
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public PackedCandleDataset byteParser() throws IOException {
+        var builder = PackedCandleDataset.builder();
+        lineMapperType.createByteParser(context)
+                .parse(new ByteArrayInputStream(content), fileFormat.getSkipFirstLines(), builder);
+        return builder.build();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long byteParserOnly() throws IOException {
+        long[] checksum = new long[1];
+        lineMapperType.createByteParser(context)
+                .parse(new ByteArrayInputStream(content), fileFormat.getSkipFirstLines(),
+                        (time, open, high, low, close, volume, count) -> checksum[0] += time);
+        return checksum[0];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FlatFileParserBenchmarkTest.class.getName() + ".*")
+                .threads(1)
+                .forks(1)
+                .shouldFailOnError(true)
+                .shouldDoGC(true)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
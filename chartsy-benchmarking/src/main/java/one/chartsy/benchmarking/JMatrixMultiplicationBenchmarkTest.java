@@ -0,0 +1,159 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.benchmarking;
+
+import one.chartsy.smile.math.matrix.JMatrix;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocked {@link JMatrix} multiplication kernels with the plain triple loops they
+ * replaced, for the square matrices of a varying size.
+ */
+@State(Scope.Thread)
+public class JMatrixMultiplicationBenchmarkTest {
+
+    @Param({"100", "500", "1000", "2000", "4000"})
+    int size;
+
+    JMatrix a, b;
+    double[] x, y;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(1L);
+        double[][] values = new double[size][size];
+        for (double[] row : values)
+            for (int j = 0; j < size; j++)
+                row[j] = rnd.nextGaussian();
+        a = new JMatrix(values);
+        b = a.transpose();
+        x = rnd.doubles(size).toArray();
+        y = new double[size];
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public JMatrix abmm() {
+        return a.abmm(b);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public JMatrix abmmNaive() {
+        int m = a.nrows(), n = b.ncols(), p = a.ncols();
+        JMatrix c = new JMatrix(m, n);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double v = 0.0;
+                for (int k = 0; k < p; k++)
+                    v += a.get(i, k) * b.get(k, j);
+                c.set(i, j, v);
+            }
+        }
+        return c;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public JMatrix abtmm() {
+        return a.abtmm(b);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public JMatrix abtmmNaive() {
+        int m = a.nrows(), n = b.nrows(), p = a.ncols();
+        JMatrix c = new JMatrix(m, n);
+        for (int k = 0; k < p; k++)
+            for (int i = 0; i < m; i++)
+                for (int j = 0; j < n; j++)
+                    c.add(i, j, a.get(i, k) * b.get(j, k));
+        return c;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public JMatrix atbmm() {
+        return a.atbmm(b);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public JMatrix atbmmNaive() {
+        int m = a.ncols(), n = b.ncols(), p = a.nrows();
+        JMatrix c = new JMatrix(m, n);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double v = 0.0;
+                for (int k = 0; k < p; k++)
+                    v += a.get(k, i) * b.get(k, j);
+                c.set(i, j, v);
+            }
+        }
+        return c;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public JMatrix ata() {
+        return a.ata();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public double[] ax() {
+        return a.ax(x, y);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public double[] atx() {
+        return a.atx(x, y);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(JMatrixMultiplicationBenchmarkTest.class.getName() + ".*")
+                .threads(1)
+                .forks(1)
+                .shouldFailOnError(true)
+                .shouldDoGC(true)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
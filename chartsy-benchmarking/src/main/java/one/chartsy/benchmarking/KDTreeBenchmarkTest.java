@@ -0,0 +1,94 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.benchmarking;
+
+import one.chartsy.smile.data.FeatureMatrix;
+import one.chartsy.smile.neighbor.FlatKDTree;
+import one.chartsy.smile.neighbor.KDTree;
+import one.chartsy.smile.neighbor.Neighbor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the one-at-a-time k-nearest neighbor queries on the pointer-based {@link KDTree} with
+ * the batch queries on the {@link FlatKDTree}.
+ */
+@State(Scope.Thread)
+public class KDTreeBenchmarkTest {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"4", "8"})
+    int dimension;
+
+    @Param({"10"})
+    int k;
+
+    static final int QUERIES = 10_000;
+
+    KDTree<double[]> kdTree;
+    FlatKDTree<double[]> flatTree;
+    double[][] queries;
+    int[] index;
+    double[] distance;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(1L);
+        FeatureMatrix points = new FeatureMatrix(size, dimension);
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < dimension; j++)
+                points.set(i, j, rnd.nextGaussian());
+        kdTree = new KDTree<>(points, null);
+        flatTree = new FlatKDTree<>(points, null);
+
+        queries = new double[QUERIES][dimension];
+        for (double[] q : queries)
+            for (int j = 0; j < dimension; j++)
+                q[j] = rnd.nextGaussian();
+        index = new int[QUERIES * k];
+        distance = new double[QUERIES * k];
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void kdTreeKnn(Blackhole bh) {
+        for (double[] q : queries) {
+            Neighbor<double[], double[]>[] neighbors = kdTree.knn(q, k);
+            bh.consume(neighbors);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public int[] flatTreeBatchKnn() {
+        flatTree.knn(queries, k, index, distance);
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(KDTreeBenchmarkTest.class.getName() + ".*")
+                .threads(1)
+                .forks(1)
+                .shouldFailOnError(true)
+                .shouldDoGC(true)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
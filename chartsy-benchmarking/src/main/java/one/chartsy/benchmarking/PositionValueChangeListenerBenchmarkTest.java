@@ -11,6 +11,7 @@ import one.chartsy.trade.data.Position;
 import one.chartsy.trade.event.PositionValueChangeListener;
 import one.chartsy.trade.strategy.SimulatorOptions;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -22,14 +23,24 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 // Beware that it's pretty-much DRAFT only.
+/**
+ * Compares the reflective proxy dispatch of the {@link ListenerList} with the typed dispatch of the
+ * list created with a {@link one.chartsy.core.event.Multicaster}. Run with the {@link GCProfiler}, the
+ * {@code gc.alloc.rate.norm} of the typed dispatch shows that no memory is allocated per event,
+ * unlike the proxy boxing the arguments of each call.
+ */
 @State(Scope.Thread)
 public class PositionValueChangeListenerBenchmarkTest {
 
+    @Param({"1", "2", "4"})
+    int listenerCount;
+
     ThreadLocalRandom rnd = ThreadLocalRandom.current();
     long time = 0;
     Account account = new SimulationAccount(SimulatorOptions.builder().build());
     Position[] positions = new Position[10];
     ListenerList<PositionValueChangeListener> listeners = ListenerList.of(PositionValueChangeListener.class);
+    ListenerList<PositionValueChangeListener> typedListeners = ListenerList.of(PositionValueChangeListener.class, PositionValueChangeListener::multicast);
 
     double positionResult = 0;
 
@@ -51,6 +62,22 @@ public class PositionValueChangeListenerBenchmarkTest {
         return positionResult;
     }
 
+    @Benchmark
+    @Warmup(time = 3)
+    @Measurement(time = 10, iterations = 10)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public double positionValueChangedTyped() {
+        Position position = positions[rnd.nextInt(positions.length)];
+        position.updateProfit(rnd.nextDouble(), time++);
+
+        if (!typedListeners.isEmpty()) {
+            typedListeners.fire().positionValueChanged(account, position);
+        }
+        count.incrementAndGet();
+        return positionResult;
+    }
+
     static AtomicLong count = new AtomicLong();
     long startNanos, startCount;
     long z;
@@ -72,7 +99,9 @@ public class PositionValueChangeListenerBenchmarkTest {
             positions[i] = new Position(1, symb, Direction.LONG, 1.0, 2.0, new Order(symb, OrderType.MARKET, Order.Side.BUY), 0.0, -1);
         }
         listeners = ListenerList.of(PositionValueChangeListener.class);
+        typedListeners = ListenerList.of(PositionValueChangeListener.class, PositionValueChangeListener::multicast);
         listeners.addListener(equityBuilder);
+        typedListeners.addListener(equityBuilder);
 //        ByteBufferMutableHLCDataset equityDS = new ByteBufferMutableHLCDataset(1L, ByteBuffer.allocate(256_000));
 //        listeners.addListener(new PositionValueChangeListener2() {
 //
@@ -86,14 +115,16 @@ public class PositionValueChangeListenerBenchmarkTest {
 //                equityDS.add(event.getTime(), event.getAccount().getEquity());
 //            }
 //        });
-        for (int i = 0; i < 1; i++) {
+        for (int i = 1; i < listenerCount; i++) {
             int k = i;
-            listeners.addListener(new PositionValueChangeListener() {
+            PositionValueChangeListener listener = new PositionValueChangeListener() {
                 @Override
                 public void positionValueChanged(Account account, Position position) {
                     positionResult += k * k/2 * position.getProfit();
                 }
-            });
+            };
+            listeners.addListener(listener);
+            typedListeners.addListener(listener);
         }
     }
 
@@ -112,6 +143,7 @@ public class PositionValueChangeListenerBenchmarkTest {
                 //.jvmArgs("-XX:+UnlockDiagnosticVMOptions", "-XX:+PrintInlining")
                 //.addProfiler(WinPerfAsmProfiler.class)
                 //.addProfiler(StackProfiler.class)
+                .addProfiler(GCProfiler.class)
                 .build();
 
         new Runner(opt).run();
@@ -0,0 +1,101 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.benchmarking;
+
+import one.chartsy.*;
+import one.chartsy.data.market.Tick;
+import one.chartsy.simulation.SimulationResult;
+import one.chartsy.simulation.engine.SimpleMatchingEngine;
+import one.chartsy.time.Chronological;
+import one.chartsy.trade.Order;
+import one.chartsy.trade.OrderContext;
+import one.chartsy.trade.OrderType;
+import one.chartsy.trade.strategy.SimulatorOptions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the native tick path of the {@link SimpleMatchingEngine}, with an open position marked to
+ * the market on every tick and the given number of resting buy limit orders laddered below the market.
+ */
+@State(Scope.Thread)
+public class TickMatchingBenchmarkTest {
+
+    @Param({"0", "200"})
+    int restingOrders;
+
+    static final SymbolIdentity SYMBOL = SymbolIdentity.of("TICKS");
+    static final When WHEN = new When() {
+        private final SymbolResource<Tick> resource = SymbolResource.of(SYMBOL, TimeFrame.TICKS, Tick.class);
+
+        @Override
+        public SymbolResource<?> getResource() {
+            return resource;
+        }
+
+        @Override
+        public Integer getId() {
+            return 0;
+        }
+
+        @Override
+        public int index() {
+            return 0;
+        }
+
+        @Override
+        public Chronological current() {
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return true;
+        }
+    };
+
+    SimpleMatchingEngine engine;
+    long time;
+    double price;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        OrderContext context = () -> "benchmark";
+        engine = new SimpleMatchingEngine(SimulatorOptions.builder().isTickMatchingEnabled(true).build(), new SimulationResult.Builder());
+        engine.submitOrder(context, new Order(SYMBOL, OrderType.MARKET, Order.Side.BUY, 1));
+        for (int i = 0; i < restingOrders; i++)
+            engine.submitOrder(context, new Order(SYMBOL, OrderType.limit(50.0 - i * 0.1), Order.Side.BUY, 1));
+        time = 0;
+        price = 100.0;
+    }
+
+    @Benchmark
+    @Warmup(time = 3)
+    @Measurement(time = 10, iterations = 5)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public double onTick() {
+        long t = ++time;
+        price += ((t * 2654435761L) & 2) == 0 ? 0.01 : -0.01;
+        engine.onTick(WHEN, t, price, 1.0, ((t & 1) == 0)? Tick.Side.BID : Tick.Side.ASK);
+        return price;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TickMatchingBenchmarkTest.class.getName() + ".*")
+                .threads(1)
+                .forks(1)
+                .shouldFailOnError(true)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -6,6 +6,7 @@ package one.chartsy.core.ml;
 
 import one.chartsy.data.Dataset;
 import one.chartsy.data.DoubleDataset;
+import one.chartsy.smile.data.FeatureMatrix;
 import one.chartsy.util.Pair;
 
 public final class Predictors {
@@ -19,6 +20,59 @@ public final class Predictors {
         return x;
     }
 
+    /**
+     * Copies the input values of the training dataset into a contiguous feature matrix, one sample
+     * per row, without materializing the individual input arrays.
+     *
+     * @param trainingDataset the training samples, all inputs of equal length
+     * @return the feature matrix
+     */
+    public static FeatureMatrix getInputMatrix(Dataset<? extends Pair<DoubleDataset, ?>> trainingDataset) {
+        int count = trainingDataset.length();
+        int features = (count == 0)? 0 : trainingDataset.get(0).getLeft().length();
+        double[] x = new double[count * features];
+        for (int i = 0, offset = 0; i < count; i++, offset += features) {
+            DoubleDataset input = trainingDataset.get(i).getLeft();
+            if (input.length() != features)
+                throw new IllegalArgumentException("Sample " + i + " has " + input.length() + " features, expected " + features);
+            for (int j = 0; j < features; j++)
+                x[offset + j] = input.get(j);
+        }
+        return FeatureMatrix.wrap(x, count, features);
+    }
+
+    /**
+     * Fills a contiguous feature matrix with the rolling windows of the given series values. The
+     * row {@code i} of the matrix is the concatenation of the {@code windowLength} values starting
+     * at the index {@code i} of each of the {@code features}, i.e. the same values that
+     * {@code features[k].subsequences(windowLength).get(i)} would give, but without creating the
+     * per-row window objects.
+     *
+     * @param windowLength the number of consecutive values taken from each feature
+     * @param features the feature values, e.g. the opens, highs, lows and closes of a candle series
+     * @return the feature matrix with {@code windowLength * features.length} columns
+     */
+    public static FeatureMatrix getWindowMatrix(int windowLength, DoubleDataset... features) {
+        if (windowLength <= 0)
+            throw new IllegalArgumentException("windowLength `" + windowLength + "` must be positive");
+
+        int length = Integer.MAX_VALUE;
+        for (DoubleDataset feature : features)
+            length = Math.min(length, feature.length());
+        int count = (features.length == 0)? 0 : Math.max(0, length - windowLength + 1);
+        int columns = windowLength * features.length;
+
+        FeatureMatrix matrix = new FeatureMatrix(count, columns);
+        double[] x = matrix.data();
+        for (int k = 0; k < features.length; k++) {
+            DoubleDataset feature = features[k];
+            for (int i = 0, offset = k * windowLength; i < count; i++, offset += columns)
+                for (int j = 0; j < windowLength; j++)
+                    x[offset + j] = feature.get(i + j);
+        }
+        return matrix;
+    }
+
     public static double[] getTargetValues(Dataset<? extends Pair<?, Double>> trainingDataset) {
         int count = trainingDataset.length();
         double[] y = new double[count];
@@ -4,13 +4,14 @@ package one.chartsy.core.ml;
 
 import one.chartsy.data.Dataset;
 import one.chartsy.data.DoubleDataset;
+import one.chartsy.smile.data.FeatureMatrix;
 import one.chartsy.smile.regression.OLS;
 import one.chartsy.util.Pair;
 
 public class SmilePredictors {
 
     public static ToDoublePredictorFunction<DoubleDataset> linearRegression(Dataset<Pair<DoubleDataset, Double>> data) {
-        double[][] x = Predictors.getInputValues(data);
+        FeatureMatrix x = Predictors.getInputMatrix(data);
         double[] y = Predictors.getTargetValues(data);
         OLS ols = new OLS(x, y, true);
         return new ToDoubleSmilePredictor<>(ols) {
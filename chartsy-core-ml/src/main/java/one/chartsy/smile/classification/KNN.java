@@ -6,12 +6,13 @@
 package one.chartsy.smile.classification;
 
 import java.util.Arrays;
+import one.chartsy.smile.data.FeatureMatrix;
 import one.chartsy.smile.math.Math;
 import one.chartsy.smile.math.distance.Distance;
 import one.chartsy.smile.math.distance.EuclideanDistance;
 import one.chartsy.smile.math.distance.Metric;
 import one.chartsy.smile.neighbor.CoverTree;
-import one.chartsy.smile.neighbor.KDTree;
+import one.chartsy.smile.neighbor.FlatKDTree;
 import one.chartsy.smile.neighbor.KNNSearch;
 import one.chartsy.smile.neighbor.LinearSearch;
 import one.chartsy.smile.neighbor.Neighbor;
@@ -221,7 +222,7 @@ public class KNN<T> implements SoftClassifier<T> {
 
         KNNSearch<double[], double[]> knn = null;
         if (x[0].length < 10) {
-            knn = new KDTree<>(x, x);
+            knn = new FlatKDTree<>(x, x);
         } else {
             knn = new CoverTree<>(x, new EuclideanDistance());
         }
@@ -229,6 +230,31 @@ public class KNN<T> implements SoftClassifier<T> {
         return new KNN<>(knn, y, k);
     }
 
+    /**
+     * Learn the K-NN classifier from the samples stored in a feature matrix.
+     * @param k the number of neighbors for classification.
+     * @param x training samples, one per row.
+     * @param y training labels in [0, c), where c is the number of classes.
+     */
+    public static KNN<double[]> learn(FeatureMatrix x, int[] y, int k) {
+        if (x.nrows() != y.length) {
+            throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.nrows(), y.length));
+        }
+
+        if (k < 1) {
+            throw new IllegalArgumentException("Illegal k = " + k);
+        }
+
+        KNNSearch<double[], double[]> knn = null;
+        if (x.ncols() < 10) {
+            knn = new FlatKDTree<>(x, null);
+        } else {
+            knn = new CoverTree<>(x.toArray(), new EuclideanDistance());
+        }
+
+        return new KNN<>(knn, y, k);
+    }
+
     @Override
     public int predict(T x) {
         return predict(x, null);
@@ -247,7 +273,9 @@ public class KNN<T> implements SoftClassifier<T> {
 
         int[] count = new int[c];
         for (int i = 0; i < k; i++) {
-            count[y[neighbors[i].index]]++;
+            if (neighbors[i].distance < Double.MAX_VALUE) {
+                count[y[neighbors[i].index]]++;
+            }
         }
 
         if (posteriori != null) {
@@ -255,7 +283,34 @@ public class KNN<T> implements SoftClassifier<T> {
                 posteriori[i] = (double) count[i] / k;
             }
         }
-        
+
+        return vote(count);
+    }
+
+    /**
+     * Predicts the class labels of an array of instances, searching the neighbors
+     * of all instances in a single batch query.
+     */
+    @Override
+    public int[] predict(T[] x) {
+        int[] index = new int[x.length * k];
+        knn.knn(x, k, index, new double[index.length]);
+
+        int[] labels = new int[x.length];
+        int[] count = new int[c];
+        for (int i = 0; i < x.length; i++) {
+            Arrays.fill(count, 0);
+            for (int j = 0; j < k; j++) {
+                if (index[i*k + j] >= 0) {
+                    count[y[index[i*k + j]]]++;
+                }
+            }
+            labels[i] = vote(count);
+        }
+        return labels;
+    }
+
+    private int vote(int[] count) {
         int max = 0;
         int idx = 0;
         for (int i = 0; i < c; i++) {
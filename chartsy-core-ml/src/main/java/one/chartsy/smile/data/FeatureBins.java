@@ -0,0 +1,267 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import one.chartsy.smile.util.MulticoreExecutor;
+
+/**
+ * The training samples quantized feature by feature into at most {@value #MAX_BINS} bins, stored
+ * as one byte per value, for the histogram-based training of the decision trees.
+ * <p>
+ * A numeric feature with at most {@code maxBins} distinct values gets one bin per distinct value.
+ * Otherwise the bin boundaries are placed at the quantiles of the feature values, so that the bins
+ * hold about equal numbers of samples. The cutoff between two adjacent bins is the midpoint
+ * between the largest value of the lower bin and the smallest value of the upper bin, hence a
+ * value {@code v} falls into the bin {@code b} or below if and only if {@code v <= cutoff(j, b)},
+ * which allows the trees trained on the bins to predict the raw feature values. The {@code NaN}
+ * values are assigned to the last bin. A nominal feature gets one bin per category.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class FeatureBins implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /** The maximum number of bins per feature. */
+    public static final int MAX_BINS = 256;
+
+    /** The feature attributes. */
+    private final Attribute[] attributes;
+    /** The bin of each sample, by feature. */
+    private final byte[][] bins;
+    /** The cutoffs between the adjacent bins of the numeric features. */
+    private final double[][] cutoffs;
+    /** The number of bins, by feature. */
+    private final int[] binCounts;
+    /** The offset of the first bin of each feature in the flattened histograms. */
+    private final int[] binOffsets;
+    /** The number of samples. */
+    private final int nrows;
+
+
+    private FeatureBins(Attribute[] attributes, byte[][] bins, double[][] cutoffs, int[] binCounts, int nrows) {
+        this.attributes = attributes;
+        this.bins = bins;
+        this.cutoffs = cutoffs;
+        this.binCounts = binCounts;
+        this.binOffsets = new int[binCounts.length + 1];
+        for (int j = 0; j < binCounts.length; j++)
+            binOffsets[j + 1] = binOffsets[j] + binCounts[j];
+        this.nrows = nrows;
+    }
+
+    /**
+     * The read access to the raw feature values.
+     */
+    @FunctionalInterface
+    private interface Values {
+        double get(int i, int j);
+    }
+
+    /**
+     * Quantizes the given training samples.
+     *
+     * @param attributes the feature attributes, or {@code null} if all features are numeric
+     * @param x the training samples, one per row
+     * @param maxBins the maximum number of bins per feature, up to {@value #MAX_BINS}
+     * @return the quantized samples
+     */
+    public static FeatureBins of(Attribute[] attributes, double[][] x, int maxBins) {
+        return of(attributes, x.length, (x.length == 0)? 0 : x[0].length, (i, j) -> x[i][j], maxBins);
+    }
+
+    /**
+     * Quantizes the given training samples.
+     *
+     * @param attributes the feature attributes, or {@code null} if all features are numeric
+     * @param x the training samples, one per row
+     * @param maxBins the maximum number of bins per feature, up to {@value #MAX_BINS}
+     * @return the quantized samples
+     */
+    public static FeatureBins of(Attribute[] attributes, FeatureMatrix x, int maxBins) {
+        return of(attributes, x.nrows(), x.ncols(), x::get, maxBins);
+    }
+
+    private static FeatureBins of(Attribute[] attributes, int n, int p, Values x, int maxBins) {
+        if (maxBins < 2 || maxBins > MAX_BINS)
+            throw new IllegalArgumentException("Invalid maximum number of bins: " + maxBins);
+        if (attributes == null) {
+            attributes = new Attribute[p];
+            for (int j = 0; j < p; j++)
+                attributes[j] = new NumericAttribute("V" + (j + 1));
+        }
+        if (attributes.length != p)
+            throw new IllegalArgumentException(String.format("The number of attributes doesn't match: %d != %d", attributes.length, p));
+
+        byte[][] bins = new byte[p][];
+        double[][] cutoffs = new double[p][];
+        int[] binCounts = new int[p];
+        Attribute[] attrs = attributes;
+        List<Callable<Void>> tasks = new ArrayList<>(p);
+        for (int j = 0; j < p; j++) {
+            int feature = j;
+            tasks.add(() -> {
+                bins[feature] = new byte[n];
+                if (attrs[feature].getType() == Attribute.Type.NOMINAL) {
+                    binCounts[feature] = quantizeNominal((NominalAttribute) attrs[feature], n, feature, x, bins[feature]);
+                } else if (attrs[feature].getType() == Attribute.Type.NUMERIC) {
+                    cutoffs[feature] = quantizeNumeric(n, feature, x, bins[feature], maxBins);
+                    binCounts[feature] = cutoffs[feature].length + 1;
+                } else {
+                    throw new IllegalArgumentException("Unsupported attribute type: " + attrs[feature].getType());
+                }
+                return null;
+            });
+        }
+        try {
+            MulticoreExecutor.run(tasks);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Feature quantization failed", e);
+        }
+        return new FeatureBins(attributes, bins, cutoffs, binCounts, n);
+    }
+
+    private static int quantizeNominal(NominalAttribute attribute, int n, int j, Values x, byte[] bins) {
+        int size = attribute.size();
+        if (size > MAX_BINS)
+            throw new IllegalArgumentException("Nominal attribute " + attribute.getName() + " has more than " + MAX_BINS + " values");
+        for (int i = 0; i < n; i++)
+            bins[i] = (byte) (int) x.get(i, j);
+        return size;
+    }
+
+    private static double[] quantizeNumeric(int n, int j, Values x, byte[] bins, int maxBins) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++)
+            values[i] = x.get(i, j);
+        Arrays.sort(values);
+
+        // the distinct values, with NaNs sorted to the end and left out
+        double[] distinct = new double[n];
+        int count = 0;
+        for (int i = 0; i < n && !Double.isNaN(values[i]); i++)
+            if (count == 0 || values[i] != distinct[count - 1])
+                distinct[count++] = values[i];
+
+        double[] cutoffs;
+        if (count <= maxBins) {
+            cutoffs = new double[Math.max(0, count - 1)];
+            for (int k = 0; k < cutoffs.length; k++)
+                cutoffs[k] = (distinct[k] + distinct[k + 1]) / 2;
+        } else {
+            int valued = 0;
+            while (valued < n && !Double.isNaN(values[valued]))
+                valued++;
+            cutoffs = new double[maxBins - 1];
+            int size = 0;
+            for (int b = 1; b < maxBins; b++) {
+                double upper = values[(int) ((long) b * valued / maxBins)];
+                int k = Arrays.binarySearch(distinct, 0, count, upper);
+                if (k <= 0)
+                    continue;
+                double cutoff = (distinct[k - 1] + distinct[k]) / 2;
+                if (size == 0 || cutoff > cutoffs[size - 1])
+                    cutoffs[size++] = cutoff;
+            }
+            cutoffs = Arrays.copyOf(cutoffs, size);
+        }
+
+        for (int i = 0; i < n; i++)
+            bins[i] = (byte) binOf(cutoffs, x.get(i, j));
+        return cutoffs;
+    }
+
+    private static int binOf(double[] cutoffs, double value) {
+        if (Double.isNaN(value))
+            return cutoffs.length;
+        int lo = 0, hi = cutoffs.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (value <= cutoffs[mid])
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Gives the feature attributes.
+     */
+    public Attribute[] attributes() {
+        return attributes;
+    }
+
+    /**
+     * Gives the number of samples.
+     */
+    public int nrows() {
+        return nrows;
+    }
+
+    /**
+     * Gives the number of features.
+     */
+    public int ncols() {
+        return bins.length;
+    }
+
+    /**
+     * Gives the number of bins of the feature {@code j}.
+     */
+    public int binCount(int j) {
+        return binCounts[j];
+    }
+
+    /**
+     * Gives the offset of the first bin of the feature {@code j} in a histogram spanning the bins of
+     * all features, in which the bins of the feature {@code j} take the indexes
+     * {@code [binOffset(j), binOffset(j+1))}.
+     */
+    public int binOffset(int j) {
+        return binOffsets[j];
+    }
+
+    /**
+     * Gives the total number of bins of all features.
+     */
+    public int totalBinCount() {
+        return binOffsets[binOffsets.length - 1];
+    }
+
+    /**
+     * Gives the bins of the feature {@code j}, to be read as unsigned bytes.
+     */
+    public byte[] column(int j) {
+        return bins[j];
+    }
+
+    /**
+     * Gives the bin of the sample {@code i} for the feature {@code j}.
+     */
+    public int bin(int i, int j) {
+        return bins[j][i] & 0xFF;
+    }
+
+    /**
+     * Gives the bin of the feature {@code j} into which the given raw value falls.
+     */
+    public int binOf(int j, double value) {
+        if (attributes[j].getType() == Attribute.Type.NOMINAL)
+            return (int) value;
+        return binOf(cutoffs[j], value);
+    }
+
+    /**
+     * Gives the cutoff between the bin {@code b} and {@code b+1} of the numeric feature {@code j}.
+     */
+    public double cutoff(int j, int b) {
+        return cutoffs[j][b];
+    }
+}
@@ -0,0 +1,194 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The matrix of training samples stored in a single contiguous row-major array, where each row is
+ * a sample and each column is a feature.
+ * <p>
+ * Unlike the jagged {@code double[][]} arrays, the feature matrix holds no per-row objects, keeps
+ * the consecutive samples next to each other in memory, and can be filled in place, row by row or
+ * element by element, directly from the underlying series. The learners accepting the feature
+ * matrix read it without materializing the rows.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class FeatureMatrix implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** The row-major matrix values. */
+    private final double[] values;
+    /** The number of rows (samples). */
+    private final int nrows;
+    /** The number of columns (features). */
+    private final int ncols;
+
+
+    private FeatureMatrix(double[] values, int nrows, int ncols) {
+        this.values = values;
+        this.nrows = nrows;
+        this.ncols = ncols;
+    }
+
+    /**
+     * Creates a zero-filled feature matrix of the given size.
+     *
+     * @param nrows the number of samples
+     * @param ncols the number of features
+     */
+    public FeatureMatrix(int nrows, int ncols) {
+        this(new double[checkedSize(nrows, ncols)], nrows, ncols);
+    }
+
+    private static int checkedSize(int nrows, int ncols) {
+        if (nrows < 0 || ncols < 0)
+            throw new IllegalArgumentException(String.format("Invalid matrix size: %d x %d", nrows, ncols));
+        long size = (long) nrows * ncols;
+        if (size > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(String.format("Matrix too large: %d x %d", nrows, ncols));
+        return (int) size;
+    }
+
+    /**
+     * Creates the feature matrix backed by the given row-major array, without copying it.
+     *
+     * @param values the row-major matrix values
+     * @param nrows the number of samples
+     * @param ncols the number of features
+     */
+    public static FeatureMatrix wrap(double[] values, int nrows, int ncols) {
+        if (values.length != checkedSize(nrows, ncols))
+            throw new IllegalArgumentException(String.format("Array length %d doesn't match matrix size: %d x %d", values.length, nrows, ncols));
+        return new FeatureMatrix(values, nrows, ncols);
+    }
+
+    /**
+     * Copies the jagged array of samples into a new feature matrix.
+     *
+     * @param x the samples, all of equal length
+     */
+    public static FeatureMatrix of(double[][] x) {
+        int ncols = (x.length == 0)? 0 : x[0].length;
+        FeatureMatrix matrix = new FeatureMatrix(x.length, ncols);
+        for (int i = 0; i < x.length; i++) {
+            if (x[i].length != ncols)
+                throw new IllegalArgumentException(String.format("Row %d length %d doesn't match: %d", i, x[i].length, ncols));
+            System.arraycopy(x[i], 0, matrix.values, i * ncols, ncols);
+        }
+        return matrix;
+    }
+
+    /**
+     * Gives the number of rows (samples).
+     */
+    public int nrows() {
+        return nrows;
+    }
+
+    /**
+     * Gives the number of columns (features).
+     */
+    public int ncols() {
+        return ncols;
+    }
+
+    /**
+     * Gives the underlying row-major array, where the element {@code (i, j)} is stored at the
+     * index {@code i*ncols + j}.
+     */
+    public double[] data() {
+        return values;
+    }
+
+    public double get(int i, int j) {
+        return values[i*ncols + j];
+    }
+
+    public void set(int i, int j, double x) {
+        values[i*ncols + j] = x;
+    }
+
+    /**
+     * Copies the given row into the supplied buffer.
+     *
+     * @param i the row index
+     * @param buffer the array of length at least {@link #ncols()}
+     * @return the {@code buffer}
+     */
+    public double[] row(int i, double[] buffer) {
+        System.arraycopy(values, i*ncols, buffer, 0, ncols);
+        return buffer;
+    }
+
+    /**
+     * Gives a copy of the given row.
+     */
+    public double[] row(int i) {
+        return row(i, new double[ncols]);
+    }
+
+    /**
+     * Gives the squared Euclidean distance between the given row and the point {@code q}.
+     */
+    public double squaredDistance(int i, double[] q) {
+        double sum = 0.0;
+        for (int j = 0, offset = i*ncols; j < ncols; j++) {
+            double d = values[offset + j] - q[j];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the column means.
+     */
+    public double[] colMeans() {
+        double[] means = new double[ncols];
+        for (int i = 0, offset = 0; i < nrows; i++, offset += ncols)
+            for (int j = 0; j < ncols; j++)
+                means[j] += values[offset + j];
+        for (int j = 0; j < ncols; j++)
+            means[j] /= nrows;
+        return means;
+    }
+
+    /**
+     * Computes {@code y = X * w}, i.e. the dot product of each row with the given weights.
+     *
+     * @param w the weights, of length {@link #ncols()}
+     * @param y the output array, of length {@link #nrows()}
+     * @return the {@code y} array
+     */
+    public double[] ax(double[] w, double[] y) {
+        for (int i = 0, offset = 0; i < nrows; i++, offset += ncols) {
+            double sum = 0.0;
+            for (int j = 0; j < ncols; j++)
+                sum += values[offset + j] * w[j];
+            y[i] = sum;
+        }
+        return y;
+    }
+
+    /**
+     * Copies the matrix into a new jagged array of samples.
+     */
+    public double[][] toArray() {
+        double[][] x = new double[nrows][];
+        for (int i = 0; i < nrows; i++)
+            x[i] = row(i);
+        return x;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("FeatureMatrix(").append(nrows).append(" x ").append(ncols).append(')');
+        for (int i = 0; i < Math.min(nrows, 5); i++)
+            buf.append("\n  ").append(Arrays.toString(Arrays.copyOfRange(values, i*ncols, (i + 1)*ncols)));
+        if (nrows > 5)
+            buf.append("\n  ...");
+        return buf.toString();
+    }
+}
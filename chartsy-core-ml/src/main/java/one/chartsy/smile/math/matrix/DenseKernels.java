@@ -0,0 +1,180 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.math.matrix;
+
+import java.util.stream.IntStream;
+
+/**
+ * The cache-blocked and register-tiled dense matrix multiplication kernels operating directly on the
+ * column-major arrays of {@link JMatrix}.
+ * <p>
+ * The kernels are arranged so that the innermost loops always run over contiguous memory, either as
+ * the column updates {@code C[:,j] += A[:,p] * b} for {@code A*B} and {@code A*B'}, or as the dot
+ * products of two columns for {@code A'*B}, which lets the JIT compiler vectorize them. The panels
+ * of {@code A} are blocked to stay in cache while being reused for several columns of the result,
+ * and the independent column blocks of the result are computed in parallel using the common
+ * fork-join pool once the multiplication is large enough to amortize the task overhead.
+ *
+ * @author Mariusz Bernacki
+ */
+final class DenseKernels {
+    /** The number of rows of an {@code A} panel kept in cache. */
+    private static final int MC = 256;
+    /** The depth of an {@code A} panel kept in cache. */
+    private static final int KC = 256;
+    /** The number of result columns computed by a single parallel task. */
+    private static final int NC = 32;
+    /** The number of the multiply-add operations above which the kernels run in parallel. */
+    private static final long PARALLEL_THRESHOLD = 1L << 21;
+
+    private DenseKernels() { }
+
+    @FunctionalInterface
+    private interface ColumnBlock {
+        void compute(int from, int to);
+    }
+
+    private static void forEachColumnBlock(int n, long work, ColumnBlock block) {
+        int blocks = (n + NC - 1) / NC;
+        if (work < PARALLEL_THRESHOLD || blocks < 2)
+            block.compute(0, n);
+        else
+            IntStream.range(0, blocks).parallel().forEach(b -> block.compute(b * NC, Math.min(n, (b + 1) * NC)));
+    }
+
+    /**
+     * Computes {@code C = A * B}, or {@code C = A * B'} if {@code transB} is set, where {@code A} is
+     * {@code m x k} and {@code op(B)} is {@code k x n}.
+     *
+     * @param c the zero-initialized {@code m x n} result
+     */
+    static void ab(int m, int n, int k, double[] a, double[] b, boolean transB, double[] c) {
+        // the strides of B(p,j) along p and j
+        int bp = transB? n : 1;
+        int bj = transB? 1 : k;
+        forEachColumnBlock(n, (long) m * n * k, (j0, j1) -> abBlock(m, k, a, b, bp, bj, c, j0, j1));
+    }
+
+    private static void abBlock(int m, int k, double[] a, double[] b, int bp, int bj, double[] c, int j0, int j1) {
+        for (int p0 = 0; p0 < k; p0 += KC) {
+            int p1 = Math.min(p0 + KC, k);
+            for (int i0 = 0; i0 < m; i0 += MC) {
+                int i1 = Math.min(i0 + MC, m);
+                int j = j0;
+                for (; j + 3 < j1; j += 4) {
+                    int c0 = j * m, c1 = c0 + m, c2 = c1 + m, c3 = c2 + m;
+                    for (int p = p0; p < p1; p++) {
+                        int bi = p * bp + j * bj;
+                        double b0 = b[bi], b1 = b[bi + bj], b2 = b[bi + 2 * bj], b3 = b[bi + 3 * bj];
+                        int ap = p * m;
+                        for (int i = i0; i < i1; i++) {
+                            double av = a[ap + i];
+                            c[c0 + i] += av * b0;
+                            c[c1 + i] += av * b1;
+                            c[c2 + i] += av * b2;
+                            c[c3 + i] += av * b3;
+                        }
+                    }
+                }
+                for (; j < j1; j++) {
+                    int c0 = j * m;
+                    for (int p = p0; p < p1; p++) {
+                        double b0 = b[p * bp + j * bj];
+                        int ap = p * m;
+                        for (int i = i0; i < i1; i++)
+                            c[c0 + i] += a[ap + i] * b0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes {@code C = A' * B}, where {@code A} is {@code k x m} and {@code B} is {@code k x n}.
+     * When {@code symmetric} is set, {@code B} must be the same matrix as {@code A}, only the upper
+     * triangle of the result is computed and then mirrored.
+     *
+     * @param c the zero-initialized {@code m x n} result
+     */
+    static void atb(int m, int n, int k, double[] a, double[] b, double[] c, boolean symmetric) {
+        forEachColumnBlock(n, (long) m * n * k, (j0, j1) -> atbBlock(m, k, a, b, c, j0, j1, symmetric));
+        if (symmetric)
+            for (int j = 0; j < n; j++)
+                for (int i = j + 1; i < m; i++)
+                    c[i + j * m] = c[j + i * m];
+    }
+
+    private static void atbBlock(int m, int k, double[] a, double[] b, double[] c, int j0, int j1, boolean symmetric) {
+        for (int p0 = 0; p0 < k; p0 += KC) {
+            int p1 = Math.min(p0 + KC, k);
+            for (int j = j0; j < j1; j += 2) {
+                boolean twoCols = j + 1 < j1;
+                int iEnd = symmetric? Math.min(j + 2, m) : m;
+                for (int i = 0; i < iEnd; i += 2) {
+                    boolean twoRows = i + 1 < iEnd;
+                    if (twoRows && twoCols) {
+                        int a0 = i * k, a1 = a0 + k, b0 = j * k, b1 = b0 + k;
+                        double s00 = 0.0, s01 = 0.0, s10 = 0.0, s11 = 0.0;
+                        for (int p = p0; p < p1; p++) {
+                            double x0 = a[a0 + p], x1 = a[a1 + p], y0 = b[b0 + p], y1 = b[b1 + p];
+                            s00 += x0 * y0;
+                            s01 += x0 * y1;
+                            s10 += x1 * y0;
+                            s11 += x1 * y1;
+                        }
+                        c[i + j * m] += s00;
+                        c[i + (j + 1) * m] += s01;
+                        c[i + 1 + j * m] += s10;
+                        c[i + 1 + (j + 1) * m] += s11;
+                    } else {
+                        for (int ii = i; ii < i + (twoRows? 2 : 1); ii++)
+                            for (int jj = j; jj < j + (twoCols? 2 : 1); jj++)
+                                c[ii + jj * m] += dot(a, ii * k, b, jj * k, p1 - p0, p0);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double dot(double[] x, int xOffset, double[] y, int yOffset, int length, int from) {
+        double s = 0.0;
+        for (int p = from, end = from + length; p < end; p++)
+            s += x[xOffset + p] * y[yOffset + p];
+        return s;
+    }
+
+    /**
+     * Computes {@code y[0:n] = A[0:n, 0:p] * x[0:p]} for the matrix {@code A} with the leading
+     * dimension {@code lda}.
+     */
+    static void ax(int n, int p, int lda, double[] a, double[] x, double[] y) {
+        forEachColumnBlock(n, (long) n * p, (i0, i1) -> {
+            for (int i = i0; i < i1; i++)
+                y[i] = 0.0;
+            int k = 0;
+            for (; k + 3 < p; k += 4) {
+                int a0 = k * lda, a1 = a0 + lda, a2 = a1 + lda, a3 = a2 + lda;
+                double x0 = x[k], x1 = x[k + 1], x2 = x[k + 2], x3 = x[k + 3];
+                for (int i = i0; i < i1; i++)
+                    y[i] += a[a0 + i] * x0 + a[a1 + i] * x1 + a[a2 + i] * x2 + a[a3 + i] * x3;
+            }
+            for (; k < p; k++) {
+                int a0 = k * lda;
+                double x0 = x[k];
+                for (int i = i0; i < i1; i++)
+                    y[i] += a[a0 + i] * x0;
+            }
+        });
+    }
+
+    /**
+     * Computes {@code y[0:n] = A[0:p, 0:n]' * x[0:p]} for the matrix {@code A} with the leading
+     * dimension {@code lda}.
+     */
+    static void atx(int n, int p, int lda, double[] a, double[] x, double[] y) {
+        forEachColumnBlock(n, (long) n * p, (i0, i1) -> {
+            for (int i = i0; i < i1; i++)
+                y[i] = dot(a, i * lda, x, 0, p, 0);
+        });
+    }
+}
@@ -638,28 +638,14 @@ public class JMatrix extends DenseMatrix {
     @Override
     public JMatrix ata() {
         JMatrix C = new JMatrix(ncols, ncols);
-        for (int i = 0; i < ncols; i++) {
-            for (int j = 0; j < ncols; j++) {
-                double v = 0.0;
-                for (int k = 0; k < nrows; k++) {
-                    v += get(k, i) * get(k, j);
-                }
-                C.set(i, j, v);
-            }
-        }
+        DenseKernels.atb(ncols, ncols, nrows, A, A, C.A, true);
         return C;
     }
 
     @Override
     public JMatrix aat() {
         JMatrix C = new JMatrix(nrows, nrows);
-        for (int k = 0; k < ncols; k++) {
-            for (int i = 0; i < nrows; i++) {
-                for (int j = 0; j < nrows; j++) {
-                    C.add(i, j, get(i, k) * get(j, k));
-                }
-            }
-        }
+        DenseKernels.ab(nrows, nrows, ncols, A, A, true, C.A);
         return C;
     }
 
@@ -668,13 +654,8 @@ public class JMatrix extends DenseMatrix {
         int n = Math.min(nrows, y.length);
         int p = Math.min(ncols, x.length);
 
-        Arrays.fill(y, 0.0);
-        for (int k = 0; k < p; k++) {
-            for (int i = 0; i < n; i++) {
-                y[i] += get(i, k) * x[k];
-            }
-        }
-
+        Arrays.fill(y, n, y.length, 0.0);
+        DenseKernels.ax(n, p, nrows, A, x, y);
         return y;
     }
 
@@ -715,13 +696,8 @@ public class JMatrix extends DenseMatrix {
         int n = Math.min(ncols, y.length);
         int p = Math.min(nrows, x.length);
 
-        Arrays.fill(y, 0.0);
-        for (int i = 0; i < n; i++) {
-            for (int k = 0; k < p; k++) {
-                y[i] += get(k, i) * x[k];
-            }
-        }
-
+        Arrays.fill(y, n, y.length, 0.0);
+        DenseKernels.atx(n, p, nrows, A, x, y);
         return y;
     }
 
@@ -761,6 +737,10 @@ public class JMatrix extends DenseMatrix {
         }
 
         JMatrix C = new JMatrix(nrows, B.ncols());
+        if (B instanceof JMatrix b) {
+            DenseKernels.ab(nrows, b.ncols, ncols, A, b.A, false, C.A);
+            return C;
+        }
         for (int i = 0; i < nrows; i++) {
             for (int j = 0; j < B.ncols(); j++) {
                 double v = 0.0;
@@ -780,6 +760,10 @@ public class JMatrix extends DenseMatrix {
         }
 
         JMatrix C = new JMatrix(nrows, B.nrows());
+        if (B instanceof JMatrix b) {
+            DenseKernels.ab(nrows, b.nrows, ncols, A, b.A, true, C.A);
+            return C;
+        }
         for (int k = 0; k < ncols; k++) {
             for (int i = 0; i < nrows; i++) {
                 for (int j = 0; j < B.nrows(); j++) {
@@ -797,6 +781,10 @@ public class JMatrix extends DenseMatrix {
         }
 
         JMatrix C = new JMatrix(ncols, B.ncols());
+        if (B instanceof JMatrix b) {
+            DenseKernels.atb(ncols, b.ncols, nrows, A, b.A, C.A, b == this);
+            return C;
+        }
         for (int i = 0; i < ncols; i++) {
             for (int j = 0; j < B.ncols(); j++) {
                 double v = 0.0;
@@ -0,0 +1,439 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.neighbor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import one.chartsy.smile.data.FeatureMatrix;
+
+/**
+ * A KD-tree stored in flat arrays, for the high-volume nearest neighbor queries.
+ * <p>
+ * Unlike the {@link KDTree}, which links separately allocated nodes, the tree is a complete binary
+ * tree with implicit child indexes: the children of the node {@code i} are the nodes {@code 2i+1}
+ * and {@code 2i+2}. Every internal node splits its points at the median of the coordinate with the
+ * largest spread, and the points of each leaf bucket, of at most {@value #LEAF_SIZE} points, are
+ * copied in the tree order into a single contiguous array, so that a bucket is scanned
+ * sequentially.
+ * <p>
+ * The batch {@link #knn(double[][], int, int[], double[])} search runs the queries in blocks on
+ * the common fork-join pool and stores the results into the caller-provided arrays, allocating
+ * no objects per query.
+ * <p>
+ * By default, the query object (reference equality) is excluded from the neighborhood of the
+ * tree built from the array of keys, as in the {@link KDTree}.
+ *
+ * @param <E> the type of data objects in the tree
+ *
+ * @author Mariusz Bernacki
+ */
+public class FlatKDTree<E> implements NearestNeighborSearch<double[], E>, KNNSearch<double[], E>, RNNSearch<double[], E>, Serializable {
+    private static final long serialVersionUID = 1L;
+    /** The maximum number of points in a leaf bucket. */
+    static final int LEAF_SIZE = 16;
+    /** The number of queries searched by a single fork-join task. */
+    private static final int QUERY_BLOCK_SIZE = 64;
+    /** The number of query-point pairs above which the batch queries run in parallel. */
+    private static final long PARALLEL_THRESHOLD = 1L << 16;
+
+    /** The number of points. */
+    private final int n;
+    /** The number of dimensions. */
+    private final int d;
+    /** The number of leaf buckets, a power of 2. */
+    private final int leafCount;
+    /** The point coordinates, row-major, in the tree order. */
+    private final double[] points;
+    /** The original index of each point, in the tree order. */
+    private final int[] index;
+    /** The split coordinate of each internal node. */
+    private final int[] splitDim;
+    /** The split value of each internal node. */
+    private final double[] cutoff;
+    /** The tree-order position of the first point of each leaf bucket, followed by {@code n}. */
+    private final int[] leafBegin;
+    /** The keys of data objects, or {@code null} if the tree was built from a feature matrix. */
+    private double[][] keys;
+    /** The coordinates of the keys, or {@code null} if the tree was built from the array of keys. */
+    private FeatureMatrix coordinates;
+    /** The data objects, or {@code null} if the neighbors are identified by their indexes only. */
+    private final E[] data;
+    /** Whether to exclude query object self from the neighborhood. */
+    private boolean identicalExcluded = true;
+
+    /**
+     * Constructor.
+     * @param key the keys of data objects.
+     * @param data the data objects.
+     */
+    public FlatKDTree(double[][] key, E[] data) {
+        this(FeatureMatrix.of(key), data);
+        this.keys = key;
+        this.coordinates = null;
+    }
+
+    /**
+     * Constructor. The keys of the returned neighbors are the copies of the feature matrix rows.
+     * @param key the keys of data objects, one per row.
+     * @param data the data objects, or {@code null} if the neighbors are identified by their indexes only.
+     */
+    public FlatKDTree(FeatureMatrix key, E[] data) {
+        if (data != null && key.nrows() != data.length) {
+            throw new IllegalArgumentException("The array size of keys and data are different.");
+        }
+
+        this.coordinates = key;
+        this.data = data;
+        this.n = key.nrows();
+        this.d = key.ncols();
+
+        int leaves = 1;
+        while (n > (long) leaves * LEAF_SIZE) {
+            leaves <<= 1;
+        }
+        this.leafCount = leaves;
+        this.splitDim = new int[leaves - 1];
+        this.cutoff = new double[leaves - 1];
+        this.leafBegin = new int[leaves + 1];
+        this.index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+
+        double[] x = key.data();
+        buildNode(x, 0, 0, n);
+        leafBegin[leaves] = n;
+
+        this.points = new double[n * d];
+        for (int pos = 0; pos < n; pos++) {
+            System.arraycopy(x, index[pos] * d, points, pos * d, d);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Flat KD-Tree";
+    }
+
+    private void buildNode(double[] x, int node, int begin, int end) {
+        if (node >= leafCount - 1) {
+            leafBegin[node - (leafCount - 1)] = begin;
+            return;
+        }
+
+        // Split at the median of the coordinate with the largest spread
+        int split = 0;
+        double maxSpread = -1;
+        for (int j = 0; j < d; j++) {
+            double lower = Double.POSITIVE_INFINITY, upper = Double.NEGATIVE_INFINITY;
+            for (int i = begin; i < end; i++) {
+                double c = x[index[i] * d + j];
+                if (c < lower) {
+                    lower = c;
+                }
+                if (c > upper) {
+                    upper = c;
+                }
+            }
+            if (upper - lower > maxSpread) {
+                maxSpread = upper - lower;
+                split = j;
+            }
+        }
+
+        int mid = (begin + end) >>> 1;
+        if (mid < end) {
+            select(x, split, begin, end, mid);
+        }
+        splitDim[node] = split;
+        cutoff[node] = (mid < end)? x[index[mid] * d + split] : 0.0;
+
+        buildNode(x, 2 * node + 1, begin, mid);
+        buildNode(x, 2 * node + 2, mid, end);
+    }
+
+    /**
+     * Rearranges the indexes in {@code [begin, end)} so that the point at the position {@code k}
+     * has the k-th smallest coordinate {@code dim}, none of the preceding points has a larger one,
+     * and none of the following points has a smaller one.
+     */
+    private void select(double[] x, int dim, int begin, int end, int k) {
+        int lo = begin, hi = end - 1;
+        while (hi > lo) {
+            double pivot = x[index[(lo + hi) >>> 1] * d + dim];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (x[index[i] * d + dim] < pivot) {
+                    i++;
+                }
+                while (x[index[j] * d + dim] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int temp = index[i];
+                    index[i++] = index[j];
+                    index[j--] = temp;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Set if exclude query object self from the neighborhood.
+     */
+    public FlatKDTree<E> setIdenticalExcluded(boolean excluded) {
+        identicalExcluded = excluded;
+        return this;
+    }
+
+    /**
+     * Get whether if query object self be excluded from the neighborhood.
+     */
+    public boolean isIdenticalExcluded() {
+        return identicalExcluded;
+    }
+
+    private boolean isExcluded(double[] q, int i) {
+        return identicalExcluded && keys != null && q == keys[i];
+    }
+
+    private double[] key(int i) {
+        return (keys != null)? keys[i] : coordinates.row(i);
+    }
+
+    private E value(int i) {
+        return (data != null)? data[i] : null;
+    }
+
+    private double squaredDistance(int pos, double[] q) {
+        double sum = 0.0;
+        for (int j = 0, offset = pos * d; j < d; j++) {
+            double t = points[offset + j] - q[j];
+            sum += t * t;
+        }
+        return sum;
+    }
+
+    /**
+     * Searches the k nearest neighbors in the subtree of the given node, keeping them in the
+     * max-heap on squared distances stored in the {@code [offset, offset+k)} range of the arrays.
+     */
+    private void search(double[] q, int node, int k, int[] nbrIndex, double[] nbrDistance, int offset) {
+        if (node >= leafCount - 1) {
+            int leaf = node - (leafCount - 1);
+            for (int pos = leafBegin[leaf], end = leafBegin[leaf + 1]; pos < end; pos++) {
+                double distance = squaredDistance(pos, q);
+                if (distance < nbrDistance[offset] && !isExcluded(q, index[pos])) {
+                    nbrDistance[offset] = distance;
+                    nbrIndex[offset] = index[pos];
+                    siftDown(nbrIndex, nbrDistance, offset, k);
+                }
+            }
+        } else {
+            double diff = q[splitDim[node]] - cutoff[node];
+            int nearer = (diff < 0)? 2 * node + 1 : 2 * node + 2;
+            int further = (diff < 0)? 2 * node + 2 : 2 * node + 1;
+
+            search(q, nearer, k, nbrIndex, nbrDistance, offset);
+
+            // now look in further half
+            if (diff * diff < nbrDistance[offset]) {
+                search(q, further, k, nbrIndex, nbrDistance, offset);
+            }
+        }
+    }
+
+    private static void siftDown(int[] nbrIndex, double[] nbrDistance, int offset, int size) {
+        double distance = nbrDistance[offset];
+        int idx = nbrIndex[offset];
+        int i = 0;
+        for (int child; (child = 2 * i + 1) < size; i = child) {
+            if (child + 1 < size && nbrDistance[offset + child + 1] > nbrDistance[offset + child]) {
+                child++;
+            }
+            if (nbrDistance[offset + child] <= distance) {
+                break;
+            }
+            nbrDistance[offset + i] = nbrDistance[offset + child];
+            nbrIndex[offset + i] = nbrIndex[offset + child];
+        }
+        nbrDistance[offset + i] = distance;
+        nbrIndex[offset + i] = idx;
+    }
+
+    /**
+     * Searches the k nearest neighbors of a single query into the {@code [offset, offset+k)} range
+     * of the arrays, nearest first, with Euclidean distances.
+     */
+    private void knn(double[] q, int k, int[] nbrIndex, double[] nbrDistance, int offset) {
+        for (int i = offset; i < offset + k; i++) {
+            nbrIndex[i] = -1;
+            nbrDistance[i] = Double.POSITIVE_INFINITY;
+        }
+
+        search(q, 0, k, nbrIndex, nbrDistance, offset);
+
+        // heap sort in place, into ascending distances
+        for (int size = k - 1; size > 0; size--) {
+            double distance = nbrDistance[offset + size];
+            int idx = nbrIndex[offset + size];
+            nbrDistance[offset + size] = nbrDistance[offset];
+            nbrIndex[offset + size] = nbrIndex[offset];
+            nbrDistance[offset] = distance;
+            nbrIndex[offset] = idx;
+            siftDown(nbrIndex, nbrDistance, offset, size);
+        }
+        for (int i = offset; i < offset + k; i++) {
+            nbrDistance[i] = Math.sqrt(nbrDistance[i]);
+        }
+    }
+
+    private void checkBatch(int queries, int k, int[] nbrIndex, double[] nbrDistance) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Invalid k: " + k);
+        }
+
+        if (k > n) {
+            throw new IllegalArgumentException("Neighbor array length is larger than the dataset size");
+        }
+
+        long size = (long) queries * k;
+        if (nbrIndex.length < size || nbrDistance.length < size) {
+            throw new IllegalArgumentException(String.format("Result arrays too short: %d, %d < %d", nbrIndex.length, nbrDistance.length, size));
+        }
+    }
+
+    private IntStream queryBlocks(int queries) {
+        int blocks = (queries + QUERY_BLOCK_SIZE - 1) / QUERY_BLOCK_SIZE;
+        IntStream range = IntStream.range(0, blocks);
+        if (blocks > 1 && (long) queries * n >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        return range;
+    }
+
+    /**
+     * Searches the k nearest neighbors of each query in parallel. The indexes and Euclidean
+     * distances of the neighbors of the query {@code i}, nearest first, are stored in the
+     * {@code [i*k, (i+1)*k)} ranges of the given arrays.
+     *
+     * @param q the queries.
+     * @param k the number of nearest neighbors to search for.
+     * @param index the output neighbor indexes, of length at least {@code q.length * k}.
+     * @param distance the output neighbor distances, of length at least {@code q.length * k}.
+     */
+    @Override
+    public void knn(double[][] q, int k, int[] index, double[] distance) {
+        checkBatch(q.length, k, index, distance);
+        queryBlocks(q.length).forEach(block -> {
+            for (int i = block * QUERY_BLOCK_SIZE, end = Math.min(q.length, i + QUERY_BLOCK_SIZE); i < end; i++) {
+                knn(q[i], k, index, distance, i * k);
+            }
+        });
+    }
+
+    /**
+     * Searches the k nearest neighbors of each query row in parallel. The indexes and Euclidean
+     * distances of the neighbors of the query {@code i}, nearest first, are stored in the
+     * {@code [i*k, (i+1)*k)} ranges of the given arrays.
+     *
+     * @param q the queries, one per row.
+     * @param k the number of nearest neighbors to search for.
+     * @param index the output neighbor indexes, of length at least {@code q.nrows() * k}.
+     * @param distance the output neighbor distances, of length at least {@code q.nrows() * k}.
+     */
+    public void knn(FeatureMatrix q, int k, int[] index, double[] distance) {
+        if (q.ncols() != d) {
+            throw new IllegalArgumentException(String.format("Invalid query dimension: %d, expected: %d", q.ncols(), d));
+        }
+
+        int queries = q.nrows();
+        checkBatch(queries, k, index, distance);
+        queryBlocks(queries).forEach(block -> {
+            double[] query = new double[d];
+            for (int i = block * QUERY_BLOCK_SIZE, end = Math.min(queries, i + QUERY_BLOCK_SIZE); i < end; i++) {
+                knn(q.row(i, query), k, index, distance, i * k);
+            }
+        });
+    }
+
+    @Override
+    public Neighbor<double[], E> nearest(double[] q) {
+        if (n == 0) {
+            return new Neighbor<>(null, null, 0, Double.MAX_VALUE);
+        }
+
+        int[] nbrIndex = new int[1];
+        double[] nbrDistance = new double[1];
+        knn(q, 1, nbrIndex, nbrDistance, 0);
+        if (nbrIndex[0] < 0) {
+            return new Neighbor<>(null, null, 0, Double.MAX_VALUE);
+        }
+        return new Neighbor<>(key(nbrIndex[0]), value(nbrIndex[0]), nbrIndex[0], nbrDistance[0]);
+    }
+
+    @Override
+    public Neighbor<double[], E>[] knn(double[] q, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Invalid k: " + k);
+        }
+
+        if (k > n) {
+            throw new IllegalArgumentException("Neighbor array length is larger than the dataset size");
+        }
+
+        int[] nbrIndex = new int[k];
+        double[] nbrDistance = new double[k];
+        knn(q, k, nbrIndex, nbrDistance, 0);
+
+        @SuppressWarnings("unchecked")
+        Neighbor<double[], E>[] neighbors = (Neighbor<double[], E>[]) new Neighbor[k];
+        for (int i = 0; i < k; i++) {
+            neighbors[i] = (nbrIndex[i] < 0)
+                    ? new Neighbor<>(null, null, 0, Double.MAX_VALUE)
+                    : new Neighbor<>(key(nbrIndex[i]), value(nbrIndex[i]), nbrIndex[i], nbrDistance[i]);
+        }
+        return neighbors;
+    }
+
+    private void search(double[] q, int node, double radius, List<Neighbor<double[], E>> neighbors) {
+        if (node >= leafCount - 1) {
+            int leaf = node - (leafCount - 1);
+            for (int pos = leafBegin[leaf], end = leafBegin[leaf + 1]; pos < end; pos++) {
+                double distance = Math.sqrt(squaredDistance(pos, q));
+                if (distance <= radius && !isExcluded(q, index[pos])) {
+                    neighbors.add(new Neighbor<>(key(index[pos]), value(index[pos]), index[pos], distance));
+                }
+            }
+        } else {
+            double diff = q[splitDim[node]] - cutoff[node];
+            int nearer = (diff < 0)? 2 * node + 1 : 2 * node + 2;
+            int further = (diff < 0)? 2 * node + 2 : 2 * node + 1;
+
+            search(q, nearer, radius, neighbors);
+
+            // now look in further half
+            if (radius >= Math.abs(diff)) {
+                search(q, further, radius, neighbors);
+            }
+        }
+    }
+
+    @Override
+    public void range(double[] q, double radius, List<Neighbor<double[], E>> neighbors) {
+        if (radius <= 0.0) {
+            throw new IllegalArgumentException("Invalid radius: " + radius);
+        }
+
+        search(q, 0, radius, neighbors);
+    }
+}
@@ -7,6 +7,7 @@ package one.chartsy.smile.neighbor;
 import java.io.Serializable;
 import java.util.List;
 
+import one.chartsy.smile.data.FeatureMatrix;
 import one.chartsy.smile.math.Math;
 import one.chartsy.smile.sort.HeapSelect;
 
@@ -92,11 +93,15 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         }
     }
     /**
-     * The keys of data objects.
+     * The keys of data objects, or {@code null} if the tree was built from a feature matrix.
      */
     private double[][] keys;
     /**
-     * The data objects.
+     * The contiguous coordinates of the keys.
+     */
+    private FeatureMatrix coordinates;
+    /**
+     * The data objects, or {@code null} if the neighbors are identified by their indexes only.
      */
     private E[] data;
     /**
@@ -118,14 +123,24 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
      * @param data the data objects.
      */
     public KDTree(double[][] key, E[] data) {
-        if (key.length != data.length) {
+        this(FeatureMatrix.of(key), data);
+        this.keys = key;
+    }
+
+    /**
+     * Constructor. The keys of the returned neighbors are the copies of the feature matrix rows.
+     * @param key the keys of data objects, one per row.
+     * @param data the data objects, or {@code null} if the neighbors are identified by their indexes only.
+     */
+    public KDTree(FeatureMatrix key, E[] data) {
+        if (data != null && key.nrows() != data.length) {
             throw new IllegalArgumentException("The array size of keys and data are different.");
         }
 
-        this.keys = key;
+        this.coordinates = key;
         this.data = data;
 
-        int n = key.length;
+        int n = key.nrows();
         index = new int[n];
         for (int i = 0; i < n; i++) {
             index[i] = i;
@@ -144,7 +159,8 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
      * Build a k-d tree from the given set of dataset.
      */
     private Node buildNode(int begin, int end) {
-        int d = keys[0].length;
+        int d = coordinates.ncols();
+        double[] x = coordinates.data();
 
         // Allocate the node
         Node node = new Node();
@@ -158,13 +174,13 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         double[] upperBound = new double[d];
 
         for (int i = 0; i < d; i++) {
-            lowerBound[i] = keys[index[begin]][i];
-            upperBound[i] = keys[index[begin]][i];
+            lowerBound[i] = x[index[begin]*d + i];
+            upperBound[i] = x[index[begin]*d + i];
         }
 
         for (int i = begin + 1; i < end; i++) {
             for (int j = 0; j < d; j++) {
-                double c = keys[index[i]][j];
+                double c = x[index[i]*d + j];
                 if (lowerBound[j] > c) {
                     lowerBound[j] = c;
                 }
@@ -196,8 +212,8 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         // right-to-left in the same way that partioning is done in quicksort.
         int i1 = begin, i2 = end - 1, size = 0;
         while (i1 <= i2) {
-            boolean i1Good = (keys[index[i1]][node.split] < node.cutoff);
-            boolean i2Good = (keys[index[i2]][node.split] >= node.cutoff);
+            boolean i1Good = (x[index[i1]*d + node.split] < node.cutoff);
+            boolean i2Good = (x[index[i2]*d + node.split] >= node.cutoff);
 
             if (!i1Good && !i2Good) {
                 int temp = index[i1];
@@ -238,6 +254,31 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         return identicalExcluded;
     }
 
+    /**
+     * Returns whether the key at the given index is the query object itself and shall be excluded.
+     */
+    private boolean isExcluded(double[] q, int i) {
+        return identicalExcluded && keys != null && q == keys[i];
+    }
+
+    /**
+     * Returns the key of the given data object.
+     */
+    private double[] key(int i) {
+        return (keys != null)? keys[i] : coordinates.row(i);
+    }
+
+    /**
+     * Returns the given data object.
+     */
+    private E value(int i) {
+        return (data != null)? data[i] : null;
+    }
+
+    private Neighbor<double[], E> newNeighbor(int i, double distance) {
+        return new Neighbor<>(key(i), value(i), i, distance);
+    }
+
     /**
      * Returns the nearest neighbors of the given target starting from the give
      * tree node.
@@ -250,14 +291,12 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         if (node.isLeaf()) {
             // look at all the instances in this leaf
             for (int idx = node.index; idx < node.index + node.count; idx++) {
-                if (q == keys[index[idx]] && identicalExcluded) {
+                if (isExcluded(q, index[idx])) {
                     continue;
                 }
 
-                double distance = Math.squaredDistance(q, keys[index[idx]]);
+                double distance = coordinates.squaredDistance(index[idx], q);
                 if (distance < neighbor.distance) {
-                    neighbor.key = keys[index[idx]];
-                    neighbor.value = data[index[idx]];
                     neighbor.index = index[idx];
                     neighbor.distance = distance;
                 }
@@ -295,17 +334,15 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         if (node.isLeaf()) {
             // look at all the instances in this leaf
             for (int idx = node.index; idx < node.index + node.count; idx++) {
-                if (q == keys[index[idx]] && identicalExcluded) {
+                if (isExcluded(q, index[idx])) {
                     continue;
                 }
 
-                double distance = Math.squaredDistance(q, keys[index[idx]]);
+                double distance = coordinates.squaredDistance(index[idx], q);
                 Neighbor<double[], E> datum = heap.peek();
                 if (distance < datum.distance) {
                     datum.distance = distance;
                     datum.index = index[idx];
-                    datum.key = keys[index[idx]];
-                    datum.value = data[index[idx]];
                     heap.heapify();
                 }
             }
@@ -342,13 +379,13 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         if (node.isLeaf()) {
             // look at all the instances in this leaf
             for (int idx = node.index; idx < node.index + node.count; idx++) {
-                if (q == keys[index[idx]] && identicalExcluded) {
+                if (isExcluded(q, index[idx])) {
                     continue;
                 }
 
-                double distance = Math.distance(q, keys[index[idx]]);
+                double distance = Math.sqrt(coordinates.squaredDistance(index[idx], q));
                 if (distance <= radius) {
-                    neighbors.add(new Neighbor<>(keys[index[idx]], data[index[idx]], index[idx], distance));
+                    neighbors.add(newNeighbor(index[idx], distance));
                 }
             }
         } else {
@@ -375,7 +412,9 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
     public Neighbor<double[], E> nearest(double[] q) {
         Neighbor<double[], E> neighbor = new Neighbor<>(null, null, 0, Double.MAX_VALUE);
         search(q, root, neighbor);
-        neighbor.distance = Math.sqrt(neighbor.distance);
+        if (neighbor.distance < Double.MAX_VALUE) {
+            neighbor = newNeighbor(neighbor.index, Math.sqrt(neighbor.distance));
+        }
         return neighbor;
     }
 
@@ -385,7 +424,7 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
             throw new IllegalArgumentException("Invalid k: " + k);
         }
 
-        if (k > keys.length) {
+        if (k > coordinates.nrows()) {
             throw new IllegalArgumentException("Neighbor array length is larger than the dataset size");
         }
 
@@ -401,7 +440,11 @@ public class KDTree <E> implements NearestNeighborSearch<double[], E>, KNNSearch
         search(q, root, heap);
         heap.sort();
         for (int i = 0; i < neighbors.length; i++) {
-            neighbors[i].distance = Math.sqrt(neighbors[i].distance);
+            if (neighbors[i].distance < Double.MAX_VALUE) {
+                neighbors[i].distance = Math.sqrt(neighbors[i].distance);
+                neighbors[i].key = key(neighbors[i].index);
+                neighbors[i].value = value(neighbors[i].index);
+            }
         }
 
         return neighbors;
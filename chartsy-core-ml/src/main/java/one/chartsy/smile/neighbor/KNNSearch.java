@@ -5,6 +5,8 @@
  */
 package one.chartsy.smile.neighbor;
 
+import java.util.Arrays;
+
 /**
  * K-nearest neighbor search identifies the top k nearest neighbors to the
  * query. This technique is commonly used in predictive analytics to
@@ -25,4 +27,27 @@ public interface KNNSearch<K, V> {
      * @param k	the number of nearest neighbors to search for.
      */
     Neighbor<K,V>[] knn(K q, int k);
+
+    /**
+     * Search the k nearest neighbors to each of the queries. The indexes and distances
+     * of the neighbors of the query {@code i}, nearest first, are stored in the
+     * {@code [i*k, (i+1)*k)} ranges of the given arrays. If fewer than k neighbors
+     * are found, the remaining slots get the index {@code -1} and an infinite distance.
+     *
+     * @param q the queries.
+     * @param k	the number of nearest neighbors to search for.
+     * @param index the output neighbor indexes, of length at least {@code q.length * k}.
+     * @param distance the output neighbor distances, of length at least {@code q.length * k}.
+     */
+    default void knn(K[] q, int k, int[] index, double[] distance) {
+        for (int i = 0; i < q.length; i++) {
+            Neighbor<K,V>[] neighbors = knn(q[i], k);
+            Arrays.sort(neighbors);
+            for (int j = 0; j < k; j++) {
+                boolean found = neighbors[j].distance < Double.MAX_VALUE;
+                index[i*k + j] = found? neighbors[j].index : -1;
+                distance[i*k + j] = found? neighbors[j].distance : Double.POSITIVE_INFINITY;
+            }
+        }
+    }
 }
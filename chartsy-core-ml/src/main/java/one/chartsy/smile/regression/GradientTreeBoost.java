@@ -18,6 +18,7 @@ package one.chartsy.smile.regression;
 import java.util.Arrays;
 
 import one.chartsy.smile.data.Attribute;
+import one.chartsy.smile.data.FeatureBins;
 import one.chartsy.smile.data.NumericAttribute;
 import one.chartsy.smile.math.Math;
 import one.chartsy.smile.sort.QuickSelect;
@@ -186,6 +187,10 @@ public class GradientTreeBoost implements Regression<double[]> {
          * The sampling rate for stochastic tree boosting.
          */
         private double f = 0.7;
+        /**
+         * The maximum number of bins per feature for the histogram-based training, or 0 for the exact training.
+         */
+        private int maxBins = 0;
         
         /**
          * Constructor.
@@ -277,9 +282,23 @@ public class GradientTreeBoost implements Regression<double[]> {
             return this;
         }
         
+        /**
+         * Enables the histogram-based training of the trees, on the features quantized once into
+         * at most the given number of bins.
+         * @param maxBins the maximum number of bins per feature, up to 256, or 0 for the exact training.
+         */
+        public Trainer setMaxBins(int maxBins) {
+            if (maxBins != 0 && (maxBins < 2 || maxBins > FeatureBins.MAX_BINS)) {
+                throw new IllegalArgumentException("Invalid maximum number of bins: " + maxBins);
+            }
+
+            this.maxBins = maxBins;
+            return this;
+        }
+
         @Override
         public GradientTreeBoost train(double[][] x, double[] y) {
-            return new GradientTreeBoost(attributes, x, y, loss, ntrees, maxNodes, shrinkage, f);
+            return new GradientTreeBoost(attributes, x, y, loss, ntrees, maxNodes, shrinkage, f, maxBins);
         }
     }
     
@@ -335,6 +354,26 @@ public class GradientTreeBoost implements Regression<double[]> {
      * @param f the sampling fraction for stochastic tree boosting.
      */
     public GradientTreeBoost(Attribute[] attributes, double[][] x, double[] y, Loss loss, int ntrees, int maxNodes, double shrinkage, double f) {
+        this(attributes, x, y, loss, ntrees, maxNodes, shrinkage, f, 0);
+    }
+
+    /**
+     * Constructor. Learns a gradient tree boosting for regression, optionally training the trees
+     * on the histograms of the features quantized once into at most {@code maxBins} bins, which
+     * is much faster than the exact training on large datasets.
+     *
+     * @param attributes the attribute properties.
+     * @param x the training instances.
+     * @param y the response variable.
+     * @param loss loss function for regression. By default, least absolute
+     * deviation is employed for robust regression.
+     * @param ntrees the number of iterations (trees).
+     * @param maxNodes the number of leaves in each tree.
+     * @param shrinkage the shrinkage parameter in (0, 1] controls the learning rate of procedure.
+     * @param f the sampling fraction for stochastic tree boosting.
+     * @param maxBins the maximum number of bins per feature, up to 256, or 0 for the exact training.
+     */
+    public GradientTreeBoost(Attribute[] attributes, double[][] x, double[] y, Loss loss, int ntrees, int maxNodes, double shrinkage, double f, int maxBins) {
         if (x.length != y.length) {
             throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.length, y.length));
         }
@@ -398,7 +437,13 @@ public class GradientTreeBoost implements Regression<double[]> {
             }
         }
         
-        int[][] order = SortUtils.sort(attributes, x);
+        int[][] order = null;
+        FeatureBins bins = null;
+        if (maxBins > 0) {
+            bins = FeatureBins.of(attributes, x, maxBins);
+        } else {
+            order = SortUtils.sort(attributes, x);
+        }
         trees = new RegressionTree[ntrees];
 
         for (int m = 0; m < ntrees; m++) {
@@ -413,7 +458,11 @@ public class GradientTreeBoost implements Regression<double[]> {
                 output = new HuberNodeOutput(residual, response, 0.9);                
             }
             
-            trees[m] = new RegressionTree(attributes, x, response, maxNodes, 5, x[0].length, order, samples, output);
+            if (bins != null) {
+                trees[m] = new RegressionTree(bins, response, maxNodes, 5, x[0].length, samples, output, null);
+            } else {
+                trees[m] = new RegressionTree(attributes, x, response, maxNodes, 5, x[0].length, order, samples, output);
+            }
             
             for (int i = 0; i < n; i++) {
                 residual[i] -= shrinkage * trees[m].predict(x[i]);
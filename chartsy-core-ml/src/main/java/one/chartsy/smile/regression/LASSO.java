@@ -18,6 +18,7 @@ package one.chartsy.smile.regression;
 import java.util.Arrays;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import one.chartsy.smile.data.FeatureMatrix;
 import one.chartsy.smile.math.Math;
 import one.chartsy.smile.math.matrix.Matrix;
 import one.chartsy.smile.math.matrix.DenseMatrix;
@@ -208,6 +209,10 @@ public class LASSO  implements Regression<double[]> {
             return new LASSO(x, y, lambda, tol, maxIter);
         }
 
+        public LASSO train(FeatureMatrix x, double[] y) {
+            return new LASSO(x, y, lambda, tol, maxIter);
+        }
+
         public LASSO train(Matrix x, double[] y) {
             return new LASSO(x, y, lambda, tol, maxIter);
         }
@@ -234,16 +239,41 @@ public class LASSO  implements Regression<double[]> {
      * @param maxIter the maximum number of IPM (Newton) iterations.
      */
     public LASSO(double[][] x, double[] y, double lambda, double tol, int maxIter) {
+        this(FeatureMatrix.of(x), y, lambda, tol, maxIter);
+    }
+
+    /**
+     * Constructor. Learn the L1-regularized least squares model.
+     * @param x a matrix containing the explanatory variables.
+     *          NO NEED to include a constant column of 1s for bias.
+     * @param y the response values.
+     * @param lambda the shrinkage/regularization parameter.
+     */
+    public LASSO(FeatureMatrix x, double[] y, double lambda) {
+        this(x, y, lambda, 1E-4, 1000);
+    }
+
+    /**
+     * Constructor. Learn the L1-regularized least squares model.
+     * @param x a matrix containing the explanatory variables.
+     *          NO NEED to include a constant column of 1s for bias.
+     * @param y the response values.
+     * @param lambda the shrinkage/regularization parameter.
+     * @param tol the tolerance for stopping iterations (relative target duality gap).
+     * @param maxIter the maximum number of IPM (Newton) iterations.
+     */
+    public LASSO(FeatureMatrix x, double[] y, double lambda, double tol, int maxIter) {
         this.lambda = lambda;
-        int n = x.length;
-        int p = x[0].length;
+        int n = x.nrows();
+        int p = x.ncols();
 
-        center = Math.colMeans(x);
+        center = x.colMeans();
         DenseMatrix X = Matrix.zeros(n, p);
 
+        double[] values = x.data();
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < p; j++) {
-                X.set(i, j, x[i][j] - center[j]);
+                X.set(i, j, values[i*p + j] - center[j]);
             }
         }
 
@@ -272,7 +302,7 @@ public class LASSO  implements Regression<double[]> {
         }
 
         b = ym - Math.dot(w, center);
-        fitness(Matrix.newInstance(x), y);
+        fitness(x.ax(w, new double[y.length]), y);
     }
 
     /**
@@ -297,7 +327,7 @@ public class LASSO  implements Regression<double[]> {
      */
     public LASSO(Matrix x, double[] y, double lambda, double tol, int maxIter) {
         train(x, y, lambda, tol, maxIter);
-        fitness(x, y);
+        fitness(x.ax(w, new double[y.length]), y);
     }
 
     private void train(Matrix x, double[] y, double lambda, double tol, int maxIter) {
@@ -509,10 +539,8 @@ public class LASSO  implements Regression<double[]> {
         }
     }
 
-    private void fitness(Matrix x, double[] y) {
+    private void fitness(double[] yhat, double[] y) {
         int n = y.length;
-        double[] yhat = new double[n];
-        x.ax(w, yhat);
 
         double TSS = 0.0;
         RSS = 0.0;
@@ -18,6 +18,7 @@ package one.chartsy.smile.regression;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import one.chartsy.smile.data.FeatureMatrix;
 import one.chartsy.smile.math.Math;
 import one.chartsy.smile.math.matrix.Matrix;
 import one.chartsy.smile.math.matrix.DenseMatrix;
@@ -156,6 +157,10 @@ public class OLS implements Regression<double[]>, Serializable {
         public OLS train(double[][] x, double[] y) {
             return new OLS(x, y);
         }
+
+        public OLS train(FeatureMatrix x, double[] y) {
+            return new OLS(x, y);
+        }
     }
 
     /**
@@ -175,12 +180,32 @@ public class OLS implements Regression<double[]>, Serializable {
      *            can handle rand-deficient matrix.
      */
     public OLS(double[][] x, double[] y, boolean SVD) {
-        if (x.length != y.length) {
-            throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.length, y.length));
+        this(FeatureMatrix.of(x), y, SVD);
+    }
+
+    /**
+     * Constructor. Learn the ordinary least squares model with QR decomposition.
+     * @param x a matrix containing the explanatory variables. NO NEED to include a constant column of 1s for bias.
+     * @param y the response values.
+     */
+    public OLS(FeatureMatrix x, double[] y) {
+        this(x, y, false);
+    }
+
+    /**
+     * Constructor. Learn the ordinary least squares model.
+     * @param x a matrix containing the explanatory variables. NO NEED to include a constant column of 1s for bias.
+     * @param y the response values.
+     * @param SVD If true, use SVD to fit the model. Otherwise, use QR decomposition. SVD is slower than QR but
+     *            can handle rand-deficient matrix.
+     */
+    public OLS(FeatureMatrix x, double[] y, boolean SVD) {
+        if (x.nrows() != y.length) {
+            throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.nrows(), y.length));
         }
 
-        int n = x.length;
-        p = x[0].length;
+        int n = x.nrows();
+        p = x.ncols();
         
         if (n <= p) {
             throw new IllegalArgumentException(String.format("The input matrix is not over determined: %d rows, %d columns", n, p));
@@ -189,9 +214,10 @@ public class OLS implements Regression<double[]>, Serializable {
         // weights and intercept
         double[] w1 = new double[p+1];
         DenseMatrix X = Matrix.zeros(n, p+1);
+        double[] values = x.data();
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < p; j++)
-                X.set(i, j, x[i][j]);
+                X.set(i, j, values[i*p + j]);
             X.set(i, p, 1.0);
         }
 
@@ -218,7 +244,7 @@ public class OLS implements Regression<double[]>, Serializable {
         System.arraycopy(w1, 0, w, 0, p);
 
         double[] yhat = new double[n];
-        Matrix.newInstance(x).ax(w, yhat);
+        x.ax(w, yhat);
 
         double TSS = 0.0;
         RSS = 0.0;
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import one.chartsy.smile.data.Attribute;
+import one.chartsy.smile.data.FeatureBins;
 import one.chartsy.smile.data.NumericAttribute;
 import one.chartsy.smile.math.Math;
 import one.chartsy.smile.sort.SortUtils;
@@ -123,6 +124,10 @@ public class RandomForest implements Regression<double[]> {
          * The sampling rate.
          */
         private double subsample = 1.0;
+        /**
+         * The maximum number of bins per feature for the histogram-based training, or 0 for the exact training.
+         */
+        private int maxBins = 0;
 
         /**
          * Constructor.
@@ -220,9 +225,23 @@ public class RandomForest implements Regression<double[]> {
             return this;
         }
 
+        /**
+         * Enables the histogram-based training of the trees, on the features quantized once into
+         * at most the given number of bins.
+         * @param maxBins the maximum number of bins per feature, up to 256, or 0 for the exact training.
+         */
+        public Trainer setMaxBins(int maxBins) {
+            if (maxBins != 0 && (maxBins < 2 || maxBins > FeatureBins.MAX_BINS)) {
+                throw new IllegalArgumentException("Invalid maximum number of bins: " + maxBins);
+            }
+
+            this.maxBins = maxBins;
+            return this;
+        }
+
         @Override
         public RandomForest train(double[][] x, double[] y) {
-            return new RandomForest(attributes, x, y, ntrees, maxNodes, nodeSize, mtry, subsample);
+            return new RandomForest(attributes, x, y, ntrees, maxNodes, nodeSize, mtry, subsample, null, maxBins);
         }
     }
 
@@ -248,6 +267,10 @@ public class RandomForest implements Regression<double[]> {
          * numeric attributes will be sorted.
          */
         int[][] order;
+        /**
+         * The quantized training instances for the histogram-based training, or null.
+         */
+        FeatureBins bins;
         /**
          * The number of variables to pick up in each node.
          */
@@ -280,7 +303,15 @@ public class RandomForest implements Regression<double[]> {
          * Constructor.
          */
         TrainingTask(Attribute[] attributes, double[][] x, double[] y, int maxNodes, int nodeSize, int mtry, double subsample, int[][] order, double[] prediction, int[] oob, double[] monotonicRegression) {
+            this(attributes, x, y, maxNodes, nodeSize, mtry, subsample, order, null, prediction, oob, monotonicRegression);
+        }
+
+        /**
+         * Constructor.
+         */
+        TrainingTask(Attribute[] attributes, double[][] x, double[] y, int maxNodes, int nodeSize, int mtry, double subsample, int[][] order, FeatureBins bins, double[] prediction, int[] oob, double[] monotonicRegression) {
             this.attributes = attributes;
+            this.bins = bins;
             this.monotonicRegression = monotonicRegression;
             this.x = x;
             this.y = y;
@@ -318,7 +349,9 @@ public class RandomForest implements Regression<double[]> {
                 }
             }
 
-            RegressionTree tree = new RegressionTree(attributes, x, y, maxNodes, nodeSize, mtry, order, samples, null, monotonicRegression);
+            RegressionTree tree = (bins != null)
+                    ? new RegressionTree(bins, y, maxNodes, nodeSize, mtry, samples, null, monotonicRegression)
+                    : new RegressionTree(attributes, x, y, maxNodes, nodeSize, mtry, order, samples, null, monotonicRegression);
 
             for (int i = 0; i < n; i++) {
                 if (samples[i] == 0) {
@@ -457,6 +490,29 @@ public class RandomForest implements Regression<double[]> {
      *                  sampling without replacement.
      */
     public RandomForest(Attribute[] attributes, double[][] x, double[] y, int ntrees, int maxNodes, int nodeSize, int mtry, double subsample, double[] monotonicRegression) {
+        this(attributes, x, y, ntrees, maxNodes, nodeSize, mtry, subsample, monotonicRegression, 0);
+    }
+
+    /**
+     * Constructor. Learns a random forest for regression, optionally training the trees on
+     * the histograms of the features quantized once into at most {@code maxBins} bins, which is
+     * much faster than the exact training on large datasets.
+     *
+     * @param attributes the attribute properties.
+     * @param x the training instances.
+     * @param y the response variable.
+     * @param ntrees the number of trees.
+     * @param mtry the number of input variables to be used to determine the decision
+     * at a node of the tree. p/3 seems to give generally good performance,
+     * where dim is the number of variables.
+     * @param nodeSize the number of instances in a node below which the tree will
+     * not split, setting nodeSize = 5 generally gives good results.
+     * @param maxNodes the maximum number of leaf nodes in the tree.
+     * @param subsample the sampling rate for training tree. 1.0 means sampling with replacement. < 1.0 means
+     *                  sampling without replacement.
+     * @param maxBins the maximum number of bins per feature, up to 256, or 0 for the exact training.
+     */
+    public RandomForest(Attribute[] attributes, double[][] x, double[] y, int ntrees, int maxNodes, int nodeSize, int mtry, double subsample, double[] monotonicRegression, int maxBins) {
         if (x.length != y.length) {
             throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.length, y.length));
         }
@@ -493,10 +549,16 @@ public class RandomForest implements Regression<double[]> {
         double[] prediction = new double[n];
         int[] oob = new int[n];
         
-        int[][] order = SortUtils.sort(attributes, x);
+        int[][] order = null;
+        FeatureBins bins = null;
+        if (maxBins > 0) {
+            bins = FeatureBins.of(attributes, x, maxBins);
+        } else {
+            order = SortUtils.sort(attributes, x);
+        }
         List<TrainingTask> tasks = new ArrayList<>();
         for (int i = 0; i < ntrees; i++) {
-            tasks.add(new TrainingTask(attributes, x, y, maxNodes, nodeSize, mtry, subsample, order, prediction, oob, monotonicRegression));
+            tasks.add(new TrainingTask(attributes, x, y, maxNodes, nodeSize, mtry, subsample, order, bins, prediction, oob, monotonicRegression));
         }
         
         try {
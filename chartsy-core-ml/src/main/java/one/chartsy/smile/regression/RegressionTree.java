@@ -17,14 +17,18 @@ package one.chartsy.smile.regression;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.IntStream;
 
 import one.chartsy.smile.data.Attribute;
+import one.chartsy.smile.data.FeatureBins;
 import one.chartsy.smile.data.NominalAttribute;
 import one.chartsy.smile.data.NumericAttribute;
 import one.chartsy.smile.math.Math;
@@ -130,6 +134,22 @@ public class RegressionTree implements Regression<double[]> {
      * attributes will be sorted.
      */
     private transient int[][] order;
+    /**
+     * The quantized training instances, during the histogram-based training.
+     */
+    private transient FeatureBins bins;
+    /**
+     * The training response variable, during the histogram-based training.
+     */
+    private transient double[] y;
+    /**
+     * The numbers of sampling of the training instances, during the histogram-based training.
+     */
+    private transient int[] samples;
+    /**
+     * The number of bin visits above which the histograms are accumulated in parallel.
+     */
+    private static final long PARALLEL_HISTOGRAM_THRESHOLD = 1L << 18;
 
     /**
      * Trainer for regression tree.
@@ -147,6 +167,10 @@ public class RegressionTree implements Regression<double[]> {
          * The number of sparse binary features.
          */
         private int numFeatures = -1;
+        /**
+         * The maximum number of bins per feature for the histogram-based training, or 0 for the exact training.
+         */
+        private int maxBins = 0;
 
         /**
          * Constructor.
@@ -224,8 +248,28 @@ public class RegressionTree implements Regression<double[]> {
             return this;
         }
 
+        /**
+         * Enables the histogram-based training, which quantizes each feature into at most the
+         * given number of bins and finds the splits from the per-node histograms. It is much faster
+         * than the exact training on large datasets, at the cost of considering fewer split
+         * candidates for the features with more distinct values than bins.
+         *
+         * @param maxBins the maximum number of bins per feature, up to 256, or 0 for the exact training.
+         */
+        public Trainer setMaxBins(int maxBins) {
+            if (maxBins != 0 && (maxBins < 2 || maxBins > FeatureBins.MAX_BINS)) {
+                throw new IllegalArgumentException("Invalid maximum number of bins: " + maxBins);
+            }
+
+            this.maxBins = maxBins;
+            return this;
+        }
+
         @Override
         public RegressionTree train(double[][] x, double[] y) {
+            if (maxBins > 0) {
+                return new RegressionTree(FeatureBins.of(attributes, x, maxBins), y, maxNodes, nodeSize, x[0].length, null, null, null);
+            }
             return new RegressionTree(attributes, x, y, maxNodes, nodeSize);
         }
 
@@ -700,6 +744,343 @@ public class RegressionTree implements Regression<double[]> {
         }
     }
 
+    /**
+     * Regression tree node for histogram-based training on quantized samples.
+     */
+    class HistogramTrainNode implements Comparable<HistogramTrainNode> {
+        /**
+         * The associated regression tree node.
+         */
+        Node node;
+        /**
+         * Child node that passes the test.
+         */
+        HistogramTrainNode trueChild;
+        /**
+         * Child node that fails the test.
+         */
+        HistogramTrainNode falseChild;
+        /**
+         * The indexes of the samples in this node, in ascending order.
+         */
+        int[] index;
+        /**
+         * The number of samples in this node, counting the repeated samples.
+         */
+        int n;
+        /**
+         * The sums of the sample responses per feature bin.
+         */
+        double[] sums;
+        /**
+         * The numbers of samples per feature bin.
+         */
+        int[] counts;
+
+        /**
+         * Constructor.
+         */
+        HistogramTrainNode(Node node, int[] index, int n) {
+            this.node = node;
+            this.index = index;
+            this.n = n;
+        }
+
+        @Override
+        public int compareTo(HistogramTrainNode a) {
+            return (int) Math.signum(a.node.splitScore - node.splitScore);
+        }
+
+        /**
+         * Accumulates the histograms of this node from its samples.
+         */
+        void buildHistograms() {
+            sums = new double[bins.totalBinCount()];
+            counts = new int[sums.length];
+
+            int p = bins.ncols();
+            if (mtry < p || (long) index.length * p < PARALLEL_HISTOGRAM_THRESHOLD) {
+                for (int j = 0; j < p; j++) {
+                    buildHistogram(j, sums, counts);
+                }
+                return;
+            }
+
+            double[] parallelSums = sums;
+            int[] parallelCounts = counts;
+            List<Callable<Void>> tasks = new ArrayList<>(p);
+            for (int j = 0; j < p; j++) {
+                int feature = j;
+                tasks.add(() -> {
+                    buildHistogram(feature, parallelSums, parallelCounts);
+                    return null;
+                });
+            }
+            try {
+                MulticoreExecutor.run(tasks);
+            } catch (RejectedExecutionException | InterruptedException ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                // the tasks already started may still write to the arrays given to them
+                sums = new double[sums.length];
+                counts = new int[counts.length];
+                for (int j = 0; j < p; j++) {
+                    buildHistogram(j, sums, counts);
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException e) {
+                    throw e;
+                }
+                if (ex.getCause() instanceof Error e) {
+                    throw e;
+                }
+                throw new IllegalStateException("Histogram accumulation failed", ex.getCause());
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IllegalStateException("Histogram accumulation failed", ex);
+            }
+        }
+
+        private void buildHistogram(int j, double[] sums, int[] counts) {
+            byte[] column = bins.column(j);
+            int offset = bins.binOffset(j);
+            for (int i : index) {
+                int b = offset + (column[i] & 0xFF);
+                sums[b] += samples[i] * y[i];
+                counts[b] += samples[i];
+            }
+        }
+
+        /**
+         * Derives the histograms of this node as the difference between the histograms of the
+         * parent and the sibling node.
+         */
+        void subtractHistograms(HistogramTrainNode parent, HistogramTrainNode sibling) {
+            sums = new double[parent.sums.length];
+            counts = new int[parent.counts.length];
+            for (int b = 0; b < sums.length; b++) {
+                sums[b] = parent.sums[b] - sibling.sums[b];
+                counts[b] = parent.counts[b] - sibling.counts[b];
+            }
+        }
+
+        void releaseHistograms() {
+            sums = null;
+            counts = null;
+        }
+
+        /**
+         * Calculate the node output for leaves.
+         *
+         * @param output the output calculate functor.
+         */
+        public void calculateOutput(NodeOutput output) {
+            if (node.trueChild == null && node.falseChild == null) {
+                int[] leafSamples = new int[y.length];
+                for (int i : index) {
+                    leafSamples[i] = samples[i];
+                }
+                node.output = output.calculate(leafSamples);
+            } else {
+                if (trueChild != null) {
+                    trueChild.calculateOutput(output);
+                }
+                if (falseChild != null) {
+                    falseChild.calculateOutput(output);
+                }
+            }
+        }
+
+        /**
+         * Finds the best attribute to split on at the current node. Returns
+         * true if a split exists to reduce squared error, false otherwise.
+         */
+        public boolean findBestSplit() {
+            if (n <= nodeSize) {
+                return false;
+            }
+
+            double sum = node.output * n;
+
+            int p = attributes.length;
+            int[] variables = IntStream.range(0, attributes.length).toArray();
+            if (mtry < p) {
+                Math.permutate(variables);
+            }
+
+            for (int j = 0; j < mtry; j++) {
+                Node split = findBestSplit(sum, variables[j]);
+                if (split.splitScore > node.splitScore) {
+                    node.splitFeature = split.splitFeature;
+                    node.splitValue = split.splitValue;
+                    node.splitScore = split.splitScore;
+                    node.gain = split.gain;
+                    node.trueChildOutput = split.trueChildOutput;
+                    node.falseChildOutput = split.falseChildOutput;
+                }
+            }
+
+            return (node.splitFeature != -1);
+        }
+
+        /**
+         * Finds the best split cutoff for attribute j from the histogram of the current node.
+         *
+         * @param sum the sum of responses of this node.
+         * @param j the attribute to split on.
+         */
+        public Node findBestSplit(double sum, int j) {
+            Node split = new Node(0.0);
+            int offset = bins.binOffset(j);
+            int m = bins.binCount(j);
+
+            if (attributes[j].getType() == Attribute.Type.NOMINAL) {
+                for (int k = 0; k < m; k++) {
+                    double tc = (double) counts[offset + k];
+                    double fc = n - tc;
+
+                    // If either side is empty, skip this feature.
+                    if (tc < nodeSize || fc < nodeSize) {
+                        continue;
+                    }
+
+                    // compute penalized means
+                    double trueMean = sums[offset + k] / tc;
+                    double falseMean = (sum - sums[offset + k]) / fc;
+
+                    double gain = (tc * trueMean * trueMean + fc * falseMean * falseMean) - n * split.output * split.output;
+                    if (gain > split.splitScore) {
+                        // new best split
+                        split.splitFeature = j;
+                        split.splitValue = k;
+                        split.splitScore = gain;
+                        split.trueChildOutput = trueMean;
+                        split.falseChildOutput = falseMean;
+                    }
+                }
+            } else if (attributes[j].getType() == Attribute.Type.NUMERIC) {
+                double trueSum = 0.0;
+                int trueCount = 0;
+
+                for (int k = 0; k < m - 1; k++) {
+                    if (counts[offset + k] == 0) {
+                        continue;
+                    }
+                    trueSum += sums[offset + k];
+                    trueCount += counts[offset + k];
+
+                    double falseCount = n - trueCount;
+
+                    // If either side is empty, skip this feature.
+                    if (trueCount < nodeSize || falseCount < nodeSize) {
+                        continue;
+                    }
+
+                    // compute penalized means
+                    double trueMean = trueSum / trueCount;
+                    double falseMean = (sum - trueSum) / falseCount;
+
+                    double gain = (trueCount * trueMean * trueMean + falseCount * falseMean * falseMean) - n * split.output * split.output;
+
+                    double score = gain;
+                    double monoRegForFeature = monotonicRegression[j];
+
+                    // False child - larger values of feature
+                    if (monoRegForFeature > 0) {
+                        boolean isTargetDecreasing = trueMean > falseMean;
+                        if (isTargetDecreasing) {
+                            score *= 1 - Math.abs(monoRegForFeature);
+                        }
+                    } else if (monoRegForFeature < 0) {
+                        boolean isTargetDecreasing = trueMean < falseMean;
+                        if (isTargetDecreasing) {
+                            score *= 1 - Math.abs(monoRegForFeature);
+                        }
+                    } // monoRegForFeature == 0 - no monotonic regression
+
+                    if (score > split.splitScore) {
+                        // new best split
+                        split.gain = gain;
+                        split.splitFeature = j;
+                        split.splitValue = bins.cutoff(j, k);
+                        split.splitScore = score;
+                        split.trueChildOutput = trueMean;
+                        split.falseChildOutput = falseMean;
+                    }
+                }
+            } else {
+                throw new IllegalStateException("Unsupported attribute type: " + attributes[j].getType());
+            }
+
+            return split;
+        }
+
+        /**
+         * Split the node into two children nodes.
+         */
+        public void split(PriorityQueue<HistogramTrainNode> nextSplits) {
+            if (node.splitFeature < 0) {
+                throw new IllegalStateException("Split a node with invalid feature.");
+            }
+
+            byte[] column = bins.column(node.splitFeature);
+            int splitBin = bins.binOf(node.splitFeature, node.splitValue);
+            boolean nominal = (attributes[node.splitFeature].getType() == Attribute.Type.NOMINAL);
+            int[] trueIndex = new int[index.length];
+            int[] falseIndex = new int[index.length];
+            int tn = 0, fn = 0, tc = 0, fc = 0;
+            for (int i : index) {
+                int b = column[i] & 0xFF;
+                if (nominal? b == splitBin : b <= splitBin) {
+                    trueIndex[tn++] = i;
+                    tc += samples[i];
+                } else {
+                    falseIndex[fn++] = i;
+                    fc += samples[i];
+                }
+            }
+
+            if (tc < nodeSize || fc < nodeSize) {
+                node.splitFeature = -1;
+                node.splitValue = Double.NaN;
+                node.splitScore = 0.0;
+                node.gain = 0.0;
+                releaseHistograms();
+                return;
+            }
+
+            node.trueChild = new Node(node.trueChildOutput);
+            node.falseChild = new Node(node.falseChildOutput);
+            trueChild = new HistogramTrainNode(node.trueChild, Arrays.copyOf(trueIndex, tn), tc);
+            falseChild = new HistogramTrainNode(node.falseChild, Arrays.copyOf(falseIndex, fn), fc);
+
+            // accumulate the histograms of the smaller child only, and derive the sibling ones
+            if (tc > nodeSize || fc > nodeSize) {
+                HistogramTrainNode smaller = (tn <= fn)? trueChild : falseChild;
+                HistogramTrainNode larger = (smaller == trueChild)? falseChild : trueChild;
+                smaller.buildHistograms();
+                larger.subtractHistograms(this, smaller);
+            }
+            releaseHistograms();
+
+            if (tc > nodeSize && trueChild.findBestSplit()) {
+                nextSplits.add(trueChild);
+            } else {
+                trueChild.releaseHistograms();
+            }
+
+            if (fc > nodeSize && falseChild.findBestSplit()) {
+                nextSplits.add(falseChild);
+            } else {
+                falseChild.releaseHistograms();
+            }
+
+            importance[node.splitFeature] += node.gain;
+        }
+    }
+
     /**
      * Regression tree training node for sparse binary features.
      */
@@ -1062,6 +1443,112 @@ public class RegressionTree implements Regression<double[]> {
         }
     }
 
+    /**
+     * Constructor. Learns a regression tree on the quantized training samples. Instead of
+     * scanning the sorted feature values, the split of each node is found from the histograms of
+     * the responses over the feature bins, where only the histograms of the smaller child of each
+     * split are accumulated from the samples and the histograms of its sibling are derived by
+     * subtraction from the parent ones. The tree predicts the raw, unquantized feature values.
+     *
+     * @param bins       the quantized training instances.
+     * @param y          the response variable.
+     * @param maxNodes   the maximum number of leaf nodes in the tree.
+     * @param nodeSize   the number of instances in a node below which the tree will
+     *                   not split, setting nodeSize = 5 generally gives good results.
+     * @param mtry       the number of input variables to pick to split on at each
+     *                   node. It seems that p/3 give generally good performance, where p
+     *                   is the number of variables.
+     * @param samples    the sample set of instances for stochastic learning.
+     *                   samples[i] is the number of sampling of instance i.
+     * @param output     the node output calculator, or {@code null} for the mean response.
+     * @param monotonicRegression the monotonic regression coefficients, or {@code null}.
+     */
+    public RegressionTree(FeatureBins bins, double[] y, int maxNodes, int nodeSize, int mtry, int[] samples, NodeOutput output, double[] monotonicRegression) {
+        if (bins.nrows() != y.length) {
+            throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", bins.nrows(), y.length));
+        }
+
+        if (mtry < 1 || mtry > bins.ncols()) {
+            throw new IllegalArgumentException("Invalid number of variables to split on at a node of the tree: " + mtry);
+        }
+
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("Invalid maximum leaves: " + maxNodes);
+        }
+
+        if (nodeSize < 2) {
+            throw new IllegalArgumentException("Invalid minimum size of leaf nodes: " + nodeSize);
+        }
+
+        if (monotonicRegression == null) {
+            monotonicRegression = new double[bins.ncols()];
+        }
+
+        this.attributes = bins.attributes();
+        this.monotonicRegression = monotonicRegression;
+        this.maxNodes = maxNodes;
+        this.nodeSize = nodeSize;
+        this.mtry = mtry;
+        this.bins = bins;
+        this.y = y;
+        importance = new double[attributes.length];
+
+        int n = 0;
+        int count = 0;
+        double sum = 0.0;
+        if (samples == null) {
+            samples = new int[y.length];
+            Arrays.fill(samples, 1);
+        }
+        for (int i = 0; i < y.length; i++) {
+            if (samples[i] > 0) {
+                n += samples[i];
+                sum += samples[i] * y[i];
+                count++;
+            }
+        }
+        this.samples = samples;
+
+        int[] index = new int[count];
+        for (int i = 0, k = 0; i < y.length; i++) {
+            if (samples[i] > 0) {
+                index[k++] = i;
+            }
+        }
+
+        root = new Node(sum / n);
+
+        HistogramTrainNode trainRoot = new HistogramTrainNode(root, index, n);
+        trainRoot.buildHistograms();
+        // Now add splits to the tree until max tree size is reached
+        if (trainRoot.findBestSplit()) {
+            // Priority queue for best-first tree growing.
+            PriorityQueue<HistogramTrainNode> nextSplits = new PriorityQueue<>();
+
+            nextSplits.add(trainRoot);
+
+            // Pop best leaf from priority queue, split it, and push
+            // children nodes into the queue if possible.
+            for (int leaves = 1; leaves < this.maxNodes; leaves++) {
+                // parent is the leaf to split
+                HistogramTrainNode node = nextSplits.poll();
+                if (node == null) {
+                    break;
+                }
+
+                node.split(nextSplits); // Split the parent node into two children nodes
+            }
+        }
+
+        if (output != null) {
+            trainRoot.calculateOutput(output);
+        }
+
+        this.bins = null;
+        this.y = null;
+        this.samples = null;
+    }
+
     /**
      * Constructor. Learns a regression tree on sparse binary samples.
      *
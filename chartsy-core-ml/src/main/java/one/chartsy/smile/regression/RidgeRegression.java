@@ -16,6 +16,7 @@
 
 package one.chartsy.smile.regression;
 
+import one.chartsy.smile.data.FeatureMatrix;
 import one.chartsy.smile.math.Math;
 import one.chartsy.smile.math.matrix.Matrix;
 import one.chartsy.smile.math.matrix.Cholesky;
@@ -172,6 +173,10 @@ public class RidgeRegression implements Regression<double[]> {
         public RidgeRegression train(double[][] x, double[] y) {
             return new RidgeRegression(x, y, lambda);
         }
+
+        public RidgeRegression train(FeatureMatrix x, double[] y) {
+            return new RidgeRegression(x, y, lambda);
+        }
     }
     
     /**
@@ -182,28 +187,40 @@ public class RidgeRegression implements Regression<double[]> {
      *               Choosing an appropriate value of lambda is important, and also difficult.
      */
     public RidgeRegression(double[][] x, double[] y, double lambda) {
-        if (x.length != y.length) {
-            throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.length, y.length));
+        this(FeatureMatrix.of(x), y, lambda);
+    }
+
+    /**
+     * Constructor. Learn the ridge regression model.
+     * @param x a matrix containing the explanatory variables. NO NEED to include a constant column of 1s for bias.
+     * @param y the response values.
+     * @param lambda the shrinkage/regularization parameter. Large lambda means more shrinkage.
+     *               Choosing an appropriate value of lambda is important, and also difficult.
+     */
+    public RidgeRegression(FeatureMatrix x, double[] y, double lambda) {
+        if (x.nrows() != y.length) {
+            throw new IllegalArgumentException(String.format("The sizes of X and Y don't match: %d != %d", x.nrows(), y.length));
         }
 
         if (lambda < 0.0) {
             throw new IllegalArgumentException("Invalid shrinkage/regularization parameter lambda = " + lambda);
         }
 
-        int n = x.length;
-        p = x[0].length;
+        int n = x.nrows();
+        p = x.ncols();
 
         if (n <= p) {
             throw new IllegalArgumentException(String.format("The input matrix is not over determined: %d rows, %d columns", n, p));
         }
 
         ym = Math.mean(y);                
-        center = Math.colMeans(x);
+        center = x.colMeans();
         
         DenseMatrix X = Matrix.zeros(n, p);
+        double[] values = x.data();
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < p; j++) {
-                X.set(i, j, x[i][j] - center[j]);
+                X.set(i, j, values[i*p + j] - center[j]);
             }
         }
         
@@ -242,7 +259,7 @@ public class RidgeRegression implements Regression<double[]> {
         b = ym - Math.dot(w, center);
 
         double[] yhat = new double[n];
-        Matrix.newInstance(x).ax(w, yhat);
+        x.ax(w, yhat);
 
         double TSS = 0.0;
         RSS = 0.0;
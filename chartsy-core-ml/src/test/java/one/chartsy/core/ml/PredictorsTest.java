@@ -0,0 +1,45 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.core.ml;
+
+import one.chartsy.data.Dataset;
+import one.chartsy.data.DoubleDataset;
+import one.chartsy.data.packed.PackedDoubleDataset;
+import one.chartsy.smile.data.FeatureMatrix;
+import one.chartsy.util.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PredictorsTest {
+
+    @Test
+    void getInputMatrix_gives_same_rows_as_getInputValues() {
+        DoubleDataset values = PackedDoubleDataset.of(new Random(1L).doubles(50).toArray());
+        Dataset<Pair<DoubleDataset, Double>> data = values.subsequences(4).withRight(values);
+
+        double[][] expected = Predictors.getInputValues(data);
+        FeatureMatrix x = Predictors.getInputMatrix(data);
+
+        assertEquals(expected.length, x.nrows());
+        assertEquals(4, x.ncols());
+        for (int i = 0; i < expected.length; i++)
+            assertArrayEquals(expected[i], x.row(i));
+    }
+
+    @Test
+    void getWindowMatrix_concatenates_feature_windows() {
+        DoubleDataset a = PackedDoubleDataset.of(new double[] {1, 2, 3, 4, 5});
+        DoubleDataset b = PackedDoubleDataset.of(new double[] {10, 20, 30, 40});
+
+        FeatureMatrix x = Predictors.getWindowMatrix(2, a, b);
+
+        assertEquals(3, x.nrows());
+        assertEquals(4, x.ncols());
+        assertArrayEquals(new double[] {1, 2, 10, 20}, x.row(0));
+        assertArrayEquals(new double[] {3, 4, 30, 40}, x.row(2));
+        assertEquals(0, Predictors.getWindowMatrix(5, a, b).nrows());
+    }
+}
@@ -0,0 +1,32 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.classification;
+
+import one.chartsy.smile.neighbor.FlatKDTree;
+import one.chartsy.smile.neighbor.KDTree;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KNNTest {
+    static final double[][] X = { {0.0, 0.0}, {0.1, 0.0}, {5.0, 5.0}, {5.1, 5.0}, {0.0, 0.1} };
+    static final int[] Y = { 0, 0, 1, 1, 0 };
+
+    @Test
+    void predict_skips_training_key_excluded_from_its_own_neighbors() {
+        var knn = new KNN<>(new FlatKDTree<>(X, X), Y, X.length);
+
+        assertArrayEquals(new int[] { 0, 0, 0, 0, 0 }, knn.predict(X));
+        for (int i = 0; i < X.length; i++)
+            assertEquals(0, knn.predict(X[i]), "instance " + i);
+    }
+
+    @Test
+    void batch_predict_matches_single_predict() {
+        var knn = new KNN<>(new KDTree<>(X, X), Y, 3);
+
+        int[] labels = knn.predict(X);
+        for (int i = 0; i < X.length; i++)
+            assertEquals(knn.predict(X[i]), labels[i], "instance " + i);
+    }
+}
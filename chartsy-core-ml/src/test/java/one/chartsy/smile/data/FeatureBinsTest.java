@@ -0,0 +1,46 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureBinsTest {
+
+    @Test
+    void few_distinct_values_get_one_bin_each() {
+        double[][] x = {{3}, {1}, {2}, {1}, {Double.NaN}};
+        FeatureBins bins = FeatureBins.of(null, x, 16);
+
+        assertEquals(3, bins.binCount(0));
+        assertEquals(1.5, bins.cutoff(0, 0));
+        assertEquals(2.5, bins.cutoff(0, 1));
+        assertArrayEquals(new int[] {2, 0, 1, 0, 2}, new int[] {bins.bin(0, 0), bins.bin(1, 0), bins.bin(2, 0), bins.bin(3, 0), bins.bin(4, 0)});
+    }
+
+    @Test
+    void many_distinct_values_are_split_at_quantiles() {
+        Random rnd = new Random(1L);
+        double[][] x = new double[10_000][1];
+        for (double[] row : x)
+            row[0] = rnd.nextGaussian();
+        FeatureBins bins = FeatureBins.of(null, x, 256);
+
+        assertEquals(256, bins.binCount(0));
+        int[] counts = new int[256];
+        for (int i = 0; i < x.length; i++) {
+            int b = bins.bin(i, 0);
+            counts[b]++;
+            assertEquals(b, bins.binOf(0, x[i][0]));
+            if (b > 0)
+                assertTrue(x[i][0] > bins.cutoff(0, b - 1));
+            if (b < 255)
+                assertTrue(x[i][0] <= bins.cutoff(0, b));
+        }
+        for (int count : counts)
+            assertEquals(x.length / 256.0, count, 2.0);
+    }
+}
@@ -0,0 +1,97 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.math.matrix;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DenseKernelsTest {
+
+    /** The shapes {m, n, k} covering the register tile edges, the cache blocks and the parallel path. */
+    static final int[][] SHAPES = {
+            {1, 1, 1}, {3, 5, 7}, {4, 4, 4}, {17, 2, 33}, {130, 70, 300}, {257, 129, 260}
+    };
+
+    static double[][] random(Random rnd, int m, int n) {
+        double[][] a = new double[m][n];
+        for (double[] row : a)
+            for (int j = 0; j < n; j++)
+                row[j] = rnd.nextGaussian();
+        return a;
+    }
+
+    static double[][] transpose(double[][] a) {
+        double[][] t = new double[a[0].length][a.length];
+        for (int i = 0; i < a.length; i++)
+            for (int j = 0; j < a[0].length; j++)
+                t[j][i] = a[i][j];
+        return t;
+    }
+
+    static double[][] multiply(double[][] a, double[][] b) {
+        double[][] c = new double[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++)
+            for (int j = 0; j < b[0].length; j++)
+                for (int k = 0; k < b.length; k++)
+                    c[i][j] += a[i][k] * b[k][j];
+        return c;
+    }
+
+    static void assertMatrixEquals(double[][] expected, JMatrix actual) {
+        assertEquals(expected.length, actual.nrows());
+        assertEquals(expected[0].length, actual.ncols());
+        for (int i = 0; i < expected.length; i++)
+            for (int j = 0; j < expected[0].length; j++)
+                assertEquals(expected[i][j], actual.get(i, j), 1E-9, "at (" + i + ", " + j + ")");
+    }
+
+    @Test
+    void matrix_products_match_naive_multiplication() {
+        Random rnd = new Random(1L);
+        for (int[] shape : SHAPES) {
+            int m = shape[0], n = shape[1], k = shape[2];
+            double[][] a = random(rnd, m, k), b = random(rnd, k, n), bt = transpose(b), at = transpose(a);
+
+            assertMatrixEquals(multiply(a, b), new JMatrix(a).abmm(new JMatrix(b)));
+            assertMatrixEquals(multiply(a, b), new JMatrix(a).abtmm(new JMatrix(bt)));
+            assertMatrixEquals(multiply(a, b), new JMatrix(at).atbmm(new JMatrix(b)));
+            assertMatrixEquals(multiply(at, a), new JMatrix(a).ata());
+            assertMatrixEquals(multiply(a, at), new JMatrix(a).aat());
+        }
+    }
+
+    @Test
+    void ata_is_exactly_symmetric() {
+        JMatrix ata = new JMatrix(random(new Random(2L), 301, 67)).ata();
+        for (int i = 0; i < ata.nrows(); i++)
+            for (int j = 0; j < i; j++)
+                assertEquals(ata.get(j, i), ata.get(i, j), 0.0);
+    }
+
+    @Test
+    void matrix_vector_products_match_naive_multiplication() {
+        Random rnd = new Random(3L);
+        for (int[] shape : new int[][] {{1, 1}, {5, 3}, {70, 130}, {3000, 1100}}) {
+            int m = shape[0], n = shape[1];
+            double[][] a = random(rnd, m, n);
+            double[] x = rnd.doubles(n).toArray(), z = rnd.doubles(m).toArray();
+            JMatrix matrix = new JMatrix(a);
+
+            double[] expected = new double[m];
+            for (int i = 0; i < m; i++)
+                for (int j = 0; j < n; j++)
+                    expected[i] += a[i][j] * x[j];
+            assertArrayEquals(expected, matrix.ax(x, new double[m]), 1E-9);
+
+            double[] expectedT = new double[n];
+            for (int j = 0; j < n; j++)
+                for (int i = 0; i < m; i++)
+                    expectedT[j] += a[i][j] * z[i];
+            assertArrayEquals(expectedT, matrix.atx(z, new double[n]), 1E-9);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.neighbor;
+
+import one.chartsy.smile.data.FeatureMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatKDTreeTest {
+
+    @Test
+    void batch_knn_matches_pointer_based_tree() {
+        Random rnd = new Random(1L);
+        double[][] x = KDTreeTest.randomPoints(rnd, 5000, 3);
+        double[][] queries = KDTreeTest.randomPoints(rnd, 1000, 3);
+        KDTree<double[]> expected = new KDTree<>(FeatureMatrix.of(x), null);
+        FlatKDTree<double[]> tree = new FlatKDTree<>(FeatureMatrix.of(x), null);
+
+        int k = 7;
+        int[] index = new int[queries.length * k];
+        double[] distance = new double[index.length];
+        tree.knn(queries, k, index, distance);
+
+        int[] matrixIndex = new int[index.length];
+        double[] matrixDistance = new double[index.length];
+        tree.knn(FeatureMatrix.of(queries), k, matrixIndex, matrixDistance);
+        assertArrayEquals(index, matrixIndex);
+        assertArrayEquals(distance, matrixDistance);
+
+        for (int i = 0; i < queries.length; i++) {
+            Neighbor<double[], double[]>[] neighbors = expected.knn(queries[i], k);
+            Arrays.sort(neighbors);
+            for (int j = 0; j < k; j++) {
+                assertEquals(neighbors[j].distance, distance[i*k + j], 1E-12);
+                assertEquals(neighbors[j].index, index[i*k + j]);
+            }
+        }
+    }
+
+    @Test
+    void tree_built_from_arrays_excludes_query_itself() {
+        double[][] x = KDTreeTest.randomPoints(new Random(2L), 100, 3);
+        FlatKDTree<double[]> tree = new FlatKDTree<>(x, x);
+
+        assertNotEquals(7, tree.nearest(x[7]).index);
+        assertSame(x[tree.nearest(x[7]).index], tree.nearest(x[7]).key);
+        assertEquals(7, tree.nearest(x[7].clone()).index);
+    }
+
+    @Test
+    void range_matches_linear_scan() {
+        Random rnd = new Random(3L);
+        double[][] x = KDTreeTest.randomPoints(rnd, 1000, 2);
+        FlatKDTree<double[]> tree = new FlatKDTree<>(x, x);
+
+        double[] q = {0.1, -0.2};
+        List<Neighbor<double[], double[]>> neighbors = new ArrayList<>();
+        tree.range(q, 0.5, neighbors);
+
+        long count = 0;
+        for (double[] point : x)
+            if (one.chartsy.smile.math.Math.distance(q, point) <= 0.5)
+                count++;
+        assertEquals(count, neighbors.size());
+        for (Neighbor<double[], double[]> neighbor : neighbors)
+            assertTrue(neighbor.distance <= 0.5);
+    }
+}
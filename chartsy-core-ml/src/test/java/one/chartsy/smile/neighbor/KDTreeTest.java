@@ -0,0 +1,86 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.neighbor;
+
+import one.chartsy.smile.data.FeatureMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KDTreeTest {
+
+    static double[][] randomPoints(Random rnd, int n, int d) {
+        double[][] x = new double[n][d];
+        for (double[] point : x)
+            for (int j = 0; j < d; j++)
+                point[j] = rnd.nextGaussian();
+        return x;
+    }
+
+    @Test
+    void knn_matches_linear_scan() {
+        Random rnd = new Random(1L);
+        double[][] x = randomPoints(rnd, 2000, 4);
+        KDTree<double[]> tree = new KDTree<>(FeatureMatrix.of(x), null);
+
+        for (double[] q : randomPoints(rnd, 100, 4)) {
+            Neighbor<double[], double[]>[] neighbors = tree.knn(q, 5);
+            java.util.Arrays.sort(neighbors);
+
+            double[] distances = new double[x.length];
+            for (int i = 0; i < x.length; i++)
+                distances[i] = one.chartsy.smile.math.Math.distance(q, x[i]);
+            double[] sorted = distances.clone();
+            java.util.Arrays.sort(sorted);
+            for (int k = 0; k < 5; k++) {
+                assertEquals(sorted[k], neighbors[k].distance, 1E-12);
+                assertEquals(distances[neighbors[k].index], neighbors[k].distance, 1E-12);
+                assertArrayEquals(x[neighbors[k].index], neighbors[k].key);
+            }
+        }
+    }
+
+    @Test
+    void tree_built_from_arrays_excludes_query_itself() {
+        double[][] x = randomPoints(new Random(2L), 100, 3);
+        KDTree<double[]> tree = new KDTree<>(x, x);
+
+        assertNotEquals(7, tree.nearest(x[7]).index);
+        assertSame(x[tree.nearest(x[7]).index], tree.nearest(x[7]).key);
+    }
+
+    @Test
+    void knn_leaves_unfilled_neighbors_without_key_and_value() {
+        double[][] x = randomPoints(new Random(3L), 10, 2);
+        KDTree<double[]> tree = new KDTree<>(x, x);
+
+        int unfilled = 0;
+        for (Neighbor<double[], double[]> neighbor : tree.knn(x[4], x.length)) {
+            if (neighbor.distance == Double.MAX_VALUE) {
+                assertNull(neighbor.key);
+                assertNull(neighbor.value);
+                unfilled++;
+            } else {
+                assertSame(x[neighbor.index], neighbor.key);
+                assertSame(x[neighbor.index], neighbor.value);
+            }
+        }
+        assertEquals(1, unfilled);
+    }
+
+    @Test
+    void batch_knn_gives_neighbors_nearest_first() {
+        double[][] x = randomPoints(new Random(4L), 10, 2);
+        KDTree<double[]> tree = new KDTree<>(x, x);
+
+        int[] index = new int[x.length];
+        double[] distance = new double[x.length];
+        tree.knn(new double[][] { x[4] }, x.length, index, distance);
+        for (int j = 1; j < x.length; j++)
+            assertTrue(distance[j - 1] <= distance[j]);
+        assertEquals(-1, index[x.length - 1]);
+        assertEquals(Double.POSITIVE_INFINITY, distance[x.length - 1]);
+    }
+}
@@ -0,0 +1,59 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.smile.regression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegressionTreeTest {
+
+    @Test
+    void histogram_training_matches_exact_training_when_every_value_has_own_bin() {
+        Random rnd = new Random(1L);
+        double[][] x = new double[2000][3];
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < 3; j++)
+                x[i][j] = rnd.nextInt(20);
+            y[i] = x[i][0] - 2*x[i][1] + rnd.nextGaussian();
+        }
+
+        RegressionTree exact = new RegressionTree.Trainer(20).setNodeSize(5).train(x, y);
+        RegressionTree binned = new RegressionTree.Trainer(20).setNodeSize(5).setMaxBins(256).train(x, y);
+
+        for (double[] q : x)
+            assertEquals(exact.predict(q), binned.predict(q), 1E-9);
+    }
+
+    @Test
+    void histogram_training_fits_continuous_features() {
+        Random rnd = new Random(2L);
+        double[][] x = new double[5000][4];
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < 4; j++)
+                x[i][j] = rnd.nextGaussian();
+            y[i] = 3*Math.sin(x[i][0]) + x[i][1];
+        }
+
+        double exactError = rmse(new RegressionTree.Trainer(64).setNodeSize(5).train(x, y), x, y);
+        double binnedError = rmse(new RegressionTree.Trainer(64).setNodeSize(5).setMaxBins(64).train(x, y), x, y);
+        double exactBoostError = rmse(new GradientTreeBoost.Trainer(50).setShrinkage(0.1).train(x, y), x, y);
+        double binnedBoostError = rmse(new GradientTreeBoost.Trainer(50).setShrinkage(0.1).setMaxBins(64).train(x, y), x, y);
+
+        assertEquals(exactError, binnedError, 0.1 * exactError);
+        assertEquals(exactBoostError, binnedBoostError, 0.1 * exactBoostError);
+    }
+
+    private static double rmse(Regression<double[]> model, double[][] x, double[] y) {
+        double sum = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            double d = model.predict(x[i]) - y[i];
+            sum += d * d;
+        }
+        return Math.sqrt(sum / x.length);
+    }
+}
@@ -43,6 +43,14 @@ import java.util.logging.Logger;
  * </pre>
  * 
  * <p>
+ * The listener lists created with a {@link Multicaster} dispatch events without
+ * reflection: {@link #fire()} gives the sole registered listener itself, or the
+ * listener combined by the multicaster from the snapshot of the registered
+ * listeners, recombined on each listener registration change. Such a dispatch
+ * involves no boxing of the event arguments, and can be inlined by the compiler.
+ * </p>
+ * 
+ * <p>
  * Serializing an {@link ListenerList} instance will result in any non-
  * {@link Serializable} listeners being silently dropped.
  * </p>
@@ -74,6 +82,18 @@ public class ListenerList<L> implements InvocationHandler, Serializable {
      */
     private transient L[] prototypeArray;
     
+    /**
+     * The multicaster combining the registered listeners, or {@code null} if
+     * events are dispatched through the reflective proxy.
+     */
+    private final transient Multicaster<L> multicaster;
+    
+    /**
+     * The listener combined by the {@link #multicaster} from the currently
+     * registered listeners.
+     */
+    private transient volatile L dispatcher;
+    
     /**
      * Creates an EventListenerSupport object which supports the specified
      * listener type.
@@ -94,6 +114,25 @@ public class ListenerList<L> implements InvocationHandler, Serializable {
         return new ListenerList<>(listenerInterface);
     }
     
+    /**
+     * Creates a ListenerList object dispatching events to the listeners of the
+     * specified type through the given multicaster, instead of the reflective
+     * proxy.
+     *
+     * @param <T> the type of the listener interface
+     * @param listenerInterface the type of listener interface that will receive
+     *        events posted using this class.
+     * @param multicaster the multicaster combining the registered listeners
+     *
+     * @return the ListenerList object using the typed dispatch
+     *
+     * @throws IllegalArgumentException if <code>listenerInterface</code> is
+     *         <code>null</code> or not an interface.
+     */
+    public static <T> ListenerList<T> of(Class<T> listenerInterface, Multicaster<T> multicaster) {
+        return new ListenerList<>(listenerInterface, Objects.requireNonNull(multicaster, "multicaster"));
+    }
+    
     /**
      * Creates an EventListenerSupport object which supports the provided
      * listener interface.
@@ -108,12 +147,33 @@ public class ListenerList<L> implements InvocationHandler, Serializable {
      *             if <code>listenerInterface</code> is not an interface.
      */
     public ListenerList(Class<L> listenerType) {
+        this(listenerType, null);
+    }
+    
+    /**
+     * Creates a ListenerList object which supports the provided listener
+     * interface, and dispatches events through the given multicaster.
+     * 
+     * @param listenerType
+     *            the type of listener interface that will receive events posted
+     *            using this class.
+     * @param multicaster
+     *            the multicaster combining the registered listeners, or
+     *            {@code null} to dispatch events through the reflective proxy
+     * @throws IllegalArgumentException
+     *             if <code>listenerInterface</code> is <code>null</code> or
+     *             not an interface.
+     */
+    public ListenerList(Class<L> listenerType, Multicaster<L> multicaster) {
         if (listenerType == null)
             throw new IllegalArgumentException("Listener interface cannot be null");
         if (!listenerType.isInterface())
             throw new IllegalArgumentException("Class " + listenerType.getName() + " is not an interface");
         
         this.prototypeArray = createPrototypeArray(listenerType);
+        this.multicaster = multicaster;
+        if (multicaster != null)
+            updateDispatcher();
     }
     
     /**
@@ -121,10 +181,18 @@ public class ListenerList<L> implements InvocationHandler, Serializable {
      * of the registered event listeners. All calls made to this proxy will be
      * forwarded to all registered listeners.
      * 
+     * <p>
+     * When the list was created with a {@link Multicaster}, the returned object
+     * is the typed dispatcher of the listeners registered at the time of the
+     * call, thus it should not be retained across listener registration changes.
+     * 
      * @return a proxy object which can be used to call listener methods on all
      *         of the registered event listeners
      */
     public L fire() {
+        L dispatcher = this.dispatcher;
+        if (dispatcher != null)
+            return dispatcher;
         if (proxy == null)
             proxy = createProxyInstance();
         return proxy;
@@ -144,7 +212,9 @@ public class ListenerList<L> implements InvocationHandler, Serializable {
      */
     public Subscription addListener(L listener) {
         listeners.add(Objects.requireNonNull(listener, "Listener object cannot be null."));
-        return new Subscription(listeners, listener);
+        if (multicaster != null)
+            updateDispatcher();
+        return new Subscription(this, listener);
     }
     
     /**
@@ -156,7 +226,20 @@ public class ListenerList<L> implements InvocationHandler, Serializable {
      *             if the {@code listener} is {@code null}
      */
     public void removeListener(L listener) {
-        listeners.remove(Objects.requireNonNull(listener, "Listener object cannot be null."));
+        removeListenerObject(Objects.requireNonNull(listener, "Listener object cannot be null."));
+    }
+    
+    void removeListenerObject(Object listener) {
+        if (listeners.remove(listener) && multicaster != null)
+            updateDispatcher();
+    }
+    
+    /**
+     * Recombines the typed dispatcher from the current snapshot of the listeners.
+     */
+    private synchronized void updateDispatcher() {
+        L[] snapshot = getListeners();
+        dispatcher = (snapshot.length == 1)? snapshot[0] : multicaster.multicast(snapshot);
     }
     
     /**
@@ -0,0 +1,33 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.core.event;
+
+/**
+ * Combines several listeners into a single listener forwarding each call to all of them, in order.
+ * <p>
+ * The multicaster is a typed, non-reflective alternative to the {@link ListenerList} proxy, usually
+ * hand-written as a static method of the listener interface, e.g.:
+ * <pre>{@code
+ * static PositionValueChangeListener multicast(PositionValueChangeListener[] listeners) {
+ *     return (account, position) -> {
+ *         for (PositionValueChangeListener listener : listeners)
+ *             listener.positionValueChanged(account, position);
+ *     };
+ * }
+ * }</pre>
+ * and installed with {@link ListenerList#of(Class, Multicaster)}.
+ *
+ * @param <L> the listener type
+ * @author Mariusz Bernacki
+ */
+@FunctionalInterface
+public interface Multicaster<L> {
+
+    /**
+     * Gives the listener forwarding calls to all the given listeners.
+     *
+     * @param listeners the listeners to forward calls to, never modified afterwards
+     * @return the combined listener
+     */
+    L multicast(L[] listeners);
+}
@@ -4,8 +4,8 @@ package one.chartsy.data;
 
 import one.chartsy.Candle;
 import one.chartsy.SymbolResource;
+import one.chartsy.data.packed.PackedCandleDataset;
 import one.chartsy.data.packed.PackedCandleSeries;
-import one.chartsy.data.packed.PackedDataset;
 import one.chartsy.random.RandomWalk;
 import one.chartsy.time.Chronological;
 import reactor.core.publisher.Mono;
@@ -30,7 +30,7 @@ public interface CandleSeries extends Series<Candle> {
 
     static CandleSeries of(SymbolResource<Candle> resource, Collection<? extends Candle> values) {
         boolean reverse = (Chronological.Order.CHRONOLOGICAL.isOrdered(values));
-        return new PackedCandleSeries(resource, PackedDataset.of(values, reverse));
+        return new PackedCandleSeries(resource, PackedCandleDataset.of(values, reverse));
     }
 
     static <T extends Candle> CandleSeries from(Series<T> series) {
@@ -22,4 +22,16 @@ public interface ChronologicalIterator<E extends Chronological> extends Iterator
      *             if the iteration has no more elements
      */
     E peek();
+
+    /**
+     * Peeks for the time of the next value available in the iteration sequence
+     * without moving the actual iterator pointer.
+     *
+     * @return the time of the next value in the iteration, in epoch micros
+     * @throws NoSuchElementException
+     *             if the iteration has no more elements
+     */
+    default long peekTime() {
+        return peek().getTime();
+    }
 }
@@ -2,6 +2,7 @@
  * SPDX-License-Identifier: Apache-2.0 */
 package one.chartsy.data;
 
+import one.chartsy.data.packed.LazyDoubleSeries;
 import one.chartsy.data.packed.PackedDoubleDataset;
 import one.chartsy.data.packed.PackedDoubleSeries;
 import one.chartsy.time.Timeline;
@@ -192,4 +193,13 @@ public interface DoubleSeries extends TimeSeriesAlike {
      */
     DoubleSeries mapThread(DoubleBinaryOperator f, DoubleSeries other);
 
+    /**
+     * Gives the lazily evaluated view of the series. The element-wise operations on the returned
+     * series are fused into a single pass performed on {@link LazyDoubleSeries#toPacked()}.
+     *
+     * @return the lazy series
+     */
+    default LazyDoubleSeries lazy() {
+        return LazyDoubleSeries.of(this);
+    }
 }
@@ -0,0 +1,24 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.function;
+
+/**
+ * Accepts candles given as primitive values, allowing producers such as parsers to emit candle
+ * data without creating intermediate {@code Candle} objects.
+ */
+@FunctionalInterface
+public interface CandleSink {
+
+    /**
+     * Accepts the next candle.
+     *
+     * @param time the candle time in epoch microseconds
+     * @param open the open price
+     * @param high the high price
+     * @param low the low price
+     * @param close the close price
+     * @param volume the volume
+     * @param count the trade count
+     */
+    void accept(long time, double open, double high, double low, double close, double volume, int count);
+}
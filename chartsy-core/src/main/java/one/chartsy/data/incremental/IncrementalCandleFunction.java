@@ -0,0 +1,55 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.incremental;
+
+import one.chartsy.Candle;
+
+import java.util.function.Consumer;
+
+/**
+ * A stateful function of a stream of candles, updated in constant time per candle.
+ * <p>
+ * Being a {@code Consumer<Candle>} the function can be fed directly by a
+ * {@link one.chartsy.TimeFrameAggregator} with the completed candles, or by a strategy from the
+ * simulation loop.
+ *
+ * @author Mariusz Bernacki
+ * @see IncrementalIndicators
+ */
+public interface IncrementalCandleFunction extends Consumer<Candle> {
+
+    /**
+     * Feeds the next candle of the stream.
+     *
+     * @param candle the next candle, in chronological order
+     */
+    @Override
+    void accept(Candle candle);
+
+    /**
+     * Checks whether the function result is available.
+     */
+    boolean isReady();
+
+    /**
+     * Gives the latest function result.
+     *
+     * @throws IllegalStateException if the result is not available yet
+     */
+    double getLast();
+
+    /**
+     * Resets the function to its initial state.
+     */
+    void reset();
+
+    /**
+     * Creates the pipeline feeding each result of {@code this} function to the {@code next} one.
+     *
+     * @param next the function consuming the results of this function
+     * @return the composed function
+     */
+    default IncrementalCandleFunction then(IncrementalDoubleFunction next) {
+        return new IncrementalIndicators.CandleChain(this, next);
+    }
+}
@@ -0,0 +1,56 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.incremental;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * A stateful function of a stream of double values, updated in constant time per value.
+ * <p>
+ * The function is the streaming counterpart of a {@code DoubleSeries} operation. The values are fed
+ * in chronological order, one at a time, and the function result is available once enough values
+ * have been accepted to fill its warm-up period. The sequence of results matches exactly, in
+ * chronological order, the values given by the corresponding batch operation on a series.
+ * <p>
+ * Functions can be composed into pipelines using {@link #then(IncrementalDoubleFunction)}.
+ *
+ * @author Mariusz Bernacki
+ * @see IncrementalIndicators
+ */
+public interface IncrementalDoubleFunction extends DoubleConsumer {
+
+    /**
+     * Feeds the next value of the stream.
+     *
+     * @param value the next value, in chronological order
+     */
+    @Override
+    void accept(double value);
+
+    /**
+     * Checks whether the function result is available.
+     */
+    boolean isReady();
+
+    /**
+     * Gives the latest function result.
+     *
+     * @throws IllegalStateException if the result is not available yet
+     */
+    double getLast();
+
+    /**
+     * Resets the function to its initial state.
+     */
+    void reset();
+
+    /**
+     * Creates the pipeline feeding each result of {@code this} function to the {@code next} one.
+     *
+     * @param next the function consuming the results of this function
+     * @return the composed function
+     */
+    default IncrementalDoubleFunction then(IncrementalDoubleFunction next) {
+        return new IncrementalIndicators.Chain(this, next);
+    }
+}
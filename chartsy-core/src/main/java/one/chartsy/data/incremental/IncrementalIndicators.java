@@ -0,0 +1,366 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.incremental;
+
+import one.chartsy.Candle;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The factory of the incremental counterparts of the {@code DoubleSeries} and {@code CandleSeries}
+ * indicators.
+ * <p>
+ * Each incremental indicator gives, for the same input in chronological order, exactly the same
+ * values as its batch counterpart, e.g. the pipeline
+ * <pre>{@code
+ * IncrementalCandleFunction atr = IncrementalIndicators.atr(14);
+ * }</pre>
+ * fed with the candles of a series gives exactly the values of {@code series.atr(14)}, and the
+ * pipeline {@code closes().then(sma(10)).then(hhv(5))} matches {@code series.closes().sma(10).hhv(5)}.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class IncrementalIndicators {
+
+    private IncrementalIndicators() { }
+
+    /**
+     * Gives the incremental simple moving average.
+     *
+     * @see one.chartsy.data.DoubleSeries#sma(int)
+     */
+    public static IncrementalDoubleFunction sma(int periods) {
+        return new Sma(periods);
+    }
+
+    /**
+     * Gives the incremental Wilder's moving average.
+     *
+     * @see one.chartsy.data.DoubleSeries#wilders(int)
+     */
+    public static IncrementalDoubleFunction wilders(int periods) {
+        return new Wilders(periods);
+    }
+
+    /**
+     * Gives the incremental highest value over the specified periods.
+     *
+     * @see one.chartsy.data.DoubleSeries#hhv(int)
+     */
+    public static IncrementalDoubleFunction hhv(int periods) {
+        return new Extremum(periods, true);
+    }
+
+    /**
+     * Gives the incremental lowest value over the specified periods.
+     *
+     * @see one.chartsy.data.DoubleSeries#llv(int)
+     */
+    public static IncrementalDoubleFunction llv(int periods) {
+        return new Extremum(periods, false);
+    }
+
+    /**
+     * Gives the incremental true range of candles.
+     *
+     * @see one.chartsy.data.CandleSeries#trueRange()
+     */
+    public static IncrementalCandleFunction trueRange() {
+        return new TrueRange();
+    }
+
+    /**
+     * Gives the incremental Average True Range of candles.
+     *
+     * @see one.chartsy.data.CandleSeries#atr(int)
+     */
+    public static IncrementalCandleFunction atr(int periods) {
+        return trueRange().then(wilders(periods));
+    }
+
+    public static IncrementalCandleFunction opens() {
+        return map(Candle::open);
+    }
+
+    public static IncrementalCandleFunction highs() {
+        return map(Candle::high);
+    }
+
+    public static IncrementalCandleFunction lows() {
+        return map(Candle::low);
+    }
+
+    public static IncrementalCandleFunction closes() {
+        return map(Candle::close);
+    }
+
+    public static IncrementalCandleFunction volumes() {
+        return map(Candle::volume);
+    }
+
+    /**
+     * Gives the candle function projecting each candle to a double value.
+     */
+    public static IncrementalCandleFunction map(ToDoubleFunction<? super Candle> mapper) {
+        return new Mapped(mapper);
+    }
+
+    private static void requirePositive(int periods) {
+        if (periods <= 0)
+            throw new IllegalArgumentException("The `periods` argument " + periods + " must be positive integer");
+    }
+
+    abstract static class AbstractFunction {
+        protected boolean ready;
+        protected double last;
+
+        public final boolean isReady() {
+            return ready;
+        }
+
+        public final double getLast() {
+            if (!ready)
+                throw new IllegalStateException("Result not available yet");
+            return last;
+        }
+
+        protected final void publish(double value) {
+            last = value;
+            ready = true;
+        }
+
+        public void reset() {
+            ready = false;
+            last = 0.0;
+        }
+    }
+
+    static final class Chain implements IncrementalDoubleFunction {
+        private final IncrementalDoubleFunction first, second;
+
+        Chain(IncrementalDoubleFunction first, IncrementalDoubleFunction second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void accept(double value) {
+            first.accept(value);
+            if (first.isReady())
+                second.accept(first.getLast());
+        }
+
+        @Override
+        public boolean isReady() {
+            return second.isReady();
+        }
+
+        @Override
+        public double getLast() {
+            return second.getLast();
+        }
+
+        @Override
+        public void reset() {
+            first.reset();
+            second.reset();
+        }
+    }
+
+    static final class CandleChain implements IncrementalCandleFunction {
+        private final IncrementalCandleFunction first;
+        private final IncrementalDoubleFunction second;
+
+        CandleChain(IncrementalCandleFunction first, IncrementalDoubleFunction second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void accept(Candle candle) {
+            first.accept(candle);
+            if (first.isReady())
+                second.accept(first.getLast());
+        }
+
+        @Override
+        public boolean isReady() {
+            return second.isReady();
+        }
+
+        @Override
+        public double getLast() {
+            return second.getLast();
+        }
+
+        @Override
+        public void reset() {
+            first.reset();
+            second.reset();
+        }
+    }
+
+    static final class Mapped extends AbstractFunction implements IncrementalCandleFunction {
+        private final ToDoubleFunction<? super Candle> mapper;
+
+        Mapped(ToDoubleFunction<? super Candle> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void accept(Candle candle) {
+            publish(mapper.applyAsDouble(candle));
+        }
+    }
+
+    /**
+     * The fixed-size window of the most recent values.
+     */
+    abstract static class WindowFunction extends AbstractFunction implements IncrementalDoubleFunction {
+        protected final int periods;
+        protected final double[] window;
+        protected long count;
+
+        WindowFunction(int periods) {
+            requirePositive(periods);
+            this.periods = periods;
+            this.window = new double[periods];
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            count = 0;
+        }
+    }
+
+    static final class Sma extends WindowFunction {
+        private final double coeff;
+        private double value;
+
+        Sma(int periods) {
+            super(periods);
+            this.coeff = 1.0/periods;
+        }
+
+        @Override
+        public void accept(double x) {
+            int slot = (int) (count % periods);
+            if (count < periods) {
+                value += x;
+                if (count == periods - 1)
+                    publish(value *= coeff);
+            } else {
+                publish(value += ((x - window[slot])*coeff));
+            }
+            window[slot] = x;
+            count++;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            value = 0.0;
+        }
+    }
+
+    static final class Wilders extends AbstractFunction implements IncrementalDoubleFunction {
+        private final int periods;
+        private final double alpha;
+        private double value;
+        private long count;
+
+        Wilders(int periods) {
+            requirePositive(periods);
+            this.periods = periods;
+            this.alpha = 1.0/periods;
+        }
+
+        @Override
+        public void accept(double x) {
+            if (count < periods) {
+                value += x;
+                if (count == periods - 1)
+                    publish(value *= alpha);
+            } else {
+                publish(value += (x - value)*alpha);
+            }
+            count++;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            value = 0.0;
+            count = 0;
+        }
+    }
+
+    /**
+     * The sliding window maximum or minimum based on the monotonic deque.
+     */
+    static final class Extremum extends AbstractFunction implements IncrementalDoubleFunction {
+        private final int periods;
+        private final boolean highest;
+        private final int mask;
+        private final double[] values;
+        private final long[] positions;
+        private int first, last;
+        private long count;
+
+        Extremum(int periods, boolean highest) {
+            requirePositive(periods);
+            this.periods = periods;
+            this.highest = highest;
+            this.mask = Integer.highestOneBit(periods)*2 - 1;
+            this.values = new double[mask + 1];
+            this.positions = new long[mask + 1];
+        }
+
+        @Override
+        public void accept(double x) {
+            // drop the values dominated by the new one
+            if (highest)
+                while (first != last && values[(last - 1) & mask] <= x)
+                    last--;
+            else
+                while (first != last && values[(last - 1) & mask] >= x)
+                    last--;
+            values[last & mask] = x;
+            positions[last & mask] = count;
+            last++;
+
+            // drop the value leaving the window
+            if (positions[first & mask] <= count - periods)
+                first++;
+            if (++count >= periods)
+                publish(values[first & mask]);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            first = last = 0;
+            count = 0;
+        }
+    }
+
+    static final class TrueRange extends AbstractFunction implements IncrementalCandleFunction {
+        private boolean hasPrevious;
+        private double prevClose;
+
+        @Override
+        public void accept(Candle candle) {
+            if (hasPrevious)
+                publish(Math.max(candle.high(), prevClose) - Math.min(candle.low(), prevClose));
+            prevClose = candle.close();
+            hasPrevious = true;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            hasPrevious = false;
+        }
+    }
+}
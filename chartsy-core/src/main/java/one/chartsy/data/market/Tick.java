@@ -32,6 +32,18 @@ public interface Tick extends Chronological {
         return TradeConditionData.None.NONE;
     }
 
+    /**
+     * Gives the quote side of this tick, or {@code null} if the tick represents a trade.
+     * <p>
+     * The default implementation gives the side carried as {@link #getTradeConditions() trade
+     * conditions}, thus a bid quote can be created with {@code Tick.of(time, price, size, Tick.Side.BID)}.
+     *
+     * @return the quote side, or {@code null} for a trade tick
+     */
+    default Side getSide() {
+        return (getTradeConditions() instanceof Side side)? side : null;
+    }
+
     /**
      * Returns the price of this tick.
      * 
@@ -72,7 +84,7 @@ public interface Tick extends Chronological {
      * @author Mariusz Bernacki
      *
      */
-    enum Side {
+    enum Side implements TradeConditionData {
         ASK, BID;
     }
 }
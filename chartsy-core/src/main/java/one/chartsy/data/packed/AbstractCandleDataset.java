@@ -0,0 +1,70 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.Candle;
+import one.chartsy.data.AbstractDataset;
+import one.chartsy.data.ChronologicalDataset;
+import one.chartsy.data.DoubleDataset;
+import one.chartsy.data.SimpleCandle;
+
+/**
+ * A base class for candle datasets which store candle attributes in columns rather than as
+ * individual {@code Candle} objects. Subclasses provide the primitive per-column accessors, and
+ * the {@code Candle} instances are materialized on demand only, when accessed through
+ * {@link #get(int)}. The dataset is expected to be in reverse-chronological order, i.e. the most
+ * recent candle is located at index {@code 0}.
+ *
+ * @author Mariusz Bernacki
+ */
+public abstract class AbstractCandleDataset extends AbstractDataset<Candle> implements ChronologicalDataset {
+
+    public abstract double getOpen(int index);
+
+    public abstract double getHigh(int index);
+
+    public abstract double getLow(int index);
+
+    public abstract double getClose(int index);
+
+    public abstract double getVolume(int index);
+
+    public abstract int getCount(int index);
+
+    public abstract DoubleDataset opens();
+
+    public abstract DoubleDataset highs();
+
+    public abstract DoubleDataset lows();
+
+    public abstract DoubleDataset closes();
+
+    public abstract DoubleDataset volumes();
+
+    @Override
+    public Candle get(int index) {
+        return SimpleCandle.of(getTimeAt(index), getOpen(index), getHigh(index), getLow(index), getClose(index), getVolume(index), getCount(index));
+    }
+
+    /**
+     * Gives the location of the candle with the given time. If no such candle exists, the method
+     * returns {@code -(insertion point)-1}.
+     *
+     * @param time the time to search for
+     * @return the index of the candle, or {@code -(insertion point)-1} if not found
+     */
+    public int getTimeLocation(long time) {
+        int low = 0, high = length() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midTime = getTimeAt(mid);
+            if (midTime > time)
+                low = mid + 1;
+            else if (midTime < time)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+}
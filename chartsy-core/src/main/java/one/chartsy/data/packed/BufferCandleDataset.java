@@ -0,0 +1,175 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.data.AbstractDoubleDataset;
+import one.chartsy.data.DoubleDataset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A columnar candle dataset backed directly by a {@code ByteBuffer}, typically a memory-mapped
+ * region of a binary candle file. The buffer holds {@code rowCount} rows stored column by column,
+ * in chronological order: all {@code long} times, followed by the {@code double} opens, highs, lows,
+ * closes and volumes, followed by the {@code int} counts. The dataset exposes the rows
+ * {@code [fromRow, toRow)} in reverse-chronological order, without copying any of the data.
+ *
+ * @author Mariusz Bernacki
+ */
+public class BufferCandleDataset extends AbstractCandleDataset {
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int fromRow;
+    private final int toRow;
+    private final int timeOffset, openOffset, highOffset, lowOffset, closeOffset, volumeOffset, countOffset;
+
+    private DoubleDataset opens, highs, lows, closes, volumes;
+
+
+    public BufferCandleDataset(ByteBuffer buffer, int dataOffset, int rowCount) {
+        this(buffer, dataOffset, rowCount, 0, rowCount);
+    }
+
+    public BufferCandleDataset(ByteBuffer buffer, int dataOffset, int rowCount, int fromRow, int toRow) {
+        if (fromRow < 0 || toRow > rowCount || fromRow > toRow)
+            throw new IndexOutOfBoundsException("Row range [" + fromRow + ", " + toRow + ") out of bounds of " + rowCount);
+        if (buffer.limit() < dataOffset + sizeOf(rowCount))
+            throw new IllegalArgumentException("Buffer too small for " + rowCount + " rows");
+
+        this.buffer = buffer;
+        this.rowCount = rowCount;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.timeOffset = dataOffset;
+        this.openOffset = timeOffset + 8 * rowCount;
+        this.highOffset = openOffset + 8 * rowCount;
+        this.lowOffset = highOffset + 8 * rowCount;
+        this.closeOffset = lowOffset + 8 * rowCount;
+        this.volumeOffset = closeOffset + 8 * rowCount;
+        this.countOffset = volumeOffset + 8 * rowCount;
+    }
+
+    /**
+     * Gives the number of bytes occupied by the given number of rows.
+     *
+     * @param rowCount the number of rows
+     * @return the data size in bytes
+     */
+    public static long sizeOf(int rowCount) {
+        return (8L * 6 + 4) * rowCount;
+    }
+
+    /**
+     * Gives a view of this dataset restricted to the given range of indexes.
+     *
+     * @param fromIndex the first index (inclusive, the most recent candle) of the view
+     * @param toIndex the last index (exclusive) of the view
+     * @return the dataset view sharing the same underlying buffer
+     */
+    public BufferCandleDataset subset(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length() || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds of " + length());
+
+        return new BufferCandleDataset(buffer, timeOffset, rowCount, toRow - toIndex, toRow - fromIndex);
+    }
+
+    protected final int row(int index) {
+        if (index < 0 || index >= length())
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        return toRow - 1 - index;
+    }
+
+    @Override
+    public int length() {
+        return toRow - fromRow;
+    }
+
+    @Override
+    public long getTimeAt(int index) {
+        return buffer.getLong(timeOffset + 8 * row(index));
+    }
+
+    @Override
+    public double getOpen(int index) {
+        return buffer.getDouble(openOffset + 8 * row(index));
+    }
+
+    @Override
+    public double getHigh(int index) {
+        return buffer.getDouble(highOffset + 8 * row(index));
+    }
+
+    @Override
+    public double getLow(int index) {
+        return buffer.getDouble(lowOffset + 8 * row(index));
+    }
+
+    @Override
+    public double getClose(int index) {
+        return buffer.getDouble(closeOffset + 8 * row(index));
+    }
+
+    @Override
+    public double getVolume(int index) {
+        return buffer.getDouble(volumeOffset + 8 * row(index));
+    }
+
+    @Override
+    public int getCount(int index) {
+        return buffer.getInt(countOffset + 4 * row(index));
+    }
+
+    @Override
+    public DoubleDataset opens() {
+        if (opens == null)
+            opens = new ColumnView(openOffset);
+        return opens;
+    }
+
+    @Override
+    public DoubleDataset highs() {
+        if (highs == null)
+            highs = new ColumnView(highOffset);
+        return highs;
+    }
+
+    @Override
+    public DoubleDataset lows() {
+        if (lows == null)
+            lows = new ColumnView(lowOffset);
+        return lows;
+    }
+
+    @Override
+    public DoubleDataset closes() {
+        if (closes == null)
+            closes = new ColumnView(closeOffset);
+        return closes;
+    }
+
+    @Override
+    public DoubleDataset volumes() {
+        if (volumes == null)
+            volumes = new ColumnView(volumeOffset);
+        return volumes;
+    }
+
+    private class ColumnView extends AbstractDoubleDataset {
+        private final int columnOffset;
+
+        private ColumnView(int columnOffset) {
+            this.columnOffset = columnOffset;
+        }
+
+        @Override
+        public double get(int index) {
+            return buffer.getDouble(columnOffset + 8 * row(index));
+        }
+
+        @Override
+        public int length() {
+            return BufferCandleDataset.this.length();
+        }
+    }
+}
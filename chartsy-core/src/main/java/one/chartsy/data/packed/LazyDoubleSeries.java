@@ -0,0 +1,204 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.data.AbstractDoubleDataset;
+import one.chartsy.data.DoubleDataset;
+import one.chartsy.data.DoubleSeries;
+import one.chartsy.time.Timeline;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * The lazily evaluated {@code DoubleSeries}.
+ * <p>
+ * The element-wise operations, such as {@link #add(DoubleSeries)}, {@link #mul(double)} or
+ * {@link #mapThread(DoubleBinaryOperator, DoubleSeries)}, do not compute anything but build an
+ * expression tree instead. The tree is evaluated element by element in a single pass when the series
+ * is materialized by {@link #toPacked()}, which allocates just the one array for the result instead
+ * of an array per intermediate step. The window operations, such as {@link #sma(int)} or
+ * {@link #hhv(int)}, need random access to their input and act as the fusion boundaries: they
+ * materialize their input once, and give a lazy view over their result, so that the subsequent
+ * element-wise operations are fused again.
+ * <p>
+ * The element access by {@link #get(int)} evaluates the whole expression for the given index.
+ * Series accessed repeatedly should be materialized first.
+ *
+ * @author Mariusz Bernacki
+ */
+public abstract class LazyDoubleSeries extends AbstractDoubleSeries<LazyDoubleSeries> {
+
+    private final Timeline timeline;
+    private final int length;
+
+    protected LazyDoubleSeries(Timeline timeline, int length) {
+        this.timeline = timeline;
+        this.length = length;
+    }
+
+    /**
+     * Gives the lazy view of the given series.
+     */
+    public static LazyDoubleSeries of(DoubleSeries series) {
+        if (series instanceof LazyDoubleSeries lazy)
+            return lazy;
+        return new Source(series);
+    }
+
+    @Override
+    public final Timeline getTimeline() {
+        return timeline;
+    }
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+    @Override
+    public LazyDoubleSeries lazy() {
+        return this;
+    }
+
+    /**
+     * Evaluates the expression into the packed series, in a single pass.
+     *
+     * @return the materialized series
+     */
+    public PackedDoubleSeries toPacked() {
+        double[] result = new double[length];
+        for (int i = result.length - 1; i >= 0; i--)
+            result[i] = get(i);
+        return DoubleSeries.of(result, timeline);
+    }
+
+    @Override
+    public DoubleDataset values() {
+        return new AbstractDoubleDataset() {
+            @Override
+            public double get(int index) {
+                return LazyDoubleSeries.this.get(index);
+            }
+
+            @Override
+            public int length() {
+                return length;
+            }
+        };
+    }
+
+    @Override
+    public LazyDoubleSeries mapThread(DoubleBinaryOperator f, double y) {
+        return new ScalarOperation(this, f, y);
+    }
+
+    @Override
+    public LazyDoubleSeries mapThread(DoubleBinaryOperator f, DoubleSeries other) {
+        if (getTimeline() != other.getTimeline())
+            throw new IllegalArgumentException("Timeline mismatch between series");
+        return new BinaryOperation(this, of(other), f);
+    }
+
+    @Override
+    public LazyDoubleSeries add(DoubleSeries y) {
+        return mapThread(Double::sum, y);
+    }
+
+    @Override
+    public LazyDoubleSeries ref(int periods) {
+        return new Source(new PackedDoubleSeries(timeline, values().ref(periods)));
+    }
+
+    /**
+     * Gives the materialized series to be used as the input of a window operation.
+     */
+    protected PackedDoubleSeries materialize() {
+        return toPacked();
+    }
+
+    @Override
+    public LazyDoubleSeries sma(int periods) {
+        return of(materialize().sma(periods));
+    }
+
+    @Override
+    public LazyDoubleSeries wilders(int periods) {
+        return of(materialize().wilders(periods));
+    }
+
+    @Override
+    public LazyDoubleSeries hhv(int periods) {
+        return of(materialize().hhv(periods));
+    }
+
+    @Override
+    public LazyDoubleSeries llv(int periods) {
+        return of(materialize().llv(periods));
+    }
+
+    @Override
+    public LazyDoubleSeries highestSince() {
+        return of(materialize().highestSince());
+    }
+
+    @Override
+    public String toString() {
+        return toPacked().toString();
+    }
+
+    static final class Source extends LazyDoubleSeries {
+        private final DoubleSeries series;
+
+        Source(DoubleSeries series) {
+            super(series.getTimeline(), series.length());
+            this.series = series;
+        }
+
+        @Override
+        public double get(int index) {
+            return series.get(index);
+        }
+
+        @Override
+        protected PackedDoubleSeries materialize() {
+            if (series instanceof PackedDoubleSeries packed)
+                return packed;
+            return toPacked();
+        }
+    }
+
+    static final class ScalarOperation extends LazyDoubleSeries {
+        private final LazyDoubleSeries operand;
+        private final DoubleBinaryOperator f;
+        private final double y;
+
+        ScalarOperation(LazyDoubleSeries operand, DoubleBinaryOperator f, double y) {
+            super(operand.getTimeline(), operand.length());
+            this.operand = operand;
+            this.f = f;
+            this.y = y;
+        }
+
+        @Override
+        public double get(int index) {
+            return f.applyAsDouble(operand.get(index), y);
+        }
+    }
+
+    static final class BinaryOperation extends LazyDoubleSeries {
+        private final LazyDoubleSeries left, right;
+        private final DoubleBinaryOperator f;
+
+        BinaryOperation(LazyDoubleSeries left, LazyDoubleSeries right, DoubleBinaryOperator f) {
+            super(left.getTimeline(), Math.min(left.length(), right.length()));
+            this.left = left;
+            this.right = right;
+            this.f = f;
+        }
+
+        @Override
+        public double get(int index) {
+            return f.applyAsDouble(left.get(index), right.get(index));
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.Candle;
+import one.chartsy.data.Dataset;
+import one.chartsy.data.function.CandleSink;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A columnar (struct-of-arrays) dataset of candles. Each candle attribute is held in a separate
+ * primitive array, so that the dataset retains no per-candle objects. {@code Candle} instances are
+ * materialized on demand only, when accessed through {@link #get(int)}, while the individual price
+ * columns can be accessed without any copying through {@link #opens()}, {@link #highs()},
+ * {@link #lows()}, {@link #closes()} and {@link #volumes()} views.
+ *
+ * @author Mariusz Bernacki
+ */
+public class PackedCandleDataset extends AbstractCandleDataset {
+
+    public static final PackedCandleDataset EMPTY = new PackedCandleDataset(0);
+
+    private final long[] time;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+    private final int[] count;
+
+    private PackedDoubleDataset opens, highs, lows, closes, volumes;
+
+
+    protected PackedCandleDataset(int length) {
+        this(new long[length], new double[length], new double[length], new double[length], new double[length], new double[length], new int[length]);
+    }
+
+    protected PackedCandleDataset(long[] time, double[] open, double[] high, double[] low, double[] close, double[] volume, int[] count) {
+        int length = time.length;
+        if (open.length != length || high.length != length || low.length != length || close.length != length || volume.length != length || count.length != length)
+            throw new IllegalArgumentException("Column lengths mismatch");
+
+        this.time = time;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.count = count;
+    }
+
+    public static PackedCandleDataset of(Collection<? extends Candle> values) {
+        return of(values, false);
+    }
+
+    public static PackedCandleDataset of(Collection<? extends Candle> values, boolean reverse) {
+        int length = values.size();
+        var dataset = new PackedCandleDataset(length);
+        int index = reverse? length - 1 : 0, step = reverse? -1 : 1;
+        for (Candle c : values) {
+            dataset.set(index, c);
+            index += step;
+        }
+        return dataset;
+    }
+
+    public static PackedCandleDataset from(Dataset<? extends Candle> dataset) {
+        if (dataset instanceof PackedCandleDataset pcd)
+            return pcd;
+
+        int length = dataset.length();
+        var result = new PackedCandleDataset(length);
+        for (int i = 0; i < length; i++)
+            result.set(i, dataset.get(i));
+        return result;
+    }
+
+    protected final void set(int index, Candle c) {
+        time[index] = c.getTime();
+        open[index] = c.open();
+        high[index] = c.high();
+        low[index] = c.low();
+        close[index] = c.close();
+        volume[index] = c.volume();
+        count[index] = c.count();
+    }
+
+    @Override
+    public int length() {
+        return time.length;
+    }
+
+    @Override
+    public PackedCandleDataset toDirect() {
+        return this;
+    }
+
+    @Override
+    public long getTimeAt(int index) {
+        return time[index];
+    }
+
+    @Override
+    public double getOpen(int index) {
+        return open[index];
+    }
+
+    @Override
+    public double getHigh(int index) {
+        return high[index];
+    }
+
+    @Override
+    public double getLow(int index) {
+        return low[index];
+    }
+
+    @Override
+    public double getClose(int index) {
+        return close[index];
+    }
+
+    @Override
+    public double getVolume(int index) {
+        return volume[index];
+    }
+
+    @Override
+    public int getCount(int index) {
+        return count[index];
+    }
+
+    @Override
+    public PackedDoubleDataset opens() {
+        if (opens == null)
+            opens = new PackedDoubleDataset(open);
+        return opens;
+    }
+
+    @Override
+    public PackedDoubleDataset highs() {
+        if (highs == null)
+            highs = new PackedDoubleDataset(high);
+        return highs;
+    }
+
+    @Override
+    public PackedDoubleDataset lows() {
+        if (lows == null)
+            lows = new PackedDoubleDataset(low);
+        return lows;
+    }
+
+    @Override
+    public PackedDoubleDataset closes() {
+        if (closes == null)
+            closes = new PackedDoubleDataset(close);
+        return closes;
+    }
+
+    @Override
+    public PackedDoubleDataset volumes() {
+        if (volumes == null)
+            volumes = new PackedDoubleDataset(volume);
+        return volumes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects candles appended in chronological order directly into the primitive columns.
+     */
+    public static class Builder implements CandleSink {
+        private long[] time = new long[16];
+        private double[] open = new double[16];
+        private double[] high = new double[16];
+        private double[] low = new double[16];
+        private double[] close = new double[16];
+        private double[] volume = new double[16];
+        private int[] count = new int[16];
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        public long getLastTime() {
+            return (size == 0)? Long.MIN_VALUE : time[size - 1];
+        }
+
+        @Override
+        public void accept(long time, double open, double high, double low, double close, double volume, int count) {
+            if (size == this.time.length)
+                grow(size * 2);
+
+            this.time[size] = time;
+            this.open[size] = open;
+            this.high[size] = high;
+            this.low[size] = low;
+            this.close[size] = close;
+            this.volume[size] = volume;
+            this.count[size] = count;
+            size++;
+        }
+
+        public Builder add(Candle c) {
+            accept(c.getTime(), c.open(), c.high(), c.low(), c.close(), c.volume(), c.count());
+            return this;
+        }
+
+        private void grow(int capacity) {
+            time = Arrays.copyOf(time, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+            count = Arrays.copyOf(count, capacity);
+        }
+
+        /**
+         * Builds the dataset of all collected candles.
+         */
+        public PackedCandleDataset build() {
+            return build(size);
+        }
+
+        /**
+         * Builds the dataset of the given number of the most recently collected candles.
+         *
+         * @param limit the maximum number of candles to retain
+         */
+        public PackedCandleDataset build(int limit) {
+            int length = Math.min(limit, size);
+            var result = new PackedCandleDataset(length);
+            for (int i = 0, j = size - 1; i < length; i++, j--) {
+                result.time[i] = time[j];
+                result.open[i] = open[j];
+                result.high[i] = high[j];
+                result.low[i] = low[j];
+                result.close[i] = close[j];
+                result.volume[i] = volume[j];
+                result.count[i] = count[j];
+            }
+            return result;
+        }
+    }
+}
@@ -18,7 +18,49 @@ public class PackedCandleSeries extends AbstractCandleSeries<Candle, PackedDoubl
 
         @SuppressWarnings("unchecked")
         var cs = (Series<Candle>) series;
-        return new PackedCandleSeries(cs.getResource(), PackedDataset.from(cs.getData()));
+        return new PackedCandleSeries(cs.getResource(), PackedCandleDataset.from(cs.getData()));
+    }
+
+    @Override
+    public PackedDoubleSeries opens() {
+        if (getData() instanceof AbstractCandleDataset cds)
+            return new PackedDoubleSeries(getTimeline(), cds.opens());
+        return super.opens();
+    }
+
+    @Override
+    public PackedDoubleSeries highs() {
+        if (getData() instanceof AbstractCandleDataset cds)
+            return new PackedDoubleSeries(getTimeline(), cds.highs());
+        return super.highs();
+    }
+
+    @Override
+    public PackedDoubleSeries lows() {
+        if (getData() instanceof AbstractCandleDataset cds)
+            return new PackedDoubleSeries(getTimeline(), cds.lows());
+        return super.lows();
+    }
+
+    @Override
+    public PackedDoubleSeries closes() {
+        if (getData() instanceof AbstractCandleDataset cds)
+            return new PackedDoubleSeries(getTimeline(), cds.closes());
+        return super.closes();
+    }
+
+    @Override
+    public PackedDoubleSeries volumes() {
+        if (getData() instanceof AbstractCandleDataset cds)
+            return new PackedDoubleSeries(getTimeline(), cds.volumes());
+        return super.volumes();
+    }
+
+    @Override
+    public int getTimeLocation(long time) {
+        if (getData() instanceof AbstractCandleDataset cds)
+            return cds.getTimeLocation(time);
+        return super.getTimeLocation(time);
     }
 
     @Override
@@ -32,6 +74,15 @@ public class PackedCandleSeries extends AbstractCandleSeries<Candle, PackedDoubl
         if (newLength <= 0)
             return DoubleSeries.empty(getTimeline());
 
+        if (getData() instanceof AbstractCandleDataset cds) {
+            double[] result = new double[newLength];
+            for (int i = newLength - 1; i >= 0; i--) {
+                double prevClose = cds.getClose(i + 1);
+                result[i] = Math.max(cds.getHigh(i), prevClose) - Math.min(cds.getLow(i), prevClose);
+            }
+            return DoubleSeries.of(result, getTimeline());
+        }
+
         Candle c2 = get(newLength);
         double[] result = new double[newLength];
         for (int i = newLength - 1; i >= 0; i--) {
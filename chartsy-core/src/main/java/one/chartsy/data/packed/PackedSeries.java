@@ -69,6 +69,11 @@ public class PackedSeries<E extends Chronological> implements Series<E>, Timelin
                 return get(index - 1);
             }
 
+            @Override
+            public long peekTime() {
+                return getTimeAt(index - 1);
+            }
+
             @Override
             public E next() {
                 return (value = get(--index));
@@ -88,6 +93,8 @@ public class PackedSeries<E extends Chronological> implements Series<E>, Timelin
 
     @Override
     public final long getTimeAt(int index) {
+        if (data instanceof ChronologicalDataset cd)
+            return cd.getTimeAt(index);
         return get(index).getTime();
     }
 
@@ -0,0 +1,441 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.HLC;
+import one.chartsy.data.AbstractDataset;
+import one.chartsy.data.ChronologicalDataset;
+import one.chartsy.data.ChronologicalDatasetTimeline;
+import one.chartsy.data.Dataset;
+import one.chartsy.time.Chronological;
+import one.chartsy.time.Timeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * The append-only dataset of {@link HLC} points, such as an equity curve recorded during a
+ * simulation, stored in fixed-size segments.
+ * <p>
+ * Unlike the {@link ByteBufferMutableHLCDataset}, the dataset never copies the recorded points when
+ * growing, and its segments can be kept off-heap or in a memory-mapped temporary file, which lets
+ * the operating system page out the points of the long simulations. The values added within the
+ * same time slot update the last point, the same as in the {@code ByteBufferMutableHLCDataset}, and
+ * the points are indexed in the reverse-chronological order, with the index {@code 0} being the
+ * most recent point.
+ * <p>
+ * The dataset maintains the coarser resolutions of itself along with the recorded points, each
+ * aggregating {@value #LEVEL_FACTOR} consecutive points of the finer one, thus the reports and
+ * charts can obtain the display-resolution curve with {@link #downsampled(int)} without touching
+ * every point. The point values can be read with the primitive accessors, such as
+ * {@link #getCloseAt(int)}, without allocating the {@code HLC} objects.
+ * <p>
+ * The class is not thread-safe. The {@link #toDirect()} snapshot shares the segments with the
+ * dataset, and is not affected by the values added afterwards.
+ *
+ * @author Mariusz Bernacki
+ */
+public class SegmentedHLCDataset extends AbstractDataset<HLC> implements ChronologicalDataset, Closeable {
+    /** The default number of points in a segment. */
+    public static final int DEFAULT_SEGMENT_SIZE = 4096;
+    /** The number of points of the finer resolution aggregated by a point of the coarser one. */
+    public static final int LEVEL_FACTOR = 16;
+
+    private static final int RAW_BYTES = 32;
+    private static final int LEVEL_SEGMENT_SHIFT = 8;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /** Where the segments of the dataset are stored. */
+    public enum Storage {
+        /** The segments are stored in the heap byte arrays. */
+        HEAP,
+        /** The segments are stored in the direct, off-heap buffers. */
+        DIRECT,
+        /** The segments are stored in a memory-mapped temporary file, deleted when the dataset is closed. */
+        MAPPED
+    }
+
+    private final long downsampleMicros;
+    /** The completed points, i.e. all but the last one. */
+    private final Segments points;
+    /** The coarser resolutions, from the finest to the coarsest. */
+    private final List<Level> levels = new ArrayList<>();
+    private final IntFunction<ByteBuffer> allocator;
+    private final Cleaner.Cleanable cleanable;
+    /** The last point, still open to the updates within its time slot. */
+    private long lastTime = Long.MIN_VALUE;
+    private double lastHigh;
+    private double lastLow;
+    private double lastClose;
+    private Timeline timeline;
+
+
+    public SegmentedHLCDataset() {
+        this(1L);
+    }
+
+    public SegmentedHLCDataset(long downsampleMicros) {
+        this(downsampleMicros, Storage.HEAP);
+    }
+
+    public SegmentedHLCDataset(long downsampleMicros, Storage storage) {
+        this(downsampleMicros, storage, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates the empty dataset.
+     *
+     * @param downsampleMicros the length of the time slot, in microseconds, aggregating the values
+     *                         added within it into a single point
+     * @param storage the storage of the segments
+     * @param segmentSize the number of points in a segment, rounded up to the power of two
+     * @throws UncheckedIOException if the temporary file of the {@link Storage#MAPPED} storage
+     *                              cannot be created
+     */
+    public SegmentedHLCDataset(long downsampleMicros, Storage storage, int segmentSize) {
+        if (downsampleMicros <= 0)
+            throw new IllegalArgumentException("downsampleMicros must be positive: " + downsampleMicros);
+        if (segmentSize <= 0)
+            throw new IllegalArgumentException("segmentSize must be positive: " + segmentSize);
+
+        this.downsampleMicros = downsampleMicros;
+        switch (storage) {
+            case HEAP -> {
+                allocator = ByteBuffer::allocate;
+                cleanable = null;
+            }
+            case DIRECT -> {
+                allocator = ByteBuffer::allocateDirect;
+                cleanable = null;
+            }
+            case MAPPED -> {
+                var file = new MappedFile();
+                allocator = file;
+                cleanable = CLEANER.register(this, file);
+            }
+            default -> throw new IllegalArgumentException("Unsupported storage: " + storage);
+        }
+        int segmentShift = Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(segmentSize - 1));
+        this.points = new Segments(allocator, segmentShift);
+    }
+
+    public final long getDownsampleMicros() {
+        return downsampleMicros;
+    }
+
+    /**
+     * Adds the value at the given time, either as the new point, or as the update of the last
+     * point if the time falls in the same time slot.
+     *
+     * @param time the value time, in epoch microseconds
+     * @param value the value
+     */
+    public void add(long time, double value) {
+        // optional downsampling
+        if (downsampleMicros != 1L)
+            time = ((time - 1)/ downsampleMicros + 1)* downsampleMicros;
+
+        if (time > lastTime) {
+            if (lastTime != Long.MIN_VALUE) {
+                points.append(lastTime, lastHigh, lastLow, lastClose);
+                fold(0, lastTime, lastHigh, lastLow, lastClose);
+            }
+            lastTime = time;
+            lastHigh = lastLow = lastClose = value;
+        } else {
+            if (value > lastHigh)
+                lastHigh = value;
+            if (value < lastLow)
+                lastLow = value;
+            lastClose = value;
+        }
+    }
+
+    /**
+     * Aggregates the completed point of the finer resolution into the given level, cascading to
+     * the coarser levels once every {@value #LEVEL_FACTOR} points.
+     */
+    private void fold(int k, long time, double high, double low, double close) {
+        if (k == levels.size())
+            levels.add(new Level(new Segments(allocator, Math.min(points.segmentShift, LEVEL_SEGMENT_SHIFT))));
+
+        Level level = levels.get(k);
+        if (level.count++ == 0) {
+            level.high = high;
+            level.low = low;
+        } else {
+            level.high = Math.max(level.high, high);
+            level.low = Math.min(level.low, low);
+        }
+        level.time = time;
+        level.close = close;
+        if (level.count == LEVEL_FACTOR) {
+            level.buckets.append(level.time, level.high, level.low, level.close);
+            level.count = 0;
+            fold(k + 1, level.time, level.high, level.low, level.close);
+        }
+    }
+
+    @Override
+    public int length() {
+        return (lastTime == Long.MIN_VALUE)? 0 : points.length + 1;
+    }
+
+    @Override
+    public HLC get(int index) {
+        int i = indexToModel(index);
+        if (i == points.length)
+            return new HLC(lastTime, lastHigh, lastLow, lastClose);
+        return new HLC(points.time(i), points.high(i), points.low(i), points.close(i));
+    }
+
+    @Override
+    public long getTimeAt(int index) {
+        int i = indexToModel(index);
+        return (i == points.length)? lastTime : points.time(i);
+    }
+
+    public double getHighAt(int index) {
+        int i = indexToModel(index);
+        return (i == points.length)? lastHigh : points.high(i);
+    }
+
+    public double getLowAt(int index) {
+        int i = indexToModel(index);
+        return (i == points.length)? lastLow : points.low(i);
+    }
+
+    public double getCloseAt(int index) {
+        int i = indexToModel(index);
+        return (i == points.length)? lastClose : points.close(i);
+    }
+
+    protected int indexToModel(int index) {
+        int length = length();
+        return length - 1 - Objects.checkIndex(index, length);
+    }
+
+    /**
+     * Gives the number of the coarser resolutions currently maintained by the dataset.
+     */
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Gives the snapshot of the dataset at the finest resolution having at most the given number of
+     * points, or at the coarsest resolution available if none is small enough. Each point of the
+     * snapshot aggregates the consecutive points of this dataset, having the time and close of the
+     * last of them, and their highest high and lowest low.
+     *
+     * @param maxPoints the maximum number of points requested, e.g. the chart width in pixels
+     * @return the downsampled snapshot, indexed in the reverse-chronological order, or this
+     *         dataset itself if it is small enough
+     */
+    public Dataset<HLC> downsampled(int maxPoints) {
+        if (length() <= maxPoints || levels.isEmpty())
+            return this;
+
+        // aggregate the open buckets of the levels, starting from the last point
+        long time = lastTime;
+        double high = lastHigh, low = lastLow, close = lastClose;
+        for (int k = 0; k < levels.size(); k++) {
+            Level level = levels.get(k);
+            if (level.count > 0) {
+                high = Math.max(high, level.high);
+                low = Math.min(low, level.low);
+            }
+            int length = level.buckets.length + 1;
+            if (length <= maxPoints || k == levels.size() - 1)
+                return new View(level.buckets, length, time, high, low, close);
+        }
+        throw new AssertionError("unreachable");
+    }
+
+    /**
+     * Gives the immutable snapshot of the points recorded so far. The snapshot shares the segments
+     * with this dataset, instead of copying the points.
+     */
+    @Override
+    public Dataset<HLC> toDirect() {
+        return new View(points, length(), lastTime, lastHigh, lastLow, lastClose);
+    }
+
+    public Timeline getTimeline() {
+        if (timeline == null)
+            timeline = createTimeline();
+        return timeline;
+    }
+
+    protected Timeline createTimeline() {
+        return new ChronologicalDatasetTimeline(this, Chronological.Order.REVERSE_CHRONOLOGICAL);
+    }
+
+    /**
+     * Releases the temporary file of the {@link Storage#MAPPED} storage. The dataset and its
+     * snapshots must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (cleanable != null)
+            cleanable.clean();
+    }
+
+    /**
+     * The coarser resolution, with its completed buckets and the aggregate of the points folded into
+     * its open bucket so far.
+     */
+    private static final class Level {
+        private final Segments buckets;
+        private int count;
+        private long time;
+        private double high, low, close;
+
+        private Level(Segments buckets) {
+            this.buckets = buckets;
+        }
+    }
+
+    /**
+     * The immutable snapshot of the completed points, followed by the captured last point.
+     */
+    private static final class View extends AbstractDataset<HLC> implements ChronologicalDataset {
+        private final Segments segments;
+        private final int length;
+        private final long lastTime;
+        private final double lastHigh, lastLow, lastClose;
+
+        private View(Segments segments, int length, long lastTime, double lastHigh, double lastLow, double lastClose) {
+            this.segments = segments;
+            this.length = length;
+            this.lastTime = lastTime;
+            this.lastHigh = lastHigh;
+            this.lastLow = lastLow;
+            this.lastClose = lastClose;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public long getTimeAt(int index) {
+            int i = indexToModel(index);
+            return (i == length - 1)? lastTime : segments.time(i);
+        }
+
+        @Override
+        public HLC get(int index) {
+            int i = indexToModel(index);
+            if (i == length - 1)
+                return new HLC(lastTime, lastHigh, lastLow, lastClose);
+            return new HLC(segments.time(i), segments.high(i), segments.low(i), segments.close(i));
+        }
+
+        private int indexToModel(int index) {
+            return length - 1 - Objects.checkIndex(index, length);
+        }
+    }
+
+    /**
+     * The chronologically ordered points stored in the fixed-size segments.
+     */
+    private static final class Segments {
+        private final IntFunction<ByteBuffer> allocator;
+        private final int segmentShift;
+        private final int segmentMask;
+        private ByteBuffer[] segments = new ByteBuffer[8];
+        private int length;
+
+        Segments(IntFunction<ByteBuffer> allocator, int segmentShift) {
+            this.allocator = allocator;
+            this.segmentShift = segmentShift;
+            this.segmentMask = (1 << segmentShift) - 1;
+        }
+
+        void append(long time, double high, double low, double close) {
+            int index = length;
+            int segment = index >>> segmentShift;
+            if (segment == segments.length)
+                segments = Arrays.copyOf(segments, segments.length * 2);
+            if (segments[segment] == null)
+                segments[segment] = allocator.apply(RAW_BYTES << segmentShift);
+
+            ByteBuffer buffer = segments[segment];
+            int offset = (index & segmentMask) * RAW_BYTES;
+            buffer.putLong(offset, time);
+            buffer.putDouble(offset + 8, high);
+            buffer.putDouble(offset + 16, low);
+            buffer.putDouble(offset + 24, close);
+            length = index + 1;
+        }
+
+        long time(int index) {
+            return segments[index >>> segmentShift].getLong((index & segmentMask) * RAW_BYTES);
+        }
+
+        double high(int index) {
+            return segments[index >>> segmentShift].getDouble((index & segmentMask) * RAW_BYTES + 8);
+        }
+
+        double low(int index) {
+            return segments[index >>> segmentShift].getDouble((index & segmentMask) * RAW_BYTES + 16);
+        }
+
+        double close(int index) {
+            return segments[index >>> segmentShift].getDouble((index & segmentMask) * RAW_BYTES + 24);
+        }
+    }
+
+    /**
+     * The temporary file backing the segments of the {@link Storage#MAPPED} storage.
+     */
+    private static final class MappedFile implements IntFunction<ByteBuffer>, Runnable {
+        private final FileChannel channel;
+        private long size;
+
+        MappedFile() {
+            try {
+                Path file = Files.createTempFile("chartsy-hlc-", ".bin");
+                file.toFile().deleteOnExit();
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create the segment file", e);
+            }
+        }
+
+        @Override
+        public ByteBuffer apply(int bytes) {
+            try {
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, size, bytes);
+                size += bytes;
+                return segment;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map the segment file", e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the file is deleted at the JVM exit anyway
+            }
+        }
+    }
+}
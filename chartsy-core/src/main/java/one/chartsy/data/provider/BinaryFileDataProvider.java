@@ -0,0 +1,127 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolGroup;
+import one.chartsy.SymbolIdentity;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.data.DataQuery;
+import one.chartsy.data.SimpleCandle;
+import one.chartsy.data.UnsupportedDataQueryException;
+import one.chartsy.data.packed.BufferCandleDataset;
+import one.chartsy.data.packed.PackedCandleSeries;
+import one.chartsy.data.provider.file.BinaryCandleFile;
+import one.chartsy.naming.SymbolIdentifier;
+import one.chartsy.time.Chronological;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The data provider serving candles from a directory of {@link BinaryCandleFile binary candle files},
+ * one file per symbol. The files are memory-mapped and the resulting {@code CandleSeries} are backed
+ * directly by the mapped buffers, without materializing the individual {@code Candle} objects.
+ *
+ * @author Mariusz Bernacki
+ */
+public class BinaryFileDataProvider extends AbstractDataProvider implements SymbolListAccessor, CandleSeriesAccessor {
+    private final Path baseDirectory;
+
+    public BinaryFileDataProvider(Path baseDirectory) {
+        this(baseDirectory.getFileName().toString(), baseDirectory);
+    }
+
+    public BinaryFileDataProvider(String name, Path baseDirectory) {
+        super(Objects.requireNonNull(name, "name"));
+        this.baseDirectory = Objects.requireNonNull(baseDirectory, "baseDirectory");
+    }
+
+    public final Path getBaseDirectory() {
+        return baseDirectory;
+    }
+
+    @Override
+    public List<? extends SymbolIdentity> listSymbols(SymbolGroup group) {
+        List<SymbolIdentity> symbols = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(baseDirectory, "*" + BinaryCandleFile.EXTENSION)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                symbols.add(new SymbolIdentifier(fileName.substring(0, fileName.length() - BinaryCandleFile.EXTENSION.length())));
+            }
+        } catch (IOException e) {
+            throw new DataProviderException("I/O error occurred", e);
+        }
+        symbols.sort(SymbolIdentity.comparator());
+        return symbols;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Chronological> Flux<T> query(Class<T> type, DataQuery<T> request) {
+        if (type == Candle.class || type == SimpleCandle.class)
+            return (Flux<T>) queryForCandles((DataQuery<Candle>) request);
+        else
+            throw new UnsupportedDataQueryException(request, String.format("DataType `%s` not supported", type.getSimpleName()));
+    }
+
+    public Flux<Candle> queryForCandles(DataQuery<Candle> request) {
+        CandleSeries series = getCandleSeries(request);
+        int length = series.length();
+        return Flux.range(1, length).map(n -> series.get(length - n));
+    }
+
+    @Override
+    public CandleSeries getCandleSeries(DataQuery<Candle> request) {
+        var resource = request.resource();
+        Path file = getFile(resource.symbol());
+        if (!Files.isRegularFile(file))
+            throw new DataProviderException(String.format("Symbol '%s' not found", resource.symbol().name()));
+
+        BinaryCandleFile.Mapped mapped;
+        try {
+            mapped = BinaryCandleFile.map(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!mapped.header().timeFrame().equals(resource.timeFrame().toString()))
+            throw new UnsupportedDataQueryException(request, String.format("TimeFrame `%s` not supported", resource.timeFrame()));
+
+        return new PackedCandleSeries(resource, select(mapped.dataset(), request));
+    }
+
+    protected Path getFile(SymbolIdentity symbol) {
+        return baseDirectory.resolve(symbol.name() + BinaryCandleFile.EXTENSION);
+    }
+
+    /**
+     * Narrows the given dataset down to the candles requested by the query time range and limit.
+     *
+     * @param dataset the dataset in reverse-chronological order
+     * @param request the data query
+     * @return the dataset view limited to the requested range
+     */
+    protected BufferCandleDataset select(BufferCandleDataset dataset, DataQuery<?> request) {
+        int fromIndex = 0, toIndex = dataset.length();
+        if (request.endTime() != null) {
+            int location = dataset.getTimeLocation(Chronological.toEpochMicros(request.endTime()));
+            fromIndex = (location >= 0)? location : -location - 1;
+        }
+        if (request.startTime() != null) {
+            int location = dataset.getTimeLocation(Chronological.toEpochMicros(request.startTime()));
+            toIndex = (location >= 0)? location + 1 : -location - 1;
+        }
+        toIndex = Math.max(fromIndex, toIndex);
+        if (request.limit() > 0)
+            toIndex = Math.min(toIndex, fromIndex + request.limit());
+
+        return (fromIndex == 0 && toIndex == dataset.length())? dataset : dataset.subset(fromIndex, toIndex);
+    }
+}
@@ -0,0 +1,19 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider;
+
+import one.chartsy.Candle;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.data.DataQuery;
+
+/**
+ * Implemented by data providers capable of serving whole {@code CandleSeries} directly, without
+ * streaming individual {@code Candle} objects through {@link DataProvider#query}.
+ *
+ * @author Mariusz Bernacki
+ */
+@FunctionalInterface
+public interface CandleSeriesAccessor {
+
+    CandleSeries getCandleSeries(DataQuery<Candle> query);
+}
@@ -13,7 +13,6 @@ import one.chartsy.time.Chronological;
 import org.openide.util.Lookup;
 import org.openide.util.lookup.ServiceProvider;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.apache.commons.collections4.IterableUtils.transformedIterable;
@@ -33,6 +32,19 @@ public class DataProviders {
         return getSupport().getHistoricalCandles(provider, resources);
     }
 
+    /**
+     * Starts loading the historical candles of the whole symbol universe in the background. The
+     * returned batch gives the results in the request order and can be cancelled at any time.
+     *
+     * @param requests the list of provider and resource pairs to load
+     * @param prefetch the maximum number of results loaded ahead of the consumer
+     * @param listener the optional progress listener, may be {@code null}
+     * @return the batch handle
+     */
+    public static HistoricalCandlesLoader.Batch getHistoricalCandlesAsync(List<HistoricalCandlesLoader.Request> requests, int prefetch, HistoricalCandlesLoader.ProgressListener listener) {
+        return getSupport().getHistoricalCandlesLoader().submit(requests, prefetch, listener);
+    }
+
     public static CandleSeries getHistoricalCandles(DataProvider provider, SymbolResource<Candle> resource) {
         return getSupport().getHistoricalCandles(provider, resource);
     }
@@ -46,16 +58,24 @@ public class DataProviders {
         private static final Support INSTANCE = Lookup.getDefault().lookup(Support.class);
         public Support() { }
 
-        protected List<CandleSeries> getHistoricalCandles(DataProvider provider, Iterable<SymbolResource<Candle>> symbols) {
-            List<CandleSeries> resultList = new ArrayList<>();
-            for (SymbolResource<Candle> symb : symbols)
-                resultList.add(getHistoricalCandles(provider, symb));
+        private volatile HistoricalCandlesLoader historicalCandlesLoader;
 
-            return resultList;
+        protected HistoricalCandlesLoader getHistoricalCandlesLoader() {
+            HistoricalCandlesLoader loader = historicalCandlesLoader;
+            if (loader == null)
+                historicalCandlesLoader = loader = new HistoricalCandlesLoader(HistoricalCandlesLoader.defaultExecutor(), this::getHistoricalCandles);
+            return loader;
+        }
+
+        protected List<CandleSeries> getHistoricalCandles(DataProvider provider, Iterable<SymbolResource<Candle>> symbols) {
+            return getHistoricalCandlesLoader().loadAll(provider, symbols);
         }
 
         protected CandleSeries getHistoricalCandles(DataProvider provider, SymbolResource<Candle> resource) {
             DataQuery<Candle> query = DataQuery.of(resource);
+            if (provider instanceof CandleSeriesAccessor accessor)
+                return accessor.getCandleSeries(query);
+
             return provider.query(Candle.class, query)
                     .collectSortedList()
                     .as(CandleSeries.of(resource));
@@ -4,9 +4,12 @@ package one.chartsy.data.provider;
 
 import one.chartsy.*;
 import one.chartsy.core.ResourceHandle;
+import one.chartsy.data.CandleSeries;
 import one.chartsy.data.DataQuery;
 import one.chartsy.data.SimpleCandle;
 import one.chartsy.data.UnsupportedDataQueryException;
+import one.chartsy.data.packed.PackedCandleDataset;
+import one.chartsy.data.packed.PackedCandleSeries;
 import one.chartsy.data.provider.file.*;
 import one.chartsy.naming.SymbolIdentifier;
 import one.chartsy.time.Chronological;
@@ -15,14 +18,21 @@ import org.openide.util.Lookup;
 import org.openide.util.lookup.Lookups;
 import reactor.core.publisher.Flux;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
-public class FlatFileDataProvider extends AbstractDataProvider implements SymbolListAccessor, SymbolProposalProvider, HierarchicalConfiguration {
+public class FlatFileDataProvider extends AbstractDataProvider implements SymbolListAccessor, SymbolProposalProvider, HierarchicalConfiguration, CandleSeriesAccessor {
     private final Lookup lookup = Lookups.singleton(this);
     private final FlatFileFormat fileFormat;
     private final ResourceHandle<FileSystem> fileSystem;
@@ -108,34 +118,229 @@ public class FlatFileDataProvider extends AbstractDataProvider implements Symbol
         ExecutionContext context = new ExecutionContext(this.context);
         context.put("TimeFrame", request.resource().timeFrame());
 
+        long startTime = (request.startTime() == null)? Long.MIN_VALUE : Chronological.toEpochMicros(request.startTime());
+        long endTime = (request.endTime() == null)? Long.MAX_VALUE : Chronological.toEpochMicros(request.endTime());
+        int limit = request.limit();
+        try {
+            long offset = locateRange(file, context, startTime, endTime, limit);
+            if (offset == NO_DATA)
+                return Flux.empty();
+
+            return Flux.fromIterable(this.<T>readRange(file, context, offset, startTime, endTime, limit));
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CandleSeries getCandleSeries(DataQuery<Candle> request) {
+        if (!(fileFormat.getLineMapper() instanceof SimpleCandleLineMapper.Type type)
+                || !type.isByteParsingSupported()
+                || fileFormat.getDataOrder() != Chronological.Order.CHRONOLOGICAL)
+            return queryForCandles(request).collectSortedList().as(CandleSeries.of(request.resource()));
+
+        SymbolIdentifier identifier = new SymbolIdentifier(request.resource().symbol());
+        Path file = getFileTreeMetadata().availableSymbols.get(identifier);
+        if (file == null)
+            throw new DataProviderException(String.format("Symbol '%s' not found", identifier));
+
+        ExecutionContext context = new ExecutionContext(this.context);
+        context.put("TimeFrame", request.resource().timeFrame());
+
+        long startTime = (request.startTime() == null)? Long.MIN_VALUE : Chronological.toEpochMicros(request.startTime());
+        long endTime = (request.endTime() == null)? Long.MAX_VALUE : Chronological.toEpochMicros(request.endTime());
+        int limit = request.limit();
+        var builder = PackedCandleDataset.builder();
+        try {
+            long offset = locateRange(file, context, startTime, endTime, limit);
+            if (offset != NO_DATA) {
+                ByteCandleParser parser = type.createByteParser(context);
+                parser.setTimeRange(startTime, endTime);
+                try (InputStream in = newInputStream(file, Math.max(0L, offset))) {
+                    parser.parse(in, (offset < 0)? fileFormat.getSkipFirstLines() : 0, builder);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PackedCandleSeries(request.resource(), builder.build((limit > 0)? limit : Integer.MAX_VALUE));
+    }
+
+    /** The {@link #locateRange} result denoting that no data matches the query. */
+    protected static final long NO_DATA = Long.MIN_VALUE;
+
+    /**
+     * Finds the byte offset in the given file from which the reading should start in order to cover
+     * the requested time range and limit.
+     *
+     * @param file the file
+     * @param context the execution context of the line mapper
+     * @param startTime the earliest time of the requested items
+     * @param endTime the latest time of the requested items
+     * @param limit the maximum number of the most recent items requested, or {@code 0} if unlimited
+     * @return the byte offset of the first data line to read, {@code -1} if the whole file should be
+     *         read including the header lines, or {@link #NO_DATA} if no data matches the query
+     * @throws IOException if an I/O error occurs
+     */
+    protected long locateRange(Path file, ExecutionContext context, long startTime, long endTime, int limit) throws IOException {
+        boolean unbounded = (startTime == Long.MIN_VALUE && endTime == Long.MAX_VALUE);
+        if (unbounded && limit <= 0 || fileFormat.getDataOrder() != Chronological.Order.CHRONOLOGICAL)
+            return -1L;
+
+        if (unbounded && isSeekable(file)) {
+            long offset = findTailOffset(file, limit);
+            if (offset > 0)
+                return offset;
+        }
+
+        FlatFileIndex index = getIndex(file, context);
+        if (index.size() == 0)
+            return NO_DATA;
+
+        int entry = 0;
+        if (startTime != Long.MIN_VALUE)
+            entry = Math.max(0, index.floorEntry(startTime));
+        if (limit > 0) {
+            int endEntry = (endTime == Long.MAX_VALUE)? index.size() - 1 : index.floorEntry(endTime);
+            if (endEntry < 0)
+                return NO_DATA;
+
+            long endLine = (endTime == Long.MAX_VALUE)? index.getLineCount() : index.getLine(endEntry) + 1;
+            entry = Math.max(entry, index.getEntryAtLine(endLine - limit));
+        }
+        return index.getOffset(entry);
+    }
+
+    /**
+     * Reads the items from the given file, restricted to the given time range and limit.
+     *
+     * @param file the file to read
+     * @param context the execution context of the line mapper
+     * @param offset the byte offset of the first data line to read, or {@code -1} to read
+     *               the whole file including the header lines
+     * @param startTime the earliest time of the items to return
+     * @param endTime the latest time of the items to return
+     * @param limit the maximum number of the most recent items to return, or {@code 0} if unlimited
+     * @return the list of items read
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends Candle> List<T> readRange(Path file, ExecutionContext context, long offset, long startTime, long endTime, int limit) throws IOException {
         FlatFileItemReader<T> itemReader = new FlatFileItemReader<>();
         itemReader.setLineMapper((LineMapper<T>) fileFormat.getLineMapper().createLineMapper(context));
-        itemReader.setLinesToSkip(fileFormat.getSkipFirstLines());
-        itemReader.setInputStreamSource(() -> Files.newInputStream(file));
+        itemReader.setLinesToSkip((offset < 0)? fileFormat.getSkipFirstLines() : 0);
+        itemReader.setInputStreamSource(() -> newInputStream(file, Math.max(0L, offset)));
 
+        boolean chronological = (fileFormat.getDataOrder() == Chronological.Order.CHRONOLOGICAL);
         try {
             itemReader.open();
-            List<T> items = itemReader.readAll();
-            //items.sort(Comparator.naturalOrder());
-            if (request.endTime() != null) {
-                long endTime = Chronological.toEpochMicros(request.endTime());
-                items.removeIf(item -> item.getTime() > endTime);
+            Deque<T> items = new ArrayDeque<>();
+            T item;
+            while ((item = itemReader.read()) != null) {
+                long time = item.getTime();
+                if (time > endTime) {
+                    if (chronological)
+                        break;
+                    continue;
+                }
+                if (time < startTime)
+                    continue;
+
+                items.add(item);
+                if (chronological && limit > 0 && items.size() > limit)
+                    items.removeFirst();
             }
 
-            int itemCount = items.size();
-            int itemLimit = request.limit();
-            if (itemLimit > 0 && itemLimit < itemCount)
-                items = items.subList(itemCount - itemLimit, itemCount);
-
-            return Flux.fromIterable(items);
+            List<T> result = new ArrayList<>(items);
+            int itemCount = result.size();
+            if (limit > 0 && limit < itemCount)
+                result = result.subList(itemCount - limit, itemCount);
+            return result;
 
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
         } finally {
             itemReader.close();
         }
     }
 
+    private final Map<IndexKey, FlatFileIndex> indexCache = new ConcurrentHashMap<>();
+
+    private record IndexKey(Path file, Object timeFrame) { }
+
+    /**
+     * Gives the sparse time index of the given file, building it if not yet available or outdated.
+     *
+     * @param file the file
+     * @param context the execution context of the line mapper
+     * @return the file index
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    protected FlatFileIndex getIndex(Path file, ExecutionContext context) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        IndexKey key = new IndexKey(file, context.get("TimeFrame"));
+        FlatFileIndex index = indexCache.get(key);
+        if (index == null || !index.isValid(attrs)) {
+            var lineMapper = (LineMapper<? extends Chronological>) fileFormat.getLineMapper().createLineMapper(context);
+            index = FlatFileIndex.build(file, fileFormat.getSkipFirstLines(), lineMapper, StandardCharsets.UTF_8, FlatFileIndex.DEFAULT_INTERVAL);
+            indexCache.put(key, index);
+        }
+        return index;
+    }
+
+    protected static boolean isSeekable(Path file) {
+        return file.getFileSystem() == FileSystems.getDefault();
+    }
+
+    protected static InputStream newInputStream(Path file, long offset) throws IOException {
+        if (offset == 0L)
+            return Files.newInputStream(file);
+
+        if (isSeekable(file))
+            return Channels.newInputStream(Files.newByteChannel(file).position(offset));
+
+        InputStream in = Files.newInputStream(file);
+        try {
+            in.skipNBytes(offset);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    /**
+     * Scans the given file backwards from its end to find the start of the last {@code limit} lines.
+     *
+     * @param file the file to scan
+     * @param limit the number of trailing lines
+     * @return the byte offset of the first of the trailing lines, or {@code 0} if the file
+     *         does not have more than {@code limit} lines
+     * @throws IOException if an I/O error occurs
+     */
+    protected static long findTailOffset(Path file, int limit) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            long size = channel.size();
+            long position = size;
+            int newLines = 0;
+            ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+            while (position > 0) {
+                int length = (int) Math.min(buf.capacity(), position);
+                position -= length;
+                buf.clear().limit(length);
+                channel.position(position);
+                while (buf.hasRemaining())
+                    if (channel.read(buf) < 0)
+                        throw new EOFException(file.toString());
+
+                for (int i = length - 1; i >= 0; i--)
+                    if (buf.get(i) == '\n' && position + i != size - 1 && ++newLines == limit)
+                        return position + i + 1;
+            }
+            return 0L;
+        }
+    }
+
     public final FileSystem getFileSystem() {
         return fileSystem.get();
     }
@@ -235,7 +440,7 @@ public class FlatFileDataProvider extends AbstractDataProvider implements Symbol
         }
     }
 
-    private FileTreeMetadata metadata;
+    private volatile FileTreeMetadata metadata;
 
     private FileTreeMetadata getFileTreeMetadata() {
         if (metadata == null)
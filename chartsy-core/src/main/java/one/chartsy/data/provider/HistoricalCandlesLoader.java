@@ -0,0 +1,248 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.data.CandleSeries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Loads historical candles of many symbols concurrently on a bounded executor.
+ * <p>
+ * The loader fans out the individual requests across the executor threads, while the results are
+ * always handed back in the request order. Each {@link Batch} keeps at most {@code prefetch}
+ * requests in flight ahead of the consumer, so that scanning a large symbol universe does not
+ * require keeping all series in memory at once. A batch can be cancelled at any time, in which case
+ * all pending requests are discarded without being executed.
+ *
+ * @author Mariusz Bernacki
+ */
+public class HistoricalCandlesLoader {
+    /** The default number of concurrent loading threads. */
+    public static final int DEFAULT_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final Executor executor;
+    private final BiFunction<DataProvider, SymbolResource<Candle>, CandleSeries> loader;
+
+    public HistoricalCandlesLoader() {
+        this(defaultExecutor());
+    }
+
+    public HistoricalCandlesLoader(Executor executor) {
+        this(executor, DataProviders::getHistoricalCandles);
+    }
+
+    public HistoricalCandlesLoader(Executor executor, BiFunction<DataProvider, SymbolResource<Candle>, CandleSeries> loader) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.loader = Objects.requireNonNull(loader, "loader");
+    }
+
+    /**
+     * Gives the shared executor used by default for loading the historical data.
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * A single request for historical candles.
+     */
+    public record Request(DataProvider provider, SymbolResource<Candle> resource) {
+        public Request {
+            Objects.requireNonNull(provider, "provider");
+            Objects.requireNonNull(resource, "resource");
+        }
+    }
+
+    /**
+     * Receives notifications about the batch loading progress. The listener is called from the
+     * loading threads.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called after each completed request.
+         *
+         * @param resource the loaded resource
+         * @param completedCount the number of requests completed so far
+         * @param totalCount the total number of requests in the batch
+         */
+        void loaded(SymbolResource<Candle> resource, int completedCount, int totalCount);
+    }
+
+    /**
+     * Loads all series of the given resources from the given provider.
+     *
+     * @param provider the data provider
+     * @param resources the resources to load
+     * @return the list of loaded series, in the order of {@code resources}
+     * @throws CancellationException if the calling thread was interrupted while waiting
+     * @throws DataProviderException if any of the requests failed
+     */
+    public List<CandleSeries> loadAll(DataProvider provider, Iterable<SymbolResource<Candle>> resources) {
+        List<Request> requests = new ArrayList<>();
+        for (SymbolResource<Candle> resource : resources)
+            requests.add(new Request(provider, resource));
+
+        try (Batch batch = submit(requests, Integer.MAX_VALUE, null)) {
+            return batch.getAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while loading historical candles");
+        }
+    }
+
+    /**
+     * Starts loading the given requests in the background.
+     *
+     * @param requests the requests to load
+     * @param prefetch the maximum number of results loaded ahead of the consumer
+     * @param listener the optional progress listener, may be {@code null}
+     * @return the batch handle giving access to the results
+     */
+    public Batch submit(List<Request> requests, int prefetch, ProgressListener listener) {
+        if (prefetch <= 0)
+            throw new IllegalArgumentException("The `prefetch` argument must be positive");
+
+        Batch batch = new Batch(List.copyOf(requests), prefetch, listener);
+        batch.fill(0);
+        return batch;
+    }
+
+    /**
+     * A handle to the requests being loaded.
+     */
+    public final class Batch implements AutoCloseable {
+        private final List<Request> requests;
+        private final CompletableFuture<CandleSeries>[] results;
+        private final int prefetch;
+        private final ProgressListener listener;
+        private final AtomicInteger completedCount = new AtomicInteger();
+        private int submittedCount;
+        private volatile boolean cancelled;
+
+        @SuppressWarnings("unchecked")
+        private Batch(List<Request> requests, int prefetch, ProgressListener listener) {
+            this.requests = requests;
+            this.results = new CompletableFuture[requests.size()];
+            this.prefetch = prefetch;
+            this.listener = listener;
+        }
+
+        public int size() {
+            return requests.size();
+        }
+
+        public Request getRequest(int index) {
+            return requests.get(index);
+        }
+
+        private synchronized void fill(int consumerIndex) {
+            int limit = (int) Math.min(size(), (long) consumerIndex + prefetch);
+            while (submittedCount < limit && !cancelled) {
+                Request request = requests.get(submittedCount);
+                results[submittedCount++] = CompletableFuture.supplyAsync(() -> load(request), executor);
+            }
+        }
+
+        private CandleSeries load(Request request) {
+            if (cancelled)
+                throw new CancellationException();
+
+            CandleSeries series = loader.apply(request.provider(), request.resource());
+            int completed = completedCount.incrementAndGet();
+            if (listener != null)
+                listener.loaded(request.resource(), completed, size());
+            return series;
+        }
+
+        /**
+         * Waits for and gives the series of the request at the specified index. Each result can be
+         * taken only once, and consuming the results allows the batch to load further requests ahead.
+         *
+         * @param index the request index
+         * @return the loaded series
+         * @throws InterruptedException if the current thread was interrupted while waiting
+         * @throws CancellationException if the batch was cancelled
+         * @throws DataProviderException if the request failed
+         */
+        public CandleSeries get(int index) throws InterruptedException {
+            Objects.checkIndex(index, size());
+            fill(index + 1);
+            CompletableFuture<CandleSeries> result;
+            synchronized (this) {
+                result = results[index];
+                if (result == null && cancelled)
+                    throw new CancellationException("Batch cancelled");
+                if (result == null)
+                    throw new IllegalStateException("Result at index " + index + " already taken");
+                results[index] = null;
+            }
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof CancellationException ce)
+                    throw ce;
+                if (cause instanceof DataProviderException dpe)
+                    throw dpe;
+                throw new DataProviderException("Failed loading " + requests.get(index).resource(), cause);
+            }
+        }
+
+        /**
+         * Waits for and gives all remaining results of the batch.
+         *
+         * @return the list of series, in the request order
+         * @throws InterruptedException if the current thread was interrupted while waiting
+         */
+        public List<CandleSeries> getAll() throws InterruptedException {
+            List<CandleSeries> list = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++)
+                list.add(get(i));
+            return list;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancels the batch. The requests not yet started are skipped, and the requests being
+         * currently loaded have their results discarded.
+         */
+        public void cancel() {
+            cancelled = true;
+            synchronized (this) {
+                for (CompletableFuture<CandleSeries> result : results)
+                    if (result != null)
+                        result.cancel(false);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+    }
+
+    private static final class DefaultExecutorHolder {
+        private static final ExecutorService INSTANCE = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(DEFAULT_PARALLELISM, task -> {
+                Thread thread = new Thread(task, "HistoricalCandlesLoader-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
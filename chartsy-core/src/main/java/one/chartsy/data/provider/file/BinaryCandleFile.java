@@ -0,0 +1,167 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider.file;
+
+import one.chartsy.Candle;
+import one.chartsy.data.packed.BufferCandleDataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The compact binary candle file format.
+ * <p>
+ * The file starts with a header consisting of the magic number, the format version, the number of
+ * candles stored, the symbol name and the time frame name, padded to an 8-byte boundary. The header
+ * is followed by the candle data laid out column by column, in chronological order: times, opens,
+ * highs, lows, closes, volumes and counts. All values are stored in little-endian byte order.
+ * <p>
+ * The format is designed to be memory-mapped and accessed in place through the
+ * {@link BufferCandleDataset}, without materializing any {@code Candle} objects.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class BinaryCandleFile {
+    /** The magic number identifying the binary candle files ("CHCF"). */
+    public static final int MAGIC = 0x46434843;
+    /** The current version of the file format. */
+    public static final int VERSION = 1;
+    /** The default file name extension of the binary candle files. */
+    public static final String EXTENSION = ".candles";
+
+    private BinaryCandleFile() { }
+
+    /**
+     * The binary candle file header.
+     *
+     * @param symbol the symbol name
+     * @param timeFrame the time frame name
+     * @param count the number of candles stored in the file
+     * @param dataOffset the byte offset at which the candle data starts
+     */
+    public record Header(String symbol, String timeFrame, int count, int dataOffset) {
+
+        public static Header of(String symbol, String timeFrame, int count) {
+            int headerSize = 12 + 2 + utf8Length(symbol) + 2 + utf8Length(timeFrame);
+            return new Header(symbol, timeFrame, count, (headerSize + 7) & ~7);
+        }
+
+        public long fileSize() {
+            return dataOffset + BufferCandleDataset.sizeOf(count);
+        }
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Writes the given candles to the binary candle file.
+     *
+     * @param file the target file
+     * @param symbol the symbol name stored in the file header
+     * @param timeFrame the time frame name stored in the file header
+     * @param candles the candles in chronological order
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(Path file, String symbol, String timeFrame, List<? extends Candle> candles) throws IOException {
+        Header header = Header.of(symbol, timeFrame, candles.size());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, header.fileSize()).order(ByteOrder.LITTLE_ENDIAN);
+            writeHeader(buffer, header);
+
+            int count = header.count();
+            int timeOffset = header.dataOffset();
+            int openOffset = timeOffset + 8 * count;
+            int highOffset = openOffset + 8 * count;
+            int lowOffset = highOffset + 8 * count;
+            int closeOffset = lowOffset + 8 * count;
+            int volumeOffset = closeOffset + 8 * count;
+            int countOffset = volumeOffset + 8 * count;
+            int row = 0;
+            for (Candle c : candles) {
+                buffer.putLong(timeOffset + 8 * row, c.getTime());
+                buffer.putDouble(openOffset + 8 * row, c.open());
+                buffer.putDouble(highOffset + 8 * row, c.high());
+                buffer.putDouble(lowOffset + 8 * row, c.low());
+                buffer.putDouble(closeOffset + 8 * row, c.close());
+                buffer.putDouble(volumeOffset + 8 * row, c.volume());
+                buffer.putInt(countOffset + 4 * row, c.count());
+                row++;
+            }
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, Header header) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(header.count());
+        putString(buffer, header.symbol());
+        putString(buffer, header.timeFrame());
+    }
+
+    private static void putString(ByteBuffer buffer, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the header of the binary candle file mapped into the given buffer.
+     *
+     * @param buffer the buffer positioned at the file start
+     * @return the file header
+     * @throws FlatFileFormatException if the buffer does not contain a valid binary candle file
+     */
+    public static Header readHeader(ByteBuffer buffer) {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < 12 || in.getInt() != MAGIC)
+            throw new FlatFileFormatException("Not a binary candle file");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new FlatFileFormatException("Unsupported binary candle file version " + version);
+
+        int count = in.getInt();
+        String symbol = getString(in);
+        String timeFrame = getString(in);
+        return Header.of(symbol, timeFrame, count);
+    }
+
+    /**
+     * Memory-maps the given binary candle file.
+     *
+     * @param file the file to map
+     * @return the mapped file
+     * @throws IOException if an I/O error occurs
+     */
+    public static Mapped map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            Header header = readHeader(buffer);
+            if (buffer.limit() < header.fileSize())
+                throw new FlatFileFormatException("Binary candle file `" + file + "` is truncated");
+
+            return new Mapped(header, new BufferCandleDataset(buffer, header.dataOffset(), header.count()));
+        }
+    }
+
+    /**
+     * The memory-mapped binary candle file.
+     *
+     * @param header the file header
+     * @param dataset the candle dataset backed by the mapped file, in reverse-chronological order
+     */
+    public record Mapped(Header header, BufferCandleDataset dataset) { }
+}
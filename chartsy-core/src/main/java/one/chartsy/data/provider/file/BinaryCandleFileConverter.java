@@ -0,0 +1,82 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider.file;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolIdentity;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.DataQuery;
+import one.chartsy.data.provider.FlatFileDataProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Converts the flat file archives, readable through any {@link FlatFileFormat}, into the directory
+ * of {@link BinaryCandleFile binary candle files}, one file per symbol.
+ *
+ * @author Mariusz Bernacki
+ */
+public class BinaryCandleFileConverter {
+
+    private final TimeFrame timeFrame;
+
+    public BinaryCandleFileConverter(TimeFrame timeFrame) {
+        this.timeFrame = timeFrame;
+    }
+
+    public final TimeFrame getTimeFrame() {
+        return timeFrame;
+    }
+
+    /**
+     * Converts all symbols found in the given archive file.
+     *
+     * @param fileFormat the format of the source archive
+     * @param archiveFile the source archive file
+     * @param targetDirectory the directory where the binary files are written to
+     * @return the number of converted symbols
+     * @throws IOException if an I/O error occurs
+     */
+    public int convert(FlatFileFormat fileFormat, Path archiveFile, Path targetDirectory) throws IOException {
+        return convert(fileFormat.newDataProvider(archiveFile), targetDirectory);
+    }
+
+    /**
+     * Converts all symbols available in the given flat file data provider.
+     *
+     * @param provider the source data provider
+     * @param targetDirectory the directory where the binary files are written to
+     * @return the number of converted symbols
+     * @throws IOException if an I/O error occurs
+     */
+    public int convert(FlatFileDataProvider provider, Path targetDirectory) throws IOException {
+        Files.createDirectories(targetDirectory);
+        int count = 0;
+        for (SymbolIdentity symbol : provider.listSymbols()) {
+            convert(provider, symbol, targetDirectory.resolve(symbol.name() + BinaryCandleFile.EXTENSION));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Converts a single symbol available in the given flat file data provider.
+     *
+     * @param provider the source data provider
+     * @param symbol the symbol to convert
+     * @param targetFile the target binary file
+     * @throws IOException if an I/O error occurs
+     */
+    public void convert(FlatFileDataProvider provider, SymbolIdentity symbol, Path targetFile) throws IOException {
+        DataQuery<Candle> query = DataQuery.of(SymbolResource.of(symbol, timeFrame));
+        List<Candle> candles = provider.queryForCandles(query)
+                .collectSortedList()
+                .block();
+
+        BinaryCandleFile.write(targetFile, symbol.name(), timeFrame.toString(), candles);
+    }
+}
@@ -0,0 +1,531 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider.file;
+
+import one.chartsy.TimeFrame;
+import one.chartsy.data.function.CandleSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The byte-level counterpart of the {@link SimpleCandleLineMapper}. The parser scans raw bytes of
+ * the flat file directly and converts the fixed-layout numeric dates, times and decimal numbers into
+ * primitives, emitting the candles straight into the {@link CandleSink} without creating any
+ * intermediate {@code String}, {@code LocalDate} or {@code Candle} objects.
+ * <p>
+ * The supported date layouts are {@code yyyyMMdd} and {@code yyyy-MM-dd} (with any single non-digit
+ * separator), the supported time layouts are {@code HHmm}, {@code HHmmss}, {@code HH:mm} and
+ * {@code HH:mm:ss} with optional fraction of a second, and the date-time layout is any supported date
+ * followed by an optional single separator and a supported time. Whether the formatters of the given
+ * {@link SimpleCandleLineMapper.Type} conform to these layouts is verified upfront by
+ * {@link #supports(SimpleCandleLineMapper.Type)}. The decimal numbers giving identical results as
+ * {@code Double.parseDouble} are parsed inline, while the remaining ones fall back to the
+ * {@code Double.parseDouble}. Empty lines are skipped.
+ * <p>
+ * The parser is stateful and not thread-safe.
+ *
+ * @author Mariusz Bernacki
+ */
+public class ByteCandleParser {
+
+    private static final int SKIP = 0, DATE = 1, DATE_TIME = 2, OPEN_DATE_TIME = 3, TIME = 4, OPEN_TIME = 5,
+            OPEN = 6, HIGH = 7, LOW = 8, CLOSE = 9, VOLUME = 10, COUNT = 11;
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final LocalDateTime[] PROBES = {
+            LocalDateTime.of(2019, 11, 23, 17, 45, 31),
+            LocalDateTime.of(2021, 2, 5, 8, 3, 9)
+    };
+
+    private final byte delimiter;
+    private final int[] fields;
+    private final boolean hasOpen, hasHighAndLow;
+    private final long timeShift;
+    private long lastTime = Long.MIN_VALUE;
+    private int lineNumber;
+    private long startTime = Long.MIN_VALUE, endTime = Long.MAX_VALUE;
+    private boolean done;
+
+    // the parse results of the most recent date/time token
+    private long parsedDate, parsedTime;
+
+    public ByteCandleParser(SimpleCandleLineMapper.Type type, ExecutionContext context) {
+        if (!supports(type))
+            throw new FlatFileFormatException("Line format not supported by byte-level parser");
+
+        List<String> fieldNames = type.getFields();
+        this.delimiter = (byte) type.getDelimiter();
+        this.fields = new int[fieldNames.size()];
+        for (int i = 0; i < fields.length; i++)
+            fields[i] = fieldCode(fieldNames.get(i));
+        this.hasOpen = fieldNames.contains("OPEN");
+        this.hasHighAndLow = fieldNames.contains("HIGH");
+        boolean hasTimeAtOpen = fieldNames.contains("OPEN_TIME") || fieldNames.contains("OPEN_DATE_TIME");
+        this.timeShift = hasTimeAtOpen ? SimpleCandleLineMapper.getCandleTimeShift((TimeFrame) context.get("TimeFrame")) : 0;
+    }
+
+    private static int fieldCode(String field) {
+        return switch (field) {
+            case "SKIP" -> SKIP;
+            case "DATE" -> DATE;
+            case "DATE_TIME" -> DATE_TIME;
+            case "OPEN_DATE_TIME" -> OPEN_DATE_TIME;
+            case "TIME" -> TIME;
+            case "OPEN_TIME" -> OPEN_TIME;
+            case "OPEN" -> OPEN;
+            case "HIGH" -> HIGH;
+            case "LOW" -> LOW;
+            case "CLOSE" -> CLOSE;
+            case "VOLUME" -> VOLUME;
+            case "COUNT" -> COUNT;
+            default -> throw new FlatFileFormatException("Unsupported field: " + field);
+        };
+    }
+
+    /**
+     * Checks whether the given line format can be handled by the byte-level parser.
+     *
+     * @param type the line format
+     * @return {@code true} if supported
+     */
+    public static boolean supports(SimpleCandleLineMapper.Type type) {
+        if (type.getDelimiter() > 0x7F)
+            return false;
+
+        List<String> fields = type.getFields();
+        for (String field : fields) {
+            try {
+                fieldCode(field);
+            } catch (FlatFileFormatException e) {
+                return false;
+            }
+        }
+        if (fields.contains("DATE") && !conforms(type.getDateFormat(), DATE))
+            return false;
+        if ((fields.contains("TIME") || fields.contains("OPEN_TIME")) && !conforms(type.getTimeFormat(), TIME))
+            return false;
+        if ((fields.contains("DATE_TIME") || fields.contains("OPEN_DATE_TIME")) && !conforms(type.getDateTimeFormat(), DATE_TIME))
+            return false;
+        return true;
+    }
+
+    private static boolean conforms(DateTimeFormatter format, int kind) {
+        var parser = new ByteCandleParser();
+        try {
+            for (LocalDateTime probe : PROBES) {
+                byte[] text = format.format(probe).getBytes(StandardCharsets.ISO_8859_1);
+                switch (kind) {
+                    case DATE -> {
+                        if (parser.parseDate(text, 0, text.length) != text.length
+                                || parser.parsedDate != LocalDate.parse(new String(text, StandardCharsets.ISO_8859_1), format).toEpochDay())
+                            return false;
+                    }
+                    case TIME -> {
+                        if (parser.parseTime(text, 0, text.length) != text.length
+                                || parser.parsedTime != LocalTime.parse(new String(text, StandardCharsets.ISO_8859_1), format).toNanoOfDay() / 1000L)
+                            return false;
+                    }
+                    default -> {
+                        LocalDateTime expected = LocalDateTime.parse(new String(text, StandardCharsets.ISO_8859_1), format);
+                        if (parser.parseDateTime(text, 0, text.length) != expected.toLocalDate().toEpochDay() * MICROS_PER_DAY + expected.toLocalTime().toNanoOfDay() / 1000L)
+                            return false;
+                    }
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    // probing constructor
+    private ByteCandleParser() {
+        this.delimiter = 0;
+        this.fields = new int[0];
+        this.hasOpen = this.hasHighAndLow = false;
+        this.timeShift = 0;
+    }
+
+    /**
+     * Restricts the candles emitted to the sink to the given time range. The parsing stops at the
+     * first candle past the {@code endTime}.
+     *
+     * @param startTime the earliest candle time to emit
+     * @param endTime the latest candle time to emit
+     */
+    public void setTimeRange(long startTime, long endTime) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    /**
+     * Tells whether the parsing has already reached past the end of the time range.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Parses all lines from the given input stream.
+     *
+     * @param in the input stream
+     * @param linesToSkip the number of header lines to skip
+     * @param sink the sink receiving parsed candles
+     * @throws IOException if an I/O error occurs
+     * @throws FlatFileParseException if a line cannot be parsed
+     */
+    public void parse(InputStream in, int linesToSkip, CandleSink sink) throws IOException {
+        byte[] buf = new byte[64 * 1024];
+        int length = 0, n;
+        while (!done && (n = in.read(buf, length, buf.length - length)) >= 0) {
+            length += n;
+            int start = 0;
+            while (linesToSkip > 0 && start < length) {
+                int eol = indexOf(buf, (byte) '\n', start, length);
+                if (eol < 0)
+                    break;
+                start = eol + 1;
+                lineNumber++;
+                linesToSkip--;
+            }
+            if (linesToSkip == 0)
+                start += parse(buf, start, length - start, sink);
+
+            length -= start;
+            System.arraycopy(buf, start, buf, 0, length);
+            if (length == buf.length)
+                buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        if (!done && length > 0 && linesToSkip == 0)
+            parseLine(buf, 0, length, sink);
+    }
+
+    /**
+     * Parses the complete lines found in the given byte range. The trailing incomplete line, if any,
+     * is left unconsumed.
+     *
+     * @param buf the byte buffer
+     * @param offset the range start
+     * @param length the range length
+     * @param sink the sink receiving parsed candles
+     * @return the number of bytes consumed
+     * @throws FlatFileParseException if a line cannot be parsed
+     */
+    public int parse(byte[] buf, int offset, int length, CandleSink sink) {
+        int end = offset + length, start = offset, eol;
+        while (!done && (eol = indexOf(buf, (byte) '\n', start, end)) >= 0) {
+            parseLine(buf, start, eol, sink);
+            start = eol + 1;
+        }
+        return start - offset;
+    }
+
+    private static int indexOf(byte[] buf, byte b, int from, int to) {
+        for (int i = from; i < to; i++)
+            if (buf[i] == b)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Parses a single line.
+     *
+     * @param buf the byte buffer
+     * @param start the line start
+     * @param end the line end, excluding the line terminator
+     * @param sink the sink receiving parsed candle
+     * @throws FlatFileParseException if the line cannot be parsed
+     */
+    public void parseLine(byte[] buf, int start, int end, CandleSink sink) {
+        lineNumber++;
+        if (end > start && buf[end - 1] == '\r')
+            end--;
+        if (end == start)
+            return;
+
+        try {
+            parseLine0(buf, start, end, sink);
+        } catch (FlatFileParseException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new FlatFileParseException("Unable to parse line", e, new String(buf, start, end - start, StandardCharsets.ISO_8859_1), lineNumber);
+        }
+    }
+
+    private void parseLine0(byte[] buf, int start, int end, CandleSink sink) {
+        double open = 0.0, high = 0.0, low = 0.0, close = 0.0, volume = 0.0;
+        int count = 0;
+        long date = Long.MIN_VALUE, time = Long.MIN_VALUE, dateTime = Long.MIN_VALUE;
+        long timeShift = 0;
+        int pos = start;
+        for (int i = 0; i < fields.length; i++) {
+            if (pos > end)
+                throw new FlatFileParseException("Missing field #" + (i + 1), new String(buf, start, end - start, StandardCharsets.ISO_8859_1), lineNumber);
+
+            int tokenEnd = indexOf(buf, delimiter, pos, end);
+            if (tokenEnd < 0)
+                tokenEnd = end;
+            switch (fields[i]) {
+                case DATE -> {
+                    requireWhole(parseDate(buf, pos, tokenEnd), tokenEnd);
+                    date = parsedDate;
+                }
+                case DATE_TIME -> {
+                    dateTime = parseDateTime(buf, pos, tokenEnd);
+                    timeShift = 0;
+                }
+                case OPEN_DATE_TIME -> {
+                    if (dateTime == Long.MIN_VALUE) {
+                        dateTime = parseDateTime(buf, pos, tokenEnd);
+                        timeShift = this.timeShift;
+                    }
+                }
+                case TIME -> {
+                    requireWhole(parseTime(buf, pos, tokenEnd), tokenEnd);
+                    time = parsedTime;
+                    timeShift = 0;
+                }
+                case OPEN_TIME -> {
+                    if (time == Long.MIN_VALUE) {
+                        requireWhole(parseTime(buf, pos, tokenEnd), tokenEnd);
+                        time = parsedTime;
+                        timeShift = this.timeShift;
+                    }
+                }
+                case OPEN -> open = parseDouble(buf, pos, tokenEnd);
+                case HIGH -> high = parseDouble(buf, pos, tokenEnd);
+                case LOW -> low = parseDouble(buf, pos, tokenEnd);
+                case CLOSE -> close = parseDouble(buf, pos, tokenEnd);
+                case VOLUME -> volume = parseDouble(buf, pos, tokenEnd);
+                case COUNT -> count = parseInt(buf, pos, tokenEnd);
+                default -> { }
+            }
+            pos = tokenEnd + 1;
+        }
+
+        if (dateTime == Long.MIN_VALUE)
+            dateTime = date * MICROS_PER_DAY + Math.max(0L, time);
+        if (!hasOpen)
+            open = close;
+        if (!hasHighAndLow)
+            high = low = close;
+
+        long candleTime = dateTime + timeShift;
+        if (candleTime <= lastTime)
+            throw new FlatFileParseException(String.format("Invalid candle order at line %s", lineNumber), new String(buf, start, end - start, StandardCharsets.ISO_8859_1), lineNumber);
+        lastTime = candleTime;
+        if (candleTime > endTime)
+            done = true;
+        else if (candleTime >= startTime)
+            sink.accept(candleTime, open, high, low, close, volume, count);
+    }
+
+    private static void requireWhole(int parsedEnd, int tokenEnd) {
+        if (parsedEnd != tokenEnd)
+            throw new NumberFormatException("Unexpected trailing characters");
+    }
+
+    private static int digit(byte[] buf, int pos) {
+        int d = buf[pos] - '0';
+        if (d < 0 || d > 9)
+            throw new NumberFormatException("Digit expected at position " + pos);
+        return d;
+    }
+
+    private static int digits2(byte[] buf, int pos) {
+        return digit(buf, pos) * 10 + digit(buf, pos + 1);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Parses the date starting at the given position into {@link #parsedDate} epoch day.
+     *
+     * @return the position following the parsed date
+     */
+    int parseDate(byte[] buf, int pos, int end) {
+        if (end - pos < 8)
+            throw new NumberFormatException("Date too short");
+
+        int year = digits2(buf, pos) * 100 + digits2(buf, pos + 2);
+        int month, day;
+        if (isDigit(buf[pos + 4])) {
+            month = digits2(buf, pos + 4);
+            day = digits2(buf, pos + 6);
+            pos += 8;
+        } else {
+            if (end - pos < 10 || isDigit(buf[pos + 7]))
+                throw new NumberFormatException("Invalid date layout");
+            month = digits2(buf, pos + 5);
+            day = digits2(buf, pos + 8);
+            pos += 10;
+        }
+        parsedDate = epochDay(year, month, day);
+        return pos;
+    }
+
+    /**
+     * Parses the time of day starting at the given position into {@link #parsedTime} micros of day.
+     *
+     * @return the position following the parsed time
+     */
+    int parseTime(byte[] buf, int pos, int end) {
+        if (end - pos < 4)
+            throw new NumberFormatException("Time too short");
+
+        int hour = digits2(buf, pos), minute, second = 0;
+        long micros = 0;
+        boolean separated = !isDigit(buf[pos + 2]);
+        if (separated) {
+            minute = digits2(buf, pos + 3);
+            pos += 5;
+            if (end - pos >= 3 && !isDigit(buf[pos]) && buf[pos] != '.') {
+                second = digits2(buf, pos + 1);
+                pos += 3;
+            }
+        } else {
+            minute = digits2(buf, pos + 2);
+            pos += 4;
+            if (end - pos >= 2 && isDigit(buf[pos])) {
+                second = digits2(buf, pos);
+                pos += 2;
+            }
+        }
+        if (pos < end && buf[pos] == '.') {
+            int scale = 0;
+            for (pos++; pos < end && isDigit(buf[pos]); pos++)
+                if (scale++ < 6)
+                    micros = micros * 10 + (buf[pos] - '0');
+            if (scale == 0)
+                throw new NumberFormatException("Fraction of second expected");
+            for (; scale < 6; scale++)
+                micros *= 10;
+        }
+        if (hour > 23 || minute > 59 || second > 59)
+            throw new NumberFormatException("Invalid time of day");
+
+        parsedTime = ((hour * 60L + minute) * 60L + second) * 1000_000L + micros;
+        return pos;
+    }
+
+    /**
+     * Parses the date-time token into epoch micros.
+     */
+    long parseDateTime(byte[] buf, int pos, int end) {
+        pos = parseDate(buf, pos, end);
+        if (pos < end && !isDigit(buf[pos]))
+            pos++;
+        requireWhole(parseTime(buf, pos, end), end);
+        return parsedDate * MICROS_PER_DAY + parsedTime;
+    }
+
+    static long epochDay(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month))
+            throw new NumberFormatException("Invalid date " + year + "-" + month + "-" + day);
+
+        // the same algorithm as used by the LocalDate.toEpochDay()
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0)
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        else
+            total -= y / -4 - y / -100 + y / -400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year))
+                total--;
+        }
+        return total - 719528L;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    static int parseInt(byte[] buf, int pos, int end) {
+        if (pos == end)
+            throw new NumberFormatException("Empty number");
+
+        boolean negative = false;
+        if (buf[pos] == '-' || buf[pos] == '+')
+            negative = (buf[pos++] == '-');
+        if (pos == end)
+            throw new NumberFormatException("Digits expected");
+
+        long value = 0;
+        for (; pos < end; pos++) {
+            value = value * 10 + digit(buf, pos);
+            if (value > Integer.MAX_VALUE + 1L)
+                throw new NumberFormatException("Integer overflow");
+        }
+        return Math.toIntExact(negative ? -value : value);
+    }
+
+    static double parseDouble(byte[] buf, int pos, int end) {
+        int start = pos;
+        if (pos == end)
+            throw new NumberFormatException("Empty number");
+
+        boolean negative = false;
+        if (buf[pos] == '-' || buf[pos] == '+')
+            negative = (buf[pos++] == '-');
+
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false;
+        for (; pos < end; pos++) {
+            byte b = buf[pos];
+            if (isDigit(b)) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0)
+                        digits++;
+                    if (dot)
+                        scale++;
+                } else {
+                    return parseDoubleSlow(buf, start, end);
+                }
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                return parseDoubleSlow(buf, start, end);
+            }
+        }
+        if (pos == start + (negative || buf[start] == '+' ? 1 : 0) + (dot ? 1 : 0))
+            throw new NumberFormatException("Digits expected");
+
+        // the exact conversion applies only when both operands are exactly representable as double
+        if (mantissa >= (1L << 53) || scale >= POWERS_OF_TEN.length)
+            return parseDoubleSlow(buf, start, end);
+
+        double value = (scale == 0) ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(byte[] buf, int start, int end) {
+        return Double.parseDouble(new String(buf, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+}
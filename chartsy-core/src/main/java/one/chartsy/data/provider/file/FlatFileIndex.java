@@ -0,0 +1,201 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider.file;
+
+import one.chartsy.time.Chronological;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+/**
+ * A sparse time index of a chronologically ordered flat file. The index records the byte offset and
+ * the time of every {@code interval}-th data line of the file, which allows time range and limit
+ * queries to seek directly into the relevant region of the file instead of parsing it from start.
+ * <p>
+ * Data lines are counted from the first line following the skipped header lines.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class FlatFileIndex {
+    public static final int DEFAULT_INTERVAL = 1024;
+
+    private final int interval;
+    private final long[] offsets;
+    private final long[] times;
+    private final long lineCount;
+    private final FileTime lastModifiedTime;
+    private final long fileSize;
+
+    private FlatFileIndex(int interval, long[] offsets, long[] times, long lineCount, FileTime lastModifiedTime, long fileSize) {
+        this.interval = interval;
+        this.offsets = offsets;
+        this.times = times;
+        this.lineCount = lineCount;
+        this.lastModifiedTime = lastModifiedTime;
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Builds the index of the given file by scanning it once.
+     *
+     * @param file the file to index
+     * @param linesToSkip the number of header lines to skip
+     * @param lineMapper the line mapper used to decode the indexed lines
+     * @param charset the file encoding
+     * @param interval the number of data lines between the subsequent index entries
+     * @return the file index
+     * @throws IOException if an I/O error occurs
+     */
+    public static FlatFileIndex build(Path file, int linesToSkip, LineMapper<? extends Chronological> lineMapper, Charset charset, int interval) throws IOException {
+        if (interval <= 0)
+            throw new IllegalArgumentException("The `interval` argument must be positive");
+
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        Builder builder = new Builder(lineMapper, charset);
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[64 * 1024];
+            ByteArrayOutputStream lineBytes = new ByteArrayOutputStream(128);
+            long position = 0L, lineStart = 0L, line = -linesToSkip;
+            boolean capturing = (line == 0);
+            int n;
+            while ((n = in.read(buf)) >= 0) {
+                int from = 0;
+                for (int i = 0; i < n; i++) {
+                    if (buf[i] == '\n') {
+                        if (capturing) {
+                            lineBytes.write(buf, from, i - from);
+                            builder.add(lineStart, lineBytes, line);
+                            lineBytes.reset();
+                        }
+                        line++;
+                        lineStart = position + i + 1;
+                        from = i + 1;
+                        capturing = (line >= 0 && line % interval == 0);
+                    }
+                }
+                if (capturing)
+                    lineBytes.write(buf, from, n - from);
+                position += n;
+            }
+            if (lineStart < position && line >= 0) {
+                if (capturing)
+                    builder.add(lineStart, lineBytes, line);
+                line++;
+            }
+            return builder.build(interval, Math.max(0L, line), attrs);
+        }
+    }
+
+    /**
+     * Gives the number of index entries.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Gives the number of data lines in the indexed file.
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public long getOffset(int entry) {
+        return offsets[entry];
+    }
+
+    public long getTime(int entry) {
+        return times[entry];
+    }
+
+    public long getLine(int entry) {
+        return (long) entry * interval;
+    }
+
+    /**
+     * Gives the index entry covering the given data line.
+     *
+     * @param line the data line number
+     * @return the last entry located at or before the given line
+     */
+    public int getEntryAtLine(long line) {
+        if (line <= 0L || offsets.length == 0)
+            return 0;
+        return (int) Math.min(offsets.length - 1, line / interval);
+    }
+
+    /**
+     * Gives the last index entry with the time not greater than the given time.
+     *
+     * @param time the time to search for
+     * @return the entry index, or {@code -1} if all entries are after the given time
+     */
+    public int floorEntry(long time) {
+        int location = Arrays.binarySearch(times, time);
+        if (location < 0)
+            return -location - 2;
+        while (location > 0 && times[location - 1] == time)
+            location--;
+        return location;
+    }
+
+    /**
+     * Checks whether the index is still up-to-date with the given file attributes.
+     *
+     * @param attrs the current attributes of the indexed file
+     * @return {@code true} if the file has not changed since it was indexed
+     */
+    public boolean isValid(BasicFileAttributes attrs) {
+        return attrs.size() == fileSize && attrs.lastModifiedTime().equals(lastModifiedTime);
+    }
+
+    private static final class Builder {
+        private final LineMapper<? extends Chronological> lineMapper;
+        private final Charset charset;
+        private long[] offsets = new long[16];
+        private long[] times = new long[16];
+        private int size;
+
+        private Builder(LineMapper<? extends Chronological> lineMapper, Charset charset) {
+            this.lineMapper = lineMapper;
+            this.charset = charset;
+        }
+
+        void add(long offset, ByteArrayOutputStream lineBytes, long lineNumber) throws IOException {
+            String line = lineBytes.toString(charset);
+            if (line.endsWith("\r"))
+                line = line.substring(0, line.length() - 1);
+
+            long time;
+            try {
+                time = lineMapper.mapLine(line, (int) lineNumber).getTime();
+            } catch (FlatFileParseException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new FlatFileParseException("Unable to parse line", e, line, (int) lineNumber);
+            }
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            offsets[size] = offset;
+            times[size] = time;
+            size++;
+        }
+
+        FlatFileIndex build(int interval, long lineCount, BasicFileAttributes attrs) {
+            return new FlatFileIndex(interval, Arrays.copyOf(offsets, size), Arrays.copyOf(times, size), lineCount, attrs.lastModifiedTime(), attrs.size());
+        }
+    }
+}
@@ -27,6 +27,7 @@ public class SimpleCandleLineMapper implements LineMapper<SimpleCandle> {
         private final DateTimeFormatter dateFormat;
         private final DateTimeFormatter timeFormat;
         private final DateTimeFormatter dateTimeFormat;
+        private Boolean byteParsingSupported;
 
         public Type(char delimiter, List<String> fields) {
             this(delimiter, fields, ISO_LOCAL_DATE);
@@ -54,6 +55,46 @@ public class SimpleCandleLineMapper implements LineMapper<SimpleCandle> {
             checkRequiredFieldsPresence(this.fields);
         }
 
+        public final char getDelimiter() {
+            return delimiter;
+        }
+
+        public final List<String> getFields() {
+            return fields;
+        }
+
+        public final DateTimeFormatter getDateFormat() {
+            return dateFormat;
+        }
+
+        public final DateTimeFormatter getTimeFormat() {
+            return timeFormat;
+        }
+
+        public final DateTimeFormatter getDateTimeFormat() {
+            return dateTimeFormat;
+        }
+
+        /**
+         * Checks whether the line format can be parsed directly from bytes by the {@link ByteCandleParser}.
+         */
+        public boolean isByteParsingSupported() {
+            if (byteParsingSupported == null)
+                byteParsingSupported = ByteCandleParser.supports(this);
+            return byteParsingSupported;
+        }
+
+        /**
+         * Creates a parser which maps lines of this format directly from bytes into primitive candle values.
+         *
+         * @param context the execution context
+         * @return the byte-level parser
+         * @throws FlatFileFormatException if the format is not supported by the byte-level parser
+         */
+        public ByteCandleParser createByteParser(ExecutionContext context) {
+            return new ByteCandleParser(this, context);
+        }
+
         public Type withDateFormat(DateTimeFormatter dateFormat) {
             return new Type(delimiter, fields, dateFormat, timeFormat, dateTimeFormat);
         }
@@ -0,0 +1,217 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.structures;
+
+import one.chartsy.data.DoubleDataset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The multi-resolution level-of-detail pyramid of the M4 aggregates (first, maximum, minimum and
+ * last value) over the power-of-two sized buckets of a dataset.
+ * <p>
+ * The pyramid allows to visit any range of a dataset as a sequence of about
+ * {@code rangeLength/maxBucketSize} aggregates, plus a few dozen at the range ends, which makes the
+ * rendering of zoomed-out charts proportional to the screen width rather than the dataset length.
+ * The buckets are aligned in chronological order, i.e. the bucket {@code b} of level {@code k}
+ * aggregates the chronological indexes {@code [b*2^k, (b+1)*2^k)}, with the chronological index
+ * {@code 0} referring to the oldest element of the dataset, hence the complete buckets never change
+ * when the dataset grows. The pyramid is built incrementally: {@link #update()} aggregates only the
+ * elements appended to the underlying datasets since the last update.
+ * <p>
+ * The levels below {@code 2^4} are not materialized and are visited directly from the underlying
+ * datasets, which limits the pyramid memory footprint to about {@code length/2} doubles.
+ * <p>
+ * The {@code NaN} values are ignored by the aggregates; a bucket consisting solely of {@code NaN}
+ * values gives {@code NaN} aggregates.
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b>
+ *
+ * @author Mariusz Bernacki
+ */
+public final class DecimationPyramid {
+    /** The lowest materialized level. */
+    private static final int MIN_LEVEL = 4;
+
+    private final DoubleDataset firsts, highs, lows, lasts;
+    /** The materialized levels, starting from {@link #MIN_LEVEL}. */
+    private final List<Level> levels = new ArrayList<>();
+    /** The number of elements aggregated so far. */
+    private int length;
+
+
+    private DecimationPyramid(DoubleDataset firsts, DoubleDataset highs, DoubleDataset lows, DoubleDataset lasts) {
+        if (firsts.length() != highs.length() || firsts.length() != lows.length() || firsts.length() != lasts.length())
+            throw new IllegalArgumentException("Datasets length mismatch");
+        this.firsts = firsts;
+        this.highs = highs;
+        this.lows = lows;
+        this.lasts = lasts;
+        update();
+    }
+
+    /**
+     * Builds the pyramid of the values of a single dataset.
+     *
+     * @param values the values in reverse-chronological order
+     * @return the pyramid
+     */
+    public static DecimationPyramid of(DoubleDataset values) {
+        return new DecimationPyramid(values, values, values, values);
+    }
+
+    /**
+     * Builds the pyramid of the open-high-low-close values, where the first aggregate of a bucket is
+     * the open of its earliest element, and the last aggregate is the close of its latest element.
+     *
+     * @param opens the opens in reverse-chronological order
+     * @param highs the highs in reverse-chronological order
+     * @param lows the lows in reverse-chronological order
+     * @param closes the closes in reverse-chronological order
+     * @return the pyramid
+     */
+    public static DecimationPyramid of(DoubleDataset opens, DoubleDataset highs, DoubleDataset lows, DoubleDataset closes) {
+        return new DecimationPyramid(opens, highs, lows, closes);
+    }
+
+    /**
+     * Checks whether the pyramid aggregates the given dataset.
+     */
+    public boolean isPyramidOf(DoubleDataset values) {
+        return firsts == values && lasts == values;
+    }
+
+    /**
+     * Gives the number of aggregated elements.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Aggregates the elements appended to the underlying datasets since the last update.
+     *
+     * @return {@code this} pyramid
+     */
+    public DecimationPyramid update() {
+        int newLength = firsts.length();
+        for (int c = length; c < newLength; c++) {
+            int index = newLength - 1 - c;
+            add(c, firsts.get(index), highs.get(index), lows.get(index), lasts.get(index));
+        }
+        length = Math.max(length, newLength);
+        return this;
+    }
+
+    private void add(int c, double first, double high, double low, double last) {
+        // grow the pyramid by a new level whenever the top level has two complete buckets
+        if (levels.isEmpty())
+            levels.add(new Level(MIN_LEVEL, 0));
+        else if (c == 2 << (MIN_LEVEL + levels.size() - 1))
+            levels.add(levels.get(levels.size() - 1).parent());
+
+        for (Level level : levels)
+            level.add(c, first, high, low, last);
+    }
+
+    /**
+     * The visitor of the aggregates.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Visits the aggregate of the elements at the chronological indexes {@code [from, from+count)}.
+         */
+        void visit(int from, int count, double first, double max, double min, double last);
+    }
+
+    /**
+     * Visits, in chronological order, the aggregates covering the chronological index range
+     * {@code [from, to)}, each covering at most {@code maxBucketSize} elements.
+     *
+     * @param from the first chronological index, inclusive
+     * @param to the last chronological index, exclusive
+     * @param maxBucketSize the maximum number of elements per aggregate
+     * @param visitor the visitor
+     */
+    public void forEach(int from, int to, int maxBucketSize, Visitor visitor) {
+        from = Math.max(from, 0);
+        to = Math.min(to, length);
+        int maxLevel = Math.min(31 - Integer.numberOfLeadingZeros(Math.max(maxBucketSize, 1)), MIN_LEVEL + levels.size() - 1);
+        int pos = from;
+        while (pos < to) {
+            int level = Math.min(maxLevel, Integer.numberOfTrailingZeros(pos));
+            while (level >= MIN_LEVEL && pos + (1 << level) > to)
+                level--;
+
+            if (level < MIN_LEVEL) {
+                int index = firsts.length() - 1 - pos;
+                visitor.visit(pos, 1, firsts.get(index), highs.get(index), lows.get(index), lasts.get(index));
+                pos++;
+            } else {
+                Level l = levels.get(level - MIN_LEVEL);
+                int b = pos >> level;
+                visitor.visit(pos, 1 << level, l.first[b], l.max[b], l.min[b], l.last[b]);
+                pos += 1 << level;
+            }
+        }
+    }
+
+    private static double min(double a, double b) {
+        return (b < a || a != a)? b : a;
+    }
+
+    private static double max(double a, double b) {
+        return (b > a || a != a)? b : a;
+    }
+
+    private static final class Level {
+        private final int shift;
+        private double[] first, max, min, last;
+        private int count;
+
+        Level(int shift, int capacity) {
+            this.shift = shift;
+            int n = Math.max(capacity, 16);
+            this.first = new double[n];
+            this.max = new double[n];
+            this.min = new double[n];
+            this.last = new double[n];
+        }
+
+        void add(int c, double first, double high, double low, double last) {
+            int b = c >> shift;
+            if (b == count) {
+                if (b == this.first.length) {
+                    int n = b * 2;
+                    this.first = Arrays.copyOf(this.first, n);
+                    this.max = Arrays.copyOf(this.max, n);
+                    this.min = Arrays.copyOf(this.min, n);
+                    this.last = Arrays.copyOf(this.last, n);
+                }
+                this.first[b] = first;
+                this.max[b] = high;
+                this.min[b] = low;
+                this.last[b] = last;
+                count++;
+            } else {
+                if (this.first[b] != this.first[b])
+                    this.first[b] = first;
+                this.max[b] = max(this.max[b], high);
+                this.min[b] = min(this.min[b], low);
+                if (last == last)
+                    this.last[b] = last;
+            }
+        }
+
+        /** Gives the next higher level, aggregated from the buckets of this level. */
+        Level parent() {
+            Level parent = new Level(shift + 1, count);
+            for (int b = 0; b < count; b++)
+                parent.add(b << shift, first[b], max[b], min[b], last[b]);
+            return parent;
+        }
+    }
+}
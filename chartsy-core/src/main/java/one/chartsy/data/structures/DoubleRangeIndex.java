@@ -0,0 +1,186 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.structures;
+
+import one.chartsy.core.Range;
+import one.chartsy.data.DoubleDataset;
+
+/**
+ * The precomputed range minimum and maximum query index over a {@code DoubleDataset}.
+ * <p>
+ * The index divides the dataset into fixed-size blocks and keeps the sparse tables of block minima
+ * and maxima. A query over an arbitrary index range combines two overlapping sparse table entries
+ * for the whole blocks with a scan of at most two partial blocks at the range ends, thus its cost
+ * does not depend on the range length. The index takes roughly {@code n/16 * log2(n/32)} doubles of
+ * memory, e.g. about 6 MB for a dataset of 1M values.
+ * <p>
+ * The {@code NaN} values in the dataset are ignored. The index reflects the content of the dataset
+ * at the time of construction, use {@link #isIndexOf(DoubleDataset)} to check whether it's still
+ * up to date with the dataset.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class DoubleRangeIndex {
+    /** The base 2 logarithm of the block size. */
+    private static final int BLOCK_SHIFT = 5;
+    /** The number of values in a single block. */
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private final DoubleDataset values;
+    private final int length;
+    /** The minima of the {@code 2^k} consecutive blocks starting at the given block, per level {@code k}. */
+    private final double[][] minTable;
+    /** The maxima of the {@code 2^k} consecutive blocks starting at the given block, per level {@code k}. */
+    private final double[][] maxTable;
+
+
+    private DoubleRangeIndex(DoubleDataset values) {
+        this.values = values;
+        this.length = values.length();
+
+        int blockCount = (length + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int levels = (blockCount == 0)? 0 : 32 - Integer.numberOfLeadingZeros(blockCount);
+        this.minTable = new double[levels][];
+        this.maxTable = new double[levels][];
+        if (levels == 0)
+            return;
+
+        double[] min = minTable[0] = new double[blockCount];
+        double[] max = maxTable[0] = new double[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            int from = b << BLOCK_SHIFT, to = Math.min(from + BLOCK_SIZE, length);
+            min[b] = scanMinimum(from, to);
+            max[b] = scanMaximum(from, to);
+        }
+        for (int k = 1; k < levels; k++) {
+            double[] prevMin = minTable[k - 1], prevMax = maxTable[k - 1];
+            int half = 1 << (k - 1), count = blockCount - (1 << k) + 1;
+            min = minTable[k] = new double[count];
+            max = maxTable[k] = new double[count];
+            for (int b = 0; b < count; b++) {
+                min[b] = Math.min(prevMin[b], prevMin[b + half]);
+                max[b] = Math.max(prevMax[b], prevMax[b + half]);
+            }
+        }
+    }
+
+    /**
+     * Builds the range index over the given dataset.
+     *
+     * @param values the dataset to index
+     * @return the range index
+     */
+    public static DoubleRangeIndex of(DoubleDataset values) {
+        return new DoubleRangeIndex(values);
+    }
+
+    /**
+     * Checks whether the index was built for the given dataset and the dataset has not grown since.
+     *
+     * @param values the dataset to check
+     * @return {@code true} if the index is up to date with the {@code values}
+     */
+    public boolean isIndexOf(DoubleDataset values) {
+        return this.values == values && length == values.length();
+    }
+
+    /**
+     * Gives the number of indexed values.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Gives the minimum over the index range {@code [from, to)}. The range is clipped to the
+     * indexed values.
+     *
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return the minimum value, or {@code +Infinity} if the range contains no values
+     */
+    public double getMinimum(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, length);
+        if (from >= to)
+            return Double.POSITIVE_INFINITY;
+
+        int firstBlock = from >> BLOCK_SHIFT, lastBlock = (to - 1) >> BLOCK_SHIFT;
+        if (firstBlock == lastBlock)
+            return scanMinimum(from, to);
+
+        double min = Math.min(scanMinimum(from, (firstBlock + 1) << BLOCK_SHIFT), scanMinimum(lastBlock << BLOCK_SHIFT, to));
+        if (firstBlock + 1 < lastBlock) {
+            int k = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock - 1);
+            double[] table = minTable[k];
+            min = Math.min(min, Math.min(table[firstBlock + 1], table[lastBlock - (1 << k)]));
+        }
+        return min;
+    }
+
+    /**
+     * Gives the maximum over the index range {@code [from, to)}. The range is clipped to the
+     * indexed values.
+     *
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return the maximum value, or {@code -Infinity} if the range contains no values
+     */
+    public double getMaximum(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, length);
+        if (from >= to)
+            return Double.NEGATIVE_INFINITY;
+
+        int firstBlock = from >> BLOCK_SHIFT, lastBlock = (to - 1) >> BLOCK_SHIFT;
+        if (firstBlock == lastBlock)
+            return scanMaximum(from, to);
+
+        double max = Math.max(scanMaximum(from, (firstBlock + 1) << BLOCK_SHIFT), scanMaximum(lastBlock << BLOCK_SHIFT, to));
+        if (firstBlock + 1 < lastBlock) {
+            int k = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock - 1);
+            double[] table = maxTable[k];
+            max = Math.max(max, Math.max(table[firstBlock + 1], table[lastBlock - (1 << k)]));
+        }
+        return max;
+    }
+
+    /**
+     * Extends the given range builder with the minimum and maximum over the index range
+     * {@code [from, to)}. The builder is left unchanged if the range contains no values.
+     *
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @param result the range builder to extend, or {@code null} to create a new one
+     * @return the range builder
+     */
+    public Range.Builder getRange(int from, int to, Range.Builder result) {
+        if (result == null)
+            result = new Range.Builder();
+
+        double min = getMinimum(from, to);
+        if (min != Double.POSITIVE_INFINITY)
+            result.add(min, getMaximum(from, to));
+        return result;
+    }
+
+    private double scanMinimum(int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double v = values.get(i);
+            if (v < min)
+                min = v;
+        }
+        return min;
+    }
+
+    private double scanMaximum(int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double v = values.get(i);
+            if (v > max)
+                max = v;
+        }
+        return max;
+    }
+}
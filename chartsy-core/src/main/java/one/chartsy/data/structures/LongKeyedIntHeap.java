@@ -0,0 +1,153 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The binary min-heap of {@code int} identifiers prioritized by primitive {@code long} keys.
+ * <p>
+ * Unlike the {@link PriorityMap} the heap neither boxes its keys nor calls {@code compareTo}, which
+ * makes it suitable for the hot event loops merging many chronological sequences keyed by epoch
+ * micros. Entries with equal keys are removed in the ascending order of their identifiers, which
+ * makes the removal order fully deterministic.
+ * <p>
+ * In addition to the usual {@link #add(int, long)} and {@link #removeTop()} operations the heap
+ * supports {@link #updateTopKey(long)}, which changes the key of the head entry in a single
+ * sift-down pass. This is the typical operation of a k-way merge, where the head sequence advances
+ * to its next element.
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b>
+ *
+ * @author Mariusz Bernacki
+ */
+public class LongKeyedIntHeap {
+    /** The default capacity of the heap. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** The identifiers in heap order. */
+    private int[] ids;
+    /** The keys in heap order. */
+    private long[] keys;
+    /** The number of entries currently in the heap. */
+    private int size;
+
+    public LongKeyedIntHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongKeyedIntHeap(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        this.ids = new int[Math.max(1, capacity)];
+        this.keys = new long[ids.length];
+    }
+
+    public final int size() {
+        return size;
+    }
+
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds the identifier with the given key to the heap.
+     *
+     * @param id the identifier
+     * @param key the priority key, the lower the earlier
+     */
+    public void add(int id, long key) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        siftUp(size++, id, key);
+    }
+
+    /**
+     * Gives the identifier at the head of the heap.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public final int peekId() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return ids[0];
+    }
+
+    /**
+     * Gives the lowest key in the heap.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public final long peekKey() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return keys[0];
+    }
+
+    /**
+     * Removes the head entry from the heap.
+     *
+     * @return the identifier of the removed entry
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int removeTop() {
+        int id = peekId();
+        if (--size > 0)
+            siftDown(0, ids[size], keys[size]);
+        return id;
+    }
+
+    /**
+     * Changes the key of the head entry and restores the heap order.
+     *
+     * @param key the new key of the head entry
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public void updateTopKey(long key) {
+        siftDown(0, peekId(), key);
+    }
+
+    private static boolean less(long key1, int id1, long key2, int id2) {
+        return key1 < key2 || (key1 == key2 && id1 < id2);
+    }
+
+    private void siftUp(int index, int id, long key) {
+        int[] ids = this.ids;
+        long[] keys = this.keys;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(key, id, keys[parent], ids[parent]))
+                break;
+            ids[index] = ids[parent];
+            keys[index] = keys[parent];
+            index = parent;
+        }
+        ids[index] = id;
+        keys[index] = key;
+    }
+
+    private void siftDown(int index, int id, long key) {
+        int[] ids = this.ids;
+        long[] keys = this.keys;
+        int size = this.size, half = size >>> 1;
+        while (index < half) {
+            int child = 2*index + 1, right = child + 1;
+            if (right < size && less(keys[right], ids[right], keys[child], ids[child]))
+                child = right;
+            if (!less(keys[child], ids[child], key, id))
+                break;
+            ids[index] = ids[child];
+            keys[index] = keys[child];
+            index = child;
+        }
+        ids[index] = id;
+        keys[index] = key;
+    }
+}
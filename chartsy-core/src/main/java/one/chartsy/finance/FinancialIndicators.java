@@ -25,7 +25,7 @@ public class FinancialIndicators {
 
     public static DoubleSeries trailingFrama(CandleSeries quotes) {
         DoubleMinMaxList bands = Frama.calculateSmudgeBands(quotes);
-        return bands.getMaximum().add(bands.getMinimum()).mul(0.5);
+        return bands.getMaximum().lazy().add(bands.getMinimum()).mul(0.5).toPacked();
     }
 
     public static PackedDoubleSeries leadingFrama(CandleSeries quotes, int framaPeriods) {
@@ -9,14 +9,15 @@ import one.chartsy.data.AdjustmentFunction;
 import one.chartsy.data.AdjustmentMethod;
 import one.chartsy.data.CandleSeries;
 import one.chartsy.data.Series;
+import one.chartsy.data.packed.PackedCandleDataset;
 import one.chartsy.data.packed.PackedCandleSeries;
-import one.chartsy.data.packed.PackedDataset;
 import one.chartsy.time.Chronological;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
@@ -163,7 +164,7 @@ public class RandomWalk {
         }
         var resource = series.getResource();
         var symbol = resource.symbol();
-        return new PackedCandleSeries(resource.withSymbol(SymbolIdentity.of("~" + symbol.name() + "~", symbol.type().orElse(null))), PackedDataset.of(result));
+        return new PackedCandleSeries(resource.withSymbol(SymbolIdentity.of("~" + symbol.name() + "~", symbol.type().orElse(null))), PackedCandleDataset.of(Arrays.asList(result)));
     }
 
     private RandomWalk() { }
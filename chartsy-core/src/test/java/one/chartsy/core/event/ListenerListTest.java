@@ -0,0 +1,59 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.core.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerListTest {
+
+    static IntConsumer multicast(IntConsumer[] listeners) {
+        return value -> {
+            for (IntConsumer listener : listeners)
+                listener.accept(value);
+        };
+    }
+
+    @Test
+    void fire_dispatches_through_proxy_by_default() {
+        List<Integer> received = new ArrayList<>();
+        ListenerList<IntConsumer> list = ListenerList.of(IntConsumer.class);
+        list.addListener(received::add);
+
+        list.fire().accept(1);
+        assertTrue(Proxy.isProxyClass(list.fire().getClass()));
+        assertEquals(List.of(1), received);
+    }
+
+    @Test
+    void fire_dispatches_through_multicaster_when_given() {
+        List<String> received = new ArrayList<>();
+        ListenerList<IntConsumer> list = ListenerList.of(IntConsumer.class, ListenerListTest::multicast);
+        list.fire().accept(0);
+        assertEquals(List.of(), received);
+
+        IntConsumer first = value -> received.add("first:" + value);
+        list.addListener(first);
+        assertSame(first, list.fire(), "single listener dispatched directly");
+        list.fire().accept(1);
+
+        IntConsumer second = value -> received.add("second:" + value);
+        Subscription subscription = list.addListener(second);
+        assertFalse(Proxy.isProxyClass(list.fire().getClass()));
+        list.fire().accept(2);
+
+        new Subscription.Unsubscriber() { }.unsubscribe(subscription);
+        list.fire().accept(3);
+        list.removeListener(first);
+        list.fire().accept(4);
+
+        assertEquals(List.of("first:1", "first:2", "second:2", "first:3"), received);
+        assertTrue(list.isEmpty());
+    }
+}
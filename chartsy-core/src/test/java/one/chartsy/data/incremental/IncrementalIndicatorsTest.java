@@ -0,0 +1,130 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.incremental;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.data.DoubleSeries;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property tests verifying that the incremental indicators give exactly the same values as their
+ * batch counterparts for random series and periods.
+ */
+class IncrementalIndicatorsTest {
+
+    static LongStream seeds() {
+        return LongStream.range(0, 200);
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void sma_matches_batch(long seed) {
+        assertMatches(seed, DoubleSeries::sma, IncrementalIndicators::sma);
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void wilders_matches_batch(long seed) {
+        assertMatches(seed, DoubleSeries::wilders, IncrementalIndicators::wilders);
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void hhv_matches_batch(long seed) {
+        assertMatches(seed, DoubleSeries::hhv, IncrementalIndicators::hhv);
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void llv_matches_batch(long seed) {
+        assertMatches(seed, DoubleSeries::llv, IncrementalIndicators::llv);
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void trueRange_and_atr_match_batch(long seed) {
+        Random rnd = new Random(seed);
+        CandleSeries series = randomSeries(rnd);
+        int periods = 1 + rnd.nextInt(30);
+
+        assertSameValues(series.trueRange(), feed(series, IncrementalIndicators.trueRange()));
+        assertSameValues(series.atr(periods), feed(series, IncrementalIndicators.atr(periods)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void composed_pipeline_matches_batch(long seed) {
+        Random rnd = new Random(seed);
+        CandleSeries series = randomSeries(rnd);
+        int p1 = 1 + rnd.nextInt(20), p2 = 1 + rnd.nextInt(20), p3 = 1 + rnd.nextInt(20);
+
+        var pipeline = IncrementalIndicators.closes()
+                .then(IncrementalIndicators.sma(p1))
+                .then(IncrementalIndicators.wilders(p2))
+                .then(IncrementalIndicators.hhv(p3));
+        assertSameValues(series.closes().sma(p1).wilders(p2).hhv(p3), feed(series, pipeline));
+
+        pipeline.reset();
+        assertSameValues(series.closes().sma(p1).wilders(p2).hhv(p3), feed(series, pipeline), "after reset");
+    }
+
+    private static void assertMatches(long seed,
+                                      BiFunction<DoubleSeries, Integer, DoubleSeries> batch,
+                                      IntFunction<IncrementalDoubleFunction> incremental) {
+        Random rnd = new Random(seed);
+        CandleSeries series = randomSeries(rnd);
+        int periods = 1 + rnd.nextInt(40);
+
+        var function = IncrementalIndicators.closes().then(incremental.apply(periods));
+        assertSameValues(batch.apply(series.closes(), periods), feed(series, function));
+    }
+
+    private static CandleSeries randomSeries(Random rnd) {
+        int length = rnd.nextInt(300);
+        List<Candle> candles = new ArrayList<>(length);
+        double price = 100.0;
+        for (int i = 0; i < length; i++) {
+            double open = price, close = price + rnd.nextGaussian();
+            double high = Math.max(open, close) + rnd.nextDouble(), low = Math.min(open, close) - rnd.nextDouble();
+            // introduce repeated values to exercise ties in the extremum windows
+            if (rnd.nextInt(5) == 0)
+                close = open;
+            candles.add(Candle.of(i + 1L, open, high, low, close));
+            price = close;
+        }
+        return CandleSeries.of(SymbolResource.of("TEST", TimeFrame.Period.DAILY), candles);
+    }
+
+    private static List<Double> feed(CandleSeries series, IncrementalCandleFunction function) {
+        List<Double> results = new ArrayList<>();
+        for (int i = series.length() - 1; i >= 0; i--) {
+            function.accept(series.get(i));
+            if (function.isReady())
+                results.add(function.getLast());
+        }
+        return results;
+    }
+
+    private static void assertSameValues(DoubleSeries expected, List<Double> actual) {
+        assertSameValues(expected, actual, "");
+    }
+
+    private static void assertSameValues(DoubleSeries expected, List<Double> actual, String message) {
+        assertEquals(expected.length(), actual.size(), "length " + message);
+        for (int i = 0; i < actual.size(); i++)
+            assertEquals(expected.get(expected.length() - 1 - i), actual.get(i), 0.0, "value at " + i + " " + message);
+    }
+}
@@ -0,0 +1,62 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.data.DoubleSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyDoubleSeriesTest {
+
+    static CandleSeries randomSeries(int length, long seed) {
+        Random rnd = new Random(seed);
+        List<Candle> candles = new ArrayList<>(length);
+        double price = 100.0;
+        for (int i = 0; i < length; i++) {
+            price += rnd.nextGaussian();
+            candles.add(Candle.of(i + 1L, price, price + rnd.nextDouble(), price - rnd.nextDouble(), price + rnd.nextGaussian()*0.1));
+        }
+        return CandleSeries.of(SymbolResource.of("TEST", TimeFrame.Period.DAILY), candles);
+    }
+
+    @Test
+    void element_wise_chain_gives_same_values_as_eager_evaluation() {
+        CandleSeries series = randomSeries(500, 1L);
+        DoubleSeries highs = series.highs(), lows = series.lows();
+
+        DoubleSeries eager = highs.add(lows).mul(0.5).sub(series.closes()).div(2.0);
+        PackedDoubleSeries lazy = highs.lazy().add(lows).mul(0.5).sub(series.closes()).div(2.0).toPacked();
+
+        assertArrayEquals(eager.values().stream().toArray(), lazy.values().stream().toArray());
+        assertSame(series.getTimeline(), lazy.getTimeline());
+    }
+
+    @Test
+    void window_operations_act_as_fusion_boundaries() {
+        CandleSeries series = randomSeries(500, 2L);
+        DoubleSeries closes = series.closes();
+
+        DoubleSeries eager = closes.mul(2.0).sma(10).add(closes.hhv(5)).ref(-3);
+        LazyDoubleSeries lazy = closes.lazy().mul(2.0).sma(10).add(closes.hhv(5)).ref(-3);
+
+        assertEquals(eager.length(), lazy.length());
+        assertArrayEquals(eager.values().stream().toArray(), lazy.toPacked().values().stream().toArray());
+    }
+
+    @Test
+    void lazy_of_lazy_series_is_identity() {
+        LazyDoubleSeries lazy = randomSeries(10, 3L).closes().lazy();
+
+        assertSame(lazy, lazy.lazy());
+        assertSame(lazy, LazyDoubleSeries.of(lazy));
+    }
+}
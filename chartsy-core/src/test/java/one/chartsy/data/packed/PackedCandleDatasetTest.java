@@ -0,0 +1,65 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedCandleDatasetTest {
+
+    final List<Candle> candles = List.of(
+            Candle.of(1L, 1.0, 2.0, 0.5, 1.5, 10.0, 1),
+            Candle.of(2L, 1.5, 3.0, 1.0, 2.5, 20.0, 2),
+            Candle.of(3L, 2.5, 2.6, 1.1, 1.2, 30.0, 3)
+    );
+
+    @Test
+    void of_reverse_gives_candles_in_reverse_chronological_order() {
+        PackedCandleDataset dataset = PackedCandleDataset.of(candles, true);
+
+        assertEquals(3, dataset.length());
+        assertEquals(candles.get(2), dataset.get(0));
+        assertEquals(candles.get(0), dataset.get(2));
+        assertEquals(3L, dataset.getTimeAt(0));
+        assertEquals(1L, dataset.getTimeAt(2));
+    }
+
+    @Test
+    void column_views_share_values_with_dataset() {
+        PackedCandleDataset dataset = PackedCandleDataset.of(candles, true);
+
+        assertArrayEquals(new double[] {2.5, 1.5, 1.0}, dataset.opens().stream().toArray());
+        assertArrayEquals(new double[] {2.6, 3.0, 2.0}, dataset.highs().stream().toArray());
+        assertArrayEquals(new double[] {1.1, 1.0, 0.5}, dataset.lows().stream().toArray());
+        assertArrayEquals(new double[] {1.2, 2.5, 1.5}, dataset.closes().stream().toArray());
+        assertArrayEquals(new double[] {30.0, 20.0, 10.0}, dataset.volumes().stream().toArray());
+        assertSame(dataset.closes(), dataset.closes());
+    }
+
+    @Test
+    void getTimeLocation_gives_index_or_insertion_point() {
+        PackedCandleDataset dataset = PackedCandleDataset.of(candles, true);
+
+        assertEquals(0, dataset.getTimeLocation(3L));
+        assertEquals(2, dataset.getTimeLocation(1L));
+        assertEquals(-1, dataset.getTimeLocation(4L));
+        assertEquals(-4, dataset.getTimeLocation(0L));
+    }
+
+    @Test
+    void CandleSeries_of_is_backed_by_columnar_dataset() {
+        CandleSeries series = CandleSeries.of(SymbolResource.of("TEST", TimeFrame.Period.DAILY), candles);
+
+        assertInstanceOf(PackedCandleDataset.class, series.getData());
+        assertEquals(1.2, series.closes().get(0));
+        assertEquals(1.5, series.closes().get(2));
+        assertArrayEquals(new double[] {2.6 - 1.1, 3.0 - 1.0}, series.trueRange().values().stream().toArray(), 1e-12);
+    }
+}
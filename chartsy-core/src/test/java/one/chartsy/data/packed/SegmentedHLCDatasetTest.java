@@ -0,0 +1,106 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.packed;
+
+import one.chartsy.HLC;
+import one.chartsy.data.Dataset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedHLCDatasetTest {
+
+    @Test
+    void isEmpty_when_virgin() {
+        SegmentedHLCDataset virgin = new SegmentedHLCDataset();
+
+        assertEquals(0, virgin.length());
+        assertTrue(virgin.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> virgin.get(0));
+    }
+
+    @Test
+    void get_gives_HLC_at_time_slot() {
+        SegmentedHLCDataset dataset = new SegmentedHLCDataset();
+        long time = 0L;
+        dataset.add(time, 0);
+        dataset.add(time, -2);
+        dataset.add(time, 2);
+        dataset.add(time, -1);
+        dataset.add(time, 1);
+
+        assertEquals(1, dataset.length());
+        assertEquals(new HLC(time, 2, -2, 1), dataset.get(0));
+    }
+
+    @Test
+    void can_downsample_added_values() {
+        SegmentedHLCDataset downsampling = new SegmentedHLCDataset(10L);
+        downsampling.add(1L, 0);
+        downsampling.add(2L, -2);
+        downsampling.add(3L, 3);
+        downsampling.add(9L, -1);
+        downsampling.add(10L, 1);
+        downsampling.add(11L, 11);
+
+        assertEquals(2, downsampling.length());
+        assertEquals(new HLC(20L, 11), downsampling.get(0));
+        assertEquals(new HLC(10L, 3, -2, 1), downsampling.get(1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SegmentedHLCDataset.Storage.class)
+    void can_grow_in_length_freely(SegmentedHLCDataset.Storage storage) {
+        final int LIMIT = 1_000_000;
+        try (SegmentedHLCDataset dataset = new SegmentedHLCDataset(1L, storage, 1000)) {
+            for (int time = 0, val = LIMIT-1; time < LIMIT; time++, val--)
+                dataset.add(time, val);
+
+            assertEquals(LIMIT, dataset.length());
+            for (int i = 0; i < dataset.length(); i++) {
+                assertEquals(i, dataset.getCloseAt(i));
+                assertEquals(LIMIT - 1 - i, dataset.getTimeAt(i));
+            }
+        }
+    }
+
+    @Test
+    void downsampled_aggregates_points_into_coarser_resolutions() {
+        SegmentedHLCDataset dataset = new SegmentedHLCDataset(1L, SegmentedHLCDataset.Storage.HEAP, 64);
+        final int LIMIT = 10_000;
+        for (int time = 1; time <= LIMIT; time++) {
+            dataset.add(time, time);
+            dataset.add(time, -time);
+            dataset.add(time, time % 7);
+        }
+        assertSame(dataset, dataset.downsampled(LIMIT));
+
+        Dataset<HLC> view = dataset.downsampled(100);
+        int factor = 256;
+        assertEquals((LIMIT + factor - 1) / factor, view.length());
+        for (int i = 0; i < view.length(); i++) {
+            int firstTime = (view.length() - 1 - i) * factor + 1;
+            int lastTime = Math.min(firstTime + factor - 1, LIMIT);
+            assertEquals(new HLC(lastTime, lastTime, -lastTime, lastTime % 7), view.get(i));
+        }
+        assertEquals(LIMIT, dataset.downsampled(1).get(0).time());
+    }
+
+    @Test
+    void toDirect_gives_snapshot_unaffected_by_later_values() {
+        SegmentedHLCDataset dataset = new SegmentedHLCDataset();
+        dataset.add(1L, 1);
+        dataset.add(2L, 2);
+
+        Dataset<HLC> snapshot = dataset.toDirect();
+        dataset.add(2L, 5);
+        dataset.add(3L, 3);
+
+        assertEquals(2, snapshot.length());
+        assertEquals(new HLC(2L, 2), snapshot.get(0));
+        assertEquals(new HLC(1L, 1), snapshot.get(1));
+        assertEquals(new HLC(2L, 5, 2, 5), dataset.get(1));
+    }
+}
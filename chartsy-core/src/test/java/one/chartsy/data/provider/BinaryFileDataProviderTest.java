@@ -0,0 +1,85 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolIdentity;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.data.DataQuery;
+import one.chartsy.data.packed.BufferCandleDataset;
+import one.chartsy.data.provider.file.BinaryCandleFile;
+import one.chartsy.time.Chronological;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFileDataProviderTest {
+    static final LocalDate START = LocalDate.of(2000, 1, 1);
+
+    @TempDir Path dir;
+    BinaryFileDataProvider provider;
+    List<Candle> candles = new ArrayList<>();
+
+    @BeforeEach
+    void writeBinaryFile() throws IOException {
+        for (int i = 0; i < 10; i++)
+            candles.add(Candle.of(time(i), i, i + 2, i - 1, i + 1, 100 * i, i));
+        BinaryCandleFile.write(dir.resolve("TEST" + BinaryCandleFile.EXTENSION), "TEST", TimeFrame.Period.DAILY.toString(), candles);
+
+        provider = new BinaryFileDataProvider("test", dir);
+    }
+
+    static long time(int day) {
+        return Chronological.toEpochMicros(START.plusDays(day).atStartOfDay());
+    }
+
+    static DataQuery.Builder<Candle> query() {
+        return DataQuery.resource(SymbolResource.of("TEST", TimeFrame.Period.DAILY));
+    }
+
+    @Test
+    void listSymbols_gives_binary_files_in_directory() {
+        assertEquals(List.of("TEST"), provider.listSymbols().stream().map(SymbolIdentity::name).toList());
+    }
+
+    @Test
+    void getCandleSeries_gives_series_backed_by_mapped_file() {
+        CandleSeries series = provider.getCandleSeries(query().build());
+
+        assertInstanceOf(BufferCandleDataset.class, series.getData());
+        assertEquals(candles.size(), series.length());
+        assertEquals(candles.get(9), series.get(0));
+        assertEquals(candles.get(0), series.get(9));
+        assertEquals(10.0, series.closes().get(0));
+    }
+
+    @Test
+    void getCandleSeries_honors_time_range_and_limit() {
+        CandleSeries series = provider.getCandleSeries(query()
+                .startTime(START.plusDays(2).atStartOfDay())
+                .endTime(START.plusDays(7).atStartOfDay())
+                .build());
+        assertEquals(6, series.length());
+        assertEquals(candles.get(7), series.getLast());
+        assertEquals(candles.get(2), series.getFirst());
+
+        CandleSeries limited = provider.getCandleSeries(query().limit(3).build());
+        assertEquals(3, limited.length());
+        assertEquals(candles.get(7), limited.getFirst());
+    }
+
+    @Test
+    void query_gives_candles_in_chronological_order() {
+        assertEquals(candles, provider.query(Candle.class, query().build()).collectList().block());
+    }
+}
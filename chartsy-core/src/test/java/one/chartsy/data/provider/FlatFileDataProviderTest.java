@@ -2,22 +2,34 @@
  * SPDX-License-Identifier: Apache-2.0 */
 package one.chartsy.data.provider;
 
+import one.chartsy.Candle;
 import one.chartsy.SymbolGroup;
 import one.chartsy.SymbolIdentity;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.core.ResourceHandle;
+import one.chartsy.data.DataQuery;
 import one.chartsy.data.provider.file.FlatFileFormat;
+import one.chartsy.data.provider.file.SimpleCandleLineMapper;
 import org.awaitility.core.ConditionTimeoutException;
 import org.awaitility.core.ThrowingRunnable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static java.util.Collections.emptyList;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
@@ -114,6 +126,45 @@ class FlatFileDataProviderTest {
                 names(provider.listSymbols(new SymbolGroup("/group2"))));
     }
 
+    @Test
+    void queryForCandles_honors_time_range_and_limit(@TempDir Path dir) throws IOException {
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        List<String> lines = new ArrayList<>(List.of("Date,Close"));
+        for (int i = 0; i < 3000; i++)
+            lines.add(start.plusDays(i) + "," + i);
+        Files.write(dir.resolve("TEST.csv"), lines);
+
+        FlatFileFormat fileFormat = FlatFileFormat.builder()
+                .skipFirstLines(1)
+                .lineMapper(new SimpleCandleLineMapper.Type(',', List.of("DATE", "CLOSE")))
+                .build();
+        var provider = new FlatFileDataProvider(fileFormat, ResourceHandle.of(FileSystems.getDefault()), "test", List.of(dir));
+        var resource = SymbolResource.of("TEST", TimeFrame.Period.DAILY);
+
+        assertEquals(closes(0, 3000), closes(provider, DataQuery.of(resource)));
+        assertEquals(closes(2500, 3000), closes(provider, DataQuery.resource(resource).limit(500).build()));
+        assertEquals(closes(1500, 2001), closes(provider, DataQuery.resource(resource)
+                .startTime(start.plusDays(1500).atStartOfDay())
+                .endTime(start.plusDays(2000).atStartOfDay())
+                .build()));
+        assertEquals(closes(1991, 2001), closes(provider, DataQuery.resource(resource)
+                .endTime(start.plusDays(2000).atStartOfDay())
+                .limit(10)
+                .build()));
+        assertEquals(closes(2990, 3000), closes(provider, DataQuery.resource(resource)
+                .startTime(start.plusDays(100).atStartOfDay())
+                .limit(10)
+                .build()));
+    }
+
+    private static List<Double> closes(int from, int to) {
+        return IntStream.range(from, to).asDoubleStream().boxed().toList();
+    }
+
+    private static List<Double> closes(FlatFileDataProvider provider, DataQuery<Candle> query) {
+        return provider.queryForCandles(query).map(Candle::close).collectList().block();
+    }
+
     private static List<String> names(Collection<SymbolGroup> list) {
         return list.stream().map(SymbolGroup::name).collect(toList());
     }
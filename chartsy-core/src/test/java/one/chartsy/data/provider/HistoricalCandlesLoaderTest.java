@@ -0,0 +1,83 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoricalCandlesLoaderTest {
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final DataProvider provider = new BinaryFileDataProvider(Path.of("."));
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadAll_preserves_request_order() {
+        var loader = new HistoricalCandlesLoader(executor, (provider, resource) -> {
+            sleepRandomly();
+            return CandleSeries.of(resource, List.of());
+        });
+
+        List<SymbolResource<Candle>> resources = resources(100);
+        List<CandleSeries> result = loader.loadAll(provider, resources);
+
+        assertEquals(resources, result.stream().map(CandleSeries::getResource).toList());
+    }
+
+    @Test
+    void batch_limits_prefetch_and_skips_pending_requests_when_cancelled() throws InterruptedException {
+        AtomicInteger loadedCount = new AtomicInteger();
+        var loader = new HistoricalCandlesLoader(executor, (provider, resource) -> {
+            loadedCount.incrementAndGet();
+            return CandleSeries.of(resource, List.of());
+        });
+
+        List<HistoricalCandlesLoader.Request> requests = new ArrayList<>();
+        for (SymbolResource<Candle> resource : resources(100))
+            requests.add(new HistoricalCandlesLoader.Request(provider, resource));
+
+        try (var batch = loader.submit(requests, 5, null)) {
+            assertEquals(requests.get(0).resource(), batch.get(0).getResource());
+            assertEquals(requests.get(1).resource(), batch.get(1).getResource());
+            batch.cancel();
+
+            assertTrue(batch.isCancelled());
+            assertThrows(CancellationException.class, () -> batch.get(50));
+        }
+        assertTrue(loadedCount.get() <= 7, "loaded at most prefetch ahead of consumer");
+    }
+
+    private static List<SymbolResource<Candle>> resources(int count) {
+        List<SymbolResource<Candle>> resources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            resources.add(SymbolResource.of("SYMBOL" + i, TimeFrame.Period.DAILY));
+        return resources;
+    }
+
+    private static void sleepRandomly() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
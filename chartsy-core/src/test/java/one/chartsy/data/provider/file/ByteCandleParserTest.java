@@ -0,0 +1,104 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.provider.file;
+
+import one.chartsy.Candle;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.packed.PackedCandleDataset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteCandleParserTest {
+
+    static ExecutionContext context(TimeFrame timeFrame) {
+        ExecutionContext context = new ExecutionContext();
+        context.put("TimeFrame", timeFrame);
+        return context;
+    }
+
+    static List<Candle> parse(SimpleCandleLineMapper.Type type, ExecutionContext context, String text, int linesToSkip) throws IOException {
+        var builder = PackedCandleDataset.builder();
+        type.createByteParser(context).parse(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1)), linesToSkip, builder);
+        List<Candle> result = new ArrayList<>(builder.build().values());
+        Collections.reverse(result);
+        return result;
+    }
+
+    static List<Candle> mapLines(SimpleCandleLineMapper.Type type, ExecutionContext context, String text, int linesToSkip) {
+        var mapper = type.createLineMapper(context);
+        List<Candle> result = new ArrayList<>();
+        String[] lines = text.split("\r?\n");
+        for (int i = linesToSkip; i < lines.length; i++)
+            result.add(mapper.mapLine(lines[i], i + 1));
+        return result;
+    }
+
+    @Test
+    void gives_same_candles_as_SimpleCandleLineMapper_for_Stooq_format() throws IOException {
+        var type = (SimpleCandleLineMapper.Type) FlatFileFormat.STOOQ.getLineMapper();
+        var context = context(TimeFrame.Period.M5);
+        String text = """
+                <TICKER>,<PER>,<DATE>,<TIME>,<OPEN>,<HIGH>,<LOW>,<CLOSE>,<VOL>,<OPENINT>
+                AAPL.US,5,20220103,153500,177.83,178.1,177.25,177.585,1735426,0
+                AAPL.US,5,20220103,154000,177.59,178.2999,177.5,178.23,1165102,0
+                AAPL.US,5,20220104,000000,0.1,1e3,-0.25,12345678901234567890.5,7,0
+                """;
+
+        assertTrue(type.isByteParsingSupported());
+        assertEquals(mapLines(type, context, text, 1), parse(type, context, text, 1));
+    }
+
+    @Test
+    void gives_same_candles_as_SimpleCandleLineMapper_for_HistData_format() throws IOException {
+        var type = (SimpleCandleLineMapper.Type) FlatFileFormat.HISTDATA_ASCII.getLineMapper();
+        var context = context(TimeFrame.Period.M1);
+        String text = "20220102 170000;1.137010;1.137100;1.136940;1.137100;0\r\n"
+                + "20220102 170100;1.137110;1.137110;1.137020;1.137080;0\r\n";
+
+        assertTrue(type.isByteParsingSupported());
+        assertEquals(mapLines(type, context, text, 0), parse(type, context, text, 0));
+    }
+
+    @Test
+    void supports_ISO_date_and_time_layouts() throws IOException {
+        var type = new SimpleCandleLineMapper.Type(',', List.of("DATE_TIME", "CLOSE"), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        var context = context(TimeFrame.Period.M1);
+        String text = "2022-01-03T15:35:00,1.5\n2022-01-03T15:35:00.250,2.5";
+
+        assertTrue(type.isByteParsingSupported());
+        assertEquals(mapLines(type, context, text, 0), parse(type, context, text, 0));
+    }
+
+    @Test
+    void does_not_support_ambiguous_date_layouts() {
+        var type = new SimpleCandleLineMapper.Type(',', List.of("DATE", "CLOSE"), DateTimeFormatter.ofPattern("ddMMyyyy"));
+
+        assertFalse(type.isByteParsingSupported());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0", "1.25", "-3.5", "000123.4500", ".5", "1.", "123456789.123456789", "1e-5", "0.1", "0.3", "9007199254740993"})
+    void parseDouble_gives_same_results_as_Double_parseDouble(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+
+        assertEquals(Double.parseDouble(text), ByteCandleParser.parseDouble(bytes, 0, bytes.length));
+    }
+
+    @Test
+    void throws_FlatFileParseException_on_malformed_line() {
+        var type = (SimpleCandleLineMapper.Type) FlatFileFormat.HISTDATA_ASCII.getLineMapper();
+
+        assertThrows(FlatFileParseException.class, () -> parse(type, context(TimeFrame.Period.M1), "20220102 170000;1.13;x;1.13;1.13;0\n", 0));
+    }
+}
@@ -0,0 +1,107 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.structures;
+
+import one.chartsy.data.AbstractDoubleDataset;
+import one.chartsy.data.packed.PackedDoubleDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecimationPyramidTest {
+
+    /** The chronologically ordered values viewed as the reverse-chronological dataset of growing length. */
+    static class GrowingDataset extends AbstractDoubleDataset {
+        final double[] values;
+        int length;
+
+        GrowingDataset(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public double get(int index) {
+            return values[length - 1 - index];
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+    }
+
+    static void assertAggregatesMatch(double[] chronological, DecimationPyramid pyramid, int from, int to, int maxBucketSize) {
+        int[] next = { Math.max(from, 0) };
+        pyramid.forEach(from, to, maxBucketSize, (start, count, first, max, min, last) -> {
+            assertEquals(next[0], start, "contiguous aggregates");
+            assertTrue(count >= 1 && count <= Math.max(maxBucketSize, 1), "bucket size " + count);
+            double expMin = Double.NaN, expMax = Double.NaN, expFirst = Double.NaN, expLast = Double.NaN;
+            for (int c = start; c < start + count; c++) {
+                double v = chronological[c];
+                if (v != v)
+                    continue;
+                if (expFirst != expFirst)
+                    expFirst = v;
+                expLast = v;
+                if (!(v >= expMin))
+                    expMin = v;
+                if (!(v <= expMax))
+                    expMax = v;
+            }
+            assertEquals(expFirst, first);
+            assertEquals(expMax, max);
+            assertEquals(expMin, min);
+            assertEquals(expLast, last);
+            next[0] += count;
+        });
+        assertEquals(Math.max(Math.min(to, pyramid.length()), Math.max(from, 0)), next[0], "whole range covered");
+    }
+
+    @Test
+    void forEach_gives_exact_aggregates_of_bounded_size() {
+        Random rnd = new Random(1L);
+        for (int length : new int[] {0, 1, 15, 16, 17, 100, 1000, 5000}) {
+            double[] chronological = new double[length];
+            for (int i = 0; i < length; i++)
+                chronological[i] = rnd.nextInt(20) == 0? Double.NaN : rnd.nextGaussian();
+            double[] reversed = new double[length];
+            for (int i = 0; i < length; i++)
+                reversed[i] = chronological[length - 1 - i];
+            DecimationPyramid pyramid = DecimationPyramid.of(PackedDoubleDataset.of(reversed));
+
+            for (int n = 0; n < 200; n++) {
+                int from = rnd.nextInt(length + 10) - 5;
+                int to = from + rnd.nextInt(length + 10);
+                assertAggregatesMatch(chronological, pyramid, from, to, 1 + rnd.nextInt(300));
+            }
+        }
+    }
+
+    @Test
+    void forEach_visits_few_aggregates_for_large_buckets() {
+        double[] values = new double[1 << 16];
+        DecimationPyramid pyramid = DecimationPyramid.of(PackedDoubleDataset.of(values));
+        int[] count = { 0 };
+        pyramid.forEach(7, values.length - 7, 1024, (start, n, first, max, min, last) -> count[0]++);
+
+        assertTrue(count[0] < values.length/1024 + 2*Integer.SIZE, "aggregates visited: " + count[0]);
+    }
+
+    @Test
+    void update_aggregates_appended_values() {
+        Random rnd = new Random(2L);
+        double[] chronological = rnd.doubles(3000).toArray();
+        GrowingDataset dataset = new GrowingDataset(chronological);
+        DecimationPyramid pyramid = DecimationPyramid.of(dataset);
+
+        while (dataset.length < chronological.length) {
+            dataset.length = Math.min(chronological.length, dataset.length + 1 + rnd.nextInt(100));
+            pyramid.update();
+
+            assertEquals(dataset.length, pyramid.length());
+            assertAggregatesMatch(chronological, pyramid, 0, dataset.length, 1 + rnd.nextInt(300));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.structures;
+
+import one.chartsy.core.Range;
+import one.chartsy.data.DoubleDataset;
+import one.chartsy.data.packed.PackedDoubleDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleRangeIndexTest {
+
+    @Test
+    void gives_same_minimum_and_maximum_as_linear_scan() {
+        Random rnd = new Random(1L);
+        for (int length : new int[] {0, 1, 31, 32, 33, 100, 1000, 4097}) {
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++)
+                values[i] = rnd.nextInt(10) == 0? Double.NaN : rnd.nextGaussian();
+            DoubleRangeIndex index = DoubleRangeIndex.of(PackedDoubleDataset.of(values));
+
+            for (int n = 0; n < 500; n++) {
+                int from = rnd.nextInt(length + 20) - 10;
+                int to = from + rnd.nextInt(length + 10);
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                for (int i = Math.max(from, 0); i < Math.min(to, length); i++) {
+                    if (values[i] < min)
+                        min = values[i];
+                    if (values[i] > max)
+                        max = values[i];
+                }
+                assertEquals(min, index.getMinimum(from, to), "min[" + from + ", " + to + ") of " + length);
+                assertEquals(max, index.getMaximum(from, to), "max[" + from + ", " + to + ") of " + length);
+            }
+        }
+    }
+
+    @Test
+    void getRange_leaves_builder_unchanged_when_range_has_no_values() {
+        DoubleRangeIndex index = DoubleRangeIndex.of(PackedDoubleDataset.of(new double[] {1.0, Double.NaN, 3.0}));
+
+        assertTrue(index.getRange(1, 2, null).toRange().isEmpty());
+        assertEquals(Range.of(1.0, 3.0), index.getRange(0, 3, null).toRange());
+        assertEquals(Range.of(-1.0, 3.0), index.getRange(2, 3, new Range.Builder().add(-1.0)).toRange());
+    }
+
+    @Test
+    void isIndexOf_checks_dataset_identity() {
+        DoubleDataset values = PackedDoubleDataset.of(new double[] {1.0, 2.0});
+        DoubleRangeIndex index = DoubleRangeIndex.of(values);
+
+        assertTrue(index.isIndexOf(values));
+        assertFalse(index.isIndexOf(PackedDoubleDataset.of(new double[] {1.0, 2.0})));
+    }
+}
@@ -0,0 +1,56 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.data.structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongKeyedIntHeapTest {
+
+    @Test
+    void removes_entries_by_key_then_by_id() {
+        LongKeyedIntHeap heap = new LongKeyedIntHeap(2);
+        heap.add(3, 20L);
+        heap.add(1, 10L);
+        heap.add(2, 10L);
+        heap.add(0, 30L);
+
+        assertEquals(4, heap.size());
+        assertEquals(10L, heap.peekKey());
+        assertEquals(1, heap.removeTop());
+        assertEquals(2, heap.removeTop());
+        assertEquals(3, heap.removeTop());
+        assertEquals(0, heap.removeTop());
+        assertTrue(heap.isEmpty());
+        assertThrows(NoSuchElementException.class, heap::peekId);
+    }
+
+    @Test
+    void updateTopKey_gives_same_order_as_remove_and_add() {
+        Random rnd = new Random(1);
+        LongKeyedIntHeap heap = new LongKeyedIntHeap();
+        List<long[]> reference = new ArrayList<>();
+        for (int id = 0; id < 100; id++) {
+            long key = rnd.nextInt(50);
+            heap.add(id, key);
+            reference.add(new long[] { key, id });
+        }
+
+        Comparator<long[]> order = Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]);
+        for (int step = 0; step < 10_000; step++) {
+            long[] expected = reference.stream().min(order).orElseThrow();
+            assertEquals(expected[0], heap.peekKey());
+            assertEquals(expected[1], heap.peekId());
+
+            expected[0] += rnd.nextInt(10);
+            heap.updateTopKey(expected[0]);
+        }
+    }
+}
@@ -6,23 +6,27 @@ import one.chartsy.*;
 import one.chartsy.core.event.ListenerList;
 import one.chartsy.data.CandleSeries;
 import one.chartsy.data.provider.DataProviders;
+import one.chartsy.data.provider.HistoricalCandlesLoader;
 import one.chartsy.exploration.ui.ExplorationConfiguration;
 import one.chartsy.kernel.Exploration;
 import one.chartsy.kernel.ExplorationFragment;
 import one.chartsy.kernel.ExplorationListener;
 import one.chartsy.kernel.ProgressHandle;
 import one.chartsy.kernel.runner.LaunchContext;
-import one.chartsy.kernel.runner.LaunchException;
 import one.chartsy.kernel.runner.LaunchPerformer;
 
 import java.lang.reflect.InvocationTargetException;
 import java.text.Format;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 public class ExplorationRunner implements LaunchPerformer {
 
+    /** The maximum number of symbols loaded ahead of the exploration. */
+    private static final int PREFETCH_SIZE = 4 * HistoricalCandlesLoader.DEFAULT_PARALLELISM;
+
     private final ListenerList<ExplorationListener> listeners = new ListenerList<>(ExplorationListener.class);
 
 
@@ -43,8 +47,8 @@ public class ExplorationRunner implements LaunchPerformer {
         return (Exploration) target.getConstructor().newInstance();
     }
 
-    protected CandleSeries loadDataSeries(Symbol symbol, SymbolResource<Candle> resource) throws LaunchException {
-        return DataProviders.getHistoricalCandles(symbol.getProvider(), resource);
+    protected HistoricalCandlesLoader.Batch loadDataSeries(List<HistoricalCandlesLoader.Request> requests) {
+        return DataProviders.getHistoricalCandlesAsync(requests, PREFETCH_SIZE, null);
     }
 
     @Override
@@ -59,26 +63,34 @@ public class ExplorationRunner implements LaunchPerformer {
         ProgressHandle ph = context.progressHandle();
         ph.start(symbols.size());
 
-        int k = 0;
         Exploration exploration = createInstance(target);
+        List<Symbol> explored = new ArrayList<>(symbols.size());
+        List<HistoricalCandlesLoader.Request> requests = new ArrayList<>(symbols.size());
         for (Symbol symbol : symbols) {
+            if (exploration.filter(symbol)) {
+                explored.add(symbol);
+                requests.add(new HistoricalCandlesLoader.Request(symbol.getProvider(), SymbolResource.of(symbol, timeFrame)));
+            }
+        }
 
-            ph.progress("Explorating " + symbol.getName(), k++);
-            if (!exploration.filter(symbol))
-                continue;
+        int k = symbols.size() - explored.size();
+        try (var batch = loadDataSeries(requests)) {
+            for (int i = 0; i < explored.size(); i++) {
+                Symbol symbol = explored.get(i);
+                ph.progress("Explorating " + symbol.getName(), k++);
 
-            SymbolResource<Candle> resource = SymbolResource.of(symbol, conf.getTimeFrame());
-            CandleSeries series = loadDataSeries(symbol, resource);
-            if (!exploration.filter(symbol, series))
-                continue;
+                CandleSeries series = batch.get(i);
+                if (!exploration.filter(symbol, series))
+                    continue;
 
-            if (series.length() >= conf.getDatasetMinDataPoints()) {
-                ExplorationFragment.Builder rowFragment = exploration.addResultFragment(symbol);
-                rowFragment.addColumn("Symbol", symbol.getName());
-                rowFragment.addColumn("Date/Time", series.get(0).getDateTime(), dateTimeFormat);
-                exploration.explore(symbol, series);
+                if (series.length() >= conf.getDatasetMinDataPoints()) {
+                    ExplorationFragment.Builder rowFragment = exploration.addResultFragment(symbol);
+                    rowFragment.addColumn("Symbol", symbol.getName());
+                    rowFragment.addColumn("Date/Time", series.get(0).getDateTime(), dateTimeFormat);
+                    exploration.explore(symbol, series);
 
-                listeners.fire().explorationFragmentCreated(rowFragment.build());
+                    listeners.fire().explorationFragmentCreated(rowFragment.build());
+                }
             }
         }
         listeners.fire().explorationFinished();
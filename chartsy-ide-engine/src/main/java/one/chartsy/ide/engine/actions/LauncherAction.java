@@ -69,7 +69,8 @@ public class LauncherAction extends AbstractAction implements Presenter.Toolbar,
             Project project = projectManager.findProject(projectDir);
             String className = evaluateClassName(GradleJavaProject.get(project), fileObject);
 
-            EmbeddedLauncher launcher = new EmbeddedLauncher(new AutomaticRunner(LastActivatedWindowLookup.INSTANCE));
+            EmbeddedLauncher launcher = new EmbeddedLauncher(new AutomaticRunner(LastActivatedWindowLookup.INSTANCE))
+                    .withIncrementalCompilation(true);
 
             Schedulers.boundedElastic().schedule(
                     ThrowingRunnable.unchecked(
@@ -4,19 +4,23 @@ package one.chartsy.kernel.boot;
 
 import one.chartsy.kernel.Kernel;
 import one.chartsy.kernel.boot.config.FrontEndConfiguration;
+import one.chartsy.kernel.starter.StartupTimeline;
 import org.openide.util.Lookup;
 import org.openide.util.lookup.ServiceProvider;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.GenericApplicationContext;
 
+import java.util.function.Supplier;
+
 @ServiceProvider(service = FrontEnd.class)
 public class FrontEndObject implements FrontEnd {
 
     private final SpringApplicationBuilder current;
 
     public FrontEndObject() {
-        this(Kernel.getDefault());
+        // the Kernel is looked up lazily, so that both can boot concurrently
+        this(Lookup.getDefault().lookup(FrontEndConfiguration.class), Kernel::getDefault);
     }
 
     public FrontEndObject(Kernel kernel) {
@@ -24,10 +28,16 @@ public class FrontEndObject implements FrontEnd {
     }
 
     public FrontEndObject(FrontEndConfiguration configuration, Kernel kernel) {
-        current = configuration.createSpringApplicationBuilder();
-        var ctx = (GenericApplicationContext) current.run();
-        ctx.registerBean("frontEnd", FrontEnd.class, () -> this);
-        ctx.registerBean("kernel", Kernel.class, () -> kernel);
+        this(configuration, () -> kernel);
+    }
+
+    public FrontEndObject(FrontEndConfiguration configuration, Supplier<Kernel> kernel) {
+        try (var __ = StartupTimeline.getDefault().begin("FrontEnd boot")) {
+            current = configuration.createSpringApplicationBuilder();
+            var ctx = (GenericApplicationContext) current.run();
+            ctx.registerBean("frontEnd", FrontEnd.class, () -> this);
+            ctx.registerBean("kernel", Kernel.class, kernel);
+        }
     }
 
     @Override
@@ -4,6 +4,7 @@ package one.chartsy.kernel;
 
 import one.chartsy.data.provider.DataProvider;
 import one.chartsy.data.provider.DataProviderLoader;
+import one.chartsy.kernel.starter.StartupTimeline;
 import org.springframework.expression.ExpressionParser;
 
 import java.io.Closeable;
@@ -21,7 +22,8 @@ public class DataProviderRegistry implements DataProviderLoader, Closeable {
     @Override
     public DataProvider load(String descriptor) {
         var identifier = asIdentifier(descriptor);
-        return registry.computeIfAbsent(identifier, __ -> createFromDescriptor(descriptor));
+        return registry.computeIfAbsent(identifier, __ -> StartupTimeline.getDefault()
+                .time("DataProvider " + identifier, () -> createFromDescriptor(descriptor)));
     }
 
     protected String asIdentifier(String descriptor) {
@@ -3,6 +3,7 @@
 package one.chartsy.kernel;
 
 import one.chartsy.kernel.config.KernelConfiguration;
+import one.chartsy.kernel.starter.StartupTimeline;
 import org.openide.util.Lookup;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
@@ -21,9 +22,11 @@ public class Kernel {
     }
 
     public Kernel(KernelConfiguration configuration, String[] args) {
-        current = configuration.createSpringApplicationBuilder();
-        ((GenericApplicationContext) current.run(args))
-                .registerBean("kernel", Kernel.class, () -> this);
+        try (var __ = StartupTimeline.getDefault().begin("Kernel boot")) {
+            current = configuration.createSpringApplicationBuilder();
+            ((GenericApplicationContext) current.run(args))
+                    .registerBean("kernel", Kernel.class, () -> this);
+        }
     }
 
     public static Kernel getDefault() {
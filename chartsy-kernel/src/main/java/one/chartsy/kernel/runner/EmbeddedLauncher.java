@@ -18,32 +18,48 @@ public class EmbeddedLauncher implements Launcher {
     private final LaunchPerformer performer;
     private final FrontEndInterface frontEnd;
     private final Map<String,?> attributes;
+    private final boolean incrementalCompilation;
 
     public EmbeddedLauncher(LaunchPerformer performer) {
         this(performer, Map.of(), FrontEndInterface.get());
     }
 
     public EmbeddedLauncher(LaunchPerformer performer, Map<String,?> attributes, FrontEndInterface frontEnd) {
+        this(performer, attributes, frontEnd, false);
+    }
+
+    public EmbeddedLauncher(LaunchPerformer performer, Map<String,?> attributes, FrontEndInterface frontEnd, boolean incrementalCompilation) {
         this.performer = performer;
         this.frontEnd = frontEnd;
         this.attributes = Map.copyOf(attributes);
+        this.incrementalCompilation = incrementalCompilation;
     }
 
     public EmbeddedLauncher withFrontEndInterface(FrontEndInterface frontEnd) {
-        return new EmbeddedLauncher(performer, attributes, frontEnd);
+        return new EmbeddedLauncher(performer, attributes, frontEnd, incrementalCompilation);
     }
 
     public EmbeddedLauncher withInitialAttributes(Map<String,?> attributes) {
-        return new EmbeddedLauncher(performer, attributes, frontEnd);
+        return new EmbeddedLauncher(performer, attributes, frontEnd, incrementalCompilation);
+    }
+
+    /**
+     * Gives the launcher compiling the changed project sources in-process, and building the
+     * project with Gradle only when its build files change.
+     *
+     * @see IncrementalProjectCompiler
+     */
+    public EmbeddedLauncher withIncrementalCompilation(boolean incrementalCompilation) {
+        return new EmbeddedLauncher(performer, attributes, frontEnd, incrementalCompilation);
     }
 
     @Override
     public void launch(Path projectDir, String className) throws ClassNotFoundException, LaunchException {
         ProgressHandle ph = frontEnd.createProgressHandle("Starting " + simpleClassName(className) + "...", null);
         try {
-            onBeforeLaunch(projectDir);
+            ClassLoader classLoader = prepareClassLoader(projectDir);
             LaunchContext context = createContext(projectDir, ph);
-            performLaunch(context, loadClass(projectDir, className));
+            performLaunch(context, classLoader.loadClass(className));
             onAfterLaunch();
         } finally {
             ph.finish();
@@ -62,9 +78,13 @@ public class EmbeddedLauncher implements Launcher {
     protected void onAfterLaunch() {
     }
 
-    private Class<?> loadClass(Path projectDir, String className) throws ClassNotFoundException {
-        ClassLoader cl = new ConventionalJavaProjectClassLoader(Kernel.class.getClassLoader(), projectDir);
-        return cl.loadClass(className);
+    protected ClassLoader prepareClassLoader(Path projectDir) throws LaunchException {
+        if (incrementalCompilation)
+            return IncrementalProjectCompiler.forProject(projectDir)
+                    .prepareClassLoader(Kernel.class.getClassLoader(), this::compileJava);
+
+        onBeforeLaunch(projectDir);
+        return new ConventionalJavaProjectClassLoader(Kernel.class.getClassLoader(), projectDir);
     }
 
 
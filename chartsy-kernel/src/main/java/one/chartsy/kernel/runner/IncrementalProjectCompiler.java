@@ -0,0 +1,439 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.kernel.runner;
+
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.model.eclipse.EclipseExternalDependency;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+
+import javax.tools.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles the sources of a conventional Gradle Java project in-process, for the fast relaunch of
+ * the project classes in the edit-run loop.
+ * <p>
+ * The project is built with Gradle only on the first use and whenever any of the build files
+ * changes. That build also resolves the project dependencies, which are then held by a class
+ * loader kept across the launches. On the subsequent launches the compiler hashes the source
+ * files and compiles with the system {@link JavaCompiler} only the changed ones, together with
+ * the unchanged sources mentioning any of the changed types, into memory. Every launch gets a fresh
+ * {@link ConventionalJavaProjectClassLoader} serving the classes compiled in memory before the
+ * ones built by Gradle, so the static state of the project classes doesn't leak between launches.
+ * <p>
+ * The instances are shared per project directory, see {@link #forProject(Path)}.
+ *
+ * @author Mariusz Bernacki
+ */
+public class IncrementalProjectCompiler {
+    /** The conventional location of the main Java sources. */
+    public static final Path DEFAULT_SOURCE_ROOT = Path.of("src/main/java");
+    /** The files whose change requires the project to be rebuilt with Gradle. */
+    static final List<String> BUILD_FILES = List.of(
+            "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts",
+            "gradle.properties", "gradle/libs.versions.toml");
+
+    private static final Map<Path, IncrementalProjectCompiler> instances = new ConcurrentHashMap<>();
+
+    private final Path projectDirectory;
+    private final Path sourceRoot;
+    private final Path classesRoot;
+    /** The hash of the build files as of the last Gradle build, or {@code null} if not built yet. */
+    private String buildFilesHash;
+    /** The dependency classpath of the project, or {@code null} if unknown. */
+    private List<Path> classpath;
+    /** The class loader of the project dependencies, or {@code null} if not created yet. */
+    private URLClassLoader dependencyLoader;
+    /** The parent of the {@link #dependencyLoader}. */
+    private ClassLoader dependencyLoaderParent;
+    /** The content hashes of the source files compiled so far, by source file path. */
+    private final Map<Path, String> sourceHashes = new HashMap<>();
+    /** The classes compiled in memory, by binary name. */
+    private final Map<String, byte[]> classes = new HashMap<>();
+    /** The binary names of the classes compiled in memory, by source file path. */
+    private final Map<Path, Set<String>> classesBySource = new HashMap<>();
+    /** The compiler file manager, warm with the dependency jars. */
+    private StandardJavaFileManager fileManager;
+
+
+    protected IncrementalProjectCompiler(Path projectDirectory) {
+        this(projectDirectory, DEFAULT_SOURCE_ROOT, ConventionalJavaProjectClassLoader.DEFAULT_BINARY_ROOT);
+    }
+
+    protected IncrementalProjectCompiler(Path projectDirectory, Path sourceRoot, Path classesRoot) {
+        this.projectDirectory = projectDirectory;
+        this.sourceRoot = projectDirectory.resolve(sourceRoot);
+        this.classesRoot = classesRoot;
+    }
+
+    /**
+     * Gives the compiler shared by all launches of the given project.
+     *
+     * @param projectDirectory the project root directory
+     * @return the project compiler
+     */
+    public static IncrementalProjectCompiler forProject(Path projectDirectory) {
+        return instances.computeIfAbsent(projectDirectory.toAbsolutePath().normalize(), IncrementalProjectCompiler::new);
+    }
+
+    /**
+     * Brings the project classes up to date and gives a fresh class loader of them.
+     *
+     * @param parent the parent class loader, providing the platform classes
+     * @param gradleBuild the fallback Gradle build of the project directory
+     * @return the class loader of the project classes
+     * @throws LaunchException if the sources don't compile
+     */
+    public synchronized ClassLoader prepareClassLoader(ClassLoader parent, Function<Path, CompletableFuture<Void>> gradleBuild) throws LaunchException {
+        try {
+            String buildHash = hashBuildFiles();
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            if (compiler == null || !buildHash.equals(buildFilesHash) || classpath == null) {
+                gradleBuild(buildHash, gradleBuild);
+            } else {
+                compileChanged(compiler);
+            }
+
+            if (dependencyLoader == null || dependencyLoaderParent != parent) {
+                if (dependencyLoader != null)
+                    dependencyLoader.close();
+                dependencyLoader = new URLClassLoader(toURLs(classpath), parent);
+                dependencyLoaderParent = parent;
+            }
+            return new ProjectClassLoader(dependencyLoader, projectDirectory, classesRoot, Map.copyOf(classes));
+
+        } catch (IOException e) {
+            throw new LaunchException("Cannot compile project " + projectDirectory, e);
+        }
+    }
+
+    private void gradleBuild(String buildHash, Function<Path, CompletableFuture<Void>> gradleBuild) throws IOException {
+        gradleBuild.apply(projectDirectory).join();
+
+        List<Path> newClasspath = resolveClasspath();
+        if (!Objects.equals(newClasspath, classpath)) {
+            if (dependencyLoader != null)
+                dependencyLoader.close();
+            dependencyLoader = null;
+            if (fileManager != null)
+                fileManager.close();
+            fileManager = null;
+            classpath = newClasspath;
+        }
+
+        // everything is now compiled by Gradle
+        classes.clear();
+        classesBySource.clear();
+        sourceHashes.clear();
+        sourceHashes.putAll(hashSources());
+        buildFilesHash = buildHash;
+    }
+
+    /**
+     * Resolves the dependency classpath of the project using the Gradle Tooling API.
+     *
+     * @return the dependency jars, or {@code null} if they couldn't be resolved
+     */
+    protected List<Path> resolveClasspath() {
+        var connector = GradleConnector.newConnector().forProjectDirectory(projectDirectory.toFile());
+        try (var conn = connector.connect()) {
+            EclipseProject project = conn.getModel(EclipseProject.class);
+            List<Path> paths = new ArrayList<>();
+            for (EclipseExternalDependency dependency : project.getClasspath())
+                if (dependency.getFile() != null)
+                    paths.add(dependency.getFile().toPath());
+            return List.copyOf(paths);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void compileChanged(JavaCompiler compiler) throws IOException, LaunchException {
+        Map<Path, String> currentHashes = hashSources();
+        Set<Path> changed = new HashSet<>();
+        currentHashes.forEach((source, hash) -> {
+            if (!hash.equals(sourceHashes.get(source)))
+                changed.add(source);
+        });
+        Set<Path> deleted = new HashSet<>(sourceHashes.keySet());
+        deleted.removeAll(currentHashes.keySet());
+        if (changed.isEmpty() && deleted.isEmpty())
+            return;
+
+        // recompile also the sources mentioning the changed types, which may depend on their signatures
+        Set<String> changedTypes = new HashSet<>();
+        for (Path source : changed)
+            changedTypes.add(typeName(source));
+        for (Path source : deleted)
+            changedTypes.add(typeName(source));
+        Set<Path> toCompile = new TreeSet<>(changed);
+        for (Path source : currentHashes.keySet()) {
+            if (!toCompile.contains(source) && mentionsAny(source, changedTypes))
+                toCompile.add(source);
+        }
+
+        for (Path source : deleted) {
+            sourceHashes.remove(source);
+            removeClasses(source);
+        }
+        if (!toCompile.isEmpty())
+            compile(compiler, toCompile);
+        for (Path source : toCompile)
+            sourceHashes.put(source, currentHashes.get(source));
+    }
+
+    private void compile(JavaCompiler compiler, Collection<Path> sources) throws IOException, LaunchException {
+        if (fileManager == null) {
+            fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+            List<File> files = new ArrayList<>();
+            files.add(projectDirectory.resolve(classesRoot).toFile());
+            for (Path path : classpath)
+                files.add(path.toFile());
+            fileManager.setLocation(StandardLocation.CLASS_PATH, files);
+        }
+
+        // the classes of the recompiled sources must not be visible as already compiled
+        Map<String, byte[]> visibleClasses = new HashMap<>(classes);
+        for (Path source : sources) {
+            Set<String> names = classesBySource.get(source);
+            if (names != null)
+                visibleClasses.keySet().removeAll(names);
+        }
+
+        var memoryManager = new MemoryFileManager(fileManager, visibleClasses);
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var units = fileManager.getJavaFileObjectsFromPaths(sources);
+        var options = List.of("-g", "-proc:none", "-parameters");
+        boolean success = compiler.getTask(null, memoryManager, diagnostics, options, null, units).call();
+        if (!success) {
+            String errors = diagnostics.getDiagnostics().stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                    .map(IncrementalProjectCompiler::format)
+                    .collect(Collectors.joining("\n"));
+            throw new LaunchException("Compilation failed:\n" + errors);
+        }
+
+        for (Path source : sources)
+            removeClasses(source);
+        memoryManager.outputs.forEach((name, output) -> {
+            classes.put(name, output.bytes.toByteArray());
+            if (output.source != null)
+                classesBySource.computeIfAbsent(output.source, k -> new HashSet<>()).add(name);
+        });
+    }
+
+    private void removeClasses(Path source) {
+        Set<String> names = classesBySource.remove(source);
+        if (names != null)
+            classes.keySet().removeAll(names);
+    }
+
+    private static String format(Diagnostic<? extends JavaFileObject> d) {
+        String source = (d.getSource() == null)? "" : d.getSource().getName() + ":" + d.getLineNumber() + ": ";
+        return source + d.getMessage(Locale.getDefault());
+    }
+
+    private static String typeName(Path source) {
+        String fileName = source.getFileName().toString();
+        return fileName.substring(0, fileName.length() - ".java".length());
+    }
+
+    private static boolean mentionsAny(Path source, Set<String> typeNames) throws IOException {
+        String content = Files.readString(source, StandardCharsets.UTF_8);
+        for (String typeName : typeNames)
+            if (content.contains(typeName))
+                return true;
+        return false;
+    }
+
+    private Map<Path, String> hashSources() throws IOException {
+        if (!Files.isDirectory(sourceRoot))
+            return Map.of();
+
+        Map<Path, String> hashes = new HashMap<>();
+        try (Stream<Path> files = Files.walk(sourceRoot)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".java"))::iterator)
+                hashes.put(file, hash(Files.readAllBytes(file)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return hashes;
+    }
+
+    private String hashBuildFiles() throws IOException {
+        MessageDigest digest = newDigest();
+        for (String name : BUILD_FILES) {
+            Path file = projectDirectory.resolve(name);
+            if (Files.isRegularFile(file)) {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String hash(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalError("SHA-256 not supported", e);
+        }
+    }
+
+    private static URL[] toURLs(List<Path> paths) {
+        try {
+            URL[] urls = new URL[(paths == null)? 0 : paths.size()];
+            for (int i = 0; i < urls.length; i++)
+                urls[i] = paths.get(i).toUri().toURL();
+            return urls;
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * The class loader of the project classes, serving the classes compiled in memory before the
+     * ones built by Gradle.
+     */
+    static class ProjectClassLoader extends ConventionalJavaProjectClassLoader {
+        private final Map<String, byte[]> classes;
+
+        ProjectClassLoader(ClassLoader parent, Path projectDirectory, Path classesRoot, Map<String, byte[]> classes) {
+            super(parent, projectDirectory, classesRoot);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] data = classes.get(name);
+            if (data != null)
+                return defineClass(name, data, 0, data.length);
+            return super.findClass(name);
+        }
+    }
+
+    /**
+     * The class file compiled into memory.
+     */
+    static class ClassOutput extends SimpleJavaFileObject {
+        final String binaryName;
+        final Path source;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ClassOutput(String binaryName, Path source) {
+            super(URI.create("mem:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.source = source;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            bytes.reset();
+            return bytes;
+        }
+    }
+
+    /**
+     * The class file compiled into memory in one of the previous compilations.
+     */
+    static class ClassInput extends SimpleJavaFileObject {
+        final String binaryName;
+        final byte[] bytes;
+
+        ClassInput(String binaryName, byte[] bytes) {
+            super(URI.create("mem:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+    }
+
+    /**
+     * The file manager writing the class files into memory, and listing the classes compiled in
+     * memory before the ones on the classpath.
+     */
+    static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, byte[]> classes;
+        final Map<String, ClassOutput> outputs = new HashMap<>();
+
+        MemoryFileManager(StandardJavaFileManager fileManager, Map<String, byte[]> classes) {
+            super(fileManager);
+            this.classes = classes;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+            if (kind != JavaFileObject.Kind.CLASS)
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+
+            Path source = null;
+            if (sibling != null && "file".equals(sibling.toUri().getScheme()))
+                source = Path.of(sibling.toUri());
+            ClassOutput output = new ClassOutput(className, source);
+            outputs.put(className, output);
+            return output;
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+            Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+            if (location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS) || classes.isEmpty())
+                return files;
+
+            List<JavaFileObject> result = new ArrayList<>();
+            String prefix = packageName.isEmpty()? "" : packageName + ".";
+            classes.forEach((name, bytes) -> {
+                if (name.startsWith(prefix) && (recurse || name.indexOf('.', prefix.length()) < 0))
+                    result.add(new ClassInput(name, bytes));
+            });
+            for (JavaFileObject file : files) {
+                if (file.getKind() != JavaFileObject.Kind.CLASS || !classes.containsKey(inferBinaryName(location, file)))
+                    result.add(file);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean isSameFile(FileObject a, FileObject b) {
+            if (a instanceof SimpleJavaFileObject || b instanceof SimpleJavaFileObject)
+                return a.toUri().equals(b.toUri());
+            return super.isSameFile(a, b);
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            if (file instanceof ClassInput input)
+                return input.binaryName;
+            return super.inferBinaryName(location, file);
+        }
+    }
+}
@@ -14,6 +14,7 @@ public abstract class AbstractSpringApplicationBuilderFactory implements SpringA
         SpringApplicationBuilder appBuilder = new SpringApplicationBuilder(getClass())
                 .lazyInitialization(true)
                 .bannerMode(Banner.Mode.OFF)
+                .applicationStartup(new StartupTimelineApplicationStartup(StartupTimeline.getDefault(), getClass().getSimpleName()))
                 .resourceLoader(new DefaultResourceLoader(Lookup.getDefault().lookup(ClassLoader.class)));
         appBuilder.application().setAllowBeanDefinitionOverriding(true);
 
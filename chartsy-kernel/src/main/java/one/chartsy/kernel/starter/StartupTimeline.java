@@ -0,0 +1,152 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.kernel.starter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Records the timed phases of the application startup, such as the service discovery, the Spring
+ * context refreshes or the database migrations, including the phases running concurrently.
+ * <p>
+ * The phases are recorded either explicitly, with {@link #begin(String)} or
+ * {@link #time(String, Supplier)}, or by the {@link StartupTimelineApplicationStartup} installed in
+ * the Spring applications created by the {@link AbstractSpringApplicationBuilderFactory}.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class StartupTimeline {
+
+    private static final StartupTimeline DEFAULT = new StartupTimeline();
+
+    /** The time origin of the timeline. */
+    private final long originNanos;
+    /** The completed phases. */
+    private final ConcurrentLinkedQueue<Phase> phases = new ConcurrentLinkedQueue<>();
+
+
+    public StartupTimeline() {
+        this.originNanos = System.nanoTime();
+    }
+
+    /**
+     * Gives the timeline of the application startup.
+     */
+    public static StartupTimeline getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The completed startup phase.
+     *
+     * @param name the phase name
+     * @param threadName the name of the thread that ran the phase
+     * @param start the phase start, relative to the timeline origin
+     * @param duration the phase duration
+     */
+    public record Phase(String name, String threadName, Duration start, Duration duration) {
+
+        /**
+         * Gives the phase end, relative to the timeline origin.
+         */
+        public Duration end() {
+            return start.plus(duration);
+        }
+    }
+
+    /**
+     * The running startup phase, recorded when closed.
+     */
+    public final class Running implements AutoCloseable {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private boolean closed;
+
+        private Running(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                record(name, startNanos, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Starts the given phase, to be recorded when the returned object is closed.
+     *
+     * @param name the phase name
+     * @return the running phase
+     */
+    public Running begin(String name) {
+        return new Running(name);
+    }
+
+    /**
+     * Runs and records the given phase.
+     *
+     * @param name the phase name
+     * @param action the phase body
+     * @return the result of the {@code action}
+     */
+    public <T> T time(String name, Supplier<T> action) {
+        try (var __ = begin(name)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Records the completed phase.
+     *
+     * @param name the phase name
+     * @param startNanos the phase start, as given by {@link System#nanoTime()}
+     * @param endNanos the phase end, as given by {@link System#nanoTime()}
+     */
+    public void record(String name, long startNanos, long endNanos) {
+        phases.add(new Phase(name, Thread.currentThread().getName(),
+                Duration.ofNanos(startNanos - originNanos), Duration.ofNanos(endNanos - startNanos)));
+    }
+
+    /**
+     * Gives the completed phases, in the order of their start.
+     */
+    public List<Phase> getPhases() {
+        List<Phase> list = new ArrayList<>(phases);
+        list.sort(Comparator.comparing(Phase::start));
+        return list;
+    }
+
+    /**
+     * Gives the first completed phase of the given name.
+     */
+    public Optional<Phase> getPhase(String name) {
+        return getPhases().stream().filter(phase -> phase.name().equals(name)).findFirst();
+    }
+
+    /**
+     * Gives the time elapsed from the timeline origin to the end of the last completed phase.
+     */
+    public Duration getElapsedTime() {
+        return phases.stream().map(Phase::end).max(Comparator.naturalOrder()).orElse(Duration.ZERO);
+    }
+
+    /**
+     * Gives the human-readable breakdown of the completed phases.
+     */
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("Startup timeline (").append(getElapsedTime().toMillis()).append(" ms):");
+        for (Phase phase : getPhases())
+            buf.append(String.format("%n  %6d ms %6d ms  %-40s [%s]",
+                    phase.start().toMillis(), phase.duration().toMillis(), phase.name(), phase.threadName()));
+        return buf.toString();
+    }
+}
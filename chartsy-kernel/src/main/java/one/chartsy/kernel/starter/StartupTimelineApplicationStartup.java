@@ -0,0 +1,100 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.kernel.starter;
+
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records the Spring context refresh, and the instantiations of the beans taking at least the
+ * given time, such as the database migrations or the JPA entity manager factory, as the phases
+ * of the {@link StartupTimeline}.
+ *
+ * @author Mariusz Bernacki
+ */
+public class StartupTimelineApplicationStartup implements ApplicationStartup {
+    /** The default minimum duration of the recorded bean instantiations. */
+    public static final long DEFAULT_BEAN_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final StartupTimeline timeline;
+    private final String applicationName;
+    private final long beanThresholdNanos;
+    private final AtomicLong stepIds = new AtomicLong();
+
+
+    public StartupTimelineApplicationStartup(StartupTimeline timeline, String applicationName) {
+        this(timeline, applicationName, DEFAULT_BEAN_THRESHOLD_NANOS);
+    }
+
+    public StartupTimelineApplicationStartup(StartupTimeline timeline, String applicationName, long beanThresholdNanos) {
+        this.timeline = timeline;
+        this.applicationName = applicationName;
+        this.beanThresholdNanos = beanThresholdNanos;
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        return switch (name) {
+            case "spring.context.refresh", "spring.beans.instantiate" -> new TimedStep(name, stepIds.incrementAndGet());
+            default -> ApplicationStartup.DEFAULT.start(name);
+        };
+    }
+
+    private class TimedStep implements StartupStep {
+        private final String name;
+        private final long id;
+        private final long startNanos = System.nanoTime();
+        private String beanName;
+
+        TimedStep(String name, long id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return null;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            if ("beanName".equals(key))
+                beanName = value;
+            return this;
+        }
+
+        @Override
+        public StartupStep tag(String key, Supplier<String> value) {
+            return tag(key, value.get());
+        }
+
+        @Override
+        public Tags getTags() {
+            return Collections::<Tag>emptyIterator;
+        }
+
+        @Override
+        public void end() {
+            long endNanos = System.nanoTime();
+            if (name.equals("spring.context.refresh"))
+                timeline.record("Spring context refresh (" + applicationName + ")", startNanos, endNanos);
+            else if (endNanos - startNanos >= beanThresholdNanos)
+                timeline.record("Spring bean " + beanName + " (" + applicationName + ")", startNanos, endNanos);
+        }
+    }
+}
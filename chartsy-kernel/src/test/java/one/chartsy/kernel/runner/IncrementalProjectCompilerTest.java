@@ -0,0 +1,100 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.kernel.runner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalProjectCompilerTest {
+
+    @TempDir
+    Path projectDir;
+    AtomicInteger gradleBuilds = new AtomicInteger();
+    IncrementalProjectCompiler compiler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(projectDir.resolve("build.gradle"), "plugins { id 'java' }");
+        writeSource("example/Greeting.java", "package example; public class Greeting { public static String text() { return \"Hello\"; } }");
+        writeSource("example/Greeter.java", "package example; public class Greeter implements java.util.function.Supplier<String> { public String get() { return Greeting.text(); } }");
+        compiler = new IncrementalProjectCompiler(projectDir) {
+            @Override
+            protected List<Path> resolveClasspath() {
+                return List.of();
+            }
+        };
+    }
+
+    private void writeSource(String path, String content) throws IOException {
+        Path file = projectDir.resolve("src/main/java").resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private CompletableFuture<Void> gradleBuild(Path dir) {
+        gradleBuilds.incrementAndGet();
+        try (Stream<Path> files = Files.walk(dir.resolve("src/main/java"))) {
+            String[] sources = files.filter(f -> f.toString().endsWith(".java")).map(Path::toString).toArray(String[]::new);
+            String[] args = Stream.concat(Stream.of("-d", dir.resolve(ConventionalJavaProjectClassLoader.DEFAULT_BINARY_ROOT).toString()), Stream.of(sources)).toArray(String[]::new);
+            assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, args));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String launch() throws Exception {
+        ClassLoader cl = compiler.prepareClassLoader(getClass().getClassLoader(), this::gradleBuild);
+        return ((Supplier<String>) cl.loadClass("example.Greeter").getConstructor().newInstance()).get();
+    }
+
+    @Test
+    void builds_with_gradle_only_on_first_launch_and_build_file_change() throws Exception {
+        assertEquals("Hello", launch());
+        assertEquals("Hello", launch());
+        assertEquals(1, gradleBuilds.get());
+
+        Files.writeString(projectDir.resolve("build.gradle"), "plugins { id 'java-library' }");
+        assertEquals("Hello", launch());
+        assertEquals(2, gradleBuilds.get());
+    }
+
+    @Test
+    void recompiles_changed_sources_in_process() throws Exception {
+        assertEquals("Hello", launch());
+
+        writeSource("example/Greeting.java", "package example; public class Greeting { public static final String TEXT = \"Hi\"; public static String text() { return TEXT; } }");
+        assertEquals("Hi", launch());
+
+        writeSource("example/Greeter.java", "package example; public class Greeter implements java.util.function.Supplier<String> { public String get() { return Greeting.TEXT + \"!\"; } }");
+        assertEquals("Hi!", launch());
+        assertEquals(1, gradleBuilds.get());
+    }
+
+    @Test
+    void reports_compilation_errors_and_recovers_after_fix() throws Exception {
+        assertEquals("Hello", launch());
+
+        writeSource("example/Greeting.java", "package example; public class Greeting { public static String text() { return 42; } }");
+        LaunchException e = assertThrows(LaunchException.class, this::launch);
+        assertTrue(e.getMessage().contains("Greeting.java"), e.getMessage());
+
+        writeSource("example/Greeting.java", "package example; public class Greeting { public static String text() { return \"Fixed\"; } }");
+        assertEquals("Fixed", launch());
+        assertEquals(1, gradleBuilds.get());
+    }
+}
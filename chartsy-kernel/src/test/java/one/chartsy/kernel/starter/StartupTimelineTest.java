@@ -0,0 +1,87 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.kernel.starter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimelineTest {
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void records_phases_in_start_order() {
+        StartupTimeline timeline = new StartupTimeline();
+        try (var __ = timeline.begin("outer")) {
+            sleep(20);
+            assertEquals("value", timeline.time("inner", () -> { sleep(20); return "value"; }));
+        }
+
+        assertEquals(2, timeline.getPhases().size());
+        assertEquals("outer", timeline.getPhases().get(0).name());
+        assertEquals("inner", timeline.getPhases().get(1).name());
+        StartupTimeline.Phase outer = timeline.getPhase("outer").orElseThrow();
+        StartupTimeline.Phase inner = timeline.getPhase("inner").orElseThrow();
+        assertTrue(outer.duration().compareTo(inner.duration()) > 0);
+        assertTrue(inner.duration().compareTo(Duration.ofMillis(20)) >= 0);
+        assertEquals(outer.end(), timeline.getElapsedTime());
+        assertTrue(timeline.toString().contains("inner"));
+    }
+
+    static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new AssertionError("Phases did not meet", e);
+        }
+    }
+
+    @Test
+    void records_concurrent_phases_from_all_threads() {
+        StartupTimeline timeline = new StartupTimeline();
+        // neither phase can end before both have started
+        CyclicBarrier bothStarted = new CyclicBarrier(2);
+        var first = CompletableFuture.runAsync(() -> timeline.time("first", () -> { await(bothStarted); return null; }));
+        timeline.time("second", () -> { await(bothStarted); return null; });
+        first.join();
+
+        StartupTimeline.Phase a = timeline.getPhase("first").orElseThrow();
+        StartupTimeline.Phase b = timeline.getPhase("second").orElseThrow();
+        assertNotEquals(a.threadName(), b.threadName());
+        assertTrue(a.start().compareTo(b.end()) < 0 && b.start().compareTo(a.end()) < 0, "phases should overlap");
+    }
+
+    @Test
+    void application_startup_records_context_refresh_and_slow_beans_only() {
+        StartupTimeline timeline = new StartupTimeline();
+        ApplicationStartup startup = new StartupTimelineApplicationStartup(timeline, "Test", TimeUnit.MILLISECONDS.toNanos(10));
+
+        StartupStep refresh = startup.start("spring.context.refresh");
+        StartupStep slowBean = startup.start("spring.beans.instantiate").tag("beanName", "liquibase");
+        sleep(20);
+        slowBean.end();
+        startup.start("spring.beans.instantiate").tag("beanName", "fastBean").end();
+        startup.start("spring.context.config-classes.parse").end();
+        refresh.end();
+
+        assertTrue(timeline.getPhase("Spring context refresh (Test)").isPresent());
+        assertTrue(timeline.getPhase("Spring bean liquibase (Test)").isPresent());
+        assertEquals(2, timeline.getPhases().size());
+    }
+}
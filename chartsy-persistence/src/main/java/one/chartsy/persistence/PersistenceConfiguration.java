@@ -6,13 +6,15 @@ import liquibase.integration.spring.SpringLiquibase;
 import one.chartsy.kernel.config.KernelConfiguration;
 import one.chartsy.persistence.domain.services.PersistentSymbolGroupHierarchy;
 import one.chartsy.persistence.event.HibernateEntityEventPublisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
 @Configuration
@@ -27,11 +29,27 @@ public class PersistenceConfiguration {
     }
 
     @Bean
-    @Lazy(false)
     public HibernateEntityEventPublisher hibernateEntityEventPublisher() {
         return new HibernateEntityEventPublisher();
     }
 
+    /**
+     * Attaches the entity event publisher to the entity manager factory once it's created on the
+     * first use, so that the database, its migrations and the JPA metamodel are all initialized
+     * lazily instead of during the startup.
+     */
+    @Bean
+    public static BeanPostProcessor hibernateEntityEventPublisherRegistrar(ObjectProvider<HibernateEntityEventPublisher> publisher) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof EntityManagerFactory entityManagerFactory)
+                    publisher.getObject().registerListeners(entityManagerFactory);
+                return bean;
+            }
+        };
+    }
+
     @Bean
     public SpringLiquibase liquibase(DataSource dataSource) {
         SpringLiquibase liquibase = new SpringLiquibase();
@@ -2,7 +2,6 @@
  * SPDX-License-Identifier: Apache-2.0 */
 package one.chartsy.persistence.event;
 
-import javax.annotation.PostConstruct;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.event.service.spi.EventListenerRegistry;
 import org.hibernate.event.spi.*;
@@ -14,14 +13,10 @@ import javax.persistence.EntityManagerFactory;
 
 public class HibernateEntityEventPublisher implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
 
-    @Autowired
-    private EntityManagerFactory entityManagerFactory;
-
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
-    @PostConstruct
-    public void registerListeners() {
+    public void registerListeners(EntityManagerFactory entityManagerFactory) {
         SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
         EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
 
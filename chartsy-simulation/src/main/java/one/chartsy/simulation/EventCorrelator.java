@@ -7,28 +7,40 @@ package one.chartsy.simulation;
 import one.chartsy.data.structures.PriorityMap;
 import one.chartsy.data.TimedEntry;
 import one.chartsy.scheduling.EventScheduler;
+import one.chartsy.simulation.metrics.SimulationMetrics;
 import one.chartsy.simulation.time.SimulationClock;
 import one.chartsy.time.Chronological;
 
 class EventCorrelator implements EventScheduler {
 
     private final PriorityMap<Chronological, EventHandler> timedEvents = new PriorityMap<>();
+    private SimulationMetrics metrics;
 
     public void clear() {
         timedEvents.clear();
     }
 
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public void addTimedEvent(Chronological event, EventHandler handler) {
         timedEvents.put(event, handler);
+        if (metrics != null)
+            metrics.onTimedEventQueued(timedEvents.size());
     }
 
     public void triggerEventsUpTo(long time, SimulationClock simClock) {
         Chronological event;
+        int triggered = 0;
         while (!timedEvents.isEmpty() && (event = timedEvents.peekKey()).getTime() <= time) {
             simClock.setTime(event);
             timedEvents.remove().handle(event);
+            triggered++;
         }
         simClock.setTime(time);
+        if (triggered > 0 && metrics != null)
+            metrics.onTimedEventsTriggered(triggered, timedEvents.size());
     }
 
     @Override
@@ -4,6 +4,7 @@ package one.chartsy.simulation;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import one.chartsy.simulation.metrics.SimulationMetrics;
 import one.chartsy.simulation.reporting.Report;
 import one.chartsy.trade.Order;
 import one.chartsy.trade.data.TransactionData;
@@ -13,6 +14,7 @@ import org.immutables.value.Value;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Value.Style(
@@ -53,6 +55,8 @@ public abstract class SimulationResult {
     public abstract List<TransactionData> transactions();
     @JsonProperty("report")
     public abstract Report report();
+    @JsonProperty("metrics")
+    public abstract Optional<SimulationMetrics.Summary> metrics();
 
     @Value.Default
     @JsonProperty("state")
@@ -7,7 +7,10 @@ package one.chartsy.simulation;
 import one.chartsy.*;
 import one.chartsy.data.Series;
 import one.chartsy.data.TimedEntry;
+import one.chartsy.data.market.Tick;
 import one.chartsy.simulation.engine.SimpleMatchingEngine;
+import one.chartsy.simulation.metrics.MeteredTradingAlgorithm;
+import one.chartsy.simulation.metrics.SimulationMetrics;
 import one.chartsy.simulation.platform.BacktestPlatformServices;
 import one.chartsy.simulation.reporting.ReportEngine;
 import one.chartsy.simulation.time.SimulationClock;
@@ -36,6 +39,12 @@ public class TradingSimulator extends TradingAlgorithmHandle implements TradingS
 
     protected ReportEngine reportEngine;
 
+    /** The hot-path metrics of the current run, or {@code null} if disabled. */
+    protected SimulationMetrics metrics;
+
+    /** Whether the ticks are used only for matching orders and not delivered to the strategies. */
+    protected boolean tickMatching;
+
     private final TradingAlgorithmFactory<?> algorithmFactory;
 
     public TradingSimulator(TradingAlgorithmFactory<?> algorithmFactory) {
@@ -94,7 +103,9 @@ public class TradingSimulator extends TradingAlgorithmHandle implements TradingS
                 .scheduler(eventCorrelator)
                 .tradingAlgorithms(tradingAlgorithms = new StandardTradingAlgorithmSet())
                 .build();
-        HierarchicalTradingAlgorithm metaAlgorithm = new HierarchicalTradingAlgorithm(newContext);
+        HierarchicalTradingAlgorithm metaAlgorithm = (metrics == null)
+                ? new HierarchicalTradingAlgorithm(newContext)
+                : new MeteredTradingAlgorithm(newContext, metrics);
         metaAlgorithm.addSubStrategies(algorithmFactory);
         setTarget(metaAlgorithm);
         super.onInit(newContext);
@@ -114,6 +125,12 @@ public class TradingSimulator extends TradingAlgorithmHandle implements TradingS
         result.estimatedDataPointCount(countEstimatedDataPoints(datasets));
 
         this.matchingEngine = createMatchingEngine(properties, result);
+        this.tickMatching = properties.isTickMatchingEnabled();
+        if (properties.isMetricsEnabled()) {
+            metrics = new SimulationMetrics();
+            matchingEngine.setMetrics(metrics);
+            eventCorrelator.setMetrics(metrics);
+        }
         if (properties.isTransactionHistoryEnabled()) {
             result.transactions(new TransactionList());
             //matchingEngine.addPositionChangeListener(new TransactionHistoryCollector(result.getTransactionList()));
@@ -153,13 +170,19 @@ public class TradingSimulator extends TradingAlgorithmHandle implements TradingS
 
     @Override
     public void onData(When when, Chronological next, boolean timeTick) {
-        super.onData(when, next, timeTick);
+        if (!tickMatching || !(next instanceof Tick))
+            super.onData(when, next, timeTick);
         matchingEngine.onData(when, next, timeTick);
     }
 
     @Override
     public void onData(When when, Chronological data) {
+        if (metrics != null)
+            metrics.onDataEvent();
         eventCorrelator.triggerEventsUpTo(data.getTime(), clock);
+        if (tickMatching && data instanceof Tick)
+            return;
+
         var target = getTarget();
 
         target.doFirst(when);
@@ -249,6 +272,8 @@ public class TradingSimulator extends TradingAlgorithmHandle implements TradingS
         result.state(SimulationResult.State.READY);
         result.totalProfit(account.getEquity() - account.getInitialBalance());
         result.report(reportEngine.createReport());
+        if (metrics != null)
+            result.metrics(metrics.summarize());
         return result.build();
     }
 
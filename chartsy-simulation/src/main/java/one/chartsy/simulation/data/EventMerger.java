@@ -0,0 +1,192 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.data;
+
+import one.chartsy.data.ChronologicalIterator;
+import one.chartsy.data.ChronologicalIteratorContext;
+import one.chartsy.data.Series;
+import one.chartsy.data.structures.IntMap;
+import one.chartsy.data.structures.LongKeyedIntHeap;
+import one.chartsy.time.Timeline;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the chronological iterators of the simulation datasets into a single sequence of events.
+ * <p>
+ * The merger always exposes the iterator holding the earliest forthcoming event. The caller
+ * advances the exposed iterator and then calls {@link #update()} to let the merger reposition it.
+ * Events occurring at the same time are delivered in the ascending order of the dataset ids.
+ * <p>
+ * The typical event loop looks like:
+ * <pre>{@code
+ * EventMerger merger = EventMerger.of(seriesMap);
+ * while (!merger.isEmpty()) {
+ *     ChronologicalIterator<?> when = merger.peek();
+ *     Chronological event = when.peek();
+ *     when.next();
+ *     // ... process the event ...
+ *     merger.update();
+ * }
+ * }</pre>
+ *
+ * @author Mariusz Bernacki
+ */
+public abstract class EventMerger {
+
+    /**
+     * Creates the merger suitable for the given datasets. A dedicated implementation is used for a
+     * single dataset and for datasets sharing identical timelines, in which case the iterators are
+     * advanced in lockstep without any priority queue.
+     *
+     * @param datasets the datasets mapped by their ids
+     * @return the event merger
+     */
+    public static EventMerger of(IntMap<Series<?>> datasets) {
+        List<Map.Entry<Integer, Series<?>>> entries = new ArrayList<>(datasets.entrySet());
+        entries.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+
+        List<ChronologicalIterator<?>> iterators = new ArrayList<>(entries.size());
+        for (Map.Entry<Integer, Series<?>> entry : entries) {
+            ChronologicalIterator<?> iter = entry.getValue().chronologicalIterator(new ChronologicalIteratorContext(entry.getKey()));
+            if (iter.hasNext())
+                iterators.add(iter);
+        }
+
+        if (iterators.size() == 1)
+            return new Single(iterators.get(0));
+        if (iterators.size() > 1 && isLockstep(entries))
+            return new Lockstep(iterators);
+        return new Heap(iterators);
+    }
+
+    private static boolean isLockstep(List<Map.Entry<Integer, Series<?>>> entries) {
+        Timeline first = entries.get(0).getValue().getTimeline();
+        for (int i = 1; i < entries.size(); i++)
+            if (!Timeline.contentEquals(first, entries.get(i).getValue().getTimeline()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Checks whether all events have been consumed.
+     */
+    public abstract boolean isEmpty();
+
+    /**
+     * Gives the iterator holding the earliest forthcoming event.
+     */
+    public abstract ChronologicalIterator<?> peek();
+
+    /**
+     * Gives the time of the earliest forthcoming event.
+     */
+    public abstract long peekTime();
+
+    /**
+     * Repositions the iterator given by the last {@link #peek()} after it has been advanced.
+     */
+    public abstract void update();
+
+
+    static final class Single extends EventMerger {
+        private final ChronologicalIterator<?> iterator;
+        private boolean empty;
+
+        Single(ChronologicalIterator<?> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return empty;
+        }
+
+        @Override
+        public ChronologicalIterator<?> peek() {
+            return iterator;
+        }
+
+        @Override
+        public long peekTime() {
+            return iterator.peekTime();
+        }
+
+        @Override
+        public void update() {
+            empty = !iterator.hasNext();
+        }
+    }
+
+    static final class Lockstep extends EventMerger {
+        private final ChronologicalIterator<?>[] iterators;
+        private int current;
+        private boolean empty;
+
+        Lockstep(List<ChronologicalIterator<?>> iterators) {
+            this.iterators = iterators.toArray(ChronologicalIterator<?>[]::new);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return empty;
+        }
+
+        @Override
+        public ChronologicalIterator<?> peek() {
+            return iterators[current];
+        }
+
+        @Override
+        public long peekTime() {
+            return iterators[current].peekTime();
+        }
+
+        @Override
+        public void update() {
+            if (++current == iterators.length) {
+                current = 0;
+                empty = !iterators[0].hasNext();
+            }
+        }
+    }
+
+    static final class Heap extends EventMerger {
+        private final ChronologicalIterator<?>[] iterators;
+        private final LongKeyedIntHeap heap;
+
+        Heap(List<ChronologicalIterator<?>> iterators) {
+            this.iterators = iterators.toArray(ChronologicalIterator<?>[]::new);
+            this.heap = new LongKeyedIntHeap(this.iterators.length);
+            for (int i = 0; i < this.iterators.length; i++)
+                heap.add(i, this.iterators[i].peekTime());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        @Override
+        public ChronologicalIterator<?> peek() {
+            return iterators[heap.peekId()];
+        }
+
+        @Override
+        public long peekTime() {
+            return heap.peekKey();
+        }
+
+        @Override
+        public void update() {
+            ChronologicalIterator<?> iterator = iterators[heap.peekId()];
+            if (iterator.hasNext())
+                heap.updateTopKey(iterator.peekTime());
+            else
+                heap.removeTop();
+        }
+    }
+}
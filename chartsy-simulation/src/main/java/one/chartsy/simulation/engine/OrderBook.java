@@ -0,0 +1,218 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.engine;
+
+import one.chartsy.data.structures.PriorityMap;
+import one.chartsy.trade.Order;
+import one.chartsy.trade.OrderStatusEvent;
+import one.chartsy.trade.OrderStatusListener;
+import one.chartsy.trade.PriceTriggeredOrderType;
+
+import java.util.*;
+
+/**
+ * The working orders of a single simulated instrument, indexed by trigger price and expiration time.
+ * <p>
+ * Orders of {@link PriceTriggeredOrderType} are kept in four price-sorted sets: buy limits, buy stops,
+ * sell stops and sell limits. The {@link #collect(double, double, long)} method then gives only the
+ * orders that a bar with the given low and high may fill, together with the orders which expired or
+ * were cancelled in the meantime and all orders of other types, which are always visited. Likewise,
+ * the {@link #collect(double, double, double, double, long)} method matches the buy and the sell
+ * orders against separate price ranges, e.g. the ask and the bid of a quote tick. The collected
+ * orders come in the order they were added to the book, so that the matching engine fills them in
+ * exactly the same sequence as it would by scanning the whole book.
+ *
+ * @author Mariusz Bernacki
+ */
+public class OrderBook implements OrderStatusListener {
+    /** The order in which the orders were added to the book. */
+    private static final Comparator<Entry> BY_SEQUENCE = Comparator.comparingLong(Entry::sequence);
+    /** The index of buy orders triggered by the price falling to them, i.e. buy limits. */
+    private static final int BUY_BY_LOW = 0;
+    /** The index of buy orders triggered by the price rising to them, i.e. buy stops. */
+    private static final int BUY_BY_HIGH = 1;
+    /** The index of sell orders triggered by the price falling to them, i.e. sell stops. */
+    private static final int SELL_BY_LOW = 2;
+    /** The index of sell orders triggered by the price rising to them, i.e. sell limits. */
+    private static final int SELL_BY_HIGH = 3;
+    /** The index of orders not indexed by price, visited on every bar. */
+    private static final int OTHERS = 4;
+    /** The orders in the book, at the indexes given above, sorted by price or, for others, by sequence. */
+    @SuppressWarnings("unchecked")
+    private final NavigableSet<Entry>[] entrySets = new NavigableSet[] {
+            new TreeSet<Entry>(), new TreeSet<Entry>(), new TreeSet<Entry>(), new TreeSet<Entry>(),
+            new TreeSet<Entry>(BY_SEQUENCE) };
+    /** The entries of all orders in the book. */
+    private final Map<Order, Entry> entries = new IdentityHashMap<>();
+    /** The entries by expiration time, possibly including entries already removed from the book. */
+    private final PriorityMap<Long, Entry> expirations = new PriorityMap<>();
+    /** The orders cancelled while resting in the book. */
+    private final List<Order> cancelled = new ArrayList<>();
+    /** The reusable list of entries collected for the current bar. */
+    private final List<Entry> candidates = new ArrayList<>();
+    /** The reusable list of orders collected for the current bar. */
+    private final List<Order> collected = new ArrayList<>();
+    /** The sequence number of the last added order. */
+    private long sequence;
+
+
+    private record Entry(double price, long sequence, Order order, int index) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry o) {
+            int cmp = Double.compare(price, o.price);
+            return (cmp != 0)? cmp : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    /**
+     * Adds the working order to the book. The order is indexed by its trigger price and expiration time
+     * at the time of adding.
+     *
+     * @param order the order to add
+     */
+    public void add(Order order) {
+        Entry entry;
+        if (order.getType() instanceof PriceTriggeredOrderType type && type.getTriggerPrice() == type.getTriggerPrice()) {
+            int index = (order.isBuy()? BUY_BY_LOW : SELL_BY_LOW) + (type.isTriggeredByLow(order.getSide())? 0 : 1);
+            entry = new Entry(type.getTriggerPrice(), ++sequence, order, index);
+        } else {
+            entry = new Entry(Double.NaN, ++sequence, order, OTHERS);
+        }
+        entrySets[entry.index()].add(entry);
+        entries.put(order, entry);
+        if (order.getExpirationTime() != Long.MAX_VALUE)
+            expirations.put(order.getExpirationTime(), entry);
+        order.addOrderStatusListener(this);
+    }
+
+    /**
+     * Removes the order from the book.
+     *
+     * @param order the order to remove
+     * @return {@code true} if the order was in the book
+     */
+    public boolean remove(Order order) {
+        Entry entry = entries.remove(order);
+        if (entry == null)
+            return false;
+
+        entrySets[entry.index()].remove(entry);
+        order.removeOrderStatusListener(this);
+        return true;
+    }
+
+    public boolean contains(Order order) {
+        return entries.containsKey(order);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gives all orders in the book, in the order they were added.
+     *
+     * @return the unmodifiable list of orders
+     */
+    public List<Order> orders() {
+        if (entries.isEmpty())
+            return List.of();
+
+        Entry[] all = entries.values().toArray(new Entry[0]);
+        Arrays.sort(all, BY_SEQUENCE);
+        Order[] orders = new Order[all.length];
+        for (int i = 0; i < all.length; i++)
+            orders[i] = all[i].order();
+        return List.of(orders);
+    }
+
+    /**
+     * Gives the orders which need to be visited by the matching engine on a bar with the given low
+     * and high prices: the buy limit and sell stop orders with the trigger price {@code >= low}, the
+     * sell limit and buy stop orders with the trigger price {@code <= high}, the orders cancelled or
+     * expired before {@code time}, and all the orders not indexed by price.
+     * The orders come in the order they were added to the book.
+     * <p>
+     * The returned list is reused by subsequent calls.
+     *
+     * @param low the bar low price
+     * @param high the bar high price
+     * @param time the bar time
+     * @return the orders to visit
+     */
+    public List<Order> collect(double low, double high, long time) {
+        return collect(low, high, low, high, time);
+    }
+
+    /**
+     * Gives the orders which need to be visited by the matching engine when the buy orders may be filled
+     * within the {@code [buyLow, buyHigh]} price range and the sell orders within the
+     * {@code [sellLow, sellHigh]} range, e.g. at the ask and at the bid of a quote tick respectively.
+     * The price-triggered orders of a side are skipped if its range bounds are {@code NaN}.
+     * Otherwise, the method behaves as {@link #collect(double, double, long)}.
+     * <p>
+     * The returned list is reused by subsequent calls.
+     *
+     * @param buyLow the lowest price at which the buy orders may be filled
+     * @param buyHigh the highest price at which the buy orders may be filled
+     * @param sellLow the lowest price at which the sell orders may be filled
+     * @param sellHigh the highest price at which the sell orders may be filled
+     * @param time the current time
+     * @return the orders to visit
+     */
+    public List<Order> collect(double buyLow, double buyHigh, double sellLow, double sellHigh, long time) {
+        List<Entry> candidates = this.candidates;
+        candidates.clear();
+        if (!cancelled.isEmpty()) {
+            for (Order order : cancelled) {
+                Entry entry = entries.get(order);
+                if (entry != null)
+                    candidates.add(entry);
+            }
+            cancelled.clear();
+        }
+        while (!expirations.isEmpty() && expirations.peekKey() < time) {
+            Entry entry = expirations.remove();
+            if (entries.get(entry.order()) == entry)
+                candidates.add(entry);
+        }
+        addTriggeredByLow(entrySets[BUY_BY_LOW], buyLow);
+        addTriggeredByHigh(entrySets[BUY_BY_HIGH], buyHigh);
+        addTriggeredByLow(entrySets[SELL_BY_LOW], sellLow);
+        addTriggeredByHigh(entrySets[SELL_BY_HIGH], sellHigh);
+        candidates.addAll(entrySets[OTHERS]);
+
+        List<Order> collected = this.collected;
+        collected.clear();
+        if (candidates.size() > 1)
+            candidates.sort(BY_SEQUENCE);
+        Entry last = null;
+        for (Entry entry : candidates) {
+            if (entry != last)
+                collected.add(entry.order());
+            last = entry;
+        }
+        return collected;
+    }
+
+    private void addTriggeredByLow(NavigableSet<Entry> orders, double low) {
+        if (!orders.isEmpty() && orders.last().price() >= low)
+            candidates.addAll(orders.tailSet(new Entry(low, Long.MIN_VALUE, null, -1), true));
+    }
+
+    private void addTriggeredByHigh(NavigableSet<Entry> orders, double high) {
+        if (!orders.isEmpty() && orders.first().price() <= high)
+            candidates.addAll(orders.headSet(new Entry(high, Long.MAX_VALUE, null, -1), true));
+    }
+
+    @Override
+    public void orderStatusChanged(OrderStatusEvent e) {
+        Order order = e.getSource();
+        if (order.isCancelled())
+            cancelled.add(order);
+    }
+}
@@ -7,7 +7,9 @@ package one.chartsy.simulation.engine;
 import one.chartsy.*;
 import one.chartsy.core.event.ListenerList;
 import one.chartsy.data.Priced;
+import one.chartsy.data.market.Tick;
 import one.chartsy.simulation.*;
+import one.chartsy.simulation.metrics.SimulationMetrics;
 import one.chartsy.time.Chronological;
 import one.chartsy.trade.*;
 import one.chartsy.trade.data.Position;
@@ -27,6 +29,8 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
     private final double spread;
     private final boolean allowSameBarExit;
     private final boolean allowTakeProfitSlippage;
+    private final boolean tickMatching;
+    private SimulationMetrics metrics;
 
     public SimpleMatchingEngine(SimulatorOptions properties, SimulationResult.Builder result) {
         this.result = result;
@@ -35,9 +39,17 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
         this.spread = properties.spread();
         this.allowSameBarExit = properties.allowSameBarExit();
         this.allowTakeProfitSlippage = properties.allowTakeProfitSlippage();
+        this.tickMatching = properties.isTickMatchingEnabled();
     }
 
-    private final ListenerList<OrderStatusListener> orderStatusListeners = ListenerList.of(OrderStatusListener.class);
+    /**
+     * Sets the metrics counting the submitted and filled orders, or {@code null} to disable counting.
+     */
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private final ListenerList<OrderStatusListener> orderStatusListeners = ListenerList.of(OrderStatusListener.class, OrderStatusListener::multicast);
 
     public void addOrderStatusListener(OrderStatusListener listener) {
         orderStatusListeners.addListener(listener);
@@ -58,7 +70,7 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
             orderStatusListeners.fire().orderStatusChanged(new OrderStatusEvent(order));
     }
 
-    private final ListenerList<ExecutionListener> executionListeners = new ListenerList<>(ExecutionListener.class);
+    private final ListenerList<ExecutionListener> executionListeners = ListenerList.of(ExecutionListener.class, ExecutionListener::multicast);
 
     public void addExecutionListener(ExecutionListener listener) {
         executionListeners.addListener(listener);
@@ -77,6 +89,8 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
     }
 
     protected void fireOrderExecution(Execution execution) {
+        if (metrics != null)
+            metrics.onOrderFilled(execution);
         if (!executionListeners.isEmpty())
             executionListeners.fire().onExecution(execution);
     }
@@ -90,11 +104,17 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
         instrument.getTransmitQueue().add(order);
         order.setSourceId(context.name());
         toSubmitted(order, orderID.incrementAndGet(), currentTime);
+        if (metrics != null)
+            metrics.onOrderSubmitted();
         return order;
     }
 
     public void onData(When when, Chronological data, boolean timeTick) {
-        if (data instanceof Candle)
+        if (data instanceof Tick tick)
+            onTick(when, tick.getTime(), tick.price(), tick.size(), tick.getSide());
+        else if (tickMatching)
+            return;
+        else if (data instanceof Candle)
             onData(when, (Candle) data);
         else if (data instanceof Priced)
             onData(when, ((Priced) data).toCandle());
@@ -108,7 +128,7 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
         return Math.max(acceptedTime, order.getValidSinceTime());
     }
 
-    protected int onDataAtTheClose(List<Order> transmitQueue, List<Order> workingOrders, double closePrice, long time) {
+    protected int onDataAtTheClose(List<Order> transmitQueue, OrderBook workingOrders, double closePrice, long time) {
         Candle closeCandle = null;
         int orderCount = transmitQueue.size();
         for (int i = 0; i < orderCount; i++) {
@@ -139,7 +159,7 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
         return orderCount;
     }
 
-    protected void onDataAtTheOpen(List<Order> transmitQueue, List<Order> workingOrders, double openPrice, long time, int fromIndex) {
+    protected void onDataAtTheOpen(List<Order> transmitQueue, OrderBook workingOrders, double openPrice, long time, int fromIndex) {
         Candle openCandle = null;
         int orderCount = transmitQueue.size();
         for (int i = fromIndex; i < orderCount; i++) {
@@ -172,9 +192,9 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
     long currentTime = Long.MIN_VALUE;
 
     public void onData(When when, Candle ohlc) {
-        SimulationInstrument instrument = account.getInstrument(when.getSymbol());
+        SimulationInstrument instrument = account.getInstrument(when);
         List<Order> transmitQueue = instrument.getTransmitQueue();
-        List<Order> orders = instrument.orders();
+        OrderBook orders = instrument.getOrderBook();
         if (!transmitQueue.isEmpty()) {
             int orderCount = 0;
             Candle lastCandle = instrument.lastCandle();
@@ -185,7 +205,6 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
 
         currentTime = ohlc.getTime();
         instrument.setLastCandle(ohlc);
-        int orderCount = orders.size();
         Position position = instrument.position();
         if (position != null) {
             int type = position.getDirection().tag;
@@ -206,9 +225,20 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
             }
         }
 
-        orderCount = Math.min(orderCount, orders.size());
-        for (int i = 0; i < orderCount; i++) {
-            Order order = orders.get(i);
+        if (!orders.isEmpty())
+            matchWorkingOrders(instrument, orders, ohlc);
+        account.updateProfit(instrument, ohlc);
+    }
+
+    /**
+     * Processes the working orders of the instrument which the given bar may fill, cancel or expire.
+     * The order book gives only the price-triggered orders whose trigger price the bar reaches, in the
+     * order of their arrival, so that the fills are the same as from scanning all working orders.
+     */
+    protected void matchWorkingOrders(SimulationInstrument instrument, OrderBook orders, Candle ohlc) {
+        for (Order order : orders.collect(ohlc.low(), ohlc.high(), currentTime)) {
+            if (!orders.contains(order))
+                continue;
 
             if (order.isCancelled()) {
                 toCancelled(order, ohlc.getTime());
@@ -218,8 +248,7 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
                 // process an order
                 Execution execution = order.getType().tryFill(order, ohlc, this);
                 if (order.isFilled()) {
-                    orders.remove(i--);
-                    orderCount--;
+                    orders.remove(order);
                     if (execution != null) {
                         fireOrderExecution(execution);
                         if (allowSameBarExit) {
@@ -239,10 +268,161 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
                 }
                 continue;
             }
-            orders.remove(i--);
-            orderCount--;
+            orders.remove(order);
+        }
+    }
+
+    /**
+     * Processes the market tick given as primitives, matching the orders of the instrument against the
+     * current quote. A trade tick sets the bid at the trade price and the ask at the trade price plus the
+     * symbol spread, whereas a quote tick sets only the price of its side. The buy orders are then filled
+     * at the ask and the sell orders at the bid, as soon as the quote reaches their trigger price.
+     * <p>
+     * Unlike the candle path, the method does not create a candle for every tick. A flat candle at the
+     * quote price is created only when the tick reaches an order to be matched or closes a position.
+     *
+     * @param when the simulation iterator of the tick series
+     * @param time the tick time
+     * @param price the tick price
+     * @param size the tick size
+     * @param side the quote side, or {@code null} for a trade tick
+     */
+    public void onTick(When when, long time, double price, double size, Tick.Side side) {
+        SimulationInstrument instrument = account.getInstrument(when);
+        if (side == null)
+            instrument.setQuote(price, price + instrument.getSymbol().getSpread(), time);
+        else if (side == Tick.Side.BID)
+            instrument.setBid(price, time);
+        else
+            instrument.setAsk(price, time);
+
+        currentTime = time;
+        List<Order> transmitQueue = instrument.getTransmitQueue();
+        OrderBook orders = instrument.getOrderBook();
+        if (!transmitQueue.isEmpty())
+            onTickAtTheQuote(instrument, transmitQueue, orders, time);
+
+        Position position = instrument.position();
+        if (position != null)
+            checkPositionExitsAtTheQuote(instrument, position, time);
+        if (!orders.isEmpty())
+            matchWorkingOrders(instrument, orders, time);
+
+        if ((position = instrument.position()) != null) {
+            double markPrice = (position.getDirection() == Direction.LONG)? instrument.bid() : instrument.ask();
+            if (markPrice == markPrice)
+                account.updateProfit(instrument, markPrice, time);
         }
-        account.updateProfit(instrument.getSymbol(), ohlc);
+    }
+
+    /**
+     * Gives the flat candle at the quote price of the given order side, or {@code null} if the quote is
+     * not known yet.
+     */
+    private static Candle quoteCandle(SimulationInstrument instrument, Order order, long time) {
+        double quote = order.isBuy()? instrument.ask() : instrument.bid();
+        return (quote == quote)? Candle.of(time, quote) : null;
+    }
+
+    /**
+     * Transmits the orders submitted since the last tick. The orders to be filled immediately, including
+     * the at-the-open and at-the-close orders which have no bar to refer to, are filled at the current
+     * quote, or wait for the first quote of their side. The remaining orders become working orders.
+     */
+    protected void onTickAtTheQuote(SimulationInstrument instrument, List<Order> transmitQueue, OrderBook workingOrders, long time) {
+        int orderCount = transmitQueue.size(), pendingCount = 0;
+        for (int i = 0; i < orderCount; i++) {
+            Order order = transmitQueue.get(i);
+
+            if (order.isCancelled())
+                toCancelled(order, time);
+            else if (order.getExpirationTime() < time)
+                toExpired(order);
+            else if (getOrSetAcceptedTime(order, time) > time)
+                transmitQueue.set(pendingCount++, order);
+            else if (order.getTimeInForce() == TimeInForce.Standard.OPEN
+                    || order.getTimeInForce() == TimeInForce.Standard.CLOSE
+                    || order.getType().isImmediateOrCancelOnly()) {
+                Candle quote = quoteCandle(instrument, order, time);
+                if (quote == null) {
+                    transmitQueue.set(pendingCount++, order);
+                    continue;
+                }
+                SimulatedExecution execution = fillAtTheQuote(order, quote, quote.open());
+                if (execution != null)
+                    fireOrderExecution(execution);
+                else
+                    toRejected(order);
+            } else
+                workingOrders.add(order);
+        }
+        transmitQueue.subList(pendingCount, orderCount).clear();
+    }
+
+    /**
+     * Closes the position if the current quote reaches its exit stop or exit limit.
+     */
+    protected void checkPositionExitsAtTheQuote(SimulationInstrument instrument, Position position, long time) {
+        int type = position.getDirection().tag;
+        double quote = (type > 0)? instrument.bid() : instrument.ask();
+        if (quote != quote)
+            return;
+
+        double sl = position.getExitStop(), tp = position.getExitLimit();
+        if (sl == sl && (type > 0 && quote <= sl || type < 0 && quote >= sl)) {
+            SimulatedExecution execution = closePosition(position, Candle.of(time, quote), quote);
+            execution.setStopLossHit(true);
+            fireOrderExecution(execution);
+        } else if (tp == tp && (type > 0 && quote >= tp || type < 0 && quote <= tp)) {
+            SimulatedExecution execution = closePosition(position, Candle.of(time, quote), allowTakeProfitSlippage? quote : tp);
+            execution.setProfitTargetHit(true);
+            fireOrderExecution(execution);
+        }
+    }
+
+    /**
+     * Processes the working orders of the instrument which the current quote may fill, cancel or expire.
+     */
+    protected void matchWorkingOrders(SimulationInstrument instrument, OrderBook orders, long time) {
+        double bid = instrument.bid(), ask = instrument.ask();
+        Candle bidQuote = null, askQuote = null;
+        for (Order order : orders.collect(ask, ask, bid, bid, time)) {
+            if (!orders.contains(order))
+                continue;
+
+            if (order.isCancelled()) {
+                toCancelled(order, time);
+            } else if (order.getExpirationTime() < time) {
+                toExpired(order);
+            } else {
+                Candle quote = order.isBuy()? askQuote : bidQuote;
+                if (quote == null && (quote = quoteCandle(instrument, order, time)) == null)
+                    continue;
+                if (order.isBuy())
+                    askQuote = quote;
+                else
+                    bidQuote = quote;
+
+                Execution execution = order.getType().tryFill(order, quote, tickFiller);
+                if (order.isFilled()) {
+                    orders.remove(order);
+                    if (execution != null)
+                        fireOrderExecution(execution);
+                }
+                continue;
+            }
+            orders.remove(order);
+        }
+    }
+
+    /** The order filler used on the tick path, with the spread already reflected in the quotes. */
+    private final OrderFiller tickFiller = this::fillAtTheQuote;
+
+    protected SimulatedExecution fillAtTheQuote(Order order, Candle quote, double price) {
+        SimulatedExecution execution = fillAtMarket(order, price, quote, false);
+        if (execution != null)
+            order.fill();
+        return execution;
     }
 
     protected SimulatedExecution closePosition(Position position, Candle ohlc, double price) {
@@ -272,6 +452,10 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
     }
 
     protected SimulatedExecution fillAtMarket(Order order, double price, Candle ohlc) {
+        return fillAtMarket(order, price, ohlc, true);
+    }
+
+    protected SimulatedExecution fillAtMarket(Order order, double price, Candle ohlc, boolean addSpread) {
         if ((price < ohlc.low() || price > ohlc.high()))
             throw new SimulationException(
                     "Non-transactional " + order.getSymbol() + " order price " + price + " at bar " + ohlc);
@@ -279,7 +463,7 @@ public class SimpleMatchingEngine extends OrderStatusUpdater implements OrderBro
         SimulationInstrument instrument = account.getInstrument(order.getSymbol());
         Position position = instrument.position(); //
 
-        if (order.isBuy())
+        if (addSpread && order.isBuy())
             price += instrument.getSymbol().getSpread();
         order.setFillPrice(price);
         double volume = order.getQuantity();
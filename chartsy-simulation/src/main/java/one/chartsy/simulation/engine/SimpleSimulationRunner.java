@@ -7,18 +7,27 @@ package one.chartsy.simulation.engine;
 import one.chartsy.data.ChronologicalIterator;
 import one.chartsy.data.Series;
 import one.chartsy.data.structures.IntMap;
-import one.chartsy.data.structures.PriorityMap;
 import one.chartsy.data.structures.UnmodifiableIntMap;
 import one.chartsy.simulation.SimulationContext;
 import one.chartsy.simulation.SimulationDriver;
 import one.chartsy.simulation.SimulationResult;
 import one.chartsy.simulation.SimulationRunner;
+import one.chartsy.simulation.data.EventMerger;
 import one.chartsy.simulation.data.SimulationData;
 import one.chartsy.time.Chronological;
 import one.chartsy.trade.strategy.ExitState;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class SimpleSimulationRunner implements SimulationRunner {
     private final SimulationContext context;
@@ -32,19 +41,19 @@ public class SimpleSimulationRunner implements SimulationRunner {
         IntMap<Series<?>> seriesMap = SimulationData.seriesMap(datasets);
         SimulationContext context = this.context.withPartitionSeries(UnmodifiableIntMap.of(seriesMap));
         strategy.initSimulation(context);
-        PriorityMap<Chronological, ChronologicalIterator<?>> map = SimulationData.priorityMap(seriesMap);
+        EventMerger events = EventMerger.of(seriesMap);
 
-        if (!map.isEmpty()) {
-            LocalDate currDate = map.peekKey().getDate();
+        if (!events.isEmpty()) {
+            LocalDate currDate = events.peek().peek().getDate();
             strategy.onTradingDayChange(null, currDate);
             long nextDayTime = Chronological.toEpochMicros(currDate.plusDays(1).atStartOfDay());
             long eventTime = 0;
-            while (!map.isEmpty()) {
-                // This is a forehand quote, not yet reflected in ChronologicalIterator
-                Chronological event = map.peekKey();
-
+            while (!events.isEmpty()) {
                 // Obtain When pointer for the Symbol
-                ChronologicalIterator<?> when = map.remove();
+                ChronologicalIterator<?> when = events.peek();
+
+                // This is a forehand quote, not yet reflected in ChronologicalIterator
+                Chronological event = when.peek();
 
                 // e.g. Update Equity for the current bar, before shifting When
                 long et = eventTime;
@@ -62,13 +71,65 @@ public class SimpleSimulationRunner implements SimulationRunner {
                 when.next();
                 // Current bar scripts
                 strategy.onData(when, event);
-                // Obtain next event and put in the queue
-                if (when.hasNext())
-                    map.put(when.peek(), when);
+                // Reposition the When pointer by its next event
+                events.update();
             }
             // Generate the last end-of-day event
             strategy.onTradingDayChange(currDate, null);
         }
         return strategy.postSimulation(ExitState.COMPLETED);
     }
+
+    /**
+     * Runs the simulation partitioned by symbol, with each partition simulated concurrently by its
+     * own strategy instance.
+     *
+     * @see #run(List, Supplier, Function, Executor)
+     */
+    public SimulationResult run(List<? extends Series<?>> datasets, Supplier<? extends SimulationDriver> strategyFactory) {
+        return run(datasets, strategyFactory, Series.PARTITION_BY_SYMBOL, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the simulation split into independent partitions. The datasets are grouped by the given
+     * partition key, and each group is simulated on the given executor by a separate strategy
+     * instance obtained from the factory, having its own matching engine and account. The partition
+     * results are merged into a single result at the end.
+     * <p>
+     * The caller is responsible for ensuring that the partitions are truly independent, i.e. that
+     * the strategy does not share any mutable state across partitions, and that its decisions do not
+     * depend on the account state affected by the other partitions.
+     *
+     * @param datasets the simulation datasets
+     * @param strategyFactory the factory of the strategy instances, called once per partition
+     * @param partitionKey the function giving the partition key of a dataset
+     * @param executor the executor running the partitions
+     * @return the merged simulation result
+     */
+    public SimulationResult run(List<? extends Series<?>> datasets,
+                                Supplier<? extends SimulationDriver> strategyFactory,
+                                Function<? super Series<?>, ?> partitionKey,
+                                Executor executor) {
+        Map<Object, List<Series<?>>> partitions = new LinkedHashMap<>();
+        for (Series<?> dataset : datasets)
+            partitions.computeIfAbsent(partitionKey.apply(dataset), __ -> new ArrayList<>()).add(dataset);
+        if (partitions.size() <= 1)
+            return run(datasets, strategyFactory.get());
+
+        List<CompletableFuture<SimulationResult>> tasks = new ArrayList<>(partitions.size());
+        for (List<Series<?>> partition : partitions.values())
+            tasks.add(CompletableFuture.supplyAsync(() -> run(partition, strategyFactory.get()), executor));
+
+        List<SimulationResult> results = new ArrayList<>(tasks.size());
+        try {
+            for (CompletableFuture<SimulationResult> task : tasks)
+                results.add(task.join());
+        } catch (CompletionException e) {
+            tasks.forEach(task -> task.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+        return SimulationResultMerger.merge(results);
+    }
 }
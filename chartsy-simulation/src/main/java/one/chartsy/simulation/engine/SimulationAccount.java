@@ -49,6 +49,9 @@ public class SimulationAccount implements Account {
         }
     };
 
+    /** The traded instruments indexed by the simulation series ids, i.e. by {@link When#getId()}. */
+    private SimulationInstrument[] instrumentsBySeries = new SimulationInstrument[0];
+
     public SimulationAccount(SimulatorOptions properties) {
         this.properties = properties;
         this.balance = this.initialBalance = properties.initialBalance();
@@ -93,6 +96,32 @@ public class SimulationAccount implements Account {
         return instrument;
     }
 
+    /**
+     * Gives the instrument traded on the series pointed by the given simulation iterator. The instrument
+     * is resolved by the iterator symbol only the first time the series is seen, and later found by the
+     * dense series id alone, without any hashing or locking on the per-bar path.
+     *
+     * @param when the simulation iterator
+     * @return the instrument
+     */
+    public SimulationInstrument getInstrument(When when) {
+        Integer seriesId = when.getId();
+        if (seriesId == null)
+            return getInstrument(when.getSymbol());
+
+        int id = seriesId;
+        SimulationInstrument[] bySeries = instrumentsBySeries;
+        SimulationInstrument instrument;
+        if (id < bySeries.length && (instrument = bySeries[id]) != null)
+            return instrument;
+
+        instrument = getInstrument(when.getSymbol());
+        if (id >= bySeries.length)
+            instrumentsBySeries = bySeries = Arrays.copyOf(bySeries, Math.max(id + 1, bySeries.length * 2));
+        bySeries[id] = instrument;
+        return instrument;
+    }
+
     public SimulationInstrument getInstrument(SymbolIdentifier symbol) {
         SimulationInstrument instrument = instruments.get(symbol);
         if (instrument == null) {
@@ -160,9 +189,17 @@ public class SimulationAccount implements Account {
 
     @Override
     public void updateProfit(SymbolIdentity symbol, Candle ohlc) {
-        Position position = getInstrument(symbol).position();
+        updateProfit(getInstrument(symbol), ohlc);
+    }
+
+    public void updateProfit(SimulationInstrument instrument, Candle ohlc) {
+        updateProfit(instrument, ohlc.close(), ohlc.getTime());
+    }
+
+    public void updateProfit(SimulationInstrument instrument, double price, long time) {
+        Position position = instrument.position();
         if (position != null) {
-            profit += position.updateProfit(ohlc.close(), ohlc.getTime());
+            profit += position.updateProfit(price, time);
 
             if (!positionValueChangeListeners.isEmpty())
                 firePositionValueChanged(this, position);
@@ -184,9 +221,9 @@ public class SimulationAccount implements Account {
     }
 
     /** The list of registered position change listeners. */
-    private final ListenerList<PositionChangeListener> positionChangeListeners = ListenerList.of(PositionChangeListener.class);
+    private final ListenerList<PositionChangeListener> positionChangeListeners = ListenerList.of(PositionChangeListener.class, PositionChangeListener::multicast);
     /** The list of registered position value change listeners. */
-    private final ListenerList<PositionValueChangeListener> positionValueChangeListeners = ListenerList.of(PositionValueChangeListener.class);
+    private final ListenerList<PositionValueChangeListener> positionValueChangeListeners = ListenerList.of(PositionValueChangeListener.class, PositionValueChangeListener::multicast);
 
     @Override
     public void addPositionChangeListener(PositionChangeListener listener) {
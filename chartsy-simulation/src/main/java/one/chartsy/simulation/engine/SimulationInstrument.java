@@ -13,10 +13,13 @@ import java.util.List;
 
 public class SimulationInstrument implements Instrument {
     private final Symbol symbol;
-    private final List<Order> orders = new ArrayList<>();
+    private final OrderBook orderBook = new OrderBook();
     private final List<Order> transmitQueue = new ArrayList<>();
     private Position position;
     private Candle lastCandle;
+    private double bid = Double.NaN;
+    private double ask = Double.NaN;
+    private long lastQuoteTime = Long.MIN_VALUE;
 
 
     public SimulationInstrument(Symbol symbol) {
@@ -30,7 +33,11 @@ public class SimulationInstrument implements Instrument {
 
     @Override
     public List<Order> orders() {
-        return orders;
+        return orderBook.orders();
+    }
+
+    public OrderBook getOrderBook() {
+        return orderBook;
     }
 
     public List<Order> getTransmitQueue() {
@@ -54,14 +61,44 @@ public class SimulationInstrument implements Instrument {
         this.lastCandle = lastCandle;
     }
 
+    /**
+     * Gives the current bid price from the ticks, or {@code NaN} if not known yet.
+     */
+    public double bid() {
+        return bid;
+    }
+
+    /**
+     * Gives the current ask price from the ticks, or {@code NaN} if not known yet.
+     */
+    public double ask() {
+        return ask;
+    }
+
+    public void setBid(double bid, long time) {
+        this.bid = bid;
+        this.lastQuoteTime = time;
+    }
+
+    public void setAsk(double ask, long time) {
+        this.ask = ask;
+        this.lastQuoteTime = time;
+    }
+
+    public void setQuote(double bid, double ask, long time) {
+        this.bid = bid;
+        this.ask = ask;
+        this.lastQuoteTime = time;
+    }
+
     @Override
     public boolean isActive() {
-        return lastCandle != null;
+        return lastCandle != null || lastQuoteTime != Long.MIN_VALUE;
     }
 
     @Override
     public boolean isActiveSince(long lastTradeTime) {
         Candle c = lastCandle;
-        return (c != null && c.getTime() >= lastTradeTime);
+        return (c != null && c.getTime() >= lastTradeTime) || lastQuoteTime >= lastTradeTime;
     }
 }
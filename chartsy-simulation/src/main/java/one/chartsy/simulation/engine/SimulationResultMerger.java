@@ -0,0 +1,153 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.engine;
+
+import one.chartsy.HLC;
+import one.chartsy.data.Dataset;
+import one.chartsy.data.packed.SegmentedHLCDataset;
+import one.chartsy.simulation.SimulationResult;
+import one.chartsy.simulation.metrics.SimulationMetrics;
+import one.chartsy.simulation.platform.StandardReport;
+import one.chartsy.simulation.reporting.EquityInformation;
+import one.chartsy.simulation.reporting.Report;
+import one.chartsy.trade.data.TransactionData;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Combines the results of independently simulated partitions into a single simulation result.
+ * <p>
+ * The partitions are assumed to start with the same initial equity, and the combined equity at any
+ * point in time is the initial equity increased by the profits of all partitions made so far, which
+ * gives the same closing equity path as the partitions traded together within a single account. The
+ * intrabar high and low of the combined curve are only bounds, summing the intrabar excursions of
+ * the partitions as if they all peaked together. The combined equity curve and its summary can be
+ * reconstructed only when all partitions recorded the equity evolution, otherwise they are omitted
+ * from the combined report.
+ *
+ * @author Mariusz Bernacki
+ */
+final class SimulationResultMerger {
+
+    private SimulationResultMerger() { }
+
+    static SimulationResult merge(List<SimulationResult> results) {
+        if (results.isEmpty())
+            throw new IllegalArgumentException("Nothing to merge");
+        if (results.size() == 1)
+            return results.get(0);
+
+        SimulationResult.Builder merged = new SimulationResult.Builder();
+        LocalDateTime startTime = null, endTime = null;
+        SimulationResult.State state = SimulationResult.State.READY;
+        long dataPointCount = 0;
+        double totalProfit = 0.0;
+        int testDays = 0, remainingOrderCount = 0;
+        boolean hasTransactions = false;
+        List<TransactionData> transactions = new ArrayList<>();
+        SimulationMetrics.Summary metrics = null;
+        for (SimulationResult result : results) {
+            if (startTime == null || result.startTime().isBefore(startTime))
+                startTime = result.startTime();
+            if (endTime == null || result.endTime().isAfter(endTime))
+                endTime = result.endTime();
+            if (result.state() != SimulationResult.State.READY)
+                state = result.state();
+            dataPointCount += result.estimatedDataPointCount();
+            totalProfit += result.totalProfit();
+            testDays = Math.max(testDays, result.testDays());
+            remainingOrderCount += result.remainingOrderCount();
+            merged.addAllRemainingOrders(result.remainingOrders());
+            if (!result.transactions().isEmpty()) {
+                hasTransactions = true;
+                transactions.addAll(result.transactions());
+            }
+            if (result.metrics().isPresent())
+                metrics = (metrics == null)? result.metrics().get() : metrics.merge(result.metrics().get());
+        }
+        if (hasTransactions) {
+            transactions.sort(null);
+            merged.transactions(transactions);
+        }
+
+        if (metrics != null)
+            merged.metrics(metrics);
+
+        return merged
+                .startTime(startTime)
+                .endTime(endTime)
+                .testDuration(Duration.between(startTime, endTime))
+                .testDays(testDays)
+                .estimatedDataPointCount(dataPointCount)
+                .totalProfit(totalProfit)
+                .remainingOrderCount(remainingOrderCount)
+                .report(mergeReports(results))
+                .state(state)
+                .build();
+    }
+
+    static Report mergeReports(List<SimulationResult> results) {
+        Report first = results.get(0).report();
+        List<Dataset<HLC>> curves = new ArrayList<>(results.size());
+        double[] startingEquities = new double[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            Report report = results.get(i).report();
+            if (report.equityEvolution().isEmpty() || report.equity().isEmpty())
+                return new StandardReport(first.options(), Optional.empty(), Optional.empty());
+
+            curves.add(report.equityEvolution().get());
+            startingEquities[i] = report.equity().get().startingEquity();
+        }
+
+        double initialEquity = startingEquities[0];
+        EquityInformation.Builder equity = EquityInformation.builder(() -> initialEquity);
+        SegmentedHLCDataset equityEvolution = new SegmentedHLCDataset();
+        mergeEquityCurves(curves, startingEquities, initialEquity, equity, equityEvolution);
+
+        return new StandardReport(first.options(), Optional.of(equity.build()), Optional.of(equityEvolution));
+    }
+
+    private static void mergeEquityCurves(List<Dataset<HLC>> curves, double[] startingEquities, double initialEquity,
+                                          EquityInformation.Builder equity, SegmentedHLCDataset target) {
+        int count = curves.size();
+        // the datasets are in reverse-chronological order, thus iterate from the tail
+        int[] cursors = new int[count];
+        double[] profits = new double[count];
+        for (int i = 0; i < count; i++)
+            cursors[i] = curves.get(i).length() - 1;
+
+        double totalProfit = 0.0;
+        while (true) {
+            long time = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++)
+                if (cursors[i] >= 0)
+                    time = Math.min(time, curves.get(i).get(cursors[i]).time());
+            if (time == Long.MAX_VALUE)
+                break;
+
+            double highExcess = 0.0, lowExcess = 0.0;
+            for (int i = 0; i < count; i++) {
+                if (cursors[i] >= 0) {
+                    HLC point = curves.get(i).get(cursors[i]);
+                    if (point.time() == time) {
+                        double profit = point.close() - startingEquities[i];
+                        highExcess += point.high() - point.close();
+                        lowExcess += point.low() - point.close();
+                        totalProfit += profit - profits[i];
+                        profits[i] = profit;
+                        cursors[i]--;
+                    }
+                }
+            }
+            double close = initialEquity + totalProfit;
+            target.add(time, close + lowExcess);
+            target.add(time, close + highExcess);
+            target.add(time, close);
+            equity.add(time, close);
+        }
+    }
+}
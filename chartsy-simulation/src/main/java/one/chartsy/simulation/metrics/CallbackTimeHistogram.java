@@ -0,0 +1,75 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.metrics;
+
+/**
+ * The histogram of the callback times of a single strategy, with the power-of-two buckets of
+ * nanoseconds. The recording is allocation-free and takes constant time, at the cost of the
+ * percentiles being accurate only to within a factor of two.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class CallbackTimeHistogram {
+    /** The bucket counts, where the bucket {@code i} holds the times in the range {@code [2^i, 2^(i+1))}. */
+    private final long[] buckets = new long[Long.SIZE];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+
+    /**
+     * Records the single callback time.
+     *
+     * @param nanos the callback time in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        buckets[Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos | 1)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos)
+            maxNanos = nanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Gives the upper bound of the given percentile of the recorded times.
+     *
+     * @param percentile the percentile, in the range {@code (0, 100]}
+     * @return the percentile upper bound in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile <= 0.0 || percentile > 100.0)
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        if (count == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(count * percentile / 100.0), seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank)
+                return Math.min(maxNanos, (2L << i) - 1);
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Gives the summary of the recorded times.
+     */
+    public SimulationMetrics.CallbackTimes summarize() {
+        return new SimulationMetrics.CallbackTimes(count, totalNanos, maxNanos,
+                getPercentileNanos(50), getPercentileNanos(99));
+    }
+}
@@ -0,0 +1,107 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.metrics;
+
+import one.chartsy.When;
+import one.chartsy.data.function.TriConsumer;
+import one.chartsy.time.Chronological;
+import one.chartsy.trade.strategy.AbstractTradingAlgorithm;
+import one.chartsy.trade.strategy.HierarchicalTradingAlgorithm;
+import one.chartsy.trade.strategy.TradingAlgorithm;
+import one.chartsy.trade.strategy.TradingAlgorithmContext;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * The hierarchical trading algorithm timing each callback of its sub-strategies into the
+ * {@link SimulationMetrics}. Used in place of the plain {@link HierarchicalTradingAlgorithm} only
+ * by the simulations having the metrics enabled, thus leaving the callback dispatch of the other
+ * simulations untouched.
+ *
+ * @author Mariusz Bernacki
+ */
+public class MeteredTradingAlgorithm extends HierarchicalTradingAlgorithm {
+
+    private final SimulationMetrics metrics;
+    private final Map<TradingAlgorithm, Meter> meters = new IdentityHashMap<>();
+
+
+    public MeteredTradingAlgorithm(TradingAlgorithmContext context, SimulationMetrics metrics) {
+        super(context);
+        this.metrics = metrics;
+    }
+
+    private record Meter(String strategy, CallbackTimeHistogram histogram) { }
+
+    private Meter getMeter(TradingAlgorithm target) {
+        var meter = meters.get(target);
+        if (meter == null) {
+            String strategy = (target instanceof AbstractTradingAlgorithm algorithm)? algorithm.getId() : target.getClass().getSimpleName();
+            meters.put(target, meter = new Meter(strategy, metrics.getCallbackTimes(strategy)));
+        }
+        return meter;
+    }
+
+    private SimulationEvents.StrategyCallback beginCallback() {
+        var event = new SimulationEvents.StrategyCallback();
+        event.begin();
+        return event;
+    }
+
+    private void endCallback(TradingAlgorithm target, SimulationEvents.StrategyCallback event, long startNanos) {
+        var meter = getMeter(target);
+        meter.histogram().record(System.nanoTime() - startNanos);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = meter.strategy();
+            event.commit();
+        }
+    }
+
+    @Override
+    protected void invokeAll(List<TradingAlgorithm> targets, Consumer<? super TradingAlgorithm> method) {
+        for (var target : targets) {
+            var event = beginCallback();
+            long startNanos = System.nanoTime();
+            method.accept(target);
+            endCallback(target, event, startNanos);
+        }
+    }
+
+    @Override
+    protected <P> void invokeAll(List<TradingAlgorithm> targets, BiConsumer<? super TradingAlgorithm, P> method, P arg1) {
+        for (var target : targets) {
+            var event = beginCallback();
+            long startNanos = System.nanoTime();
+            method.accept(target, arg1);
+            endCallback(target, event, startNanos);
+        }
+    }
+
+    @Override
+    protected <P1, P2> void invokeAll(List<TradingAlgorithm> targets, TriConsumer<? super TradingAlgorithm, P1, P2> method, P1 arg1, P2 arg2) {
+        for (var target : targets) {
+            var event = beginCallback();
+            long startNanos = System.nanoTime();
+            method.accept(target, arg1, arg2);
+            endCallback(target, event, startNanos);
+        }
+    }
+
+    @Override
+    public void onData(When when, Chronological next, boolean timeTick) {
+        List<TradingAlgorithm> subStrategies = getAllSubStrategies();
+        for (int i = 0, count = subStrategies.size(); i < count; i++) {
+            var target = subStrategies.get(i);
+            var event = beginCallback();
+            long startNanos = System.nanoTime();
+            target.onData(when, next, timeTick);
+            endCallback(target, event, startNanos);
+        }
+    }
+}
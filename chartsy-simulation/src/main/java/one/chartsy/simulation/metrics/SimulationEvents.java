@@ -0,0 +1,72 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * The JDK Flight Recorder events emitted by the simulations having the metrics enabled. The events
+ * are committed only while a recording with the events enabled is running, e.g. when started with
+ * {@code -XX:StartFlightRecording}, and otherwise cost no more than a disabled-state check.
+ *
+ * @author Mariusz Bernacki
+ */
+final class SimulationEvents {
+
+    private SimulationEvents() { }
+
+    @Name("one.chartsy.simulation.SimulationRun")
+    @Label("Simulation Run")
+    @Category({"Chartsy", "Simulation"})
+    @Description("The complete simulation run with its total counters")
+    @StackTrace(false)
+    static final class SimulationRun extends Event {
+        @Label("Data Events")
+        long dataEvents;
+        @Label("Orders Submitted")
+        long ordersSubmitted;
+        @Label("Orders Filled")
+        long ordersFilled;
+        @Label("Timed Events")
+        long timedEvents;
+    }
+
+    @Name("one.chartsy.simulation.StrategyCallback")
+    @Label("Strategy Callback")
+    @Category({"Chartsy", "Simulation"})
+    @Description("The single invocation of a strategy callback")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static final class StrategyCallback extends Event {
+        @Label("Strategy")
+        String strategy;
+    }
+
+    @Name("one.chartsy.simulation.OrderFill")
+    @Label("Order Fill")
+    @Category({"Chartsy", "Simulation"})
+    @Description("The order execution made by the simulated matching engine")
+    @StackTrace(false)
+    static final class OrderFill extends Event {
+        @Label("Symbol")
+        String symbol;
+        @Label("Side")
+        String side;
+        @Label("Price")
+        double price;
+        @Label("Size")
+        double size;
+    }
+
+    @Name("one.chartsy.simulation.TimedEvents")
+    @Label("Timed Events")
+    @Category({"Chartsy", "Simulation"})
+    @Description("The batch of the scheduled events triggered by the simulation clock")
+    @StackTrace(false)
+    static final class TimedEvents extends Event {
+        @Label("Triggered")
+        int triggered;
+        @Label("Queue Depth")
+        int queueDepth;
+    }
+}
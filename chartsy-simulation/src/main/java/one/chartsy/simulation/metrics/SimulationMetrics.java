@@ -0,0 +1,228 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.metrics;
+
+import one.chartsy.trade.Execution;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The hot-path counters of a single simulation run, enabled per run with
+ * {@link one.chartsy.trade.strategy.SimulatorOptions#isMetricsEnabled()}.
+ * <p>
+ * The simulation components hold a {@code null} reference to the metrics when disabled, thus the
+ * disabled metrics cost a single null-check per call site. When enabled, the counters are updated
+ * in-line with the simulation, and the matching {@link SimulationEvents JFR events} are emitted for
+ * the running flight recordings. The counters are summarized into the
+ * {@link one.chartsy.simulation.SimulationResult#metrics() simulation result} at the end of the run.
+ * <p>
+ * The class is not thread-safe, and is meant to be confined to the simulation thread.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class SimulationMetrics {
+
+    private final long startNanos = System.nanoTime();
+    private final SimulationEvents.SimulationRun runEvent = new SimulationEvents.SimulationRun();
+    private final Map<String, CallbackTimeHistogram> callbackTimes = new LinkedHashMap<>();
+    private long dataEvents;
+    private long ordersSubmitted;
+    private long ordersFilled;
+    private long timedEvents;
+    private int maxTimedEventQueueDepth;
+
+
+    public SimulationMetrics() {
+        runEvent.begin();
+    }
+
+    /**
+     * Counts the data event pushed through the simulation.
+     */
+    public void onDataEvent() {
+        dataEvents++;
+    }
+
+    /**
+     * Counts the order submitted to the matching engine.
+     */
+    public void onOrderSubmitted() {
+        ordersSubmitted++;
+    }
+
+    /**
+     * Counts the order execution made by the matching engine.
+     */
+    public void onOrderFilled(Execution execution) {
+        ordersFilled++;
+
+        var event = new SimulationEvents.OrderFill();
+        if (event.shouldCommit()) {
+            event.symbol = String.valueOf(execution.getSymbol());
+            event.side = String.valueOf(execution.getSide());
+            event.price = execution.getPrice();
+            event.size = execution.getSize();
+            event.commit();
+        }
+    }
+
+    /**
+     * Tracks the depth of the timed event queue after an event was scheduled.
+     */
+    public void onTimedEventQueued(int queueDepth) {
+        if (queueDepth > maxTimedEventQueueDepth)
+            maxTimedEventQueueDepth = queueDepth;
+    }
+
+    /**
+     * Counts the timed events triggered in a single batch.
+     *
+     * @param triggered the number of triggered events
+     * @param queueDepth the number of timed events remaining in the queue
+     */
+    public void onTimedEventsTriggered(int triggered, int queueDepth) {
+        timedEvents += triggered;
+
+        var event = new SimulationEvents.TimedEvents();
+        if (event.shouldCommit()) {
+            event.triggered = triggered;
+            event.queueDepth = queueDepth;
+            event.commit();
+        }
+    }
+
+    /**
+     * Gives the callback time histogram of the given strategy, created on first use.
+     */
+    public CallbackTimeHistogram getCallbackTimes(String strategy) {
+        return callbackTimes.computeIfAbsent(strategy, __ -> new CallbackTimeHistogram());
+    }
+
+    public long getDataEvents() {
+        return dataEvents;
+    }
+
+    public long getOrdersSubmitted() {
+        return ordersSubmitted;
+    }
+
+    public long getOrdersFilled() {
+        return ordersFilled;
+    }
+
+    public long getTimedEvents() {
+        return timedEvents;
+    }
+
+    public int getMaxTimedEventQueueDepth() {
+        return maxTimedEventQueueDepth;
+    }
+
+    /**
+     * Summarizes the counters gathered so far, and completes the simulation run JFR event.
+     */
+    public Summary summarize() {
+        Duration elapsedTime = Duration.ofNanos(System.nanoTime() - startNanos);
+        Map<String, CallbackTimes> strategyCallbackTimes = new TreeMap<>();
+        callbackTimes.forEach((strategy, histogram) -> strategyCallbackTimes.put(strategy, histogram.summarize()));
+
+        runEvent.end();
+        if (runEvent.shouldCommit()) {
+            runEvent.dataEvents = dataEvents;
+            runEvent.ordersSubmitted = ordersSubmitted;
+            runEvent.ordersFilled = ordersFilled;
+            runEvent.timedEvents = timedEvents;
+            runEvent.commit();
+        }
+        return new Summary(elapsedTime, dataEvents, ordersSubmitted, ordersFilled, timedEvents,
+                maxTimedEventQueueDepth, Collections.unmodifiableMap(strategyCallbackTimes));
+    }
+
+    /**
+     * The callback time statistics of a single strategy.
+     *
+     * @param count the number of callbacks
+     * @param totalNanos the total callback time
+     * @param maxNanos the longest callback time
+     * @param p50Nanos the upper bound of the median callback time
+     * @param p99Nanos the upper bound of the 99th percentile of the callback times
+     */
+    public record CallbackTimes(long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+
+        /**
+         * Gives the average callback time in nanoseconds.
+         */
+        public double averageNanos() {
+            return (count == 0)? 0.0 : (double) totalNanos / count;
+        }
+    }
+
+    /**
+     * The summary of the simulation run metrics.
+     *
+     * @param elapsedTime the wall-clock time of the run
+     * @param dataEvents the number of data events pushed through the simulation
+     * @param ordersSubmitted the number of orders submitted to the matching engine
+     * @param ordersFilled the number of order executions made by the matching engine
+     * @param timedEvents the number of triggered timed events
+     * @param maxTimedEventQueueDepth the maximum depth of the timed event queue
+     * @param strategyCallbackTimes the callback time statistics, keyed by the strategy id
+     */
+    public record Summary(
+            Duration elapsedTime,
+            long dataEvents,
+            long ordersSubmitted,
+            long ordersFilled,
+            long timedEvents,
+            int maxTimedEventQueueDepth,
+            Map<String, CallbackTimes> strategyCallbackTimes
+    ) {
+
+        public double dataEventsPerSecond() {
+            return perSecond(dataEvents);
+        }
+
+        public double ordersSubmittedPerSecond() {
+            return perSecond(ordersSubmitted);
+        }
+
+        public double ordersFilledPerSecond() {
+            return perSecond(ordersFilled);
+        }
+
+        private double perSecond(long count) {
+            long nanos = elapsedTime.toNanos();
+            return (nanos == 0)? 0.0 : count * 1e9 / nanos;
+        }
+
+        /**
+         * Combines the summaries of the partitions simulated concurrently. The elapsed time of the
+         * combined summary is the longest of the partitions, and the callback times of the
+         * strategies present in several partitions are combined with the percentiles taken as the
+         * largest of the partitions.
+         *
+         * @param other the other summary
+         * @return the combined summary
+         */
+        public Summary merge(Summary other) {
+            Map<String, CallbackTimes> callbackTimes = new TreeMap<>(strategyCallbackTimes);
+            other.strategyCallbackTimes().forEach((strategy, times) -> callbackTimes.merge(strategy, times,
+                    (a, b) -> new CallbackTimes(a.count() + b.count(), a.totalNanos() + b.totalNanos(),
+                            Math.max(a.maxNanos(), b.maxNanos()), Math.max(a.p50Nanos(), b.p50Nanos()),
+                            Math.max(a.p99Nanos(), b.p99Nanos()))));
+
+            return new Summary(
+                    (elapsedTime.compareTo(other.elapsedTime()) >= 0)? elapsedTime : other.elapsedTime(),
+                    dataEvents + other.dataEvents(),
+                    ordersSubmitted + other.ordersSubmitted(),
+                    ordersFilled + other.ordersFilled(),
+                    timedEvents + other.timedEvents(),
+                    Math.max(maxTimedEventQueueDepth, other.maxTimedEventQueueDepth()),
+                    Collections.unmodifiableMap(callbackTimes));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.optimization;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * A run summary sink retaining only the best {@code n} runs according to the given ordering, which
+ * keeps the memory usage of a parameter sweep bounded.
+ *
+ * @author Mariusz Bernacki
+ */
+public class BestRuns implements Consumer<RunSummary> {
+    private final int capacity;
+    private final Comparator<? super RunSummary> comparator;
+    private final PriorityQueue<RunSummary> worstFirst;
+    private long count;
+
+    /**
+     * Creates the sink retaining the {@code capacity} greatest runs according to the given comparator.
+     */
+    public BestRuns(int capacity, Comparator<? super RunSummary> comparator) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The `capacity` must be positive");
+        this.capacity = capacity;
+        this.comparator = comparator;
+        this.worstFirst = new PriorityQueue<>(capacity + 1, comparator);
+    }
+
+    public static BestRuns byTotalProfit(int capacity) {
+        return new BestRuns(capacity, Comparator.comparingDouble(RunSummary::totalProfit));
+    }
+
+    @Override
+    public synchronized void accept(RunSummary summary) {
+        count++;
+        if (worstFirst.size() < capacity)
+            worstFirst.add(summary);
+        else if (comparator.compare(summary, worstFirst.peek()) > 0) {
+            worstFirst.poll();
+            worstFirst.add(summary);
+        }
+    }
+
+    /**
+     * Gives the number of all runs seen.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Gives the retained runs, best first.
+     */
+    public synchronized List<RunSummary> getBest() {
+        List<RunSummary> list = new ArrayList<>(worstFirst);
+        list.sort(comparator.reversed());
+        return list;
+    }
+}
@@ -0,0 +1,129 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.optimization;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+import java.util.stream.LongStream;
+
+/**
+ * A Cartesian product of discrete strategy parameter values.
+ * <p>
+ * The grid never materializes the combinations. Each combination is identified by its index in the
+ * mixed-radix enumeration of the grid, with the last parameter changing fastest, which allows
+ * iterating or randomly sampling grids with millions of combinations at constant memory.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class ParameterGrid implements Iterable<Parameters> {
+    private final List<String> names;
+    private final List<List<?>> values;
+    private final long size;
+
+    private ParameterGrid(List<String> names, List<List<?>> values) {
+        this.names = List.copyOf(names);
+        this.values = List.copyOf(values);
+        long size = 1;
+        for (List<?> list : values)
+            size = Math.multiplyExact(size, list.size());
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gives the number of parameter combinations in the grid.
+     */
+    public long size() {
+        return size;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Gives the parameter combination at the specified index.
+     *
+     * @param index the combination index, between {@code 0} and {@code size()-1}
+     * @return the parameters
+     */
+    public Parameters get(long index) {
+        Objects.checkIndex(index, size);
+        Map<String, Object> map = new LinkedHashMap<>();
+        Object[] combination = new Object[names.size()];
+        for (int i = names.size() - 1; i >= 0; i--) {
+            List<?> list = values.get(i);
+            combination[i] = list.get((int) (index % list.size()));
+            index /= list.size();
+        }
+        for (int i = 0; i < combination.length; i++)
+            map.put(names.get(i), combination[i]);
+        return Parameters.of(map);
+    }
+
+    @Override
+    public Iterator<Parameters> iterator() {
+        return LongStream.range(0, size).mapToObj(this::get).iterator();
+    }
+
+    /**
+     * Gives a random sample of distinct combinations of the grid.
+     *
+     * @param count the number of combinations to sample, the whole grid is given when greater than {@link #size()}
+     * @param random the random number generator
+     * @return the sampled combinations
+     */
+    public Iterable<Parameters> sample(int count, RandomGenerator random) {
+        if (count >= size)
+            return this;
+
+        Set<Long> indexes = new LinkedHashSet<>();
+        while (indexes.size() < count)
+            indexes.add(random.nextLong(size));
+        return () -> indexes.stream().map(this::get).iterator();
+    }
+
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<List<?>> values = new ArrayList<>();
+
+        public Builder add(String name, List<?> values) {
+            if (values.isEmpty())
+                throw new IllegalArgumentException("Parameter `" + name + "` has no values");
+            if (names.contains(name))
+                throw new IllegalArgumentException("Parameter `" + name + "` already defined");
+            this.names.add(name);
+            this.values.add(List.copyOf(values));
+            return this;
+        }
+
+        public Builder add(String name, Object... values) {
+            return add(name, Arrays.asList(values));
+        }
+
+        public Builder range(String name, int from, int to, int step) {
+            if (step <= 0)
+                throw new IllegalArgumentException("The `step` must be positive");
+            List<Integer> list = new ArrayList<>();
+            for (int value = from; value <= to; value += step)
+                list.add(value);
+            return add(name, list);
+        }
+
+        public Builder range(String name, double from, double to, double step) {
+            if (step <= 0.0)
+                throw new IllegalArgumentException("The `step` must be positive");
+            List<Double> list = new ArrayList<>();
+            for (int i = 0; from + i*step <= to + step*1e-9; i++)
+                list.add(from + i*step);
+            return add(name, list);
+        }
+
+        public ParameterGrid build() {
+            return new ParameterGrid(names, values);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.optimization;
+
+import one.chartsy.data.Series;
+import one.chartsy.simulation.BacktestConfiguration;
+import one.chartsy.simulation.ImmutableBacktestConfiguration;
+import one.chartsy.simulation.ImmutableSimulationContext;
+import one.chartsy.simulation.SimulationContext;
+import one.chartsy.simulation.SimulationDriver;
+import one.chartsy.simulation.SimulationException;
+import one.chartsy.simulation.SimulationResult;
+import one.chartsy.simulation.SimulationRunner;
+import one.chartsy.simulation.engine.SimpleSimulationRunner;
+import one.chartsy.trade.strategy.ImmutableStrategyConfiguration;
+import one.chartsy.trade.strategy.StrategyConfiguration;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a strategy repeatedly over the same datasets, once for each given parameter combination.
+ * <p>
+ * The runs are executed concurrently on a work-stealing pool, and all of them share the same
+ * read-only {@code Series} instances. The full {@link SimulationResult} of each run is reduced to a
+ * compact {@link RunSummary} as soon as the run completes and handed to the summary sink, so the
+ * memory footprint of a sweep does not depend on the number of runs. The number of runs submitted
+ * ahead of the completed ones is bounded, so that lazily generated parameter sequences of any size
+ * are never materialized.
+ * <p>
+ * The parameters of each run are also available to the strategy through the
+ * {@link StrategyConfiguration#inputParameters()} of its simulation context.
+ *
+ * @author Mariusz Bernacki
+ */
+public class ParameterSweep {
+    private final SimulationContext context;
+    private final ForkJoinPool pool;
+    private final int maxPendingRuns;
+    private volatile boolean cancelled;
+
+    public ParameterSweep(SimulationContext context) {
+        this(context, ForkJoinPool.commonPool());
+    }
+
+    public ParameterSweep(SimulationContext context, ForkJoinPool pool) {
+        this(context, pool, 2 * pool.getParallelism());
+    }
+
+    public ParameterSweep(SimulationContext context, ForkJoinPool pool, int maxPendingRuns) {
+        if (maxPendingRuns <= 0)
+            throw new IllegalArgumentException("The `maxPendingRuns` must be positive");
+        this.context = context;
+        this.pool = pool;
+        this.maxPendingRuns = maxPendingRuns;
+    }
+
+    /**
+     * Performs the parameter sweep.
+     *
+     * @param datasets the datasets shared by all runs
+     * @param parameters the parameter combinations to run, e.g. a {@link ParameterGrid} or its sample
+     * @param strategyFactory the factory creating a fresh strategy driver for the given parameters
+     * @param sink the consumer of the run summaries, called sequentially in the order of run completion
+     * @return the number of completed runs
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     * @throws SimulationException if any of the runs failed
+     */
+    public long run(List<? extends Series<?>> datasets,
+                    Iterable<Parameters> parameters,
+                    Function<? super Parameters, ? extends SimulationDriver> strategyFactory,
+                    Consumer<? super RunSummary> sink) throws InterruptedException {
+        List<? extends Series<?>> sharedDatasets = List.copyOf(datasets);
+        Semaphore pending = new Semaphore(maxPendingRuns);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Object sinkLock = new Object();
+
+        AtomicLong completedCount = new AtomicLong();
+        long runCount = 0;
+        try {
+            for (Parameters params : parameters) {
+                pending.acquire();
+                if (cancelled || failure.get() != null) {
+                    pending.release();
+                    break;
+                }
+                long runIndex = runCount;
+                try {
+                    pool.execute(() -> {
+                        try {
+                            if (cancelled || failure.get() != null)
+                                return;
+                            SimulationResult result = createRunner(params).run(sharedDatasets, strategyFactory.apply(params));
+                            RunSummary summary = RunSummary.of(runIndex, params, result);
+                            synchronized (sinkLock) {
+                                sink.accept(summary);
+                            }
+                            completedCount.incrementAndGet();
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            pending.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    pending.release();
+                    failure.compareAndSet(null, e);
+                    break;
+                }
+                runCount++;
+            }
+        } finally {
+            // wait for all runs in flight
+            pending.acquireUninterruptibly(maxPendingRuns);
+            pending.release(maxPendingRuns);
+        }
+
+        Throwable e = failure.get();
+        if (e != null)
+            throw new SimulationException("Parameter sweep failed", e);
+        return completedCount.get();
+    }
+
+    /**
+     * Stops the sweep. The runs already started are allowed to complete. A sweep cancelled before
+     * it is run starts no runs at all, and a cancelled sweep stays cancelled.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    protected SimulationRunner createRunner(Parameters params) {
+        return new SimpleSimulationRunner(withInputParameters(context, params));
+    }
+
+    protected static SimulationContext withInputParameters(SimulationContext context, Parameters params) {
+        StrategyConfiguration conf = context.configuration();
+        StrategyConfiguration newConf = (conf instanceof BacktestConfiguration backtestConf)
+                ? ImmutableBacktestConfiguration.copyOf(backtestConf).withInputParameters(params.asMap())
+                : ImmutableStrategyConfiguration.copyOf(conf).withInputParameters(params.asMap());
+
+        return ImmutableSimulationContext.copyOf(context).withConfiguration(newConf);
+    }
+}
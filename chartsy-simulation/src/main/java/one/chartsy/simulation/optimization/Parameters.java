@@ -0,0 +1,63 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.optimization;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of named strategy input parameter values used by a single optimization run.
+ *
+ * @author Mariusz Bernacki
+ */
+public final class Parameters {
+    private final Map<String, Object> values;
+
+    private Parameters(Map<String, Object> values) {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    public static Parameters of(Map<String, ?> values) {
+        return new Parameters(new LinkedHashMap<>(values));
+    }
+
+    public Map<String, Object> asMap() {
+        return values;
+    }
+
+    public Object get(String name) {
+        Object value = values.get(name);
+        if (value == null && !values.containsKey(name))
+            throw new NoSuchElementException("Parameter `" + name + "` not found");
+        return value;
+    }
+
+    public int getInt(String name) {
+        return ((Number) get(name)).intValue();
+    }
+
+    public long getLong(String name) {
+        return ((Number) get(name)).longValue();
+    }
+
+    public double getDouble(String name) {
+        return ((Number) get(name)).doubleValue();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return (obj instanceof Parameters that) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
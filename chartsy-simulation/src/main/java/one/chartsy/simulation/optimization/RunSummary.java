@@ -0,0 +1,42 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.optimization;
+
+import one.chartsy.simulation.SimulationResult;
+import one.chartsy.simulation.reporting.EquityInformation;
+
+import java.time.Duration;
+
+/**
+ * A compact summary of a single optimization run, retained instead of the full simulation result.
+ *
+ * @param runIndex the sequential number of the run within the sweep
+ * @param parameters the parameters used by the run
+ * @param totalProfit the total profit of the run
+ * @param testDays the number of simulated trading days
+ * @param remainingOrderCount the number of orders left pending at the end of the run
+ * @param testDuration the wall-clock duration of the run
+ * @param equity the equity summary, or {@code null} if equity reporting was disabled
+ * @author Mariusz Bernacki
+ */
+public record RunSummary(
+        long runIndex,
+        Parameters parameters,
+        double totalProfit,
+        int testDays,
+        int remainingOrderCount,
+        Duration testDuration,
+        EquityInformation equity
+) {
+
+    public static RunSummary of(long runIndex, Parameters parameters, SimulationResult result) {
+        return new RunSummary(
+                runIndex,
+                parameters,
+                result.totalProfit(),
+                result.testDays(),
+                result.remainingOrderCount(),
+                result.testDuration(),
+                result.report().equity().orElse(null));
+    }
+}
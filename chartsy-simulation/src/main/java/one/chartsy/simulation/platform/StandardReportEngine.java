@@ -4,7 +4,7 @@ package one.chartsy.simulation.platform;
 
 import one.chartsy.HLC;
 import one.chartsy.data.Dataset;
-import one.chartsy.data.packed.ByteBufferMutableHLCDataset;
+import one.chartsy.data.packed.SegmentedHLCDataset;
 import one.chartsy.simulation.reporting.AbstractReportEngine;
 import one.chartsy.simulation.reporting.EquityInformation;
 import one.chartsy.simulation.reporting.Report;
@@ -21,7 +21,7 @@ public class StandardReportEngine extends AbstractReportEngine {
     private final Handler handler;
     protected volatile Report lastReport;
     protected EquityInformation.Builder equity;
-    protected ByteBufferMutableHLCDataset equityEvolution;
+    protected SegmentedHLCDataset equityEvolution;
 
 
     public StandardReportEngine(ReportOptions options, Account account) {
@@ -47,13 +47,22 @@ public class StandardReportEngine extends AbstractReportEngine {
             account.addPositionValueChangeListener(equity = EquityInformation.builder(account));
 
         if (enabledOpts.contains(ReportOptions.EQUITY_CHART)) {
-            equityEvolution = new ByteBufferMutableHLCDataset();
+            equityEvolution = createEquityEvolution();
             account.addPositionValueChangeListener((account, position) -> {
                 equityEvolution.add(position.getMarketTime(), account.getEquity());
             });
         }
     }
 
+    /**
+     * Creates the dataset recording the equity curve. The subclasses can override the method to
+     * keep the long curves off-heap or spill them to a temporary file, e.g. with the
+     * {@link SegmentedHLCDataset.Storage#MAPPED} storage.
+     */
+    protected SegmentedHLCDataset createEquityEvolution() {
+        return new SegmentedHLCDataset();
+    }
+
     protected void uninstallListeners() {
         account.removePositionValueChangeListener(handler);
     }
@@ -82,14 +91,14 @@ public class StandardReportEngine extends AbstractReportEngine {
 
     private class Handler implements PositionValueChangeListener {
         private EquityInformation.Builder equitySummary;
-        private ByteBufferMutableHLCDataset equityEvolution;
+        private SegmentedHLCDataset equityEvolution;
 
         private Handler(ReportOptions options, BalanceState initial) {
             var enabledOpts = options.getEnabled();
             if (enabledOpts.contains(ReportOptions.EQUITY))
                 equitySummary = EquityInformation.builder(initial);
             if (enabledOpts.contains(ReportOptions.EQUITY_CHART))
-                equityEvolution = new ByteBufferMutableHLCDataset();
+                equityEvolution = createEquityEvolution();
         }
 
         @Override
@@ -11,6 +11,7 @@ import one.chartsy.data.CandleSeries;
 import one.chartsy.data.Series;
 import one.chartsy.simulation.engine.SimpleSimulationRunner;
 import one.chartsy.trade.strategy.ExitState;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mockito;
@@ -19,6 +20,7 @@ import org.openide.util.Lookup;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
 import static one.chartsy.time.Chronological.toEpochMicros;
@@ -59,7 +61,7 @@ class SimulationRunnerTest {
         var order = inOrder(simDriver);
         order.verify(simDriver).initSimulation(any());
         order.verify(simDriver).onTradingDayChange(null, dataPointDate);
-        order.verify(simDriver).onData(any(), same(dataPoint));
+        order.verify(simDriver).onData(any(), eq(dataPoint));
         order.verify(simDriver).onTradingDayChange(dataPointDate, null);
         order.verify(simDriver).postSimulation(ExitState.COMPLETED);
         Mockito.verifyNoMoreInteractions(simDriver);
@@ -87,6 +89,30 @@ class SimulationRunnerTest {
         assertNotNull(result, "SimulationResult");
     }
 
+    @Test
+    void run_partitioned_simulates_each_symbol_with_own_strategy_instance() {
+        List<Series<Candle>> datasets = List.of(
+                CandleSeries.of(SymbolResource.of("A", TimeFrame.Period.DAILY), List.of(candle())),
+                CandleSeries.of(SymbolResource.of("B", TimeFrame.Period.DAILY), List.of(candle())),
+                CandleSeries.of(SymbolResource.of("C", TimeFrame.Period.DAILY), List.of(candle())));
+        List<SimulationDriver> drivers = new CopyOnWriteArrayList<>();
+        SimpleSimulationRunner runner = new SimpleSimulationRunner(Lookup.getDefault().lookup(SimulationContext.class));
+
+        SimulationResult result = runner.run(datasets, () -> {
+            SimulationDriver driver = Mockito.spy(SimulationDriver.class);
+            drivers.add(driver);
+            return driver;
+        });
+
+        assertNotNull(result, "SimulationResult");
+        assertEquals(3, drivers.size(), "strategy instances");
+        for (SimulationDriver driver : drivers) {
+            verify(driver).initSimulation(
+                    argThat(context -> context.partitionSeries().size() == 1));
+            verify(driver).postSimulation(ExitState.COMPLETED);
+        }
+    }
+
     static Candle candle() {
         return Candle.of(toEpochMicros(LocalDateTime.of(2021, 12, 2, 0, 0)), 1.0);
     }
@@ -0,0 +1,158 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.engine;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolIdentity;
+import one.chartsy.simulation.SimulationResult;
+import one.chartsy.time.Chronological;
+import one.chartsy.trade.*;
+import one.chartsy.trade.strategy.SimulatorOptions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static one.chartsy.simulation.engine.SimpleMatchingEngineTest.CONTEXT;
+import static one.chartsy.simulation.engine.SimpleMatchingEngineTest.WHEN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookTest {
+    static final SymbolIdentity SYMBOL = SymbolIdentity.of("TEST");
+    static final LocalDateTime START = LocalDateTime.of(2022, 1, 1, 0, 0);
+
+    static class Updater extends OrderStatusUpdater {
+        @Override
+        protected void fireOrderStatusChanged(Order order) { }
+
+        void submit(Order order, int orderId, long time) {
+            toSubmitted(order, orderId, time);
+        }
+
+        void cancel(Order order, long time) {
+            toCancelled(order, time);
+        }
+
+        void expire(Order order) {
+            toExpired(order);
+        }
+    }
+
+    /** The order type not indexed by price, filled at the close of an up bar. */
+    static final OrderType FILL_ON_UP_BAR = (order, ohlc, filler) ->
+            (ohlc.close() > ohlc.open())? filler.fillOrder(order, ohlc, ohlc.close()) : null;
+
+    @Test
+    void collect_gives_only_orders_triggered_within_bar_range() {
+        var updater = new Updater();
+        var book = new OrderBook();
+        var buyLimit = new Order(SYMBOL, OrderType.limit(99.0), Order.Side.BUY, 1);
+        var sellLimit = new Order(SYMBOL, OrderType.limit(105.0), Order.Side.SELL_SHORT, 1);
+        var buyStop = new Order(SYMBOL, OrderType.stop(101.0), Order.Side.BUY, 1);
+        var sellStop = new Order(SYMBOL, OrderType.stop(95.0), Order.Side.SELL, 1);
+        var other = new Order(SYMBOL, FILL_ON_UP_BAR, Order.Side.BUY, 1);
+        for (Order order : List.of(sellStop, buyLimit, other, sellLimit, buyStop)) {
+            updater.submit(order, 1, 0L);
+            book.add(order);
+        }
+
+        assertEquals(List.of(sellStop, buyLimit, other, sellLimit, buyStop), book.orders());
+        assertEquals(List.of(buyLimit, other, buyStop), book.collect(98.0, 102.0, 1L));
+        assertEquals(List.of(other), book.collect(99.5, 100.5, 1L));
+
+        updater.cancel(sellLimit, 1L);
+        assertEquals(List.of(other, sellLimit), book.collect(99.5, 100.5, 2L));
+        assertTrue(book.remove(sellLimit));
+        assertFalse(book.remove(sellLimit));
+        assertEquals(4, book.size());
+    }
+
+    @Test
+    void engine_fills_same_as_linear_scan_of_working_orders() {
+        var options = SimulatorOptions.builder().build();
+        for (long seed = 1; seed <= 20; seed++) {
+            var expected = simulate(seed, new LinearScanMatchingEngine(options, new SimulationResult.Builder()));
+            var actual = simulate(seed, new SimpleMatchingEngine(options, new SimulationResult.Builder()));
+            assertEquals(expected, actual, "seed " + seed);
+        }
+    }
+
+    /**
+     * The matching engine visiting all working orders of the instrument on every bar, in the order they
+     * were added, as it did before the working orders were indexed by the {@code OrderBook}.
+     */
+    static class LinearScanMatchingEngine extends SimpleMatchingEngine {
+        LinearScanMatchingEngine(SimulatorOptions options, SimulationResult.Builder result) {
+            super(options, result);
+        }
+
+        @Override
+        protected void matchWorkingOrders(SimulationInstrument instrument, OrderBook orders, Candle ohlc) {
+            for (Order order : orders.orders()) {
+                if (order.isCancelled()) {
+                    toCancelled(order, ohlc.getTime());
+                } else if (order.getExpirationTime() < currentTime) {
+                    toExpired(order);
+                } else {
+                    Execution execution = order.getType().tryFill(order, ohlc, this);
+                    if (order.isFilled()) {
+                        orders.remove(order);
+                        if (execution != null)
+                            fireOrderExecution(execution);
+                    }
+                    continue;
+                }
+                orders.remove(order);
+            }
+        }
+    }
+
+    /**
+     * Submits randomly laddered market, limit, stop and other orders to the given engine, cancels some
+     * of them and feeds the engine with random bars through {@link SimpleMatchingEngine#onData}. Gives
+     * the log of executions and order status changes.
+     */
+    static List<String> simulate(long seed, SimpleMatchingEngine engine) {
+        var random = new Random(seed);
+        var updater = new Updater();
+        var orders = new ArrayList<Order>();
+        var log = new ArrayList<String>();
+        engine.addExecutionListener(execution -> log.add(execution.getTime() + ": fill #"
+                + execution.getOrder().getId() + " " + execution.getSize() + " @ " + execution.getPrice()));
+        engine.addOrderStatusListener(e -> log.add(e.getSource().getState() + " #" + e.getSource().getId()));
+
+        double price = 100.0;
+        for (int bar = 1; bar <= 1_000; bar++) {
+            long time = Chronological.toEpochMicros(START.plusMinutes(bar));
+            for (int n = random.nextInt(6); n > 0; n--) {
+                var side = random.nextBoolean()? Order.Side.BUY : Order.Side.SELL_SHORT;
+                double triggerPrice = Math.rint((price + random.nextGaussian() * 5.0) * 4.0) / 4.0;
+                OrderType type = switch (random.nextInt(20)) {
+                    case 0 -> OrderType.MARKET;
+                    case 1, 2 -> FILL_ON_UP_BAR;
+                    case 3, 4, 5, 6, 7, 8, 9, 10 -> OrderType.stop(triggerPrice);
+                    default -> OrderType.limit(triggerPrice);
+                };
+                var order = new Order(SYMBOL, type, side, 1);
+                if (random.nextInt(4) == 0)
+                    order.setExpirationDateTime(START.plusMinutes(bar + random.nextInt(20)));
+                orders.add(engine.submitOrder(CONTEXT, order));
+            }
+            if (!orders.isEmpty() && random.nextInt(3) == 0) {
+                var order = orders.get(random.nextInt(orders.size()));
+                if (!order.getState().isDone())
+                    updater.cancel(order, time);
+            }
+
+            double open = price + random.nextGaussian();
+            double close = open + random.nextGaussian() * 2.0;
+            double high = Math.max(open, close) + Math.abs(random.nextGaussian());
+            double low = Math.min(open, close) - Math.abs(random.nextGaussian());
+            engine.onData(WHEN, Candle.of(time, open, high, low, close), true);
+            price = close;
+        }
+        var account = (SimulationAccount) engine.getAccount();
+        log.add("remaining: " + account.getInstrument(SYMBOL).getOrderBook().orders().stream().map(Order::getId).toList());
+        return log;
+    }
+}
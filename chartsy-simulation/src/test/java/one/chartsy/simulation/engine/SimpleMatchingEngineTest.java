@@ -0,0 +1,95 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.engine;
+
+import one.chartsy.*;
+import one.chartsy.data.market.Tick;
+import one.chartsy.simulation.SimulationResult;
+import one.chartsy.time.Chronological;
+import one.chartsy.trade.*;
+import one.chartsy.trade.strategy.SimulatorOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleMatchingEngineTest {
+    static final SymbolIdentity SYMBOL = SymbolIdentity.of("TEST");
+    static final OrderContext CONTEXT = () -> "test";
+    static final When WHEN = new When() {
+        @Override
+        public SymbolResource<?> getResource() {
+            return SymbolResource.of(SYMBOL, TimeFrame.TICKS, Tick.class);
+        }
+
+        @Override
+        public Integer getId() {
+            return 0;
+        }
+
+        @Override
+        public int index() {
+            return 0;
+        }
+
+        @Override
+        public Chronological current() {
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return false;
+        }
+    };
+
+    static SimpleMatchingEngine tickMatchingEngine(List<Execution> executions) {
+        var options = SimulatorOptions.builder().isTickMatchingEnabled(true).build();
+        var engine = new SimpleMatchingEngine(options, new SimulationResult.Builder());
+        engine.addExecutionListener(executions::add);
+        return engine;
+    }
+
+    @Test
+    void onTick_fills_buy_orders_at_ask_and_sell_orders_at_bid() {
+        List<Execution> executions = new ArrayList<>();
+        var engine = tickMatchingEngine(executions);
+
+        engine.submitOrder(CONTEXT, new Order(SYMBOL, OrderType.limit(99.5), Order.Side.BUY, 1));
+        engine.onTick(WHEN, 1L, 100.0, 1, Tick.Side.BID);
+        engine.onTick(WHEN, 2L, 100.2, 1, Tick.Side.ASK);
+        engine.onTick(WHEN, 3L, 99.0, 1, Tick.Side.BID);
+        assertEquals(List.of(), executions, "bid below buy limit");
+
+        engine.onTick(WHEN, 4L, 99.4, 1, Tick.Side.ASK);
+        assertEquals(1, executions.size());
+        assertEquals(99.4, executions.get(0).getPrice());
+        assertEquals(Direction.LONG, engine.getAccount().getPosition(SYMBOL).getDirection());
+
+        engine.submitOrder(CONTEXT, new Order(SYMBOL, OrderType.stop(98.5), Order.Side.SELL, 1));
+        engine.onTick(WHEN, 5L, 98.4, 1, Tick.Side.ASK);
+        assertEquals(1, executions.size(), "ask below sell stop");
+
+        engine.onTick(WHEN, 6L, 98.3, 1, Tick.Side.BID);
+        assertEquals(2, executions.size());
+        assertEquals(98.3, executions.get(1).getPrice());
+        assertNull(engine.getAccount().getPosition(SYMBOL));
+    }
+
+    @Test
+    void onData_matches_orders_on_ticks_only_when_tick_matching_enabled() {
+        List<Execution> executions = new ArrayList<>();
+        var engine = tickMatchingEngine(executions);
+
+        engine.submitOrder(CONTEXT, new Order(SYMBOL, OrderType.MARKET, Order.Side.BUY, 1));
+        engine.onData(WHEN, Candle.of(10L, 100.0, 101.0, 99.0, 100.5), true);
+        assertEquals(List.of(), executions);
+
+        engine.onData(WHEN, Tick.of(11L, 100.25, 1), true);
+        assertEquals(1, executions.size());
+        assertEquals(100.25, executions.get(0).getPrice());
+        assertEquals(11L, executions.get(0).getTime());
+    }
+}
@@ -0,0 +1,68 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.engine;
+
+import one.chartsy.*;
+import one.chartsy.data.market.Tick;
+import one.chartsy.time.Chronological;
+import one.chartsy.trade.strategy.SimulatorOptions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationAccountTest {
+    static final SymbolIdentity SYMBOL = SymbolIdentity.of("TEST");
+
+    static When when(Integer seriesId, SymbolResource<?> resource) {
+        return new When() {
+            @Override
+            public SymbolResource<?> getResource() {
+                return resource;
+            }
+
+            @Override
+            public Integer getId() {
+                return seriesId;
+            }
+
+            @Override
+            public int index() {
+                return 0;
+            }
+
+            @Override
+            public Chronological current() {
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return false;
+            }
+        };
+    }
+
+    @Test
+    void getInstrument_gives_same_instrument_for_all_series_of_symbol() {
+        var account = new SimulationAccount(SimulatorOptions.builder().build());
+        var candles = when(3, SymbolResource.of(SYMBOL, TimeFrame.Period.DAILY));
+        var ticks = when(17, SymbolResource.of(SYMBOL, TimeFrame.TICKS, Tick.class));
+        var other = when(5, SymbolResource.of("OTHER", TimeFrame.Period.DAILY));
+
+        SimulationInstrument instrument = account.getInstrument(candles);
+        assertSame(instrument, account.getInstrument(ticks));
+        assertSame(instrument, account.getInstrument(candles), "cached by series id");
+        assertSame(instrument, account.getInstrument(SYMBOL));
+        assertNotSame(instrument, account.getInstrument(other));
+    }
+
+    @Test
+    void getInstrument_falls_back_to_symbol_lookup_without_series_id() {
+        var account = new SimulationAccount(SimulatorOptions.builder().build());
+        var unnumbered = when(null, SymbolResource.of(SYMBOL, TimeFrame.Period.DAILY));
+
+        SimulationInstrument instrument = account.getInstrument(unnumbered);
+        assertSame(account.getInstrument(SYMBOL), instrument);
+        assertSame(instrument, account.getInstrument(when(0, SymbolResource.of(SYMBOL, TimeFrame.TICKS, Tick.class))));
+    }
+}
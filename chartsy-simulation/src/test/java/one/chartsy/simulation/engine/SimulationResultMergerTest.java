@@ -0,0 +1,145 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.engine;
+
+import one.chartsy.HLC;
+import one.chartsy.SymbolIdentity;
+import one.chartsy.data.Dataset;
+import one.chartsy.data.packed.SegmentedHLCDataset;
+import one.chartsy.simulation.SimulationResult;
+import one.chartsy.simulation.metrics.SimulationMetrics;
+import one.chartsy.simulation.platform.StandardReport;
+import one.chartsy.simulation.reporting.EquityInformation;
+import one.chartsy.trade.Direction;
+import one.chartsy.trade.Order;
+import one.chartsy.trade.OrderType;
+import one.chartsy.trade.data.Position;
+import one.chartsy.trade.data.TransactionData;
+import one.chartsy.trade.strategy.ReportOptions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static one.chartsy.time.Chronological.toEpochMicros;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationResultMergerTest {
+    static final SymbolIdentity SYMBOL = SymbolIdentity.of("TEST");
+    static final double INITIAL_EQUITY = 10_000.0;
+    static final LocalDateTime DAY_1 = LocalDateTime.of(2022, 1, 3, 0, 0);
+    static final LocalDateTime DAY_2 = DAY_1.plusDays(1);
+    static final LocalDateTime DAY_3 = DAY_1.plusDays(2);
+
+    static TransactionData transaction(long id, LocalDateTime exitTime) {
+        var order = new Order(SYMBOL, OrderType.MARKET, Order.Side.BUY);
+        var position = new Position((int) id, SYMBOL, Direction.LONG, 1.0, 1.0, order, 0.0, toEpochMicros(DAY_1));
+        return new TransactionData(id, position, 1.0, toEpochMicros(exitTime), 0.0);
+    }
+
+    /**
+     * Gives the equity curve with a single point per time slot, each given as {@code time} followed
+     * by the equity values seen within the slot, the last being the close.
+     */
+    static SegmentedHLCDataset equityCurve(Object... timesAndValues) {
+        var curve = new SegmentedHLCDataset();
+        long time = 0;
+        for (Object item : timesAndValues) {
+            if (item instanceof LocalDateTime dateTime)
+                time = toEpochMicros(dateTime);
+            else
+                curve.add(time, (Double) item);
+        }
+        return curve;
+    }
+
+    static SimulationResult result(LocalDateTime startTime, LocalDateTime endTime, double totalProfit,
+                                   List<TransactionData> transactions, int remainingOrderCount,
+                                   SimulationMetrics.Summary metrics, SegmentedHLCDataset equityCurve) {
+        var equity = EquityInformation.builder(() -> INITIAL_EQUITY);
+        for (int i = equityCurve.length() - 1; i >= 0; i--)
+            equity.add(equityCurve.getTimeAt(i), equityCurve.getCloseAt(i));
+
+        var order = new Order(SYMBOL, OrderType.MARKET, Order.Side.SELL);
+        List<Order> remainingOrders = Collections.nCopies(remainingOrderCount, order);
+        var report = new StandardReport(new ReportOptions.Builder().build(), Optional.of(equity.build()), Optional.of(equityCurve));
+        return new SimulationResult.Builder()
+                .startTime(startTime)
+                .endTime(endTime)
+                .testDuration(Duration.between(startTime, endTime))
+                .testDays(2)
+                .estimatedDataPointCount(equityCurve.length())
+                .totalProfit(totalProfit)
+                .addAllRemainingOrders(remainingOrders)
+                .remainingOrderCount(remainingOrderCount)
+                .transactions(transactions)
+                .metrics(metrics)
+                .report(report)
+                .state(SimulationResult.State.READY)
+                .build();
+    }
+
+    static void assertPoint(LocalDateTime time, double high, double low, double close, HLC point) {
+        assertEquals(toEpochMicros(time), point.time(), "time");
+        assertEquals(high, point.high(), 1e-9, "high at " + time);
+        assertEquals(low, point.low(), 1e-9, "low at " + time);
+        assertEquals(close, point.close(), 1e-9, "close at " + time);
+    }
+
+    final SimulationMetrics.Summary metricsA = new SimulationMetrics.Summary(Duration.ofSeconds(2), 100, 10, 5, 0, 2,
+            Map.of("A", new SimulationMetrics.CallbackTimes(100, 1_000, 50, 15, 31)));
+    final SimulationMetrics.Summary metricsB = new SimulationMetrics.Summary(Duration.ofSeconds(1), 300, 20, 15, 1, 1,
+            Map.of("B", new SimulationMetrics.CallbackTimes(300, 3_000, 20, 7, 15)));
+
+    final SimulationResult partitionA = result(DAY_1, DAY_3, 50.0,
+            List.of(transaction(1, DAY_1), transaction(3, DAY_3)), 1, metricsA,
+            equityCurve(DAY_1, INITIAL_EQUITY, 10_020.0, 9_990.0, 10_010.0, DAY_3, 10_050.0));
+    final SimulationResult partitionB = result(DAY_1, DAY_2, 30.0,
+            List.of(transaction(2, DAY_2)), 2, metricsB,
+            equityCurve(DAY_1, INITIAL_EQUITY, 10_005.0, 9_995.0, INITIAL_EQUITY, DAY_2, 10_030.0));
+
+    @Test
+    void merge_combines_results_of_partitions() {
+        SimulationResult merged = SimulationResultMerger.merge(List.of(partitionA, partitionB));
+
+        assertEquals(80.0, merged.totalProfit(), 1e-9);
+        assertEquals(DAY_1, merged.startTime());
+        assertEquals(DAY_3, merged.endTime());
+        assertEquals(List.of(1L, 2L, 3L), merged.transactions().stream().map(TransactionData::getId).toList());
+        assertEquals(3, merged.remainingOrderCount());
+        assertEquals(3, merged.remainingOrders().size());
+        assertEquals(Optional.of(metricsA.merge(metricsB)), merged.metrics());
+    }
+
+    @Test
+    void merge_sums_equity_curves_of_partitions() {
+        SimulationResult merged = SimulationResultMerger.merge(List.of(partitionA, partitionB));
+
+        Dataset<HLC> equityCurve = merged.report().equityEvolution().orElseThrow();
+        assertEquals(3, equityCurve.length());
+        // both partitions at DAY_1: the intrabar excursions are summed as a bound
+        assertPoint(DAY_1, 10_025.0, 9_985.0, 10_010.0, equityCurve.get(2));
+        // a single partition at DAY_2 and DAY_3: the other one carries its last profit forward
+        assertPoint(DAY_2, 10_040.0, 10_040.0, 10_040.0, equityCurve.get(1));
+        assertPoint(DAY_3, 10_080.0, 10_080.0, 10_080.0, equityCurve.get(0));
+
+        EquityInformation equity = merged.report().equity().orElseThrow();
+        assertEquals(INITIAL_EQUITY, equity.startingEquity());
+        assertEquals(10_080.0, equity.endingEquity(), 1e-9);
+    }
+
+    @Test
+    void merge_omits_equity_curve_unless_all_partitions_recorded_it() {
+        var withoutCurve = new SimulationResult.Builder().from(partitionB)
+                .report(new StandardReport(new ReportOptions.Builder().build(), Optional.empty(), Optional.empty()))
+                .build();
+
+        SimulationResult merged = SimulationResultMerger.merge(List.of(partitionA, withoutCurve));
+        assertTrue(merged.report().equityEvolution().isEmpty());
+        assertTrue(merged.report().equity().isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationMetricsTest {
+
+    @Test
+    void histogram_gives_percentile_upper_bounds() {
+        var histogram = new CallbackTimeHistogram();
+        for (int i = 1; i <= 99; i++)
+            histogram.record(100);
+        histogram.record(10_000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(99 * 100 + 10_000, histogram.getTotalNanos());
+        assertEquals(10_000, histogram.getMaxNanos());
+        assertEquals(127, histogram.getPercentileNanos(50));
+        assertEquals(127, histogram.getPercentileNanos(99));
+        assertEquals(10_000, histogram.getPercentileNanos(100));
+        assertEquals(0, new CallbackTimeHistogram().getPercentileNanos(50));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(0));
+    }
+
+    @Test
+    void summarizes_counters() {
+        var metrics = new SimulationMetrics();
+        for (int i = 0; i < 10; i++)
+            metrics.onDataEvent();
+        metrics.onOrderSubmitted();
+        metrics.onTimedEventQueued(3);
+        metrics.onTimedEventQueued(1);
+        metrics.onTimedEventsTriggered(2, 1);
+        metrics.getCallbackTimes("A").record(1_000);
+
+        var summary = metrics.summarize();
+        assertEquals(10, summary.dataEvents());
+        assertEquals(1, summary.ordersSubmitted());
+        assertEquals(0, summary.ordersFilled());
+        assertEquals(2, summary.timedEvents());
+        assertEquals(3, summary.maxTimedEventQueueDepth());
+        assertEquals(1, summary.strategyCallbackTimes().get("A").count());
+        assertTrue(summary.dataEventsPerSecond() > 0.0);
+    }
+
+    @Test
+    void merges_summaries_of_concurrent_partitions() {
+        var a = new SimulationMetrics.Summary(Duration.ofSeconds(2), 100, 10, 5, 0, 2,
+                Map.of("A", new SimulationMetrics.CallbackTimes(100, 1_000, 50, 15, 31)));
+        var b = new SimulationMetrics.Summary(Duration.ofSeconds(1), 300, 20, 15, 1, 1,
+                Map.of("B", new SimulationMetrics.CallbackTimes(300, 3_000, 20, 7, 15)));
+
+        var merged = a.merge(b);
+        assertEquals(Duration.ofSeconds(2), merged.elapsedTime());
+        assertEquals(400, merged.dataEvents());
+        assertEquals(200.0, merged.dataEventsPerSecond(), 1e-9);
+        assertEquals(10.0, merged.ordersFilledPerSecond(), 1e-9);
+        assertEquals(2, merged.maxTimedEventQueueDepth());
+        assertEquals(2, merged.strategyCallbackTimes().size());
+        assertEquals(10.0, merged.strategyCallbackTimes().get("B").averageNanos(), 1e-9);
+    }
+}
@@ -0,0 +1,116 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.simulation.optimization;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.simulation.SimulationContext;
+import one.chartsy.simulation.SimulationDriver;
+import one.chartsy.simulation.SimulationException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openide.util.Lookup;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+class ParameterSweepTest {
+
+    final ParameterGrid grid = ParameterGrid.builder()
+            .range("length", 10, 30, 10)
+            .range("multiplier", 1.0, 2.0, 0.5)
+            .add("mode", "LONG", "SHORT")
+            .build();
+
+    @Test
+    void ParameterGrid_enumerates_all_combinations() {
+        assertEquals(18, grid.size());
+        assertEquals(Parameters.of(Map.of("length", 10, "multiplier", 1.0, "mode", "LONG")), grid.get(0));
+        assertEquals("SHORT", grid.get(1).get("mode"));
+        assertEquals(30, grid.get(17).getInt("length"));
+        assertEquals(2.0, grid.get(17).getDouble("multiplier"));
+
+        Set<Parameters> all = new HashSet<>();
+        grid.forEach(all::add);
+        assertEquals(18, all.size(), "distinct combinations");
+    }
+
+    @Test
+    void ParameterGrid_sample_gives_distinct_combinations() {
+        Set<Parameters> sample = new HashSet<>();
+        grid.sample(5, new SplittableRandom(1)).forEach(sample::add);
+        assertEquals(5, sample.size());
+    }
+
+    @Test
+    void run_gives_summary_for_each_parameter_combination() throws InterruptedException {
+        var series = CandleSeries.of(SymbolResource.of("TEST", TimeFrame.Period.DAILY), List.of(Candle.of(1L, 1.0)));
+        var sweep = new ParameterSweep(Lookup.getDefault().lookup(SimulationContext.class), new ForkJoinPool(4), 3);
+        Set<Parameters> seen = ConcurrentHashMap.newKeySet();
+        BestRuns best = BestRuns.byTotalProfit(5);
+
+        long runCount = sweep.run(List.of(series), grid, params -> {
+            SimulationDriver driver = Mockito.spy(SimulationDriver.class);
+            seen.add(params);
+            return driver;
+        }, best);
+
+        assertEquals(18, runCount);
+        assertEquals(18, best.getCount());
+        assertEquals(5, best.getBest().size());
+        assertEquals(18, seen.size());
+    }
+
+    @Test
+    void run_starts_nothing_when_cancelled_before() throws InterruptedException {
+        var series = CandleSeries.of(SymbolResource.of("TEST", TimeFrame.Period.DAILY), List.of(Candle.of(1L, 1.0)));
+        var sweep = new ParameterSweep(Lookup.getDefault().lookup(SimulationContext.class));
+        Set<Parameters> seen = ConcurrentHashMap.newKeySet();
+
+        sweep.cancel();
+        long runCount = sweep.run(List.of(series), grid, params -> {
+            seen.add(params);
+            return Mockito.spy(SimulationDriver.class);
+        }, summary -> { });
+
+        assertTrue(sweep.isCancelled());
+        assertEquals(0, runCount);
+        assertEquals(Set.of(), seen);
+    }
+
+    @Test
+    void run_fails_without_hanging_when_pool_rejects_runs() {
+        var series = CandleSeries.of(SymbolResource.of("TEST", TimeFrame.Period.DAILY), List.of(Candle.of(1L, 1.0)));
+        var pool = new ForkJoinPool(2);
+        pool.shutdown();
+        var sweep = new ParameterSweep(Lookup.getDefault().lookup(SimulationContext.class), pool, 1);
+
+        var e = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(SimulationException.class,
+                () -> sweep.run(List.of(series), grid, params -> Mockito.spy(SimulationDriver.class), summary -> { })));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+
+    @Test
+    void run_passes_parameters_to_strategy_configuration() throws InterruptedException {
+        var series = CandleSeries.of(SymbolResource.of("TEST", TimeFrame.Period.DAILY), List.of(Candle.of(1L, 1.0)));
+        var sweep = new ParameterSweep(Lookup.getDefault().lookup(SimulationContext.class));
+        SimulationDriver driver = Mockito.spy(SimulationDriver.class);
+
+        sweep.run(List.of(series), List.of(grid.get(5)), params -> driver, summary -> { });
+        verify(driver).initSimulation(
+                argThat(context -> context.configuration().inputParameters().equals(grid.get(5).asMap())));
+    }
+}
@@ -0,0 +1,36 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.trade;
+
+import one.chartsy.Candle;
+
+/**
+ * Specifies an order to buy at or below, or to sell at or above the given limit price.
+ * <p>
+ * The order is filled at the limit price, or at the bar open if the bar gaps through the limit
+ * in the order's favour.
+ *
+ * @author Mariusz Bernacki
+ */
+public record LimitOrderType(double price) implements PriceTriggeredOrderType {
+
+    @Override
+    public Execution tryFill(Order order, Candle ohlc, OrderFiller filler) {
+        if (order.isBuy()) {
+            if (ohlc.low() <= price)
+                return filler.fillOrder(order, ohlc, Math.min(ohlc.open(), price));
+        } else if (ohlc.high() >= price)
+            return filler.fillOrder(order, ohlc, Math.max(ohlc.open(), price));
+        return null;
+    }
+
+    @Override
+    public double getTriggerPrice() {
+        return price;
+    }
+
+    @Override
+    public boolean isTriggeredByLow(Order.Side side) {
+        return side.isBuy();
+    }
+}
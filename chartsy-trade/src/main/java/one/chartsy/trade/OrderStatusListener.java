@@ -11,4 +11,14 @@ public interface OrderStatusListener extends java.util.EventListener {
      */
     void orderStatusChanged(OrderStatusEvent e);
     
+    /**
+     * Combines the given listeners into one, for use as a
+     * {@link one.chartsy.core.event.Multicaster Multicaster}.
+     */
+    static OrderStatusListener multicast(OrderStatusListener[] listeners) {
+        return e -> {
+            for (OrderStatusListener listener : listeners)
+                listener.orderStatusChanged(e);
+        };
+    }
 }
@@ -13,7 +13,21 @@ import one.chartsy.Candle;
 public interface OrderType {
     /** Specifies the market order type (shared instance). */
     MarketOrderType MARKET = new MarketOrderType();
-    
+
+    /**
+     * Gives the limit order type with the specified limit price.
+     */
+    static LimitOrderType limit(double price) {
+        return new LimitOrderType(price);
+    }
+
+    /**
+     * Gives the stop order type with the specified stop price.
+     */
+    static StopOrderType stop(double price) {
+        return new StopOrderType(price);
+    }
+
     Execution tryFill(Order order, Candle ohlc, OrderFiller filler);
 
     default boolean isImmediateOrCancelOnly() {
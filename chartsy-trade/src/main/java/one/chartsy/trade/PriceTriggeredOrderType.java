@@ -0,0 +1,32 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.trade;
+
+/**
+ * The type of order resting until the market reaches its trigger price.
+ * <p>
+ * An order of this type can be filled on a bar only when the bar reaches its trigger price, i.e. the
+ * bar's low is at or below the trigger price of the buy limit and sell stop orders, and the bar's high
+ * is at or above the trigger price of the sell limit and buy stop orders. This includes the orders the
+ * bar gapped through, and lets the matching engines index resting orders by price and visit only the
+ * ones the bar may fill.
+ *
+ * @author Mariusz Bernacki
+ */
+public interface PriceTriggeredOrderType extends OrderType {
+
+    /**
+     * Gives the price at which the order becomes executable.
+     */
+    double getTriggerPrice();
+
+    /**
+     * Tells whether the order is triggered by the price falling to the trigger price (as is the case
+     * for buy limit and sell stop orders) rather than by the price rising to it (as is the case for
+     * sell limit and buy stop orders).
+     *
+     * @param side the side of the order
+     * @return {@code true} if the bar's low triggers the order, or {@code false} if the bar's high does
+     */
+    boolean isTriggeredByLow(Order.Side side);
+}
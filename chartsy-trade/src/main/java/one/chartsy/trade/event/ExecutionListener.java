@@ -8,4 +8,15 @@ import one.chartsy.trade.Execution;
 public interface ExecutionListener {
 
     void onExecution(Execution execution);
+
+    /**
+     * Combines the given listeners into one, for use as a
+     * {@link one.chartsy.core.event.Multicaster Multicaster}.
+     */
+    static ExecutionListener multicast(ExecutionListener[] listeners) {
+        return execution -> {
+            for (ExecutionListener listener : listeners)
+                listener.onExecution(execution);
+        };
+    }
 }
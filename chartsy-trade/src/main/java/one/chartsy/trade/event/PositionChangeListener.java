@@ -16,4 +16,24 @@ public interface PositionChangeListener {
     void positionOpened(Position position);
     
     void positionClosed(Position position, TransactionData transaction);
+
+    /**
+     * Combines the given listeners into one, for use as a
+     * {@link one.chartsy.core.event.Multicaster Multicaster}.
+     */
+    static PositionChangeListener multicast(PositionChangeListener[] listeners) {
+        return new PositionChangeListener() {
+            @Override
+            public void positionOpened(Position position) {
+                for (PositionChangeListener listener : listeners)
+                    listener.positionOpened(position);
+            }
+
+            @Override
+            public void positionClosed(Position position, TransactionData transaction) {
+                for (PositionChangeListener listener : listeners)
+                    listener.positionClosed(position, transaction);
+            }
+        };
+    }
 }
@@ -15,4 +15,15 @@ import one.chartsy.trade.data.Position;
 public interface PositionValueChangeListener {
 
     void positionValueChanged(Account account, Position position);
+
+    /**
+     * Combines the given listeners into one, for use as a
+     * {@link one.chartsy.core.event.Multicaster Multicaster}.
+     */
+    static PositionValueChangeListener multicast(PositionValueChangeListener[] listeners) {
+        return (account, position) -> {
+            for (PositionValueChangeListener listener : listeners)
+                listener.positionValueChanged(account, position);
+        };
+    }
 }
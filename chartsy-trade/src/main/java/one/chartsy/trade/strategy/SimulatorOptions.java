@@ -20,6 +20,19 @@ public interface SimulatorOptions {
 
     boolean isTransactionHistoryEnabled();
 
+    /**
+     * Tells whether the simulation gathers the hot-path metrics, such as the event and order rates or
+     * the strategy callback times, and emits the corresponding JDK Flight Recorder events.
+     */
+    boolean isMetricsEnabled();
+
+    /**
+     * Tells whether the orders are matched on the tick series alone, while the candle series only drive
+     * the strategies. This lets candle-based strategies be simulated with the intrabar precision of the
+     * underlying ticks, which are then not delivered to the strategies themselves.
+     */
+    boolean isTickMatchingEnabled();
+
     static Builder builder() {
         return new Builder();
     }
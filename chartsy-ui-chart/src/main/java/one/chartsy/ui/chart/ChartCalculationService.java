@@ -0,0 +1,257 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.ui.chart;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.ui.chart.plot.TimeSeriesPlot;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.swing.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates the overlays and indicators of a chart frame in the background.
+ * <p>
+ * Each calculation runs on a private copy of the plugin, created with
+ * {@link ChartPlugin#newInstance()} and given the {@link ChartPlugin.Parameter} values of the
+ * original, so that the plugin being painted is never modified outside the event dispatch thread.
+ * When the calculation completes, its plots are transferred to the original plugin on the event
+ * dispatch thread and the chart frame is repainted, so the results appear progressively as they
+ * land. A calculation still pending when the plugin is recalculated or removed, or when the chart
+ * frame switches to another symbol or time frame, is cancelled and its results are discarded.
+ * <p>
+ * The calculated plots are cached by the dataset version (its resource, length, time span and last
+ * bar, which may still be updated in place), the plugin class and the plugin parameter values. The
+ * cache is shared by all chart frames and bounded by the total number of plotted values, so
+ * switching back to a recently displayed chart does not recalculate anything.
+ * <p>
+ * All methods are expected to be called from the event dispatch thread.
+ *
+ * @author Mariusz Bernacki
+ */
+public class ChartCalculationService {
+
+    private static final Logger log = LogManager.getLogger(ChartCalculationService.class);
+    /** The maximum total number of plotted values kept in the results cache. */
+    private static final long MAX_CACHED_VALUES = 16_000_000L;
+    /** The background calculation pool shared by all chart frames. */
+    private static final ExecutorService executor = createExecutor();
+    /** The results cache shared by all chart frames. */
+    private static final ResultsCache cache = new ResultsCache(MAX_CACHED_VALUES);
+
+    /** The chart frame to repaint when results land. */
+    private final JComponent frame;
+    /** The calculations currently pending, by plugin. */
+    private final Map<ChartPlugin<?>, CompletableFuture<?>> pending = new IdentityHashMap<>();
+
+
+    public ChartCalculationService(JComponent frame) {
+        this.frame = frame;
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        return Executors.newFixedThreadPool(poolSize, task -> {
+            Thread thread = new Thread(task, "ChartCalculation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * Calculates the given overlay or indicator over the dataset. The plugin plots are cleared
+     * immediately and are replaced with the calculated ones once available. A cached result is
+     * applied synchronously.
+     *
+     * @param plugin the overlay or indicator to calculate
+     * @param dataset the dataset to calculate the plugin over
+     */
+    public void calculate(ChartPlugin<?> plugin, CandleSeries dataset) {
+        cancel(plugin);
+
+        Map<String, Plot> plots = plotsOf(plugin);
+        Key key = Key.of(plugin, dataset);
+        Map<String, Plot> cached = (key == null)? null : cache.get(key);
+        if (cached != null) {
+            setPlots(plots, cached);
+            frame.repaint();
+            return;
+        }
+        plots.clear();
+
+        CompletableFuture<Map<String, Plot>> job =
+                CompletableFuture.supplyAsync(() -> calculateCopy(plugin, dataset), executor);
+        pending.put(plugin, job);
+        job.whenCompleteAsync((result, x) -> {
+            if (pending.get(plugin) != job)
+                return;
+            pending.remove(plugin);
+            if (x != null) {
+                log.warn("Calculation of {} failed", plugin.getName(), x);
+                return;
+            }
+            if (key != null)
+                cache.put(key, result);
+            setPlots(plots, result);
+            frame.repaint();
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Cancels the pending calculation of the given plugin, if any.
+     */
+    public void cancel(ChartPlugin<?> plugin) {
+        CompletableFuture<?> job = pending.remove(plugin);
+        if (job != null)
+            job.cancel(false);
+    }
+
+    /**
+     * Cancels all pending calculations, e.g. when the chart frame switches to another dataset.
+     */
+    public void cancelAll() {
+        for (CompletableFuture<?> job : pending.values())
+            job.cancel(false);
+        pending.clear();
+    }
+
+    /**
+     * Checks whether any calculation is still pending.
+     */
+    public boolean isCalculating() {
+        return !pending.isEmpty();
+    }
+
+    private static Map<String, Plot> calculateCopy(ChartPlugin<?> plugin, CandleSeries dataset) {
+        ChartPlugin<?> copy = plugin.newInstance();
+        for (Field field : parameterFields(plugin.getClass())) {
+            try {
+                field.set(copy, field.get(plugin));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot copy parameter " + field, e);
+            }
+        }
+        if (copy instanceof Overlay overlay) {
+            overlay.setDataset(dataset);
+            overlay.calculate();
+        } else if (copy instanceof Indicator indicator) {
+            indicator.setDataset(dataset);
+            indicator.calculate();
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<>(plotsOf(copy)));
+    }
+
+    private static Map<String, Plot> plotsOf(ChartPlugin<?> plugin) {
+        if (plugin instanceof Overlay overlay)
+            return overlay.plots;
+        if (plugin instanceof Indicator indicator)
+            return indicator.plots;
+        throw new IllegalArgumentException("Unsupported plugin: " + plugin.getClass().getSimpleName());
+    }
+
+    private static void setPlots(Map<String, Plot> plots, Map<String, Plot> result) {
+        plots.clear();
+        plots.putAll(result);
+    }
+
+    private static List<Field> parameterFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        Class<?> clazz = type;
+        do {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(ChartPlugin.Parameter.class))
+                    continue;
+                int modifiers = field.getModifiers();
+                if (Modifier.isTransient(modifiers) || Modifier.isStatic(modifiers)
+                        || Modifier.isFinal(modifiers))
+                    continue;
+
+                if (!Modifier.isPublic(modifiers))
+                    field.setAccessible(true);
+                fields.add(field);
+            }
+        } while ((clazz = clazz.getSuperclass()) != Object.class);
+
+        return fields;
+    }
+
+    /**
+     * The cache key identifying the calculation result.
+     */
+    record Key(SymbolResource<?> resource, int length, long firstTime, Candle lastBar,
+               Class<?> type, List<Object> parameters) {
+
+        static Key of(ChartPlugin<?> plugin, CandleSeries dataset) {
+            if (dataset == null || dataset.length() == 0)
+                return null;
+
+            List<Object> parameters = new ArrayList<>();
+            for (Field field : parameterFields(plugin.getClass())) {
+                // the parameters declared by Indicator itself describe the layout, not the calculation
+                if (field.getDeclaringClass() == Indicator.class)
+                    continue;
+                try {
+                    parameters.add(field.get(plugin));
+                } catch (IllegalAccessException e) {
+                    return null;
+                }
+            }
+            long firstTime = dataset.get(dataset.length() - 1).getTime();
+            return new Key(dataset.getResource(), dataset.length(), firstTime, dataset.get(0),
+                    plugin.getClass(), parameters);
+        }
+    }
+
+    /**
+     * The LRU cache of calculation results bounded by the total number of plotted values.
+     */
+    static final class ResultsCache {
+        private final long maxWeight;
+        private final LinkedHashMap<Key, Map<String, Plot>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+
+        ResultsCache(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized Map<String, Plot> get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, Map<String, Plot> plots) {
+            long entryWeight = weightOf(plots);
+            if (entryWeight > maxWeight)
+                return;
+
+            Map<String, Plot> previous = entries.put(key, plots);
+            if (previous != null)
+                weight -= weightOf(previous);
+            weight += entryWeight;
+
+            Iterator<Map<String, Plot>> iter = entries.values().iterator();
+            while (weight > maxWeight && iter.hasNext()) {
+                weight -= weightOf(iter.next());
+                iter.remove();
+            }
+        }
+
+        private static long weightOf(Map<String, Plot> plots) {
+            long weight = 1;
+            for (Plot plot : plots.values())
+                if (plot instanceof TimeSeriesPlot tsPlot && tsPlot.getTimeSeries() != null)
+                    weight += tsPlot.getTimeSeries().length();
+            return weight;
+        }
+    }
+}
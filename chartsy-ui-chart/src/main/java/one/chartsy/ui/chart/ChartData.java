@@ -24,6 +24,8 @@ import java.util.Optional;
 import one.chartsy.*;
 import one.chartsy.core.Range;
 import one.chartsy.data.CandleSeries;
+import one.chartsy.data.structures.DecimationPyramid;
+import one.chartsy.data.structures.DoubleRangeIndex;
 import one.chartsy.data.provider.DataProvider;
 import one.chartsy.time.Chronological;
 import one.chartsy.ui.chart.axis.AxisScale;
@@ -56,6 +58,14 @@ public class ChartData implements Serializable, ChartFrameListener {
     /** The associated chart plot. */
     private Chart chart;
     private VisibleCandles visible;
+    /** The dataset for which the range indexes were built. */
+    private transient CandleSeries indexedDataset;
+    /** The range indexes of the dataset lows and highs, used for visible range autoscaling. */
+    private transient DoubleRangeIndex lowsIndex, highsIndex;
+    /** The chart dataset for which the decimation pyramid was built. */
+    private transient CandleSeries decimatedDataset;
+    /** The decimation pyramid of the chart dataset, used for rendering zoomed-out charts. */
+    private transient DecimationPyramid chartDatasetPyramid;
     private Range visibleRange;
     private List<Indicator> savedIndicators;
     private List<Overlay> savedOverlays;
@@ -332,7 +342,8 @@ public class ChartData implements Serializable, ChartFrameListener {
                 period = 150;
             period = Math.min(period, dataset.length());
 
-            setVisible(new VisibleCandles(dataset, dataset.length() - last, period));
+            updateRangeIndexes(dataset);
+            setVisible(new VisibleCandles(dataset, dataset.length() - last, period, lowsIndex, highsIndex));
             
             // shift the marker index if new dataset is shorter than marker location
             int markerIndex = chartFrame.getMainPanel().getStackPanel().getMarkerIndex();
@@ -344,6 +355,20 @@ public class ChartData implements Serializable, ChartFrameListener {
         }
     }
     
+    /**
+     * Builds the range indexes of the lows and highs of the given dataset, unless they are already
+     * up to date with the dataset.
+     *
+     * @param dataset the chart dataset
+     */
+    private void updateRangeIndexes(CandleSeries dataset) {
+        if (dataset != indexedDataset || lowsIndex == null || lowsIndex.length() != dataset.length()) {
+            lowsIndex = DoubleRangeIndex.of(dataset.lows().values());
+            highsIndex = DoubleRangeIndex.of(dataset.highs().values());
+            indexedDataset = dataset;
+        }
+    }
+    
     class DefaultDateScale extends DateScale {
         
         DefaultDateScale(ChronoUnit incrementUnit, int incrementStep, ZonedDateTime startDate, ZonedDateTime endDate) {
@@ -739,4 +764,21 @@ public class ChartData implements Serializable, ChartFrameListener {
     public CandleSeries getChartDataset() {
         return chartDataset;
     }
+    
+    /**
+     * Gives the decimation pyramid of the {@link #getChartDataset() chart dataset}, built on first
+     * use after the chart dataset has changed.
+     * 
+     * @return the chart dataset pyramid, or {@code null} if the chart dataset is not available
+     */
+    public DecimationPyramid getChartDatasetPyramid() {
+        CandleSeries series = chartDataset;
+        if (series == null)
+            return null;
+        if (series != decimatedDataset || chartDatasetPyramid == null) {
+            chartDatasetPyramid = DecimationPyramid.of(series.opens().values(), series.highs().values(), series.lows().values(), series.closes().values());
+            decimatedDataset = series;
+        }
+        return chartDatasetPyramid.update();
+    }
 }
@@ -47,6 +47,7 @@ public class ChartFrame extends JPanel implements ChartContext, MouseWheelListen
     private ChartData chartData;
     private ChartHistory history = new ChartHistory();
     private ChartTemplate chartTemplate;
+    private final transient ChartCalculationService calculations = new ChartCalculationService(this);
 
     private final transient ListenerList<ChartFrameListener> chartFrameListeners = ListenerList.of(ChartFrameListener.class);
 
@@ -123,12 +124,16 @@ public class ChartFrame extends JPanel implements ChartContext, MouseWheelListen
     @Override
     public void indicatorRemoved(Indicator indicator) {
         removeChartFrameListener(indicator);
+        calculations.cancel(indicator);
+        indicator.setCalculationService(null);
         chartFrameListeners.fire().indicatorRemoved(indicator);
     }
 
     @Override
     public void fireOverlayRemoved(Overlay overlay) {
         removeChartFrameListener(overlay);
+        calculations.cancel(overlay);
+        overlay.setCalculationService(null);
         chartFrameListeners.fire().overlayRemoved(overlay);
     }
 
@@ -216,10 +221,11 @@ public class ChartFrame extends JPanel implements ChartContext, MouseWheelListen
 
     public void fireOverlayAdded(Overlay overlay) {
         addChartFrameListener(overlay);
+        overlay.setCalculationService(calculations);
         CandleSeries dataset = chartData.getDataset();
         if (dataset != null) {
             overlay.setDataset(dataset);
-            overlay.calculate(); // TODO: make the calc asynchronous
+            calculations.calculate(overlay, dataset);
         }
         // notify listeners
         chartFrameListeners.fire().overlayAdded(overlay);
@@ -227,10 +233,11 @@ public class ChartFrame extends JPanel implements ChartContext, MouseWheelListen
 
     public void fireIndicatorAdded(Indicator indicator) {
         addChartFrameListener(indicator);
+        indicator.setCalculationService(calculations);
         CandleSeries dataset = chartData.getDataset();
         if (dataset != null) {
             indicator.setDataset(dataset);
-            indicator.calculate(); // TODO: make asynchronous
+            calculations.calculate(indicator, dataset);
         }
         chartFrameListeners.fire().indicatorAdded(indicator);
     }
@@ -348,6 +355,9 @@ public class ChartFrame extends JPanel implements ChartContext, MouseWheelListen
     private final AtomicReference<CompletableFuture<Series<Candle>>> activeLoader = new AtomicReference<>();
 
     protected void datasetLoading(SymbolResource<Candle> resource) {
+        // drop the overlay and indicator calculations of the dataset being replaced
+        calculations.cancelAll();
+
         // start a parallel data loading task, as soon as possible
         var provider = getChartData().getDataProvider();
         var task = new SymbolResourceLoaderTask<>(provider, resource);
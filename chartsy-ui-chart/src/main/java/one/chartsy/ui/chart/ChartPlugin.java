@@ -28,10 +28,26 @@ public abstract class ChartPlugin<T extends ChartPlugin<T>> extends NamedPlugin<
         TRANSPARENCY;
     }
 
+    /** The service calculating this plugin in the background, when attached to a chart frame. */
+    private transient ChartCalculationService calculationService;
+
     protected ChartPlugin(String name) {
         super(name);
     }
 
+    /**
+     * Gives the service calculating this plugin in the background.
+     *
+     * @return the calculation service, or {@code null} if the plugin is not attached to a chart frame
+     */
+    public ChartCalculationService getCalculationService() {
+        return calculationService;
+    }
+
+    void setCalculationService(ChartCalculationService calculationService) {
+        this.calculationService = calculationService;
+    }
+
     public abstract String getLabel();
 
     protected static Map<String, Plot> createPlotsMap() {
@@ -197,7 +197,11 @@ public abstract class Indicator extends ChartPlugin<Indicator> {
     @Override
     public void datasetChanged(CandleSeries dataset) {
         setDataset(dataset);
-        calculate();
+        ChartCalculationService service = getCalculationService();
+        if (service != null)
+            service.calculate(this, dataset);
+        else
+            calculate();
     }
     
     public boolean isMinimizedPaint() {
@@ -189,6 +189,10 @@ public abstract class Overlay extends ChartPlugin<Overlay> implements Serializab
     @Override
     public void datasetChanged(CandleSeries quotes) {
         setDataset(quotes);
-        calculate();
+        ChartCalculationService service = getCalculationService();
+        if (service != null)
+            service.calculate(this, quotes);
+        else
+            calculate();
     }
 }
@@ -11,6 +11,7 @@ import one.chartsy.*;
 import one.chartsy.core.Range;
 import one.chartsy.data.CandleSeries;
 import one.chartsy.data.DoubleDataset;
+import one.chartsy.data.structures.DoubleRangeIndex;
 import one.chartsy.time.Chronological;
 
 public class VisibleCandles {
@@ -20,12 +21,35 @@ public class VisibleCandles {
     private final int offset;
     /** The quotes in the range. */
     private final CandleSeries series;
+    /** The optional range index of the candle lows, may be {@code null}. */
+    private final DoubleRangeIndex lows;
+    /** The optional range index of the candle highs, may be {@code null}. */
+    private final DoubleRangeIndex highs;
     
     
     public VisibleCandles(CandleSeries series, int offset, int length) {
+        this(series, offset, length, null, null);
+    }
+    
+    /**
+     * Creates the visible candles backed by the precomputed range indexes of the candle lows and
+     * highs, which make the {@link #getRange(Range.Builder)}, {@link #getMinimum()} and
+     * {@link #getMaximum()} queries independent of the number of visible candles.
+     *
+     * @param series the candle series
+     * @param offset the right-most visible candle
+     * @param length the number of visible candles
+     * @param lows the range index of {@code series.lows()}, may be {@code null}
+     * @param highs the range index of {@code series.highs()}, may be {@code null}
+     */
+    public VisibleCandles(CandleSeries series, int offset, int length, DoubleRangeIndex lows, DoubleRangeIndex highs) {
         this.series = series;
         this.offset = offset;
         this.length = length;
+        boolean indexed = lows != null && highs != null
+                && lows.length() == series.length() && highs.length() == series.length();
+        this.lows = indexed? lows : null;
+        this.highs = indexed? highs : null;
     }
     
     public OptionalInt getBarNumber(int index) {
@@ -61,6 +85,12 @@ public class VisibleCandles {
     public Range.Builder getRange(Range.Builder result) {
         if (result == null)
             result = new Range.Builder();
+        if (lows != null) {
+            double min = lows.getMinimum(offset, offset + length);
+            if (min != Double.POSITIVE_INFINITY)
+                result.add(min, highs.getMaximum(offset, offset + length));
+            return result;
+        }
         
         for (int i = 0; i < length; i++) {
             Candle q0 = getQuoteAt(i);
@@ -70,6 +100,10 @@ public class VisibleCandles {
     }
     
     public double getMinimum() {
+        if (lows != null) {
+            double min = lows.getMinimum(offset, offset + length);
+            return (min != Double.POSITIVE_INFINITY)? min : 0.0;
+        }
         double min = Double.MAX_VALUE;
         for (int i = 0; i < length; i++) {
             Candle q0 = getQuoteAt(i);
@@ -80,6 +114,10 @@ public class VisibleCandles {
     }
     
     public double getMaximum() {
+        if (highs != null) {
+            double max = highs.getMaximum(offset, offset + length);
+            return (max != Double.NEGATIVE_INFINITY)? max : 0.0;
+        }
         double max = Double.NEGATIVE_INFINITY;
         for (int i = 0; i < length; i++) {
             Candle q0 = getQuoteAt(i);
@@ -105,6 +143,10 @@ public class VisibleCandles {
         return new VisibleValues(values, offset, length);
     }
     
+    public VisibleValues getVisibleDataset(DoubleDataset values, DoubleRangeIndex rangeIndex) {
+        return new VisibleValues(values, offset, length, rangeIndex);
+    }
+    
     public VisibleCandles getVisibleDataset(CandleSeries series) {
         if (series == this.series)
             return this;
@@ -4,6 +4,7 @@ package one.chartsy.ui.chart.data;
 
 import one.chartsy.core.Range;
 import one.chartsy.data.DoubleDataset;
+import one.chartsy.data.structures.DoubleRangeIndex;
 
 public class VisibleValues {
     /** The number of visible quotes. */
@@ -12,7 +13,8 @@ public class VisibleValues {
     private final int offset;
     /** The quotes in the range. */
     private final DoubleDataset values;
-    
+    /** The optional range index of the values, may be {@code null}. */
+    private final DoubleRangeIndex rangeIndex;
     
     
     public VisibleValues rescale(double factor) {
@@ -20,9 +22,14 @@ public class VisibleValues {
     }
     
     public VisibleValues(DoubleDataset values, int offset, int length) {
+        this(values, offset, length, null);
+    }
+    
+    public VisibleValues(DoubleDataset values, int offset, int length, DoubleRangeIndex rangeIndex) {
         this.values = values;
         this.offset = offset;
         this.length = length;
+        this.rangeIndex = (rangeIndex != null && rangeIndex.isIndexOf(values))? rangeIndex : null;
     }
     
     public double getValueAt(int index) {
@@ -37,6 +44,8 @@ public class VisibleValues {
     }
 
     public double getMinimum() {
+        if (rangeIndex != null)
+            return Math.min(rangeIndex.getMinimum(offset, offset + length), Double.MAX_VALUE);
         double min = Double.MAX_VALUE;
         for (int i = 0; i < length; i++) {
             double v0 = getValueAt(i);
@@ -47,6 +56,8 @@ public class VisibleValues {
     }
     
     public double getMaximum() {
+        if (rangeIndex != null)
+            return rangeIndex.getMaximum(offset, offset + length);
         double max = Double.NEGATIVE_INFINITY;
         for (int i = 0; i < length; i++) {
             double v0 = getValueAt(i);
@@ -59,6 +70,8 @@ public class VisibleValues {
     public Range.Builder getRange(Range.Builder rv) {
         if (rv == null)
             rv = new Range.Builder();
+        if (rangeIndex != null)
+            return rangeIndex.getRange(offset, offset + length, rv);
 
         var startIndex = offset;
         var endIndex = Math.min(offset + length, values.length());
@@ -71,4 +84,8 @@ public class VisibleValues {
         return length;
     }
     
+    public int getOffset() {
+        return offset;
+    }
+    
 }
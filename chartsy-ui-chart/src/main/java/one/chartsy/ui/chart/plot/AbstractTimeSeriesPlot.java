@@ -5,12 +5,18 @@ package one.chartsy.ui.chart.plot;
 import java.awt.Color;
 
 import one.chartsy.data.DoubleDataset;
+import one.chartsy.data.structures.DecimationPyramid;
+import one.chartsy.data.structures.DoubleRangeIndex;
 import one.chartsy.ui.chart.ChartContext;
 import one.chartsy.ui.chart.data.VisibleValues;
 
 public abstract class AbstractTimeSeriesPlot extends AbstractPlot implements TimeSeriesPlot {
     /** The time series associated with this plot. */
     protected final DoubleDataset timeSeries;
+    /** The lazily built range index of the time series. */
+    private volatile DoubleRangeIndex rangeIndex;
+    /** The lazily built decimation pyramid of the time series. */
+    private volatile DecimationPyramid pyramid;
     
     
     /**
@@ -29,7 +35,32 @@ public abstract class AbstractTimeSeriesPlot extends AbstractPlot implements Tim
     @Override
     public VisibleValues getVisibleData(ChartContext cf) {
         if (timeSeries != null)
-            return cf.getChartData().getVisible().getVisibleDataset(timeSeries);
+            return cf.getChartData().getVisible().getVisibleDataset(timeSeries, getRangeIndex());
         return null;
     }
+    
+    /**
+     * Gives the range index of the plotted time series, built on first use and rebuilt whenever the
+     * series has grown since.
+     * 
+     * @return the range index
+     */
+    protected DoubleRangeIndex getRangeIndex() {
+        DoubleRangeIndex index = rangeIndex;
+        if (index == null || !index.isIndexOf(timeSeries))
+            rangeIndex = index = DoubleRangeIndex.of(timeSeries);
+        return index;
+    }
+    
+    /**
+     * Gives the decimation pyramid of the plotted time series, built on first use.
+     * 
+     * @return the decimation pyramid
+     */
+    protected DecimationPyramid getDecimationPyramid() {
+        DecimationPyramid pyramid = this.pyramid;
+        if (pyramid == null)
+            this.pyramid = pyramid = DecimationPyramid.of(timeSeries);
+        return pyramid.update();
+    }
 }
@@ -18,6 +18,7 @@ import java.util.concurrent.ThreadLocalRandom;
 
 import one.chartsy.core.Range;
 import one.chartsy.data.DoubleSeries;
+import one.chartsy.data.structures.DecimationPyramid;
 import one.chartsy.ui.chart.ChartContext;
 import one.chartsy.ui.chart.ChartData;
 import one.chartsy.ui.chart.data.VisibleValues;
@@ -40,10 +41,10 @@ public class LinePlot extends AbstractTimeSeriesPlot {
         VisibleValues values = getVisibleData(cf);
         if (values != null) {
             int candleWidth = (int) Math.round(cf.getChartProperties().getBarWidth());
-            //    		if (candleWidth <= 1)
-            //    			drawSubpixelOptimizedLine(g, cf, range, bounds, values);
-            //    		else
-            drawLine(g, cf, range, bounds, values);
+            if (candleWidth <= 1)
+                drawSubpixelOptimizedLine(g, cf, range, bounds, values);
+            else
+                drawLine(g, cf, range, bounds, values);
         }
         g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, oldStrokeControl);
     }
@@ -76,66 +77,93 @@ public class LinePlot extends AbstractTimeSeriesPlot {
     }
     
     protected void drawSubpixelOptimizedLine(Graphics2D g, ChartContext cf, Range range, Rectangle bounds, VisibleValues values) {
-        boolean isLog = cf.getChartProperties().getAxisLogarithmicFlag();
-        ChartData cd = cf.getChartData();
         Stroke old = g.getStroke();
         g.setPaint(primaryColor);
         if (stroke != null)
             g.setStroke(stroke);
         
-        int xPrev = -1;
-        double qMax = Double.NEGATIVE_INFINITY, qMin = Double.MAX_VALUE;
-        GeneralPath path = new GeneralPath(GeneralPath.WIND_NON_ZERO, bounds.width);
-        for (int i = 0, j = values.getLength(); i < j; i++) {
-            double value = values.getValueAt(i);
-            if (value == value) {
-                int x = (int)(0.5 + cd.getX(i, bounds));
-                if (x != xPrev) {
-                    // project y-coordinates and draw a vertical tick
-                    if (xPrev >= 0) {
-                        double yMax = cd.getY(qMax, bounds, range, isLog);
-                        double yMin = cd.getY(qMin, bounds, range, isLog);
-                        path.lineTo(xPrev, yMax);
-                        path.lineTo(xPrev, yMin);
-                    } else {
-                        double y = cd.getY(value, bounds, range, isLog);
-                        path.moveTo(x, y);
-                    }
-                    
-                    qMax = qMin = value;
-                    xPrev = x;
-                } else {
-                    // coerce current bar data with the previous data
-                    if (value > qMax)
-                        qMax = value;
-                    if (value < qMin)
-                        qMin = value;
-                }
-            } else {
-                if (xPrev >= 0) {
-                    double yMax = cd.getY(qMax, bounds, range, isLog);
-                    double yMin = cd.getY(qMin, bounds, range, isLog);
-                    path.lineTo(xPrev, yMax);
-                    path.lineTo(xPrev, yMin);
-                }
-                g.draw(path);
+        // visit the visible values aggregated to at most one bucket per pixel column
+        DecimationPyramid pyramid = getDecimationPyramid();
+        int length = values.getLength();
+        int base = pyramid.length() - values.getOffset() - length;
+        int barsPerPixel = Math.max(1, length / Math.max(1, bounds.width));
+        SubpixelLine line = new SubpixelLine(g, cf, range, bounds, base);
+        pyramid.forEach(base, base + length, barsPerPixel, line);
+        line.finish();
+        g.setStroke(old);
+    }
+    
+    /**
+     * Merges the aggregated values falling into the same pixel column into the M4 line segments,
+     * connecting the first, maximum, minimum and last value of each column.
+     */
+    private static final class SubpixelLine implements DecimationPyramid.Visitor {
+        private final Graphics2D g;
+        private final ChartData cd;
+        private final Range range;
+        private final Rectangle bounds;
+        private final boolean isLog;
+        private final int base;
+        private final GeneralPath path;
+        private int xPrev = -1;
+        private double qFirst, qMax, qMin, qLast;
+        
+        SubpixelLine(Graphics2D g, ChartContext cf, Range range, Rectangle bounds, int base) {
+            this.g = g;
+            this.cd = cf.getChartData();
+            this.range = range;
+            this.bounds = bounds;
+            this.isLog = cf.getChartProperties().getAxisLogarithmicFlag();
+            this.base = base;
+            this.path = new GeneralPath(GeneralPath.WIND_NON_ZERO, bounds.width);
+        }
+        
+        @Override
+        public void visit(int from, int count, double first, double max, double min, double last) {
+            if (first != first) {
+                // break the line at the gap
+                finish();
+                return;
+            }
+            int x = (int)(0.5 + cd.getX(from - base, bounds));
+            if (x != xPrev) {
+                // project y-coordinates and draw a column segment
+                if (xPrev >= 0)
+                    lineToColumn();
+                else
+                    path.moveTo(x, cd.getY(first, bounds, range, isLog));
                 
-                xPrev = -1;
-                qMax = Double.NEGATIVE_INFINITY;
-                qMin = Double.MAX_VALUE;
-                path.reset();
+                qFirst = first;
+                qMax = max;
+                qMin = min;
+                qLast = last;
+                xPrev = x;
+            } else {
+                // coerce current bucket data with the previous data
+                if (max > qMax)
+                    qMax = max;
+                if (min < qMin)
+                    qMin = min;
+                qLast = last;
             }
         }
         
-        // draw the remaining aggregated bar
-        if (xPrev >= 0) {
-            double yMax = cd.getY(qMax, bounds, range, isLog);
-            double yMin = cd.getY(qMin, bounds, range, isLog);
-            path.lineTo(xPrev, yMax);
-            path.lineTo(xPrev, yMin);
+        private void lineToColumn() {
+            path.lineTo(xPrev, cd.getY(qFirst, bounds, range, isLog));
+            path.lineTo(xPrev, cd.getY(qMax, bounds, range, isLog));
+            path.lineTo(xPrev, cd.getY(qMin, bounds, range, isLog));
+            path.lineTo(xPrev, cd.getY(qLast, bounds, range, isLog));
+        }
+        
+        void finish() {
+            // draw the remaining aggregated column
+            if (xPrev >= 0) {
+                lineToColumn();
+                g.draw(path);
+            }
+            xPrev = -1;
+            path.reset();
         }
-        g.draw(path);
-        g.setStroke(old);
     }
     
     public static class Simplify {
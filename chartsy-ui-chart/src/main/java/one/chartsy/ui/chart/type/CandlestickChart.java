@@ -15,6 +15,7 @@ import java.awt.geom.Rectangle2D;
 import one.chartsy.Candle;
 import one.chartsy.core.Range;
 import one.chartsy.data.CandleSeries;
+import one.chartsy.data.structures.DecimationPyramid;
 import one.chartsy.ui.chart.*;
 import one.chartsy.ui.chart.components.ChartPanel;
 import one.chartsy.ui.chart.data.VisibleCandles;
@@ -130,50 +131,78 @@ public class CandlestickChart implements Chart {
     
     private void drawSubpixelOptimizedChart(Graphics2D g, ChartData cd, ChartProperties cp, Rectangle rect, Range range, int candleWidth) {
         if (cp.getBarVisibility()) {
-            Rectangle2D.Double rect2 = new Rectangle2D.Double(rect.x, rect.y, rect.width, rect.height);
             VisibleCandles dataset = cd.getVisible().getVisibleDataset(cd.getChartDataset());
-            boolean isLog = cp.getAxisLogarithmicFlag();
+            DecimationPyramid pyramid = cd.getChartDatasetPyramid();
             
             g.setPaint(cp.getBarColor());
             g.setStroke(cp.getBarStroke());
             
-            int xPrev = -1;
-            double qMax = Double.NEGATIVE_INFINITY, qMin = Double.MAX_VALUE;
-            GeneralPath path = new GeneralPath(GeneralPath.WIND_NON_ZERO, rect.width);
-            for (int i = 0, j = dataset.getLength(); i < j; i++) {
-                Candle q0 = dataset.getQuoteAt(i);
-                double qHigh = q0.high(), qLow = q0.low();
-                
-                int x = (int)(0.5 + cd.getX(i, rect));
-                if (x != xPrev || qHigh < qMin || qLow > qMax) {
-                    // project y-coordinates and draw a vertical tick
-                    if (xPrev >= 0) {
-                        int yMax = (int)(0.5 + cd.getY2(qMax, rect2, range, isLog));
-                        int yMin = (int)(0.5 + cd.getY2(qMin, rect2, range, isLog));
-                        path.moveTo(xPrev, yMin);
-                        path.lineTo(xPrev, yMax);
-                    }
-                    
+            // visit the visible candles aggregated to at most one bucket per pixel column
+            int length = dataset.getLength();
+            int base = pyramid.length() - dataset.getOffset() - length;
+            int barsPerPixel = Math.max(1, length / Math.max(1, rect.width));
+            SubpixelTicks ticks = new SubpixelTicks(cd, rect, range, cp.getAxisLogarithmicFlag(), base);
+            pyramid.forEach(base, base + length, barsPerPixel, ticks);
+            g.draw(ticks.finish());
+        }
+    }
+    
+    /**
+     * Merges the aggregated candles falling into the same pixel column into vertical ticks.
+     */
+    private static final class SubpixelTicks implements DecimationPyramid.Visitor {
+        private final ChartData cd;
+        private final Rectangle rect;
+        private final Rectangle2D.Double rect2;
+        private final Range range;
+        private final boolean isLog;
+        private final int base;
+        private final GeneralPath path;
+        private int xPrev = -1;
+        private double qMax = Double.NEGATIVE_INFINITY, qMin = Double.MAX_VALUE;
+        
+        SubpixelTicks(ChartData cd, Rectangle rect, Range range, boolean isLog, int base) {
+            this.cd = cd;
+            this.rect = rect;
+            this.rect2 = new Rectangle2D.Double(rect.x, rect.y, rect.width, rect.height);
+            this.range = range;
+            this.isLog = isLog;
+            this.base = base;
+            this.path = new GeneralPath(GeneralPath.WIND_NON_ZERO, rect.width);
+        }
+        
+        @Override
+        public void visit(int from, int count, double first, double qHigh, double qLow, double last) {
+            int x = (int)(0.5 + cd.getX(from - base, rect));
+            if (x != xPrev || qHigh < qMin || qLow > qMax) {
+                // project y-coordinates and draw a vertical tick
+                drawTick();
+                qMax = qHigh;
+                qMin = qLow;
+                xPrev = x;
+            } else {
+                // coerce current bar data with the previous data
+                if (qHigh > qMax)
                     qMax = qHigh;
+                if (qLow < qMin)
                     qMin = qLow;
-                    xPrev = x;
-                } else {
-                    // coerce current bar data with the previous data
-                    if (qHigh > qMax)
-                        qMax = qHigh;
-                    if (qLow < qMin)
-                        qMin = qLow;
-                }
             }
-            
-            // draw the remaining aggregated bar
+        }
+        
+        private void drawTick() {
             if (xPrev >= 0) {
-                int yMax = (int)(0.5 + cd.getY(qMax, rect, range, isLog));
-                int yMin = (int)(0.5 + cd.getY(qMin, rect, range, isLog));
+                int yMax = (int)(0.5 + cd.getY2(qMax, rect2, range, isLog));
+                int yMin = (int)(0.5 + cd.getY2(qMin, rect2, range, isLog));
                 path.moveTo(xPrev, yMin);
                 path.lineTo(xPrev, yMax);
             }
-            g.draw(path);
+        }
+        
+        GeneralPath finish() {
+            // draw the remaining aggregated bar
+            drawTick();
+            xPrev = -1;
+            return path;
         }
     }
     
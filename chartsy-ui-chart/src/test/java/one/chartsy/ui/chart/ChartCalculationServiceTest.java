@@ -0,0 +1,83 @@
+/* Copyright 2022 Mariusz Bernacki <info@softignition.com>
+ * SPDX-License-Identifier: Apache-2.0 */
+package one.chartsy.ui.chart;
+
+import one.chartsy.Candle;
+import one.chartsy.SymbolResource;
+import one.chartsy.TimeFrame;
+import one.chartsy.data.CandleSeries;
+import one.chartsy.time.Chronological;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChartCalculationServiceTest {
+    static final AtomicInteger calculations = new AtomicInteger();
+
+    /** The overlay counting its calculations. */
+    static class CountingOverlay extends AbstractOverlay {
+        CountingOverlay() {
+            super("Counting");
+        }
+
+        @Override
+        public String getLabel() {
+            return "Counting";
+        }
+
+        @Override
+        public void calculate() {
+            calculations.incrementAndGet();
+        }
+    }
+
+    static CandleSeries dataset(String symbol, double lastClose) {
+        List<Candle> candles = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2022, 1, 3, 0, 0);
+        for (int i = 0; i < 10; i++)
+            candles.add(Candle.of(Chronological.toEpochMicros(start.plusDays(i)), 100.0 + i, 101.0 + i, 99.0 + i, 100.5 + i));
+        Candle last = candles.get(candles.size() - 1);
+        candles.set(candles.size() - 1, Candle.of(last.getTime(), last.open(), last.high(), last.low(), lastClose));
+        return CandleSeries.of(SymbolResource.of(symbol, TimeFrame.Period.DAILY), candles);
+    }
+
+    /** Calculates the plugin on the event dispatch thread and waits until the result lands. */
+    static void calculate(ChartCalculationService service, ChartPlugin<?> plugin, CandleSeries dataset) throws Exception {
+        SwingUtilities.invokeAndWait(() -> service.calculate(plugin, dataset));
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        boolean[] calculating = { true };
+        while (calculating[0]) {
+            if (System.nanoTime() > deadline)
+                throw new TimeoutException("Calculation of " + plugin.getName() + " still pending");
+            SwingUtilities.invokeAndWait(() -> calculating[0] = service.isCalculating());
+        }
+    }
+
+    @Test
+    void calculate_reuses_cached_plots_of_same_dataset_version() throws Exception {
+        var service = new ChartCalculationService(new JPanel());
+        calculate(service, new CountingOverlay(), dataset("CACHE_HIT", 109.5));
+        int count = calculations.get();
+
+        calculate(service, new CountingOverlay(), dataset("CACHE_HIT", 109.5));
+        assertEquals(count, calculations.get());
+    }
+
+    @Test
+    void calculate_recomputes_when_last_bar_updated_in_place() throws Exception {
+        var service = new ChartCalculationService(new JPanel());
+        var overlay = new CountingOverlay();
+        calculate(service, overlay, dataset("LAST_BAR_UPDATE", 109.5));
+        int count = calculations.get();
+
+        calculate(service, overlay, dataset("LAST_BAR_UPDATE", 110.25));
+        assertEquals(count + 1, calculations.get());
+    }
+}
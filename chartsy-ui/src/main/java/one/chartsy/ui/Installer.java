@@ -4,6 +4,7 @@ package one.chartsy.ui;
 
 import one.chartsy.kernel.boot.FrontEnd;
 import one.chartsy.kernel.Kernel;
+import one.chartsy.kernel.starter.StartupTimeline;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openide.modules.OnStart;
@@ -12,6 +13,7 @@ import org.openide.util.lookup.ServiceProvider;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 @OnStart
 public class Installer implements Runnable {
@@ -22,20 +24,29 @@ public class Installer implements Runnable {
 
     @Override
     public void run() {
-        if (kernel == null) {
-            synchronized (Installer.class) {
-                if (kernel == null)
-                    kernel = Kernel.getDefault();
+        var timeline = StartupTimeline.getDefault();
+
+        // the Kernel and the FrontEnd contexts are independent of each other, boot them concurrently
+        var kernelBoot = CompletableFuture.runAsync(() -> {
+            if (kernel == null) {
+                synchronized (Installer.class) {
+                    if (kernel == null)
+                        kernel = timeline.time("Kernel lookup", Kernel::getDefault);
+                }
             }
+        }, Installer::startKernelBootThread);
+        try {
+            log.info("Installing FrontEnd");
+            frontEnd = timeline.time("FrontEnd lookup", () -> Lookup.getDefault().lookup(FrontEnd.class));
+        } catch (Exception e) {
+            log.fatal("FrontEnd installation error", e);
         }
-        //ForkJoinPool.commonPool().execute(() -> {
-            try {
-                log.info("Installing FrontEnd");
-                frontEnd = Lookup.getDefault().lookup(FrontEnd.class);
-            } catch (Exception e) {
-                log.fatal("FrontEnd installation error", e);
-            }
-        //});
+        try {
+            kernelBoot.join();
+        } catch (Exception e) {
+            log.fatal("Kernel installation error", e);
+        }
+        log.info("{}", timeline);
 
         // change NetBeans default project directory to the Chartsy Codebase
         Path projectsDir;
@@ -46,6 +57,17 @@ public class Installer implements Runnable {
 
     }
 
+    /**
+     * Starts the Kernel boot on a dedicated thread with the module system class loader as its context
+     * class loader, so that Spring Boot finds the {@code spring.factories} of all modules. The common
+     * pool threads have the system class loader, which does not see the module jars.
+     */
+    private static void startKernelBootThread(Runnable task) {
+        Thread thread = new Thread(task, "Kernel-boot");
+        thread.setContextClassLoader(Lookup.getDefault().lookup(ClassLoader.class));
+        thread.start();
+    }
+
     @ServiceProvider(service = Kernel.class)
     public static class DefaultKernel extends Kernel {
 